@@ -0,0 +1,54 @@
+package AIGeneratedCode;
+
+/**
+ * Int encoding of the actions a player can take, used by BusinessLogic.generateLegalActions and
+ * BusinessLogic.apply. The kind sits above the low byte; for discards the low byte is the
+ * piece code (see ChessPiece.getCode()), so a discard action is just the piece code.
+ */
+public final class Action {
+    public static final int KIND_DISCARD = 0;
+    public static final int KIND_DRAW = 1;
+    public static final int KIND_MONOPOLY_DRAW = 2;
+    public static final int KIND_FORFEIT = 3;
+
+    public static final int DRAW = KIND_DRAW << 8;
+    public static final int MONOPOLY_DRAW = KIND_MONOPOLY_DRAW << 8;
+    public static final int FORFEIT = KIND_FORFEIT << 8;
+
+    private Action() {
+    }
+
+    public static int discard(int code) {
+        return (KIND_DISCARD << 8) | code;
+    }
+
+    public static int discard(ChessPiece piece) {
+        return discard(piece.getCode());
+    }
+
+    public static int kind(int action) {
+        return action >>> 8;
+    }
+
+    /**
+     * The piece code of a discard action.
+     */
+    public static int code(int action) {
+        return action & 0xFF;
+    }
+
+    public static String toString(int action) {
+        switch (kind(action)) {
+            case KIND_DISCARD:
+                return code(action) < ChessPiece.CODES ? "DISCARD " + ChessPiece.of(code(action)) : "UNKNOWN " + action;
+            case KIND_DRAW:
+                return "DRAW";
+            case KIND_MONOPOLY_DRAW:
+                return "MONOPOLY_DRAW";
+            case KIND_FORFEIT:
+                return "FORFEIT";
+            default:
+                return "UNKNOWN " + action;
+        }
+    }
+}
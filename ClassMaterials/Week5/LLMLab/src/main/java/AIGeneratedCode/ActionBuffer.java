@@ -0,0 +1,70 @@
+package AIGeneratedCode;
+
+import java.util.Arrays;
+
+/**
+ * A reusable, caller-owned list of int-encoded actions (see Action). Filling it does not
+ * allocate once it has grown to fit a turn, so one buffer can be reused for every decision.
+ */
+public class ActionBuffer {
+    /** Enough for one discard per piece code plus draw, monopoly draw and forfeit. */
+    public static final int DEFAULT_CAPACITY = ChessPiece.CODES + 3;
+
+    private int[] actions;
+    private int size;
+
+    public ActionBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ActionBuffer(int capacity) {
+        this.actions = new int[capacity];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int action) {
+        if (size == actions.length) {
+            actions = Arrays.copyOf(actions, size * 2 + 1);
+        }
+        actions[size++] = action;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return actions[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int action) {
+        for (int i = 0; i < size; i++) {
+            if (actions[i] == action) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            out.append(Action.toString(actions[i]));
+        }
+        return out.append(']').toString();
+    }
+}
@@ -0,0 +1,15 @@
+package AIGeneratedCode;
+
+/**
+ * Notified by BusinessLogic after every successful discard, draw, drawMonopolyPawn and forfeit,
+ * for journaling, metrics and other observers that must see each move exactly once.
+ */
+public interface ActionListener {
+    /**
+     * @param player the player who acted (already removed from the game for a forfeit)
+     * @param seat the player's seat (see BusinessLogic.getSeat())
+     * @param action the int-encoded action (see Action)
+     * @param pieceCode the code of the piece discarded or drawn, or -1 for a forfeit
+     */
+    void onAction(Player player, int seat, int action, int pieceCode);
+}
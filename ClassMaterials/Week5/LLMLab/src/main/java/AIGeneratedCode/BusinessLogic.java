@@ -2,6 +2,19 @@ package AIGeneratedCode;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jdk.jfr.EventType;
+import jfr.DiscardEvent;
+import jfr.DrawEvent;
+import jfr.ForfeitEvent;
+import jfr.GameEvent;
+import jfr.MonopolyChangeEvent;
+import jfr.ReversalEvent;
+import jfr.TurnEvent;
+import metrics.GameMetrics;
 
 /*
 Stage 1 rules:
@@ -39,12 +52,27 @@ Stage 4 rules:
 
 public class BusinessLogic implements api.BusinessLogic {
 
-    private final State state = new State();
-    private int currentPlayerIndex = 0;
+    private static final ActionListener[] NO_LISTENERS = new ActionListener[0];
+    private static final AtomicLong NEXT_GAME_ID = new AtomicLong();
+    private static final Color[] COLORS = Color.values();
+    private static final EventType MONOPOLY_CHANGE = EventType.getEventType(MonopolyChangeEvent.class);
+
+    private final State state;
     private Player winner = null;
-    private boolean turnOrderReversed = false; // Stage 3: track turn direction
+    private ActionListener[] actionListeners = NO_LISTENERS;
+    private GameMetrics metrics = null;
+    private int metricsTick = 0;
+    private boolean sampling = false;
+    private long gameId;
+    private long version = 0;
+    private long monopolyChangesBefore;
+    private int[] monopolyHoldersBefore; // seats, while a MonopolyChangeEvent is being tracked
+    private DiscardRules discardRules = DiscardRules.STANDARD;
 
     public BusinessLogic() {
+        this.state = new State();
+        this.gameId = NEXT_GAME_ID.getAndIncrement();
+
         // Implement Stage 1 initial setup so our test can pass
     // 1) Build the full set of 64 chess pieces using a single color (WHITE) replicated
     //    four times (4 x 16 = 64). The test only asserts counts per Color value.
@@ -108,6 +136,210 @@ public class BusinessLogic implements api.BusinessLogic {
         state.getUnowned().addAll(fullSet);
     }
 
+    /**
+     * Deals a new game from a config: the config's pieces are shuffled with a SplittableRandom
+     * seeded from it, the first becomes the discard, each player then takes pileSize pieces in
+     * turn order, and the rest form the Unowned pile. O(total pieces).
+     */
+    public BusinessLogic(GameConfig config) {
+        this.state = new State(config.getDiscardMode(), config.getDiscardCapacity());
+        this.gameId = NEXT_GAME_ID.getAndIncrement();
+        state.setReshuffleDiscards(config.isReshuffleDiscards());
+        this.discardRules = config.getDiscardRules();
+        int[] codes = config.dealOrder();
+        state.getDiscard().add(ChessPiece.of(codes[0]));
+        int next = 1;
+        for (int p = 0; p < config.getPlayers(); p++) {
+            // Fill the pile before seating it, so the state indexes it once
+            Player player = new Player(new ArrayList<>());
+            for (int i = 0; i < config.getPileSize(); i++) {
+                player.getPile().addCode(codes[next++]);
+            }
+            state.getPlayers().add(player);
+        }
+        Deck unowned = state.getUnowned();
+        while (next < codes.length) {
+            unowned.add(ChessPiece.of(codes[next++]));
+        }
+    }
+
+    /**
+     * Wraps an existing state, e.g. one rebuilt from a journal or a saved snapshot. A player with
+     * an empty pile, or the last player left, is taken as the winner.
+     */
+    public BusinessLogic(State state) {
+        this.state = state;
+        this.gameId = NEXT_GAME_ID.getAndIncrement();
+        for (Player player : state.getPlayers()) {
+            if (player.getPile().isEmpty()) {
+                winner = player;
+            }
+        }
+        if (winner == null && state.getPlayers().size() == 1) {
+            winner = state.getPlayers().get(0);
+        }
+    }
+
+    /**
+     * Copy constructor used by copy(). The copy keeps the game id and version; action listeners
+     * and metrics are not copied.
+     */
+    private BusinessLogic(BusinessLogic source) {
+        this.state = source.state.copy();
+        this.gameId = source.gameId;
+        this.version = source.version;
+        this.discardRules = source.discardRules;
+        if (source.winner != null) {
+            List<Player> sourcePlayers = source.state.getPlayers();
+            for (int i = 0; i < sourcePlayers.size(); i++) {
+                if (sourcePlayers.get(i) == source.winner) {
+                    this.winner = state.getPlayers().get(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns an independent copy of the game (state, turn and direction), for search and
+     * simulation code that needs to try moves without touching the real game.
+     */
+    public BusinessLogic copy() {
+        return new BusinessLogic(this);
+    }
+
+    /**
+     * Registers a listener for every move made through this object (see ActionListener).
+     */
+    public void addActionListener(ActionListener listener) {
+        ActionListener[] grown = Arrays.copyOf(actionListeners, actionListeners.length + 1);
+        grown[actionListeners.length] = listener;
+        actionListeners = grown;
+    }
+
+    public void removeActionListener(ActionListener listener) {
+        for (int i = 0; i < actionListeners.length; i++) {
+            if (actionListeners[i] == listener) {
+                ActionListener[] shrunk = new ActionListener[actionListeners.length - 1];
+                System.arraycopy(actionListeners, 0, shrunk, 0, i);
+                System.arraycopy(actionListeners, i + 1, shrunk, i, shrunk.length - i);
+                actionListeners = shrunk.length == 0 ? NO_LISTENERS : shrunk;
+                return;
+            }
+        }
+    }
+
+    private void fireAction(Player player, int seat, int action, int pieceCode) {
+        version++;
+        for (ActionListener listener : actionListeners) {
+            listener.onAction(player, seat, action, pieceCode);
+        }
+    }
+
+    /**
+     * Reports every discard, draw, drawMonopolyPawn and forfeit call to metrics, or stops
+     * reporting if it is null. Several games may share one GameMetrics.
+     */
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Identifies this game in JFR events (see the jfr package). Unique per JVM unless set.
+     */
+    public long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(long gameId) {
+        this.gameId = gameId;
+    }
+
+    /**
+     * Number of moves made through this object: every successful discard, draw, drawMonopolyPawn
+     * and forfeit adds one, before the action listeners hear about it. Versions the state for
+     * sync.ChangeLog; direct edits to the State do not count.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    private int currentSeat() {
+        Player current = getCurrentPlayer();
+        return current == null ? -1 : state.getSeat(current);
+    }
+
+    /**
+     * Whether discard, draw, drawMonopolyPawn and forfeit need more than the bare action: metrics
+     * are attached, or a recording wants the action's event or monopoly changes.
+     */
+    private boolean isObserved(GameEvent event) {
+        return metrics != null || event.isEnabled() || MONOPOLY_CHANGE.isEnabled();
+    }
+
+    /**
+     * Starts observing one action; returns the metrics start time if this call is sampled.
+     */
+    private long beginAction() {
+        monopolyChangesBefore = state.getMonopolies().getChanges();
+        monopolyHoldersBefore = null;
+        if (MONOPOLY_CHANGE.isEnabled()) {
+            monopolyHoldersBefore = new int[COLORS.length];
+            for (int c = 0; c < COLORS.length; c++) {
+                Player holder = state.getMonopolies().getHolder(COLORS[c]);
+                monopolyHoldersBefore[c] = holder == null ? -1 : state.getSeat(holder);
+            }
+        }
+        if (metrics == null) {
+            return 0;
+        }
+        sampling = metrics.isSampled(metricsTick++);
+        return sampling ? System.nanoTime() : 0;
+    }
+
+    private boolean endAction(int kind, boolean succeeded, long start, int seat) {
+        long monopolyChanges = state.getMonopolies().getChanges() - monopolyChangesBefore;
+        if (monopolyChanges != 0 && monopolyHoldersBefore != null) {
+            commitMonopolyChanges(seat);
+        }
+        if (metrics == null) {
+            return succeeded;
+        }
+        if (sampling) {
+            long nanos = System.nanoTime() - start;
+            Player current = getCurrentPlayer();
+            metrics.recordSampled(kind, succeeded, nanos, state.getUnowned().size(), state.getDiscard().getTotal(),
+                current == null ? 0 : current.getPile().size(), state.getPlayers().size());
+        } else {
+            metrics.record(kind, succeeded);
+        }
+        if (monopolyChanges != 0) {
+            metrics.monopolyChanged((int) monopolyChanges);
+        }
+        return succeeded;
+    }
+
+    private void commitMonopolyChanges(int seat) {
+        for (int c = 0; c < COLORS.length; c++) {
+            Player holder = state.getMonopolies().getHolder(COLORS[c]);
+            int holderSeat = holder == null ? -1 : state.getSeat(holder);
+            if (holderSeat != monopolyHoldersBefore[c]) {
+                MonopolyChangeEvent event = new MonopolyChangeEvent();
+                if (event.shouldCommit()) {
+                    event.gameId = gameId;
+                    event.player = seat;
+                    event.color = COLORS[c].name();
+                    event.previousHolder = monopolyHoldersBefore[c];
+                    event.newHolder = holderSeat;
+                    event.commit();
+                }
+            }
+        }
+    }
+
     private static void addColorSet(List<ChessPiece> list, Color color) {
         // 8 pawns
         for (int i = 0; i < 8; i++) {
@@ -134,49 +366,94 @@ public class BusinessLogic implements api.BusinessLogic {
     }
 
     @Override
-    public List<ChessPiece> getDiscard() {
+    public DiscardPile getDiscard() {
         return state.getDiscard();
     }
 
     @Override
-    public List<ChessPiece> getUnowned() {
+    public Deck getUnowned() {
         return state.getUnowned();
     }
 
+    /**
+     * Returns a player's seat: their position in the original deal, which does not change when
+     * other players forfeit. Returns -1 for players who are no longer in the game.
+     */
+    public int getSeat(Player player) {
+        return state.getSeat(player);
+    }
+
     // Stage 2 methods
 
     /**
      * Returns the current player whose turn it is.
      */
     public Player getCurrentPlayer() {
-        if (state.getPlayers().isEmpty()) {
-            return null;
-        }
-        return state.getPlayers().get(currentPlayerIndex % state.getPlayers().size());
+        return state.getCurrentPlayer();
+    }
+
+    /**
+     * The compiled discard rules this game plays by (DiscardRules.STANDARD unless the config
+     * chose others).
+     */
+    public DiscardRules getDiscardRules() {
+        return discardRules;
     }
 
     /**
-     * Checks if a piece can be discarded according to Stage 2 & 3 rules:
-     * must match either the color or type of the top discard piece.
-     * Stage 3: Rainbow pieces can always be discarded.
+     * Checks if a piece can be discarded onto the top of the discard pile: with the standard
+     * rules it must match the top's color or type (Stage 2), or be rainbow (Stage 3).
+     * One lookup in the compiled rule table.
      */
     public boolean canDiscard(ChessPiece piece) {
-        if (piece == null || state.getDiscard().isEmpty()) {
-            return false;
-        }
-        
-        // Stage 3: Rainbow pieces can always be discarded
-        if (piece.getColor() == Color.RAINBOW) {
-            return true;
+        ChessPiece topDiscard = state.getDiscard().top();
+        return piece != null && topDiscard != null && discardRules.allows(topDiscard.getCode(), piece.getCode());
+    }
+
+    /**
+     * Bitmask of the piece codes the current player holds and may discard (bit c for code c):
+     * the pile's present mask ANDed with the rule table's row for the top discard.
+     */
+    public long getPlayableMask() {
+        Player currentPlayer = getCurrentPlayer();
+        ChessPiece topDiscard = state.getDiscard().top();
+        if (currentPlayer == null || topDiscard == null) {
+            return 0;
         }
-        
-        ChessPiece topDiscard = state.getDiscard().get(state.getDiscard().size() - 1);
-        
-        // Can discard if color matches OR type matches
-        boolean colorMatches = (piece.getColor() != null && piece.getColor() == topDiscard.getColor());
-        boolean typeMatches = (piece.getType() == topDiscard.getType());
-        
-        return colorMatches || typeMatches;
+        return currentPlayer.getPile().getPresentMask() & discardRules.playableMask(topDiscard.getCode());
+    }
+
+    /**
+     * Chance that a draw now would give a piece playable on the top discard: as player would
+     * estimate it from what they can see, or from the actual Unowned pile if player is null.
+     * O(piece codes), see UnseenPieces.
+     */
+    public double getPlayableDrawChance(Player player) {
+        long mask = drawMask();
+        UnseenPieces unseen = state.getUnseenPieces();
+        return player == null ? unseen.getChance(mask) : unseen.getChance(player, mask);
+    }
+
+    /**
+     * Expected number of draws until one is playable on the top discard, the same two ways as
+     * getPlayableDrawChance(). Infinite when no piece left would be.
+     */
+    public double getExpectedDrawsUntilPlayable(Player player) {
+        long mask = drawMask();
+        UnseenPieces unseen = state.getUnseenPieces();
+        return player == null ? unseen.getExpectedDraws(mask) : unseen.getExpectedDraws(player, mask);
+    }
+
+    private long drawMask() {
+        ChessPiece topDiscard = state.getDiscard().top();
+        return topDiscard == null ? 0 : discardRules.playableMask(topDiscard.getCode());
+    }
+
+    /**
+     * Checks whether the current player holds any piece that canDiscard would accept. O(1).
+     */
+    public boolean hasLegalDiscard() {
+        return getPlayableMask() != 0;
     }
 
     /**
@@ -185,12 +462,32 @@ public class BusinessLogic implements api.BusinessLogic {
      * Stage 3: Discarding a rainbow piece reverses the turn order.
      */
     public boolean discard(ChessPiece piece) {
+        DiscardEvent event = new DiscardEvent();
+        if (!isObserved(event)) {
+            return discardPiece(piece);
+        }
+        int seat = currentSeat();
+        long start = beginAction();
+        event.begin();
+        boolean discarded = discardPiece(piece);
+        event.end();
+        if (event.shouldCommit()) {
+            event.gameId = gameId;
+            event.player = seat;
+            event.piece = String.valueOf(piece);
+            event.accepted = discarded;
+            event.commit();
+        }
+        return endAction(Action.KIND_DISCARD, discarded, start, seat);
+    }
+
+    private boolean discardPiece(ChessPiece piece) {
         Player currentPlayer = getCurrentPlayer();
         if (currentPlayer == null || !canDiscard(piece)) {
             return false;
         }
         
-        // Remove from player's pile
+        // Remove from player's pile (O(1) on the count matrix)
         if (!currentPlayer.getPile().remove(piece)) {
             return false;
         }
@@ -200,7 +497,14 @@ public class BusinessLogic implements api.BusinessLogic {
         
         // Stage 3: Reverse turn order if rainbow piece is discarded
         if (piece.getColor() == Color.RAINBOW) {
-            turnOrderReversed = !turnOrderReversed;
+            state.setTurnOrderReversed(!state.isTurnOrderReversed());
+            ReversalEvent reversal = new ReversalEvent();
+            if (reversal.shouldCommit()) {
+                reversal.gameId = gameId;
+                reversal.player = state.getSeat(currentPlayer);
+                reversal.reversed = state.isTurnOrderReversed();
+                reversal.commit();
+            }
         }
         
         // Check if player won by emptying their pile
@@ -211,27 +515,100 @@ public class BusinessLogic implements api.BusinessLogic {
         // Advance to next player
         advanceTurn();
         
+        fireAction(currentPlayer, state.getSeat(currentPlayer), Action.discard(piece), piece.getCode());
         return true;
     }
 
     /**
-     * Draws a piece from the unowned pile to the current player's pile.
-     * Returns true if successful, false if unowned pile is empty.
+     * Draws a piece from the unowned pile to the current player's pile, reshuffling the discards
+     * back into it first if it is empty and the state allows that.
+     * Returns true if successful, false if there was nothing to draw.
      */
     public boolean draw() {
+        DrawEvent event = new DrawEvent();
+        if (!isObserved(event)) {
+            return drawPiece() != null;
+        }
+        int seat = currentSeat();
+        boolean reshuffle = state.getUnowned().isEmpty();
+        long start = beginAction();
+        event.begin();
+        ChessPiece drawn = drawPiece();
+        event.end();
+        if (event.shouldCommit()) {
+            commitDraw(event, seat, drawn, false, reshuffle && drawn != null);
+        }
+        return endAction(Action.KIND_DRAW, drawn != null, start, seat);
+    }
+
+    private void commitDraw(DrawEvent event, int seat, ChessPiece drawn, boolean monopoly, boolean reshuffled) {
+        event.gameId = gameId;
+        event.player = seat;
+        event.piece = drawn == null ? null : drawn.toString();
+        event.monopoly = monopoly;
+        event.reshuffled = reshuffled;
+        event.unownedLeft = state.getUnowned().size();
+        event.commit();
+    }
+
+    /**
+     * Returns the piece drawn, or null.
+     */
+    private ChessPiece drawPiece() {
         Player currentPlayer = getCurrentPlayer();
-        if (currentPlayer == null || state.getUnowned().isEmpty()) {
-            return false;
+        if (currentPlayer == null || !canDraw()) {
+            return null;
+        }
+        if (state.getUnowned().isEmpty()) {
+            reshuffleDiscards();
         }
         
-        // Remove from unowned pile and add to player's pile
-        ChessPiece drawnPiece = state.getUnowned().remove(0);
+        // Remove from unowned pile (O(1) from the front of the deck) and add to player's pile
+        ChessPiece drawnPiece = state.getUnowned().drawFirst();
         currentPlayer.getPile().add(drawnPiece);
         
         // Advance to next player
         advanceTurn();
         
-        return true;
+        fireAction(currentPlayer, state.getSeat(currentPlayer), Action.DRAW, drawnPiece.getCode());
+        return drawnPiece;
+    }
+
+    /**
+     * Whether a draw is possible: the Unowned pile has pieces, or it can be refilled from the
+     * discard pile (see State.isReshuffleDiscards()).
+     */
+    public boolean canDraw() {
+        return !state.getUnowned().isEmpty() || (state.isReshuffleDiscards() && state.getDiscard().getTotal() > 1);
+    }
+
+    /**
+     * Moves every discard except the top into the empty Unowned pile, shuffled. The shuffle is
+     * seeded from the position's hash, so copies and journal replays reshuffle identically.
+     */
+    private void reshuffleDiscards() {
+        SplittableRandom random = new SplittableRandom(state.hash());
+        int[] counts = state.getDiscard().takeAllButTop();
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        int[] codes = new int[total];
+        int n = 0;
+        for (int code = 0; code < counts.length; code++) {
+            for (int i = 0; i < counts[code]; i++) {
+                codes[n++] = code;
+            }
+        }
+        for (int i = codes.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = codes[i];
+            codes[i] = codes[j];
+            codes[j] = swap;
+        }
+        for (int code : codes) {
+            state.getUnowned().add(ChessPiece.of(code));
+        }
     }
 
     /**
@@ -239,23 +616,120 @@ public class BusinessLogic implements api.BusinessLogic {
      * If only one player remains, they automatically win.
      */
     public void forfeit() {
+        ForfeitEvent event = new ForfeitEvent();
+        if (!isObserved(event)) {
+            forfeitCurrent();
+            return;
+        }
+        int seat = currentSeat();
+        long start = beginAction();
+        event.begin();
+        boolean forfeited = forfeitCurrent();
+        event.end();
+        if (forfeited && event.shouldCommit()) {
+            event.gameId = gameId;
+            event.player = seat;
+            event.playersLeft = state.getPlayers().size();
+            event.commit();
+        }
+        endAction(Action.KIND_FORFEIT, forfeited, start, seat);
+    }
+
+    private boolean forfeitCurrent() {
         Player currentPlayer = getCurrentPlayer();
         if (currentPlayer == null) {
-            return;
+            return false;
         }
         
-        // Remove the current player from the game
+        // Remove the current player from the game; O(1) on the turn ring, and the turn passes
+        // to the next player in list order
+        int seat = state.getSeat(currentPlayer);
         state.getPlayers().remove(currentPlayer);
         
-        // Adjust index if needed (don't advance since we removed a player)
-        if (currentPlayerIndex >= state.getPlayers().size() && !state.getPlayers().isEmpty()) {
-            currentPlayerIndex = 0;
-        }
-        
         // If only one player remains, they win
         if (state.getPlayers().size() == 1) {
             winner = state.getPlayers().get(0);
         }
+
+        fireAction(currentPlayer, seat, Action.FORFEIT, -1);
+        return true;
+    }
+
+    /**
+     * Fills buffer with every legal action for the current player and returns how many there are.
+     * Actions are int-encoded (see Action), in this order:
+     * - one discard per piece code the player holds that canDiscard accepts,
+     * - the monopoly pawn draw, while the player holds a monopoly and a pawn is available,
+     * - the forced draw, only when no discard is possible and canDraw() allows it,
+     * - forfeit, which is always allowed.
+     * Nothing is allocated, so the same buffer can be reused for every decision.
+     */
+    public int generateLegalActions(ActionBuffer buffer) {
+        buffer.clear();
+        Player currentPlayer = getCurrentPlayer();
+        if (currentPlayer == null || isGameOver()) {
+            return 0;
+        }
+
+        long playable = getPlayableMask();
+        for (long rest = playable; rest != 0; rest &= rest - 1) {
+            buffer.add(Action.discard(Long.numberOfTrailingZeros(rest)));
+        }
+        if (canDrawMonopolyPawn()) {
+            buffer.add(Action.MONOPOLY_DRAW);
+        }
+        if (playable == 0 && canDraw()) {
+            buffer.add(Action.DRAW);
+        }
+        buffer.add(Action.FORFEIT);
+        return buffer.size();
+    }
+
+    /**
+     * Executes one int-encoded action for the current player and returns whether it succeeded.
+     * This runs the matching discard/draw/drawMonopolyPawn/forfeit method, so it applies the
+     * same checks those do; take actions from generateLegalActions to also respect the
+     * must-discard rule. Throws IllegalArgumentException for an unknown kind or piece code.
+     */
+    public boolean apply(int action) {
+        TurnEvent event = new TurnEvent();
+        if (!event.isEnabled()) {
+            return applyAction(action);
+        }
+        int seat = currentSeat();
+        event.begin();
+        boolean accepted = applyAction(action);
+        event.end();
+        if (event.shouldCommit()) {
+            event.gameId = gameId;
+            event.player = seat;
+            event.action = Action.toString(action);
+            event.accepted = accepted;
+            event.commit();
+        }
+        return accepted;
+    }
+
+    private boolean applyAction(int action) {
+        switch (Action.kind(action)) {
+            case Action.KIND_DISCARD:
+                if (Action.code(action) >= ChessPiece.CODES) {
+                    throw new IllegalArgumentException("Unknown piece code in action: " + action);
+                }
+                return discard(ChessPiece.of(Action.code(action)));
+            case Action.KIND_DRAW:
+                return draw();
+            case Action.KIND_MONOPOLY_DRAW:
+                return drawMonopolyPawn();
+            case Action.KIND_FORFEIT:
+                if (getCurrentPlayer() == null) {
+                    return false;
+                }
+                forfeit();
+                return true;
+            default:
+                throw new IllegalArgumentException("Unknown action: " + action);
+        }
     }
 
     /**
@@ -278,15 +752,7 @@ public class BusinessLogic implements api.BusinessLogic {
      * Stage 3: Respects turn order reversal.
      */
     private void advanceTurn() {
-        if (!state.getPlayers().isEmpty()) {
-            if (turnOrderReversed) {
-                // Go backwards
-                currentPlayerIndex = (currentPlayerIndex - 1 + state.getPlayers().size()) % state.getPlayers().size();
-            } else {
-                // Go forwards (normal)
-                currentPlayerIndex = (currentPlayerIndex + 1) % state.getPlayers().size();
-            }
-        }
+        state.advanceTurn();
     }
 
     // Stage 4 methods - Monopoly mechanics
@@ -305,56 +771,20 @@ public class BusinessLogic implements api.BusinessLogic {
      * Gets the color of the monopoly that a player holds.
      * Stage 4: Returns the color the player has the most pieces of, if they have at least 5
      * and more than any other player. Returns null if no monopoly.
+     * Answered from the state's MonopolyTable in O(colors) without allocating.
      */
     public Color getMonopolyColor(Player player) {
         if (player == null || player.getPile().isEmpty()) {
             return null;
         }
+        return state.getMonopolies().getMonopolyColor(player);
+    }
 
-        // Count pieces of each color for this player
-        java.util.Map<Color, Integer> colorCounts = new java.util.HashMap<>();
-        for (ChessPiece piece : player.getPile()) {
-            Color color = piece.getColor();
-            if (color != null) {
-                colorCounts.put(color, colorCounts.getOrDefault(color, 0) + 1);
-            }
-        }
-
-        // Find the color with most pieces for this player
-        Color maxColor = null;
-        int maxCount = 0;
-        for (java.util.Map.Entry<Color, Integer> entry : colorCounts.entrySet()) {
-            if (entry.getValue() > maxCount) {
-                maxCount = entry.getValue();
-                maxColor = entry.getKey();
-            }
-        }
-
-        // Must have at least 5 pieces of that color
-        if (maxCount < 5) {
-            return null;
-        }
-
-        // Check if this player has more pieces of this color than any other player
-        for (Player otherPlayer : state.getPlayers()) {
-            if (otherPlayer == player) {
-                continue;
-            }
-            
-            int otherCount = 0;
-            for (ChessPiece piece : otherPlayer.getPile()) {
-                if (piece.getColor() == maxColor) {
-                    otherCount++;
-                }
-            }
-            
-            // If another player has more or equal, no monopoly
-            if (otherCount >= maxCount) {
-                return null;
-            }
-        }
-
-        return maxColor;
+    /**
+     * Returns the player currently holding the monopoly over a color, or null if nobody does.
+     */
+    public Player getMonopolyHolder(Color color) {
+        return state.getMonopolies().getHolder(color);
     }
 
     /**
@@ -374,13 +804,7 @@ public class BusinessLogic implements api.BusinessLogic {
         }
 
         // Check if there's a pawn of the monopoly color in unowned pile
-        for (ChessPiece piece : state.getUnowned()) {
-            if (piece.getColor() == monopolyColor && piece.getType() == PieceType.PAWN) {
-                return true;
-            }
-        }
-
-        return false;
+        return state.getUnowned().count(monopolyColor, PieceType.PAWN) > 0;
     }
 
     /**
@@ -389,36 +813,49 @@ public class BusinessLogic implements api.BusinessLogic {
      * Returns true if successful, false otherwise.
      */
     public boolean drawMonopolyPawn() {
+        DrawEvent event = new DrawEvent();
+        if (!isObserved(event)) {
+            return drawPawn() != null;
+        }
+        int seat = currentSeat();
+        long start = beginAction();
+        event.begin();
+        ChessPiece drawn = drawPawn();
+        event.end();
+        if (event.shouldCommit()) {
+            commitDraw(event, seat, drawn, true, false);
+        }
+        return endAction(Action.KIND_MONOPOLY_DRAW, drawn != null, start, seat);
+    }
+
+    /**
+     * Returns the pawn drawn, or null.
+     */
+    private ChessPiece drawPawn() {
         Player currentPlayer = getCurrentPlayer();
         if (currentPlayer == null) {
-            return false;
+            return null;
         }
 
         Color monopolyColor = getMonopolyColor(currentPlayer);
         if (monopolyColor == null) {
-            return false;
-        }
-
-        // Find and remove a pawn of the monopoly color from unowned pile
-        ChessPiece pawnToRemove = null;
-        for (ChessPiece piece : state.getUnowned()) {
-            if (piece.getColor() == monopolyColor && piece.getType() == PieceType.PAWN) {
-                pawnToRemove = piece;
-                break;
-            }
+            return null;
         }
 
+        // Take the first pawn of the monopoly color from its bucket in the unowned pile
+        ChessPiece pawnToRemove = state.getUnowned().take(monopolyColor, PieceType.PAWN);
         if (pawnToRemove == null) {
-            return false;
+            return null;
         }
 
-        // Remove from unowned and add to player's pile
-        state.getUnowned().remove(pawnToRemove);
+        // Add to player's pile, in view of everyone
         currentPlayer.getPile().add(pawnToRemove);
+        state.getUnseenPieces().reveal(currentPlayer, pawnToRemove.getCode());
 
         // Advance to next player
         advanceTurn();
 
-        return true;
+        fireAction(currentPlayer, state.getSeat(currentPlayer), Action.MONOPOLY_DRAW, pawnToRemove.getCode());
+        return pawnToRemove;
     }
 }
@@ -1,12 +1,35 @@
 package AIGeneratedCode;
 
+/**
+ * A single chess piece. Pieces with the same color and type are interchangeable in the game,
+ * so equality is by value and every piece also has a small integer code (color slot x type)
+ * that the count-based piles use as an index.
+ */
 public class ChessPiece {
+    /** One slot per Color, plus a final slot for neutral (null-colored) pieces. */
+    public static final int COLOR_SLOTS = Color.values().length + 1;
+    public static final int TYPES = PieceType.values().length;
+    /** Number of distinct piece codes; codes run from 0 to CODES - 1. */
+    public static final int CODES = COLOR_SLOTS * TYPES;
+
+    private static final Color[] COLORS = Color.values();
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+    private static final ChessPiece[] CANONICAL = new ChessPiece[CODES];
+
+    static {
+        for (int code = 0; code < CODES; code++) {
+            CANONICAL[code] = new ChessPiece(colorOfSlot(colorSlotOf(code)), PIECE_TYPES[typeOf(code)]);
+        }
+    }
+
     private final Color color;
     private final PieceType type;
+    private final int code;
 
     public ChessPiece(Color color, PieceType type) {
         this.color = color;
         this.type = type;
+        this.code = codeOf(color, type);
     }
 
     public Color getColor() {
@@ -16,4 +39,56 @@ public class ChessPiece {
     public PieceType getType() {
         return type;
     }
+
+    /**
+     * Returns this piece's code: colorSlot(color) * TYPES + type ordinal.
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the shared instance for a piece code.
+     */
+    public static ChessPiece of(int code) {
+        return CANONICAL[code];
+    }
+
+    public static int codeOf(Color color, PieceType type) {
+        return colorSlot(color) * TYPES + type.ordinal();
+    }
+
+    /**
+     * Maps a color to its slot; null (neutral) pieces use the last slot.
+     */
+    public static int colorSlot(Color color) {
+        return color == null ? COLOR_SLOTS - 1 : color.ordinal();
+    }
+
+    public static Color colorOfSlot(int slot) {
+        return slot == COLOR_SLOTS - 1 ? null : COLORS[slot];
+    }
+
+    public static int colorSlotOf(int code) {
+        return code / TYPES;
+    }
+
+    public static int typeOf(int code) {
+        return code % TYPES;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ChessPiece && ((ChessPiece) other).code == code;
+    }
+
+    @Override
+    public int hashCode() {
+        return code;
+    }
+
+    @Override
+    public String toString() {
+        return (color == null ? "NEUTRAL" : color.name()) + " " + type.name();
+    }
 }
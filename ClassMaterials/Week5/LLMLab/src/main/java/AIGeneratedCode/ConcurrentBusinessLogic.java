@@ -0,0 +1,128 @@
+package AIGeneratedCode;
+
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * A thread-safe wrapper around one BusinessLogic, for a game that one or a few threads play
+ * while any number of spectator threads watch.
+ *
+ * Writers (the move methods and write()) are serialized by the write lock of a StampedLock and
+ * each one starts a new epoch. Readers never see the live game: they get an immutable
+ * StateSnapshot of the current epoch, built lazily by the first reader that asks for it (under
+ * the read lock) and shared by every later reader until the next write. So between writes a
+ * read is one volatile load, however many threads poll, and a burst of writes with nobody
+ * watching copies nothing; the writer at most waits for one copy per epoch that someone read.
+ *
+ * The api.BusinessLogic getters each read the latest snapshot; call snapshot() once instead
+ * when several values must come from the same position.
+ */
+public class ConcurrentBusinessLogic implements api.BusinessLogic {
+    private final BusinessLogic game;
+    private final StampedLock lock = new StampedLock();
+    private final Object snapshotBuilder = new Object();
+    private volatile long epoch = 0;
+    private volatile StateSnapshot snapshot;
+
+    /**
+     * Takes ownership of game; nothing else may touch it afterwards.
+     */
+    public ConcurrentBusinessLogic(BusinessLogic game) {
+        this.game = game;
+        this.snapshot = StateSnapshot.of(game, epoch);
+    }
+
+    /**
+     * The immutable state as of the last completed write.
+     */
+    public StateSnapshot snapshot() {
+        StateSnapshot current = snapshot;
+        if (current.getVersion() == epoch) {
+            return current;
+        }
+        synchronized (snapshotBuilder) {
+            // Readers that queued behind the builder reuse its copy
+            current = snapshot;
+            long stamp = lock.readLock();
+            try {
+                if (current.getVersion() != epoch) {
+                    current = StateSnapshot.of(game, epoch);
+                    snapshot = current;
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Number of writes so far; the version of the snapshot that reflects them.
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Runs action on the game with every other writer and snapshot copy locked out, and starts a
+     * new epoch. action must not keep references to the game or its state.
+     */
+    public <T> T write(Function<BusinessLogic, T> action) {
+        long stamp = lock.writeLock();
+        try {
+            return action.apply(game);
+        } finally {
+            epoch++;
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * See BusinessLogic.apply().
+     */
+    public boolean apply(int action) {
+        long stamp = lock.writeLock();
+        try {
+            return game.apply(action);
+        } finally {
+            epoch++;
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean discard(ChessPiece piece) {
+        return piece != null && apply(Action.discard(piece));
+    }
+
+    public boolean draw() {
+        return apply(Action.DRAW);
+    }
+
+    public boolean drawMonopolyPawn() {
+        return apply(Action.MONOPOLY_DRAW);
+    }
+
+    public boolean forfeit() {
+        return apply(Action.FORFEIT);
+    }
+
+    @Override
+    public List<Player> getPlayers() {
+        return snapshot().getPlayers();
+    }
+
+    @Override
+    public List<ChessPiece> getDiscard() {
+        return snapshot().getDiscard();
+    }
+
+    @Override
+    public List<ChessPiece> getUnowned() {
+        return snapshot().getUnowned();
+    }
+
+    public boolean isGameOver() {
+        return snapshot().isGameOver();
+    }
+}
@@ -0,0 +1,363 @@
+package AIGeneratedCode;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * The Unowned pile: an ordered deck that is drawn from the front.
+ *
+ * Pieces live in a power-of-two ring buffer addressed by ever-increasing sequence numbers, so
+ * drawing the first piece is O(1) instead of shifting an ArrayList. Next to the ring, one bucket
+ * per piece code holds the sequence numbers of that code's pieces in deck order, so "take the
+ * first pawn of color X" (Stage 4 monopoly draws) is also O(1): the piece is pulled from its
+ * bucket and its ring slot is left empty, to be skipped when the front of the deck reaches it.
+ *
+ * The deck is still a List<ChessPiece> in draw order, as api.BusinessLogic.getUnowned() promises.
+ * Appending, remove(Object), remove(int) and clear() write through; positional insert and
+ * set are not supported.
+ *
+ * A deck owned by a State reports every per-code count change to a Listener, the same way piles
+ * report to a PileListener.
+ */
+public class Deck extends AbstractList<ChessPiece> {
+    private ChessPiece[] ring = new ChessPiece[64];
+    private int head = 0; // sequence number of the front of the deck
+    private int tail = 0; // sequence number one past the back of the deck
+    private int size = 0;
+    private final IntQueue[] buckets = new IntQueue[ChessPiece.CODES];
+    private final Listener listener;
+
+    /**
+     * Notified after the number of pieces with a code in the deck changes.
+     */
+    public interface Listener {
+        void countChanged(int code, int oldCount, int newCount);
+    }
+
+    public Deck() {
+        this(null);
+    }
+
+    Deck(Listener listener) {
+        this.listener = listener;
+        for (int code = 0; code < buckets.length; code++) {
+            buckets[code] = new IntQueue();
+        }
+    }
+
+    /**
+     * Removes and returns the front piece, or null if the deck is empty.
+     */
+    public ChessPiece drawFirst() {
+        if (size == 0) {
+            return null;
+        }
+        ChessPiece piece = ring[head & mask()];
+        buckets[piece.getCode()].pollFirst();
+        removed(piece.getCode());
+        clearSlot(head);
+        return piece;
+    }
+
+    /**
+     * Removes and returns the first piece with the given code, or null if there is none.
+     */
+    public ChessPiece take(int code) {
+        IntQueue bucket = buckets[code];
+        if (bucket.size() == 0) {
+            return null;
+        }
+        int seq = bucket.pollFirst();
+        ChessPiece piece = ring[seq & mask()];
+        removed(code);
+        clearSlot(seq);
+        return piece;
+    }
+
+    public ChessPiece take(Color color, PieceType type) {
+        return take(ChessPiece.codeOf(color, type));
+    }
+
+    /**
+     * Returns how many pieces with the given code are left in the deck.
+     */
+    public int count(int code) {
+        return buckets[code].size();
+    }
+
+    public int count(Color color, PieceType type) {
+        return count(ChessPiece.codeOf(color, type));
+    }
+
+    /**
+     * Shuffles the deck in place (Fisher-Yates), so a seeded random gives a reproducible order.
+     */
+    public void shuffle(SplittableRandom random) {
+        ChessPiece[] pieces = toArray(new ChessPiece[size]);
+        for (int i = pieces.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            ChessPiece swap = pieces[i];
+            pieces[i] = pieces[j];
+            pieces[j] = swap;
+        }
+        clear();
+        for (ChessPiece piece : pieces) {
+            add(piece);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(ChessPiece piece) {
+        int code = piece.getCode();
+        if (tail - head == ring.length) {
+            grow();
+        }
+        ring[tail & mask()] = piece;
+        buckets[code].addLast(tail);
+        tail++;
+        size++;
+        modCount++;
+        if (listener != null) {
+            listener.countChanged(code, buckets[code].size() - 1, buckets[code].size());
+        }
+        return true;
+    }
+
+    @Override
+    public void add(int index, ChessPiece piece) {
+        if (index != size) {
+            throw new UnsupportedOperationException("Pieces can only be added to the back of the deck");
+        }
+        add(piece);
+    }
+
+    @Override
+    public ChessPiece get(int index) {
+        return ring[seqAt(index) & mask()];
+    }
+
+    @Override
+    public ChessPiece remove(int index) {
+        int seq = seqAt(index);
+        ChessPiece piece = ring[seq & mask()];
+        buckets[piece.getCode()].remove(seq);
+        removed(piece.getCode());
+        clearSlot(seq);
+        return piece;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof ChessPiece && count(((ChessPiece) o).getCode()) > 0;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        // Pieces are equal by code, so the first equal piece is the head of its bucket
+        return o instanceof ChessPiece && take(((ChessPiece) o).getCode()) != null;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(ring, null);
+        for (int code = 0; code < buckets.length; code++) {
+            int count = buckets[code].size();
+            buckets[code].clear();
+            if (listener != null && count > 0) {
+                listener.countChanged(code, count, 0);
+            }
+        }
+        head = 0;
+        tail = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<ChessPiece> iterator() {
+        return new DeckIterator();
+    }
+
+    private void removed(int code) {
+        if (listener != null) {
+            listener.countChanged(code, buckets[code].size() + 1, buckets[code].size());
+        }
+    }
+
+    private int mask() {
+        return ring.length - 1;
+    }
+
+    /**
+     * Empties the ring slot for seq and moves the front past any leading empty slots.
+     */
+    private void clearSlot(int seq) {
+        ring[seq & mask()] = null;
+        size--;
+        modCount++;
+        if (size == 0) {
+            head = tail;
+            return;
+        }
+        while (ring[head & mask()] == null) {
+            head++;
+        }
+    }
+
+    private int seqAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int seq = head;
+        while (true) {
+            if (ring[seq & mask()] != null) {
+                if (index == 0) {
+                    return seq;
+                }
+                index--;
+            }
+            seq++;
+        }
+    }
+
+    /**
+     * Makes room at the back: doubles the ring, or compacts it when it is mostly empty slots.
+     */
+    private void grow() {
+        int span = tail - head;
+        if (size <= span / 2) {
+            ChessPiece[] live = new ChessPiece[size];
+            int n = 0;
+            for (int seq = head; seq != tail; seq++) {
+                ChessPiece piece = ring[seq & mask()];
+                if (piece != null) {
+                    live[n++] = piece;
+                }
+            }
+            clear();
+            for (ChessPiece piece : live) {
+                add(piece);
+            }
+            return;
+        }
+        ChessPiece[] bigger = new ChessPiece[ring.length * 2];
+        int biggerMask = bigger.length - 1;
+        for (int seq = head; seq != tail; seq++) {
+            bigger[seq & biggerMask] = ring[seq & mask()];
+        }
+        ring = bigger;
+    }
+
+    /**
+     * Walks the ring from the front, skipping emptied slots.
+     */
+    private class DeckIterator implements Iterator<ChessPiece> {
+        private int seq = head;
+        private int returned = 0;
+        private int lastSeq = -1;
+        private boolean canRemove = false;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return returned < size;
+        }
+
+        @Override
+        public ChessPiece next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            while (ring[seq & mask()] == null) {
+                seq++;
+            }
+            lastSeq = seq;
+            canRemove = true;
+            returned++;
+            return ring[seq++ & mask()];
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            ChessPiece piece = ring[lastSeq & mask()];
+            buckets[piece.getCode()].remove(lastSeq);
+            removed(piece.getCode());
+            clearSlot(lastSeq);
+            returned--;
+            canRemove = false;
+            expectedModCount = modCount;
+        }
+    }
+
+    /**
+     * A growable FIFO of ints, used for the per-code buckets of sequence numbers.
+     */
+    private static final class IntQueue {
+        private int[] items = new int[8];
+        private int first = 0;
+        private int size = 0;
+
+        int size() {
+            return size;
+        }
+
+        void addLast(int value) {
+            if (size == items.length) {
+                int[] bigger = new int[items.length * 2];
+                for (int i = 0; i < size; i++) {
+                    bigger[i] = items[(first + i) & (items.length - 1)];
+                }
+                items = bigger;
+                first = 0;
+            }
+            items[(first + size) & (items.length - 1)] = value;
+            size++;
+        }
+
+        int pollFirst() {
+            int value = items[first];
+            first = (first + 1) & (items.length - 1);
+            size--;
+            return value;
+        }
+
+        /**
+         * Removes one occurrence of value; O(size), only used by positional list removal.
+         */
+        void remove(int value) {
+            int mask = items.length - 1;
+            for (int i = 0; i < size; i++) {
+                if (items[(first + i) & mask] == value) {
+                    for (int j = i; j < size - 1; j++) {
+                        items[(first + j) & mask] = items[(first + j + 1) & mask];
+                    }
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        void clear() {
+            first = 0;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package AIGeneratedCode;
+
+/**
+ * How much of the discard pile a game remembers (see DiscardPile). Only the top piece affects
+ * the rules, so the bounded modes keep memory per game constant however long a game runs.
+ */
+public enum DiscardMode {
+    /** Every discarded piece, in order. */
+    FULL,
+    /** The last K pieces in order, plus per-code counts of everything in the pile. */
+    BOUNDED,
+    /** Only the top piece, plus per-code counts of everything in the pile. */
+    TOP_AND_COUNTS
+}
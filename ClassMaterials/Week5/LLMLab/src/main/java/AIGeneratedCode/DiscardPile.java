@@ -0,0 +1,215 @@
+package AIGeneratedCode;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * The discard pile, stored as piece codes (one byte each) in a ring buffer.
+ *
+ * In FULL mode the ring grows and the list view holds every discarded piece, bottom first, as the
+ * old ArrayList did. In BOUNDED mode only the last K pieces stay in the list view and older ones
+ * fall out of it; TOP_AND_COUNTS is BOUNDED with K = 1. In every mode the pile also keeps
+ * per-code counts of all pieces physically in it, visible or not, which is what a reshuffle
+ * needs to return them to the Unowned pile (see takeAllButTop()).
+ *
+ * The list view supports add (on top), remove and clear; removing a visible piece also removes
+ * it from the counts.
+ */
+public class DiscardPile extends AbstractList<ChessPiece> {
+    private final DiscardMode mode;
+    private final int capacity; // visible pieces kept; Integer.MAX_VALUE for FULL
+    private byte[] ring;
+    private int first = 0; // ring index of the oldest visible piece
+    private int visible = 0;
+    private final int[] counts = new int[ChessPiece.CODES];
+    private int total = 0;
+
+    public DiscardPile() {
+        this(DiscardMode.FULL, 0);
+    }
+
+    /**
+     * @param capacity how many pieces BOUNDED keeps visible; ignored by the other modes
+     */
+    public DiscardPile(DiscardMode mode, int capacity) {
+        this.mode = mode;
+        switch (mode) {
+            case FULL:
+                this.capacity = Integer.MAX_VALUE;
+                this.ring = new byte[16];
+                break;
+            case BOUNDED:
+                if (capacity < 1) {
+                    throw new IllegalArgumentException("A bounded discard pile must keep at least one piece");
+                }
+                this.capacity = capacity;
+                this.ring = new byte[capacity];
+                break;
+            default:
+                this.capacity = 1;
+                this.ring = new byte[1];
+                break;
+        }
+    }
+
+    public DiscardMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Pieces kept in the list view: unlimited for FULL.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * The top piece, or null if the pile is empty. O(1).
+     */
+    public ChessPiece top() {
+        return visible == 0 ? null : ChessPiece.of(codeAt(visible - 1));
+    }
+
+    /**
+     * Pieces physically in the pile, including those no longer in the list view.
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * How many pieces with the given code are physically in the pile.
+     */
+    public int count(int code) {
+        return counts[code];
+    }
+
+    /**
+     * How many pieces with the given code are in the pile but no longer in the list view.
+     */
+    public int hiddenCount(int code) {
+        int shown = 0;
+        for (int i = 0; i < visible; i++) {
+            if (codeAt(i) == code) {
+                shown++;
+            }
+        }
+        return counts[code] - shown;
+    }
+
+    /**
+     * Adds pieces that are in the pile but not shown, e.g. when restoring a saved bounded pile.
+     */
+    public void addHidden(int code, int count) {
+        counts[code] += count;
+        total += count;
+    }
+
+    /**
+     * Empties the pile except for the top piece and returns the per-code counts of what was
+     * taken, for a reshuffle into the Unowned pile.
+     */
+    public int[] takeAllButTop() {
+        int[] taken = counts.clone();
+        Arrays.fill(counts, 0);
+        total = 0;
+        if (visible > 0) {
+            int top = codeAt(visible - 1);
+            taken[top]--;
+            counts[top] = 1;
+            total = 1;
+            first = (first + visible - 1) % ring.length;
+            visible = 1;
+        }
+        modCount++;
+        return taken;
+    }
+
+    /**
+     * Replaces this pile's contents with a copy of other's (which must use the same mode).
+     */
+    void copyFrom(DiscardPile other) {
+        ring = other.ring.clone();
+        first = other.first;
+        visible = other.visible;
+        System.arraycopy(other.counts, 0, counts, 0, counts.length);
+        total = other.total;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return visible;
+    }
+
+    @Override
+    public ChessPiece get(int index) {
+        if (index < 0 || index >= visible) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + visible);
+        }
+        return ChessPiece.of(codeAt(index));
+    }
+
+    @Override
+    public boolean add(ChessPiece piece) {
+        int code = piece.getCode();
+        if (visible == ring.length) {
+            if (mode == DiscardMode.FULL) {
+                grow();
+            } else {
+                // The oldest piece leaves the view but stays in the counts
+                first = (first + 1) % ring.length;
+                visible--;
+            }
+        }
+        ring[(first + visible) % ring.length] = (byte) code;
+        visible++;
+        counts[code]++;
+        total++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(int index, ChessPiece piece) {
+        if (index != visible) {
+            throw new UnsupportedOperationException("Pieces can only be added to the top of the discard pile");
+        }
+        add(piece);
+    }
+
+    @Override
+    public ChessPiece remove(int index) {
+        ChessPiece removed = get(index);
+        for (int i = index; i < visible - 1; i++) {
+            ring[(first + i) % ring.length] = ring[(first + i + 1) % ring.length];
+        }
+        visible--;
+        counts[removed.getCode()]--;
+        total--;
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        first = 0;
+        visible = 0;
+        Arrays.fill(counts, 0);
+        total = 0;
+        modCount++;
+    }
+
+    private int codeAt(int index) {
+        return ring[(first + index) % ring.length];
+    }
+
+    private void grow() {
+        byte[] bigger = new byte[ring.length * 2];
+        for (int i = 0; i < visible; i++) {
+            bigger[i] = (byte) codeAt(i);
+        }
+        ring = bigger;
+        first = 0;
+    }
+}
@@ -0,0 +1,10 @@
+package AIGeneratedCode;
+
+/**
+ * A discard rule in readable form: may candidate be discarded onto top? DiscardRules.compile()
+ * turns it into a lookup table, so it can branch as much as it likes.
+ */
+@FunctionalInterface
+public interface DiscardRule {
+    boolean allows(ChessPiece top, ChessPiece candidate);
+}
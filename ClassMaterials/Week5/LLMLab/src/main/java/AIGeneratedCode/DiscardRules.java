@@ -0,0 +1,59 @@
+package AIGeneratedCode;
+
+/**
+ * A DiscardRule compiled into a table: for every top-discard code, a bitmask of the piece codes
+ * that may be discarded onto it (bit c set for code c, see ChessPiece.getCode()).
+ *
+ * A single check is one array load and a shift, and ANDing a row with a pile's present mask
+ * (Pile.getPresentMask()) gives every code the player can discard in one operation. A new rule
+ * variant is just another compile().
+ */
+public final class DiscardRules {
+    /**
+     * Stage 2: a piece may be discarded if it matches the top discard's color or type (neutral
+     * pieces have no color to match). Stage 3: rainbow pieces may always be discarded.
+     */
+    public static final DiscardRule STAGE_3_RULE = (top, candidate) ->
+        candidate.getColor() == Color.RAINBOW
+            || (candidate.getColor() != null && candidate.getColor() == top.getColor())
+            || candidate.getType() == top.getType();
+
+    public static final DiscardRules STANDARD = compile(STAGE_3_RULE);
+
+    static {
+        if (ChessPiece.CODES > Long.SIZE) {
+            throw new ExceptionInInitializerError("Piece codes no longer fit in a long mask");
+        }
+    }
+
+    private final long[] playable = new long[ChessPiece.CODES];
+
+    private DiscardRules() {
+    }
+
+    /**
+     * Evaluates rule for every (top, candidate) pair once.
+     */
+    public static DiscardRules compile(DiscardRule rule) {
+        DiscardRules rules = new DiscardRules();
+        for (int top = 0; top < ChessPiece.CODES; top++) {
+            for (int candidate = 0; candidate < ChessPiece.CODES; candidate++) {
+                if (rule.allows(ChessPiece.of(top), ChessPiece.of(candidate))) {
+                    rules.playable[top] |= 1L << candidate;
+                }
+            }
+        }
+        return rules;
+    }
+
+    public boolean allows(int topCode, int candidateCode) {
+        return (playable[topCode] >>> candidateCode & 1) != 0;
+    }
+
+    /**
+     * Bitmask of the codes that may be discarded onto topCode.
+     */
+    public long playableMask(int topCode) {
+        return playable[topCode];
+    }
+}
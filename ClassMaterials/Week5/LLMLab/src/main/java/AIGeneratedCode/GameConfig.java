@@ -0,0 +1,251 @@
+package AIGeneratedCode;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Settings for a generated deal: how many players, how many 16-piece sets of each color make up
+ * the game, how many pieces each player starts with, and the seed of the shuffle. Build one with
+ * GameConfig.builder() and pass it to new BusinessLogic(config).
+ *
+ * The defaults mirror the standard game (four players, five-piece piles, four WHITE sets and one
+ * RAINBOW set), but deal from a shuffled deck instead of the fixed legacy deal that
+ * new BusinessLogic() keeps for the original tests.
+ */
+public final class GameConfig {
+    /** Pieces in one color set: 8 pawns, 2 rooks, 2 knights, 2 bishops, a queen and a king. */
+    public static final int SET_SIZE = 16;
+
+    private static final Color[] COLORS = Color.values();
+
+    private final int players;
+    private final int[] setsPerColor;
+    private final int pileSize;
+    private final long seed;
+    private final DiscardMode discardMode;
+    private final int discardCapacity;
+    private final boolean reshuffleDiscards;
+    private final DiscardRules discardRules;
+
+    private GameConfig(Builder builder) {
+        this.players = builder.players;
+        this.setsPerColor = builder.setsPerColor.clone();
+        this.pileSize = builder.pileSize;
+        this.seed = builder.seed;
+        this.discardMode = builder.discardMode;
+        this.discardCapacity = builder.discardCapacity;
+        this.reshuffleDiscards = builder.reshuffleDiscards;
+        this.discardRules = builder.discardRules;
+    }
+
+    private GameConfig(GameConfig source, long seed) {
+        this.players = source.players;
+        this.setsPerColor = source.setsPerColor;
+        this.pileSize = source.pileSize;
+        this.seed = seed;
+        this.discardMode = source.discardMode;
+        this.discardCapacity = source.discardCapacity;
+        this.reshuffleDiscards = source.reshuffleDiscards;
+        this.discardRules = source.discardRules;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getPlayers() {
+        return players;
+    }
+
+    public int getSetsPerColor(Color color) {
+        return setsPerColor[color.ordinal()];
+    }
+
+    public int getPileSize() {
+        return pileSize;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * The same settings with a different shuffle seed, e.g. for each game of a batch.
+     */
+    public GameConfig withSeed(long seed) {
+        return new GameConfig(this, seed);
+    }
+
+    public DiscardMode getDiscardMode() {
+        return discardMode;
+    }
+
+    public int getDiscardCapacity() {
+        return discardCapacity;
+    }
+
+    public boolean isReshuffleDiscards() {
+        return reshuffleDiscards;
+    }
+
+    /**
+     * Total pieces in the game: one discard, the starting piles and the Unowned pile.
+     */
+    public int getTotalPieces() {
+        return Arrays.stream(setsPerColor).sum() * SET_SIZE;
+    }
+
+    /**
+     * Every piece in the game as piece codes, unshuffled, color by color.
+     */
+    int[] pieceCodes() {
+        int[] codes = new int[getTotalPieces()];
+        int n = 0;
+        for (Color color : COLORS) {
+            for (int set = 0; set < setsPerColor[color.ordinal()]; set++) {
+                for (int i = 0; i < 8; i++) {
+                    codes[n++] = ChessPiece.codeOf(color, PieceType.PAWN);
+                }
+                for (int i = 0; i < 2; i++) {
+                    codes[n++] = ChessPiece.codeOf(color, PieceType.ROOK);
+                    codes[n++] = ChessPiece.codeOf(color, PieceType.KNIGHT);
+                    codes[n++] = ChessPiece.codeOf(color, PieceType.BISHOP);
+                }
+                codes[n++] = ChessPiece.codeOf(color, PieceType.QUEEN);
+                codes[n++] = ChessPiece.codeOf(color, PieceType.KING);
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * The shuffled piece codes in dealing order: the discard first, then pileSize pieces per
+     * player in turn order, then the Unowned pile from the front. Every engine that deals from a
+     * config goes through here, so they all deal the same game for the same seed.
+     */
+    public int[] dealOrder() {
+        int[] codes = pieceCodes();
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = codes.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = codes[i];
+            codes[i] = codes[j];
+            codes[j] = swap;
+        }
+        return codes;
+    }
+
+    public DiscardRules getDiscardRules() {
+        return discardRules;
+    }
+
+    @Override
+    public String toString() {
+        return "GameConfig[players=" + players + ", sets=" + Arrays.toString(setsPerColor)
+            + ", pileSize=" + pileSize + ", seed=" + seed + ", discard=" + discardMode
+            + (discardMode == DiscardMode.BOUNDED ? "(" + discardCapacity + ")" : "")
+            + (reshuffleDiscards ? ", reshuffle" : "")
+            + (discardRules != DiscardRules.STANDARD ? ", custom discard rules" : "") + "]";
+    }
+
+    public static final class Builder {
+        private int players = 4;
+        private final int[] setsPerColor = new int[COLORS.length];
+        private int pileSize = 5;
+        private long seed = 0;
+        private DiscardMode discardMode = DiscardMode.FULL;
+        private int discardCapacity = 0;
+        private boolean reshuffleDiscards = false;
+        private DiscardRules discardRules = DiscardRules.STANDARD;
+
+        private Builder() {
+            setsPerColor[Color.WHITE.ordinal()] = 4;
+            setsPerColor[Color.RAINBOW.ordinal()] = 1;
+        }
+
+        public Builder players(int players) {
+            this.players = players;
+            return this;
+        }
+
+        public Builder setsPerColor(Color color, int sets) {
+            this.setsPerColor[color.ordinal()] = sets;
+            return this;
+        }
+
+        public Builder pileSize(int pileSize) {
+            this.pileSize = pileSize;
+            return this;
+        }
+
+        /**
+         * Seed of the SplittableRandom that shuffles the deck before dealing.
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Keeps the whole discard history (FULL, the default) or only the top piece.
+         */
+        public Builder discardMode(DiscardMode mode) {
+            this.discardMode = mode;
+            return this;
+        }
+
+        /**
+         * Keeps only the last capacity discarded pieces in order (DiscardMode.BOUNDED).
+         */
+        public Builder boundedDiscard(int capacity) {
+            this.discardMode = DiscardMode.BOUNDED;
+            this.discardCapacity = capacity;
+            return this;
+        }
+
+        /**
+         * When a player must draw and the Unowned pile is empty, shuffle every discard but the
+         * top back into it first.
+         */
+        public Builder reshuffleDiscards(boolean reshuffle) {
+            this.reshuffleDiscards = reshuffle;
+            return this;
+        }
+
+        /**
+         * Which pieces may be discarded onto which; DiscardRules.STANDARD by default.
+         */
+        public Builder discardRules(DiscardRules rules) {
+            this.discardRules = rules;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the settings cannot produce a game: fewer than two
+         *         players, a negative count, or too few pieces for the piles plus one discard
+         */
+        public GameConfig build() {
+            if (players < 2) {
+                throw new IllegalArgumentException("A game needs at least two players, got " + players);
+            }
+            if (pileSize < 1) {
+                throw new IllegalArgumentException("Piles need at least one piece, got " + pileSize);
+            }
+            if (discardMode == DiscardMode.BOUNDED && discardCapacity < 1) {
+                throw new IllegalArgumentException("A bounded discard pile must keep at least one piece");
+            }
+            for (int sets : setsPerColor) {
+                if (sets < 0) {
+                    throw new IllegalArgumentException("Set counts cannot be negative");
+                }
+            }
+            GameConfig config = new GameConfig(this);
+            long needed = (long) players * pileSize + 1;
+            if (config.getTotalPieces() < needed) {
+                throw new IllegalArgumentException(config + " has " + config.getTotalPieces()
+                    + " pieces but the deal needs " + needed);
+            }
+            return config;
+        }
+    }
+}
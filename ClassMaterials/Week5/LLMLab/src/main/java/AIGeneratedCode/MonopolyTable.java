@@ -0,0 +1,174 @@
+package AIGeneratedCode;
+
+import java.util.Arrays;
+
+/**
+ * Stage 4 bookkeeping kept up to date as piles change, so monopoly queries never rescan piles.
+ *
+ * Every player in the game has a seat slot (see State.getSeat()). For each color the table keeps a histogram of
+ * how many seats hold exactly n pieces of that color, together with the sum of those seats'
+ * slots. The largest n with a non-zero entry is the color's maximum; when exactly one seat sits
+ * at that maximum, the slot sum is that seat, which gives the color's leader in O(1). Counts only
+ * move when a pile changes, so keeping the maximum current costs time proportional to the change.
+ *
+ * A leader only holds the monopoly if the color is also the one it holds the most of, since a
+ * player holds a single monopoly: a seat leading both colors holds just its first-max one. The
+ * holders are re-derived from the leaders after every change, in O(colors^2).
+ */
+public class MonopolyTable implements PileListener {
+    /** Stage 4: a monopoly needs at least this many pieces of the color. */
+    public static final int MIN_PIECES = 5;
+
+    private static final int COLORS = Color.values().length;
+    private static final Color[] COLOR_VALUES = Color.values();
+
+    private Player[] seats = new Player[8];
+    private final int[][] seatsWithCount = new int[COLORS][];
+    private final int[][] slotSumAtCount = new int[COLORS][];
+    private final int[] maxCount = new int[COLORS];
+    private final Player[] leader = new Player[COLORS];
+    private final Player[] holder = new Player[COLORS];
+    private long changes = 0;
+
+    public MonopolyTable() {
+        for (int c = 0; c < COLORS; c++) {
+            seatsWithCount[c] = new int[16];
+            slotSumAtCount[c] = new int[16];
+        }
+    }
+
+    /**
+     * Starts tracking a seated player's pile (State.seat() has already assigned the slot).
+     */
+    void register(Player player) {
+        int slot = player.getPile().getSlot();
+        if (slot >= seats.length) {
+            seats = Arrays.copyOf(seats, Math.max(slot + 1, seats.length * 2));
+        }
+        seats[slot] = player;
+        for (int c = 0; c < COLORS; c++) {
+            move(c, slot, 0, player.getPile().countOfColorSlot(c));
+        }
+    }
+
+    /**
+     * Stops tracking a player (e.g. after a forfeit); their pieces no longer count toward any monopoly.
+     */
+    void unregister(Player player) {
+        int slot = player.getPile().getSlot();
+        for (int c = 0; c < COLORS; c++) {
+            move(c, slot, player.getPile().countOfColorSlot(c), 0);
+        }
+        seats[slot] = null;
+    }
+
+    /**
+     * Returns the player who currently holds the monopoly over a color, or null.
+     */
+    public Player getHolder(Color color) {
+        return color == null ? null : holder[color.ordinal()];
+    }
+
+    /**
+     * How many times a color's holder has changed (gained, lost or passed on) since this table
+     * was created.
+     */
+    public long getChanges() {
+        return changes;
+    }
+
+    /**
+     * Stage 4: a player's monopoly is over the color they hold the most pieces of, provided
+     * they hold at least five and strictly more than every other player. O(colors).
+     */
+    public Color getMonopolyColor(Player player) {
+        Pile pile = player.getPile();
+        int best = -1;
+        int bestCount = 0;
+        for (int c = 0; c < COLORS; c++) {
+            int count = pile.countOfColorSlot(c);
+            if (count > bestCount) {
+                bestCount = count;
+                best = c;
+            }
+        }
+        if (bestCount < MIN_PIECES) {
+            return null;
+        }
+        if (isSeated(player)) {
+            return holder[best] == player ? COLOR_VALUES[best] : null;
+        }
+        // Not seated in this game: compare against everyone who is
+        return bestCount > maxCount[best] ? COLOR_VALUES[best] : null;
+    }
+
+    private boolean isSeated(Player player) {
+        int slot = player.getPile().getSlot();
+        return slot >= 0 && slot < seats.length && seats[slot] == player;
+    }
+
+    @Override
+    public void countChanged(Pile pile, int code, int oldCount, int newCount) {
+        int c = ChessPiece.colorSlotOf(code);
+        if (c >= COLORS) {
+            return; // neutral pieces are not a color
+        }
+        int after = pile.countOfColorSlot(c);
+        move(c, pile.getSlot(), after - (newCount - oldCount), after);
+    }
+
+    private void move(int c, int slot, int from, int to) {
+        if (from == to) {
+            return;
+        }
+        int[] seatsAt = seatsWithCount[c];
+        if (to >= seatsAt.length) {
+            int length = Math.max(to + 1, seatsAt.length * 2);
+            seatsWithCount[c] = seatsAt = Arrays.copyOf(seatsAt, length);
+            slotSumAtCount[c] = Arrays.copyOf(slotSumAtCount[c], length);
+        }
+        int[] slotSums = slotSumAtCount[c];
+        if (from > 0) {
+            seatsAt[from]--;
+            slotSums[from] -= slot;
+        }
+        if (to > 0) {
+            seatsAt[to]++;
+            slotSums[to] += slot;
+        }
+
+        int max = maxCount[c];
+        if (to > max) {
+            max = to;
+        }
+        while (max > 0 && seatsAt[max] == 0) {
+            max--;
+        }
+        maxCount[c] = max;
+        leader[c] = (max >= MIN_PIECES && seatsAt[max] == 1) ? seats[slotSums[max]] : null;
+        updateHolders();
+    }
+
+    /**
+     * A color's leader holds it if it is the color the leader holds the most of (the first on a tie).
+     */
+    private void updateHolders() {
+        for (int c = 0; c < COLORS; c++) {
+            Player newHolder = leader[c] != null && mostHeldColor(leader[c].getPile()) == c ? leader[c] : null;
+            if (newHolder != holder[c]) {
+                holder[c] = newHolder;
+                changes++;
+            }
+        }
+    }
+
+    private static int mostHeldColor(Pile pile) {
+        int best = 0;
+        for (int c = 1; c < COLORS; c++) {
+            if (pile.countOfColorSlot(c) > pile.countOfColorSlot(best)) {
+                best = c;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,281 @@
+package AIGeneratedCode;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A player's pile stored as a dense count matrix instead of a list of piece objects.
+ * counts[code] holds how many pieces of each (color slot, type) pair the pile contains
+ * (see ChessPiece.getCode()), and running per-color and per-type totals are kept next to it,
+ * so membership, removal and "do I hold anything of this color/type" are O(1) and never allocate.
+ *
+ * The pile is still a List<ChessPiece> so existing callers keep working. Since equal pieces are
+ * interchangeable, the list view is ordered by piece code and returns the shared
+ * ChessPiece.of(code) instances. Appending, remove(Object), remove(int) and clear() write through;
+ * inserting at a position or replacing an element is not supported.
+ *
+ * A pile that belongs to a game is attached to a PileListener, which sees every count change no
+ * matter whether it came from BusinessLogic or from code editing the list view directly.
+ */
+public class Pile extends AbstractList<ChessPiece> {
+    private final int[] counts = new int[ChessPiece.CODES];
+    private final int[] colorTotals = new int[ChessPiece.COLOR_SLOTS];
+    private final int[] typeTotals = new int[ChessPiece.TYPES];
+    private int size;
+    private long presentMask; // bit c set while counts[c] > 0
+    private PileListener listener;
+    private int slot = -1;
+    private boolean frozen = false;
+
+    public Pile() {
+    }
+
+    public Pile(Collection<? extends ChessPiece> pieces) {
+        if (pieces instanceof Pile) {
+            Pile other = (Pile) pieces;
+            System.arraycopy(other.counts, 0, counts, 0, counts.length);
+            System.arraycopy(other.colorTotals, 0, colorTotals, 0, colorTotals.length);
+            System.arraycopy(other.typeTotals, 0, typeTotals, 0, typeTotals.length);
+            size = other.size;
+            presentMask = other.presentMask;
+        } else {
+            addAll(pieces);
+        }
+    }
+
+    /**
+     * Returns a copy that throws UnsupportedOperationException on any change, for snapshots
+     * that are shared between threads.
+     */
+    public Pile frozenCopy() {
+        Pile copy = new Pile(this);
+        copy.frozen = true;
+        return copy;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Returns the seat slot assigned by the listener this pile is attached to, or -1.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    PileListener getListener() {
+        return listener;
+    }
+
+    void attach(PileListener listener, int slot) {
+        this.listener = listener;
+        this.slot = slot;
+    }
+
+    void detach() {
+        this.listener = null;
+        this.slot = -1;
+    }
+
+    /**
+     * Returns how many pieces with the given code are in the pile.
+     */
+    public int count(int code) {
+        return counts[code];
+    }
+
+    public int count(Color color, PieceType type) {
+        return counts[ChessPiece.codeOf(color, type)];
+    }
+
+    /**
+     * Returns how many pieces of the given color are in the pile (null counts neutral pieces).
+     */
+    public int countOfColor(Color color) {
+        return colorTotals[ChessPiece.colorSlot(color)];
+    }
+
+    public int countOfColorSlot(int colorSlot) {
+        return colorTotals[colorSlot];
+    }
+
+    public int countOfType(PieceType type) {
+        return typeTotals[type.ordinal()];
+    }
+
+    /**
+     * Bitmask of the codes the pile holds at least one of (bit c for code c), to AND with
+     * DiscardRules.playableMask().
+     */
+    public long getPresentMask() {
+        return presentMask;
+    }
+
+    /**
+     * Adds one piece with the given code.
+     */
+    public void addCode(int code) {
+        checkNotFrozen();
+        counts[code]++;
+        presentMask |= 1L << code;
+        colorTotals[ChessPiece.colorSlotOf(code)]++;
+        typeTotals[ChessPiece.typeOf(code)]++;
+        size++;
+        modCount++;
+        if (listener != null) {
+            listener.countChanged(this, code, counts[code] - 1, counts[code]);
+        }
+    }
+
+    /**
+     * Removes one piece with the given code. Returns false if the pile holds none.
+     */
+    public boolean removeCode(int code) {
+        checkNotFrozen();
+        if (counts[code] == 0) {
+            return false;
+        }
+        if (--counts[code] == 0) {
+            presentMask &= ~(1L << code);
+        }
+        colorTotals[ChessPiece.colorSlotOf(code)]--;
+        typeTotals[ChessPiece.typeOf(code)]--;
+        size--;
+        modCount++;
+        if (listener != null) {
+            listener.countChanged(this, code, counts[code] + 1, counts[code]);
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(ChessPiece piece) {
+        addCode(piece.getCode());
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof ChessPiece && counts[((ChessPiece) o).getCode()] > 0;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof ChessPiece && removeCode(((ChessPiece) o).getCode());
+    }
+
+    @Override
+    public ChessPiece get(int index) {
+        return ChessPiece.of(codeAt(index));
+    }
+
+    @Override
+    public ChessPiece remove(int index) {
+        int code = codeAt(index);
+        removeCode(code);
+        return ChessPiece.of(code);
+    }
+
+    @Override
+    public void clear() {
+        checkNotFrozen();
+        if (size == 0) {
+            return;
+        }
+        presentMask = 0;
+        for (int code = 0; code < counts.length; code++) {
+            int old = counts[code];
+            if (old == 0) {
+                continue;
+            }
+            counts[code] = 0;
+            colorTotals[ChessPiece.colorSlotOf(code)] -= old;
+            typeTotals[ChessPiece.typeOf(code)] -= old;
+            size -= old;
+            if (listener != null) {
+                listener.countChanged(this, code, old, 0);
+            }
+        }
+        modCount++;
+    }
+
+    @Override
+    public Iterator<ChessPiece> iterator() {
+        return new PileIterator();
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("This pile is a read-only snapshot");
+        }
+    }
+
+    private int codeAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int code = 0;
+        while (index >= counts[code]) {
+            index -= counts[code];
+            code++;
+        }
+        return code;
+    }
+
+    /**
+     * Walks the count matrix in code order, yielding each piece once per copy held.
+     */
+    private class PileIterator implements Iterator<ChessPiece> {
+        private int code = -1;
+        private int left = 0;
+        private int returned = 0;
+        private int lastCode = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return returned < size;
+        }
+
+        @Override
+        public ChessPiece next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            while (left == 0) {
+                code++;
+                left = counts[code];
+            }
+            left--;
+            returned++;
+            lastCode = code;
+            return ChessPiece.of(code);
+        }
+
+        @Override
+        public void remove() {
+            if (lastCode < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeCode(lastCode);
+            returned--;
+            lastCode = -1;
+            expectedModCount = modCount;
+        }
+    }
+}
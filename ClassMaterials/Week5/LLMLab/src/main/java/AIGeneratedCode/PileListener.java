@@ -0,0 +1,11 @@
+package AIGeneratedCode;
+
+/**
+ * Notified whenever the count of one piece code changes in an attached Pile.
+ */
+public interface PileListener {
+    /**
+     * Called after the pile has been updated, so the pile's totals already reflect newCount.
+     */
+    void countChanged(Pile pile, int code, int oldCount, int newCount);
+}
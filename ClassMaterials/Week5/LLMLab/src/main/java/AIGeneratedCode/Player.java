@@ -1,20 +1,37 @@
 package AIGeneratedCode;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class Player {
-    private final List<ChessPiece> pile;
+    private final Pile pile;
 
     public Player() {
-        this.pile = new ArrayList<>();
+        this.pile = new Pile();
     }
 
     public Player(List<ChessPiece> pile) {
+        this.pile = new Pile(pile);
+    }
+
+    private Player(Pile pile) {
         this.pile = pile;
     }
 
-    public List<ChessPiece> getPile() {
+    /**
+     * A player holding pile itself rather than a copy of it (the List constructor copies).
+     */
+    private static Player wrapping(Pile pile) {
+        return new Player(pile);
+    }
+
+    /**
+     * Returns a detached copy of this player whose pile cannot be changed.
+     */
+    public Player snapshot() {
+        return wrapping(pile.frozenCopy());
+    }
+
+    public Pile getPile() {
         return pile;
     }
 }
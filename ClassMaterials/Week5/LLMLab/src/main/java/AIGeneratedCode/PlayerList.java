@@ -0,0 +1,146 @@
+package AIGeneratedCode;
+
+import java.util.AbstractList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The players in the game, in turn order. This is the List view of the State's TurnRing: it
+ * behaves like an ArrayList, but seats every added player in the State and unseats every removed
+ * one, so the MonopolyTable and hash stay in sync with the rotation. Removing a player by
+ * identity (as a forfeit does) is O(1).
+ */
+public class PlayerList extends AbstractList<Player> {
+    private final TurnRing ring;
+    private final State state;
+
+    PlayerList(State state, TurnRing ring) {
+        this.state = state;
+        this.ring = ring;
+    }
+
+    @Override
+    public Player get(int index) {
+        return ring.get(index);
+    }
+
+    @Override
+    public int size() {
+        return ring.size();
+    }
+
+    @Override
+    public void add(int index, Player player) {
+        if (index < 0 || index > ring.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + ring.size());
+        }
+        state.seat(player);
+        ring.insert(index, player, state.getSeat(player));
+        modCount++;
+    }
+
+    /**
+     * Appends a player in a specific seat (see State.copy()).
+     */
+    void addSeated(Player player, int seat) {
+        state.seat(player, seat);
+        ring.append(player, state.getSeat(player));
+        modCount++;
+    }
+
+    @Override
+    public Player remove(int index) {
+        Player removed = ring.removeAt(index);
+        state.unseat(removed);
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Player)) {
+            return false;
+        }
+        Player player = (Player) o;
+        if (!ring.remove(player, state.getSeat(player))) {
+            return false;
+        }
+        state.unseat(player);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Player && state.getSeat((Player) o) >= 0;
+    }
+
+    /**
+     * Replaces the player at index. A player who is already in the list trades places with the
+     * one at index instead, so both stay seated; that keeps Collections.swap() and sort(), which
+     * set a player into a new position before setting the other into the old one, working.
+     */
+    @Override
+    public Player set(int index, Player player) {
+        Player replaced = ring.get(index);
+        if (player == replaced) {
+            return replaced;
+        }
+        int seat = state.getSeat(player);
+        if (seat >= 0) {
+            return ring.swap(index, seat);
+        }
+        state.unseat(replaced);
+        state.seat(player);
+        ring.replace(index, player, state.getSeat(player));
+        return replaced;
+    }
+
+    @Override
+    public Iterator<Player> iterator() {
+        return new RingIterator();
+    }
+
+    /**
+     * Walks the ring in list order, so a full pass is O(players) even with empty slots. It holds
+     * the next player rather than a slot, since removals may compact the ring.
+     */
+    private class RingIterator implements Iterator<Player> {
+        private Player pending = ring.size() == 0 ? null : ring.at(ring.first());
+        private Player last;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return pending != null;
+        }
+
+        @Override
+        public Player next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (pending == null) {
+                throw new NoSuchElementException();
+            }
+            last = pending;
+            int after = ring.nextInOrder(ring.slotOf(state.getSeat(last)));
+            pending = after < 0 ? null : ring.at(after);
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            PlayerList.this.remove(last);
+            last = null;
+            expectedModCount = modCount;
+        }
+    }
+}
@@ -1,22 +1,213 @@
 package AIGeneratedCode;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class State {
-    private final List<Player> players = new ArrayList<>();
-    private final List<ChessPiece> discard = new ArrayList<>();
-    private final List<ChessPiece> unowned = new ArrayList<>();
+    private final MonopolyTable monopolies = new MonopolyTable();
+    private final UnseenPieces unseen = new UnseenPieces();
+    private final PileListener pileListener = this::pileChanged;
+    private final TurnRing turnRing = new TurnRing();
+    private final PlayerList players = new PlayerList(this, turnRing);
+    private final DiscardPile discard;
+    private final Deck unowned = new Deck(this::unownedChanged);
+    private int nextSeat = 0;
+    private long hash = 0;
+    private boolean reshuffleDiscards = false;
+
+    public State() {
+        this(DiscardMode.FULL, 0);
+    }
+
+    /**
+     * Creates an empty state whose discard pile keeps the given history (see DiscardPile).
+     */
+    public State(DiscardMode discardMode, int discardCapacity) {
+        this.discard = new DiscardPile(discardMode, discardCapacity);
+    }
 
     public List<Player> getPlayers() {
         return players;
     }
 
-    public List<ChessPiece> getDiscard() {
+    public DiscardPile getDiscard() {
         return discard;
     }
 
-    public List<ChessPiece> getUnowned() {
+    /**
+     * Whether a player who must draw from an empty Unowned pile first gets every discard but the
+     * top shuffled back into it.
+     */
+    public boolean isReshuffleDiscards() {
+        return reshuffleDiscards;
+    }
+
+    public void setReshuffleDiscards(boolean reshuffleDiscards) {
+        this.reshuffleDiscards = reshuffleDiscards;
+    }
+
+    public Deck getUnowned() {
         return unowned;
     }
+
+    /**
+     * The current player's position in getPlayers(). O(1) until a player leaves the game, then
+     * O(players); the turn itself is tracked by identity (see getCurrentPlayer()).
+     */
+    public int getCurrentPlayerIndex() {
+        return turnRing.currentIndex();
+    }
+
+    /**
+     * Hands the turn to the player at currentPlayerIndex (modulo the number of players).
+     */
+    public void setCurrentPlayerIndex(int currentPlayerIndex) {
+        turnRing.setCurrentIndex(currentPlayerIndex);
+    }
+
+    /**
+     * The player whose turn it is, or null when nobody is left. O(1).
+     */
+    public Player getCurrentPlayer() {
+        return turnRing.current();
+    }
+
+    /**
+     * Passes the turn to the next player in the current direction. O(1).
+     */
+    public void advanceTurn() {
+        turnRing.advance();
+    }
+
+    public boolean isTurnOrderReversed() {
+        return turnRing.isReversed();
+    }
+
+    public void setTurnOrderReversed(boolean turnOrderReversed) {
+        turnRing.setReversed(turnOrderReversed);
+    }
+
+    /**
+     * Returns a player's seat: their position in the original deal, which does not change when
+     * other players forfeit. Returns -1 for players who are not in this game.
+     */
+    public int getSeat(Player player) {
+        Pile pile = player.getPile();
+        return pile.getListener() == pileListener ? pile.getSlot() : -1;
+    }
+
+    /**
+     * 64-bit Zobrist hash of the position: every pile's contents (per seat), the Unowned pile's
+     * contents, the remaining players, the top of the discard pile, the current player and the
+     * turn direction. Pile contents and seats are folded in incrementally on every change, so
+     * discard, draw, drawMonopolyPawn and forfeit each update it in O(1); the top discard, current
+     * player and direction are single fields mixed in here, so this call is O(1) as well.
+     * The order of the Unowned pile is not part of the hash.
+     */
+    public long hash() {
+        long h = hash;
+        ChessPiece top = discard.top();
+        if (top != null) {
+            h ^= Zobrist.top(top.getCode());
+        }
+        Player current = turnRing.current();
+        if (current != null) {
+            h ^= Zobrist.current(getSeat(current));
+        }
+        if (turnRing.isReversed()) {
+            h ^= Zobrist.REVERSED;
+        }
+        return h;
+    }
+
+    /**
+     * Returns an independent deep copy: new piles with the same contents and seats, the same
+     * discard and Unowned order, the same turn, and the same reveals (see UnseenPieces). Pieces
+     * themselves are immutable and shared.
+     */
+    public State copy() {
+        State copy = new State(discard.getMode(), discard.getCapacity());
+        for (Player player : players) {
+            int seat = getSeat(player);
+            copy.players.addSeated(new Player(player.getPile()), seat >= 0 ? seat : copy.nextSeat);
+        }
+        copy.discard.copyFrom(discard);
+        copy.reshuffleDiscards = reshuffleDiscards;
+        copy.unowned.addAll(unowned);
+        copy.unseen.copyReveals(unseen);
+        copy.setCurrentPlayerIndex(getCurrentPlayerIndex());
+        copy.setTurnOrderReversed(isTurnOrderReversed());
+        return copy;
+    }
+
+    /**
+     * Appends a player in a specific seat, for rebuilding a saved game whose seats must match.
+     */
+    public void addPlayer(Player player, int seat) {
+        players.addSeated(player, seat);
+    }
+
+    /**
+     * Stage 4: per-player, per-color counts and the current monopoly holder of each color.
+     */
+    public MonopolyTable getMonopolies() {
+        return monopolies;
+    }
+
+    /**
+     * Per-code counts of the Unowned pile and of what each player cannot see, for draw odds.
+     */
+    public UnseenPieces getUnseenPieces() {
+        return unseen;
+    }
+
+    /**
+     * Seats a player who joined the player list: their pile starts reporting changes here.
+     */
+    void seat(Player player, int seat) {
+        Pile pile = player.getPile();
+        if (pile.getListener() == pileListener) {
+            return;
+        }
+        pile.attach(pileListener, seat);
+        nextSeat = Math.max(nextSeat, seat + 1);
+        monopolies.register(player);
+        unseen.register(player);
+        hash ^= Zobrist.seat(seat);
+        for (int code = 0; code < ChessPiece.CODES; code++) {
+            hash ^= Zobrist.pile(seat, code, pile.count(code));
+        }
+    }
+
+    void seat(Player player) {
+        seat(player, nextSeat);
+    }
+
+    /**
+     * Unseats a player who left the player list (e.g. after a forfeit).
+     */
+    void unseat(Player player) {
+        Pile pile = player.getPile();
+        if (pile.getListener() != pileListener) {
+            return;
+        }
+        int seat = pile.getSlot();
+        monopolies.unregister(player);
+        unseen.unregister(player);
+        hash ^= Zobrist.seat(seat);
+        for (int code = 0; code < ChessPiece.CODES; code++) {
+            hash ^= Zobrist.pile(seat, code, pile.count(code));
+        }
+        pile.detach();
+    }
+
+    private void pileChanged(Pile pile, int code, int oldCount, int newCount) {
+        hash ^= Zobrist.pile(pile.getSlot(), code, oldCount) ^ Zobrist.pile(pile.getSlot(), code, newCount);
+        monopolies.countChanged(pile, code, oldCount, newCount);
+        unseen.countChanged(pile, code, oldCount, newCount);
+    }
+
+    private void unownedChanged(int code, int oldCount, int newCount) {
+        hash ^= Zobrist.pile(Zobrist.UNOWNED, code, oldCount) ^ Zobrist.pile(Zobrist.UNOWNED, code, newCount);
+        unseen.unownedChanged(code, oldCount, newCount);
+    }
 }
@@ -0,0 +1,117 @@
+package AIGeneratedCode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable copy of a game at one point in time, safe to hand to other threads.
+ *
+ * It implements api.BusinessLogic, so anything written against the interface can read a snapshot
+ * instead of the live game. Players are detached copies with frozen piles, so getSeat() on the
+ * live game does not apply to them; use getSeat(index) here instead.
+ */
+public final class StateSnapshot implements api.BusinessLogic {
+    private final long version;
+    private final List<Player> players;
+    private final int[] seats;
+    private final List<ChessPiece> discard;
+    private final List<ChessPiece> unowned;
+    private final int currentPlayerIndex;
+    private final boolean turnOrderReversed;
+    private final int winnerSeat;
+    private final int[] legalActions;
+
+    private StateSnapshot(long version, BusinessLogic game) {
+        State state = game.getState();
+        List<Player> livePlayers = state.getPlayers();
+        List<Player> playerCopies = new ArrayList<>(livePlayers.size());
+        this.seats = new int[livePlayers.size()];
+        int index = 0;
+        for (Player player : livePlayers) {
+            playerCopies.add(player.snapshot());
+            seats[index++] = state.getSeat(player);
+        }
+        this.version = version;
+        this.players = Collections.unmodifiableList(playerCopies);
+        this.discard = List.copyOf(state.getDiscard());
+        this.unowned = List.copyOf(state.getUnowned());
+        this.currentPlayerIndex = state.getCurrentPlayerIndex();
+        this.turnOrderReversed = state.isTurnOrderReversed();
+        this.winnerSeat = game.getWinner() == null ? -1 : state.getSeat(game.getWinner());
+
+        ActionBuffer buffer = new ActionBuffer();
+        game.generateLegalActions(buffer);
+        this.legalActions = new int[buffer.size()];
+        for (int i = 0; i < legalActions.length; i++) {
+            legalActions[i] = buffer.get(i);
+        }
+    }
+
+    /**
+     * Copies the current state of game. Must run on the thread that owns the game.
+     */
+    public static StateSnapshot of(BusinessLogic game, long version) {
+        return new StateSnapshot(version, game);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public List<Player> getPlayers() {
+        return players;
+    }
+
+    @Override
+    public List<ChessPiece> getDiscard() {
+        return discard;
+    }
+
+    @Override
+    public List<ChessPiece> getUnowned() {
+        return unowned;
+    }
+
+    /**
+     * The seat of getPlayers().get(index).
+     */
+    public int getSeat(int index) {
+        return seats[index];
+    }
+
+    public int getCurrentPlayerIndex() {
+        return currentPlayerIndex;
+    }
+
+    public int getCurrentSeat() {
+        return seats.length == 0 ? -1 : seats[currentPlayerIndex];
+    }
+
+    public boolean isTurnOrderReversed() {
+        return turnOrderReversed;
+    }
+
+    public boolean isGameOver() {
+        return winnerSeat >= 0;
+    }
+
+    /**
+     * The winner's seat, or -1 while the game is running.
+     */
+    public int getWinnerSeat() {
+        return winnerSeat;
+    }
+
+    /**
+     * Number of legal actions for the current player (see BusinessLogic.generateLegalActions).
+     */
+    public int getLegalActionCount() {
+        return legalActions.length;
+    }
+
+    public int getLegalAction(int index) {
+        return legalActions[index];
+    }
+}
@@ -0,0 +1,317 @@
+package AIGeneratedCode;
+
+import java.util.Arrays;
+
+/**
+ * The turn order: the players still in the game as a doubly linked ring, plus the current player
+ * and the direction of play (Stage 3 reversals).
+ *
+ * Players live in slots of an array in list order; next/prev link the live slots into a ring, and
+ * a seat-to-slot index finds any player's slot directly. Advancing in either direction, reversing
+ * and removing a player (a forfeit) are all O(1) and never shift the array: a removed player just
+ * leaves an empty slot. Once empty slots outnumber the live ones the array is compacted, so the
+ * space stays proportional to the players left and the compaction is amortized O(1) per removal.
+ *
+ * PlayerList is the List<Player> view of the ring. Positional access is O(1) while there are no
+ * empty slots, and a walk from the first player otherwise; reads never change the structure.
+ */
+final class TurnRing {
+    private Player[] slots = new Player[8];
+    private int[] seatOfSlot = new int[8];
+    private int[] next = new int[8];
+    private int[] prev = new int[8];
+    private int[] slotOfSeat = new int[8];
+    private int used = 0; // slots handed out, live or empty
+    private int size = 0;
+    private int head = -1; // slot of the first player in list order
+    private int current = -1; // slot of the player whose turn it is
+    private boolean reversed = false;
+
+    TurnRing() {
+        Arrays.fill(slotOfSeat, -1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    Player current() {
+        return current < 0 ? null : slots[current];
+    }
+
+    /**
+     * Moves the turn to the next player in the current direction.
+     */
+    void advance() {
+        if (current >= 0) {
+            current = reversed ? prev[current] : next[current];
+        }
+    }
+
+    boolean isReversed() {
+        return reversed;
+    }
+
+    void setReversed(boolean reversed) {
+        this.reversed = reversed;
+    }
+
+    /**
+     * The current player's position in list order (0 when there are no players).
+     */
+    int currentIndex() {
+        return current < 0 ? 0 : indexOfSlot(current);
+    }
+
+    /**
+     * Makes the player at index (taken modulo the player count) the current player.
+     */
+    void setCurrentIndex(int index) {
+        if (size > 0) {
+            current = slotAt(Math.floorMod(index, size));
+        }
+    }
+
+    Player get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return slots[slotAt(index)];
+    }
+
+    /**
+     * The slot after slot in list order, or -1 at the end of the list.
+     */
+    int nextInOrder(int slot) {
+        return next[slot] == head ? -1 : next[slot];
+    }
+
+    int first() {
+        return head;
+    }
+
+    int slotOf(int seat) {
+        return slotOfSeat[seat];
+    }
+
+    Player at(int slot) {
+        return slots[slot];
+    }
+
+    /**
+     * Appends a player at the end of the list order (just before the first player in the ring).
+     */
+    void append(Player player, int seat) {
+        if (used == slots.length) {
+            makeRoom();
+        }
+        int slot = used++;
+        slots[slot] = player;
+        seatOfSlot[slot] = seat;
+        indexSeat(seat, slot);
+        if (head < 0) {
+            head = slot;
+            next[slot] = slot;
+            prev[slot] = slot;
+            current = slot;
+        } else {
+            int tail = prev[head];
+            next[tail] = slot;
+            prev[slot] = tail;
+            next[slot] = head;
+            prev[head] = slot;
+        }
+        size++;
+    }
+
+    /**
+     * Inserts a player before position index. O(players) unless index is the end of the list.
+     */
+    void insert(int index, Player player, int seat) {
+        if (index == size) {
+            append(player, seat);
+            return;
+        }
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        Player currentPlayer = current();
+        compact(size + 1);
+        System.arraycopy(slots, index, slots, index + 1, size - index);
+        System.arraycopy(seatOfSlot, index, seatOfSlot, index + 1, size - index);
+        slots[index] = player;
+        seatOfSlot[index] = seat;
+        used = ++size;
+        linkInOrder();
+        for (int slot = 0; slot < size; slot++) {
+            indexSeat(seatOfSlot[slot], slot);
+            if (slots[slot] == currentPlayer) {
+                current = slot;
+            }
+        }
+    }
+
+    /**
+     * Removes the player in seat, if they are in the ring. O(1). When that was the current
+     * player, the turn passes to the next player in list order, as it always has after a forfeit.
+     */
+    boolean remove(Player player, int seat) {
+        if (seat < 0 || seat >= slotOfSeat.length) {
+            return false;
+        }
+        int slot = slotOfSeat[seat];
+        if (slot < 0 || slots[slot] != player) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    Player removeAt(int index) {
+        int slot = slotAt(index);
+        Player removed = slots[slot];
+        removeSlot(slot);
+        return removed;
+    }
+
+    /**
+     * Replaces the player at index, who keeps their turn position. Returns the old player.
+     */
+    Player replace(int index, Player player, int seat) {
+        int slot = slotAt(index);
+        Player replaced = slots[slot];
+        slotOfSeat[seatOfSlot[slot]] = -1;
+        slots[slot] = player;
+        seatOfSlot[slot] = seat;
+        indexSeat(seat, slot);
+        return replaced;
+    }
+
+    /**
+     * Moves the player in seat to index and the player at index to the seat's old position.
+     * Returns the player who was at index. Both keep their seats.
+     */
+    Player swap(int index, int seat) {
+        int slot = slotAt(index);
+        int other = slotOfSeat[seat];
+        Player replaced = slots[slot];
+        slots[slot] = slots[other];
+        slots[other] = replaced;
+        seatOfSlot[other] = seatOfSlot[slot];
+        seatOfSlot[slot] = seat;
+        slotOfSeat[seat] = slot;
+        slotOfSeat[seatOfSlot[other]] = other;
+        return replaced;
+    }
+
+    private void removeSlot(int slot) {
+        int after = next[slot];
+        if (size == 1) {
+            head = -1;
+            current = -1;
+        } else {
+            next[prev[slot]] = after;
+            prev[after] = prev[slot];
+            if (head == slot) {
+                head = after;
+            }
+            if (current == slot) {
+                current = after;
+            }
+        }
+        slotOfSeat[seatOfSlot[slot]] = -1;
+        slots[slot] = null;
+        size--;
+        if (size == 0) {
+            used = 0;
+        } else if (used - size > size && used > 8) {
+            compact(slots.length);
+        }
+    }
+
+    private int slotAt(int index) {
+        if (used == size) {
+            return index; // no empty slots: slots are in list order
+        }
+        int slot = head;
+        for (int i = 0; i < index; i++) {
+            slot = next[slot];
+        }
+        return slot;
+    }
+
+    private int indexOfSlot(int slot) {
+        if (used == size) {
+            return slot;
+        }
+        int index = 0;
+        for (int s = head; s != slot; s = next[s]) {
+            index++;
+        }
+        return index;
+    }
+
+    private void indexSeat(int seat, int slot) {
+        if (seat >= slotOfSeat.length) {
+            int length = Math.max(seat + 1, slotOfSeat.length * 2);
+            int old = slotOfSeat.length;
+            slotOfSeat = Arrays.copyOf(slotOfSeat, length);
+            Arrays.fill(slotOfSeat, old, length, -1);
+        }
+        slotOfSeat[seat] = slot;
+    }
+
+    /**
+     * Grows the arrays, or compacts them instead when at least half the slots are empty.
+     */
+    private void makeRoom() {
+        if (used - size >= size) {
+            compact(slots.length);
+        } else {
+            compact(slots.length * 2);
+        }
+    }
+
+    /**
+     * Moves the live players to slots 0..size-1 in list order, with arrays of at least capacity.
+     */
+    private void compact(int capacity) {
+        int length = Math.max(8, Math.max(capacity, size));
+        Player[] newSlots = new Player[length];
+        int[] newSeats = new int[length];
+        int newCurrent = -1;
+        int n = 0;
+        if (head >= 0) {
+            int slot = head;
+            do {
+                if (slot == current) {
+                    newCurrent = n;
+                }
+                newSlots[n] = slots[slot];
+                newSeats[n] = seatOfSlot[slot];
+                n++;
+                slot = next[slot];
+            } while (slot != head);
+        }
+        slots = newSlots;
+        seatOfSlot = newSeats;
+        if (next.length != length) {
+            next = new int[length];
+            prev = new int[length];
+        }
+        used = size;
+        current = newCurrent;
+        linkInOrder();
+        for (int slot = 0; slot < size; slot++) {
+            slotOfSeat[seatOfSlot[slot]] = slot;
+        }
+    }
+
+    private void linkInOrder() {
+        for (int slot = 0; slot < size; slot++) {
+            next[slot] = slot + 1 == size ? 0 : slot + 1;
+            prev[slot] = slot == 0 ? size - 1 : slot - 1;
+        }
+        head = size == 0 ? -1 : 0;
+    }
+}
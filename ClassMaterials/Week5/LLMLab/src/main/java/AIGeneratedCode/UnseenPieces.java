@@ -0,0 +1,221 @@
+package AIGeneratedCode;
+
+import java.util.Arrays;
+
+/**
+ * Per-code counts of the pieces nobody can see, kept up to date as piles and the Unowned pile
+ * change, so draw odds never rescan the Unowned pile.
+ *
+ * Two views are kept. The global view is the Unowned pile itself: what the next draw really
+ * comes from. A player's view is their information set: every piece still in play that they
+ * cannot locate, i.e. the Unowned pile plus the other seated players' piles, less the pieces
+ * known to be in a pile because everyone watched them go there (monopoly pawn draws, see
+ * reveal()). Discards are public, and a forced draw is seen only by the drawer, so it stays
+ * unseen for everyone else. A known piece stops being known once its owner discards that code,
+ * since the discard may have been it. A forfeited pile leaves play with its player.
+ *
+ * Every count is per code (color slot x type, see ChessPiece.getCode()), so the odds below cost
+ * O(codes) with no allocation. Reveals are not part of the position (State.hash(), StateCodec):
+ * a state rebuilt from an encoding treats every pile as unseen.
+ */
+public class UnseenPieces implements PileListener {
+    private final int[] unowned = new int[ChessPiece.CODES];
+    private int unownedTotal = 0;
+    /** Seated pieces not known to be in their pile, summed over all seats. */
+    private final int[] hidden = new int[ChessPiece.CODES];
+    private int hiddenTotal = 0;
+    private Player[] seats = new Player[8];
+    private int[][] known = new int[8][];
+    private int[] knownTotal = new int[8];
+
+    /**
+     * Number of pieces with this code in the Unowned pile.
+     */
+    public int getUnowned(int code) {
+        return unowned[code];
+    }
+
+    public int getUnownedTotal() {
+        return unownedTotal;
+    }
+
+    /**
+     * Number of pieces with this code that player cannot locate. A player who is not seated in
+     * this game sees no pile at all.
+     */
+    public int getUnseen(Player player, int code) {
+        int unseen = unowned[code] + hidden[code];
+        if (isSeated(player)) {
+            int slot = player.getPile().getSlot();
+            unseen -= player.getPile().count(code) - known[slot][code];
+        }
+        return unseen;
+    }
+
+    public int getUnseenTotal(Player player) {
+        int unseen = unownedTotal + hiddenTotal;
+        if (isSeated(player)) {
+            int slot = player.getPile().getSlot();
+            unseen -= player.getPile().size() - knownTotal[slot];
+        }
+        return unseen;
+    }
+
+    /**
+     * Chance that the front of the Unowned pile has one of the codes in mask (bit c for code c,
+     * e.g. DiscardRules.playableMask()); 0 when the pile is empty.
+     */
+    public double getChance(long mask) {
+        return unownedTotal == 0 ? 0 : (double) sum(unowned, mask) / unownedTotal;
+    }
+
+    /**
+     * The same chance as player would estimate it, taking the next draw to be any piece they
+     * cannot locate with equal likelihood.
+     */
+    public double getChance(Player player, long mask) {
+        int total = getUnseenTotal(player);
+        return total == 0 ? 0 : (double) unseen(player, mask) / total;
+    }
+
+    /**
+     * Expected number of draws from the Unowned pile until one has a code in mask, counting that
+     * draw, as if nothing else changed in between: (n + 1) / (k + 1) for k matches among n
+     * pieces drawn without replacement. Infinite when no piece matches.
+     */
+    public double getExpectedDraws(long mask) {
+        return expectedDraws(unownedTotal, sum(unowned, mask));
+    }
+
+    /**
+     * The same expectation over the pieces player cannot locate.
+     */
+    public double getExpectedDraws(Player player, long mask) {
+        return expectedDraws(getUnseenTotal(player), unseen(player, mask));
+    }
+
+    private static double expectedDraws(int total, int matches) {
+        return matches == 0 ? Double.POSITIVE_INFINITY : (total + 1.0) / (matches + 1);
+    }
+
+    private static int sum(int[] counts, long mask) {
+        int sum = 0;
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            sum += counts[Long.numberOfTrailingZeros(rest)];
+        }
+        return sum;
+    }
+
+    private int unseen(Player player, long mask) {
+        int sum = 0;
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            sum += getUnseen(player, Long.numberOfTrailingZeros(rest));
+        }
+        return sum;
+    }
+
+    /**
+     * Records that everyone saw a piece with this code go into a seated player's pile, after the
+     * pile has been updated (a monopoly pawn draw).
+     */
+    void reveal(Player player, int code) {
+        if (!isSeated(player)) {
+            return;
+        }
+        int slot = player.getPile().getSlot();
+        known[slot][code]++;
+        knownTotal[slot]++;
+        hidden[code]--;
+        hiddenTotal--;
+    }
+
+    /**
+     * Starts tracking a seated player's pile (State.seat() has already assigned the slot); none of
+     * its pieces are known to the others.
+     */
+    void register(Player player) {
+        int slot = player.getPile().getSlot();
+        if (slot >= seats.length) {
+            int length = Math.max(slot + 1, seats.length * 2);
+            seats = Arrays.copyOf(seats, length);
+            known = Arrays.copyOf(known, length);
+            knownTotal = Arrays.copyOf(knownTotal, length);
+        }
+        if (known[slot] == null) {
+            known[slot] = new int[ChessPiece.CODES];
+        }
+        seats[slot] = player;
+        Pile pile = player.getPile();
+        for (int code = 0; code < ChessPiece.CODES; code++) {
+            hidden[code] += pile.count(code);
+        }
+        hiddenTotal += pile.size();
+    }
+
+    /**
+     * Stops tracking a player who left the game, taking their pile out of play.
+     */
+    void unregister(Player player) {
+        int slot = player.getPile().getSlot();
+        Pile pile = player.getPile();
+        for (int code = 0; code < ChessPiece.CODES; code++) {
+            hidden[code] -= pile.count(code) - known[slot][code];
+        }
+        hiddenTotal -= pile.size() - knownTotal[slot];
+        Arrays.fill(known[slot], 0);
+        knownTotal[slot] = 0;
+        seats[slot] = null;
+    }
+
+    /**
+     * Copies source's reveals for the seats both have (see State.copy()).
+     */
+    void copyReveals(UnseenPieces source) {
+        int slots = Math.min(seats.length, source.seats.length);
+        for (int slot = 0; slot < slots; slot++) {
+            if (seats[slot] == null || source.seats[slot] == null) {
+                continue;
+            }
+            for (int code = 0; code < ChessPiece.CODES; code++) {
+                int count = source.known[slot][code];
+                known[slot][code] = count;
+                hidden[code] -= count;
+            }
+            knownTotal[slot] = source.knownTotal[slot];
+            hiddenTotal -= source.knownTotal[slot];
+        }
+    }
+
+    private boolean isSeated(Player player) {
+        int slot = player == null ? -1 : player.getPile().getSlot();
+        return slot >= 0 && slot < seats.length && seats[slot] == player;
+    }
+
+    @Override
+    public void countChanged(Pile pile, int code, int oldCount, int newCount) {
+        int slot = pile.getSlot();
+        int[] knownAtSlot = known[slot];
+        for (int count = oldCount; count > newCount; count--) {
+            if (knownAtSlot[code] > 0) {
+                // Maybe the known piece went: the others can no longer be sure it is there
+                knownAtSlot[code]--;
+                knownTotal[slot]--;
+            } else {
+                hidden[code]--;
+                hiddenTotal--;
+            }
+        }
+        if (newCount > oldCount) {
+            hidden[code] += newCount - oldCount;
+            hiddenTotal += newCount - oldCount;
+        }
+    }
+
+    /**
+     * Follows the Unowned pile (see Deck.Listener).
+     */
+    void unownedChanged(int code, int oldCount, int newCount) {
+        unowned[code] += newCount - oldCount;
+        unownedTotal += newCount - oldCount;
+    }
+}
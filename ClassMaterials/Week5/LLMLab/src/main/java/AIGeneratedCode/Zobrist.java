@@ -0,0 +1,46 @@
+package AIGeneratedCode;
+
+/**
+ * Zobrist keys for State.hash(). Keys are derived by mixing their inputs (SplitMix64 finalizer)
+ * instead of being looked up in a random table, so any number of seats and pile sizes is covered.
+ *
+ * A pile holding n copies of a code contributes pile(seat, code, n), with pile(..., 0) == 0, so a
+ * count change from a to b is applied as hash ^= pile(seat, code, a) ^ pile(seat, code, b).
+ */
+public final class Zobrist {
+    /** The seat used for the Unowned pile's contents. */
+    public static final int UNOWNED = -1;
+    public static final long REVERSED = mix(0x5EED_0003L);
+
+    private Zobrist() {
+    }
+
+    public static long pile(int seat, int code, int count) {
+        if (count == 0) {
+            return 0;
+        }
+        return mix(((long) (seat + 2) << 40) ^ ((long) code << 32) ^ count ^ 0x5EED_0001_0000_0000L);
+    }
+
+    /**
+     * Present for every seat still in the game.
+     */
+    public static long seat(int seat) {
+        return mix(((long) seat << 8) ^ 0x5EED_0002L);
+    }
+
+    public static long top(int code) {
+        return mix(((long) code << 8) ^ 0x5EED_0004L);
+    }
+
+    public static long current(int seat) {
+        return mix(((long) seat << 8) ^ 0x5EED_0005L);
+    }
+
+    static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
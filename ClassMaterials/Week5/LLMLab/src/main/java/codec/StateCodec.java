@@ -0,0 +1,374 @@
+package codec;
+
+import AIGeneratedCode.ChessPiece;
+import AIGeneratedCode.Deck;
+import AIGeneratedCode.Pile;
+import AIGeneratedCode.Player;
+import AIGeneratedCode.State;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Versioned binary encoding of a State, written straight into and read straight out of a
+ * ByteBuffer with no intermediate objects. Every piece is one byte, its code (see
+ * ChessPiece.getCode()), so the standard 80-piece game fits in about 110 bytes.
+ *
+ * Full snapshot (FORMAT_FULL), all counts unsigned 16-bit (a state with more than 0xFFFF players,
+ * seats or pieces in one pile cannot be encoded):
+ *   format, player count, current player index, flags (bit 0: turn order reversed),
+ *   per player: seat, pile size, one code per piece (in code order),
+ *   discard size, codes (bottom first), Unowned size, codes (front first)
+ *
+ * Delta (FORMAT_DELTA) against a base the reader already holds:
+ *   format, base hash, result hash, current player index, flags,
+ *   removed seats: count, seats,
+ *   pile changes: count, (seat, code, signed count change) entries,
+ *   discard: length kept from the base, count appended, codes,
+ *   Unowned: removed count, base indices (ascending), appended count, codes
+ *
+ * The hashes (State.hash()) let read() refuse a delta meant for a different base and check the
+ * result. writeDelta() falls back to a full snapshot when a player joined, or when the delta
+ * would be larger than a snapshot (e.g. after a shuffle), and read() accepts either.
+ *
+ * Only the visible discard pile is encoded: the discard rules (DiscardMode, reshuffling) and the
+ * pieces a bounded pile no longer shows are not, and decoded states use a FULL discard pile.
+ * Neither are the game's DiscardRules, which live in BusinessLogic rather than the State: a
+ * decoded state wrapped in a BusinessLogic plays by DiscardRules.STANDARD.
+ */
+public final class StateCodec {
+    public static final byte FORMAT_FULL = 1;
+    public static final byte FORMAT_DELTA = 2;
+
+    private static final int REVERSED = 1;
+
+    private StateCodec() {
+    }
+
+    /**
+     * Exact number of bytes write() produces for state.
+     *
+     * @throws IllegalArgumentException if a count or seat does not fit in 16 bits
+     */
+    public static int encodedSize(State state) {
+        checkRange(state);
+        int size = 1 + 2 + 2 + 1;
+        for (Player player : state.getPlayers()) {
+            size += 4 + player.getPile().size();
+        }
+        return size + 2 + state.getDiscard().size() + 2 + state.getUnowned().size();
+    }
+
+    /**
+     * Upper bound on the bytes writeDelta(base, current, ...) produces (a full snapshot included).
+     */
+    public static int maxDeltaSize(State base, State current) {
+        int players = base.getPlayers().size();
+        int pieces = 0;
+        for (Player player : base.getPlayers()) {
+            pieces += player.getPile().size();
+        }
+        for (Player player : current.getPlayers()) {
+            pieces += player.getPile().size();
+        }
+        int pileEntries = players * ChessPiece.CODES + pieces / Byte.MAX_VALUE;
+        int delta = 20 + 2 + 2 * players + 2 + 4 * pileEntries + 4 + current.getDiscard().size()
+            + 4 + 2 * base.getUnowned().size() + current.getUnowned().size();
+        return Math.max(delta, encodedSize(current));
+    }
+
+    /**
+     * Writes a full snapshot of state at the buffer's position.
+     *
+     * @throws IllegalArgumentException if a count or seat does not fit in 16 bits; nothing is
+     *         written then
+     */
+    public static void write(State state, ByteBuffer out) {
+        checkRange(state);
+        List<Player> players = state.getPlayers();
+        out.put(FORMAT_FULL);
+        putU16(out, players.size());
+        putU16(out, state.getCurrentPlayerIndex());
+        out.put((byte) (state.isTurnOrderReversed() ? REVERSED : 0));
+        for (Player player : players) {
+            Pile pile = player.getPile();
+            putU16(out, state.getSeat(player));
+            putU16(out, pile.size());
+            for (int code = 0; code < ChessPiece.CODES; code++) {
+                for (int n = pile.count(code); n > 0; n--) {
+                    out.put((byte) code);
+                }
+            }
+        }
+        List<ChessPiece> discard = state.getDiscard();
+        putU16(out, discard.size());
+        for (int i = 0; i < discard.size(); i++) {
+            out.put((byte) discard.get(i).getCode());
+        }
+        putU16(out, state.getUnowned().size());
+        for (ChessPiece piece : state.getUnowned()) {
+            out.put((byte) piece.getCode());
+        }
+    }
+
+    /**
+     * Writes what changed from base to current, or a full snapshot of current if that cannot be
+     * expressed as a delta. base must be the state the reader will apply it to, and out needs
+     * maxDeltaSize(base, current) bytes of room.
+     */
+    public static void writeDelta(State base, State current, ByteBuffer out) {
+        List<Player> basePlayers = base.getPlayers();
+        List<Player> players = current.getPlayers();
+        int start = out.position();
+        out.put(FORMAT_DELTA);
+        out.putLong(base.hash());
+        out.putLong(current.hash());
+        putU16(out, current.getCurrentPlayerIndex());
+        out.put((byte) (current.isTurnOrderReversed() ? REVERSED : 0));
+
+        // Players only ever leave, so walk both lists in step: unmatched base seats were removed
+        int countAt = out.position();
+        putU16(out, 0);
+        int removed = 0;
+        Iterator<Player> remaining = players.iterator();
+        Player after = remaining.hasNext() ? remaining.next() : null;
+        for (Player before : basePlayers) {
+            int seat = base.getSeat(before);
+            if (after != null && current.getSeat(after) == seat) {
+                after = remaining.hasNext() ? remaining.next() : null;
+            } else {
+                putU16(out, seat);
+                removed++;
+            }
+        }
+        if (after != null) {
+            fallBack(current, out, start);
+            return;
+        }
+        putU16(out, countAt, removed);
+
+        countAt = out.position();
+        putU16(out, 0);
+        int changes = 0;
+        remaining = players.iterator();
+        after = remaining.hasNext() ? remaining.next() : null;
+        for (Player before : basePlayers) {
+            int seat = base.getSeat(before);
+            if (after == null || current.getSeat(after) != seat) {
+                continue;
+            }
+            for (int code = 0; code < ChessPiece.CODES; code++) {
+                int diff = after.getPile().count(code) - before.getPile().count(code);
+                while (diff != 0) {
+                    int step = Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, diff));
+                    putU16(out, seat);
+                    out.put((byte) code);
+                    out.put((byte) step);
+                    diff -= step;
+                    changes++;
+                }
+            }
+            after = remaining.hasNext() ? remaining.next() : null;
+        }
+        putU16(out, countAt, changes);
+
+        List<ChessPiece> baseDiscard = base.getDiscard();
+        List<ChessPiece> discard = current.getDiscard();
+        int kept = 0;
+        int limit = Math.min(baseDiscard.size(), discard.size());
+        while (kept < limit && baseDiscard.get(kept).getCode() == discard.get(kept).getCode()) {
+            kept++;
+        }
+        putU16(out, kept);
+        putU16(out, discard.size() - kept);
+        for (int i = kept; i < discard.size(); i++) {
+            out.put((byte) discard.get(i).getCode());
+        }
+
+        writeUnownedEdit(base.getUnowned(), current.getUnowned(), out);
+        if (out.position() - start > encodedSize(current)) {
+            fallBack(current, out, start);
+        }
+    }
+
+    /**
+     * Reads one encoding. A full snapshot is decoded into a new State; a delta is applied to base
+     * in place and base is returned.
+     *
+     * @throws IllegalArgumentException if the format is unknown, or a delta does not belong to base
+     */
+    public static State read(ByteBuffer in, State base) {
+        byte format = in.get();
+        if (format == FORMAT_FULL) {
+            return readFull(in);
+        }
+        if (format != FORMAT_DELTA) {
+            throw new IllegalArgumentException("Unknown state format " + format);
+        }
+        if (base == null || in.getLong() != base.hash()) {
+            throw new IllegalArgumentException("Delta was written against a different state");
+        }
+        long expected = in.getLong();
+        int currentPlayerIndex = getU16(in);
+        int flags = in.get();
+
+        List<Player> players = base.getPlayers();
+        for (int n = getU16(in); n > 0; n--) {
+            players.remove(playerAt(base, getU16(in)));
+        }
+        for (int n = getU16(in); n > 0; n--) {
+            Pile pile = playerAt(base, getU16(in)).getPile();
+            int code = in.get();
+            int diff = in.get();
+            for (; diff > 0; diff--) {
+                pile.addCode(code);
+            }
+            for (; diff < 0; diff++) {
+                pile.removeCode(code);
+            }
+        }
+
+        List<ChessPiece> discard = base.getDiscard();
+        int kept = getU16(in);
+        while (discard.size() > kept) {
+            discard.remove(discard.size() - 1);
+        }
+        for (int n = getU16(in); n > 0; n--) {
+            discard.add(ChessPiece.of(in.get()));
+        }
+
+        Deck unowned = base.getUnowned();
+        int removed = getU16(in);
+        int[] indices = new int[removed];
+        for (int i = 0; i < removed; i++) {
+            indices[i] = getU16(in);
+        }
+        // Highest index first, so earlier removals do not shift later ones
+        for (int i = removed - 1; i >= 0; i--) {
+            unowned.remove(indices[i]);
+        }
+        for (int n = getU16(in); n > 0; n--) {
+            unowned.add(ChessPiece.of(in.get()));
+        }
+
+        base.setCurrentPlayerIndex(currentPlayerIndex);
+        base.setTurnOrderReversed((flags & REVERSED) != 0);
+        if (base.hash() != expected) {
+            throw new IllegalArgumentException("State after applying the delta does not match");
+        }
+        return base;
+    }
+
+    public static State read(ByteBuffer in) {
+        return read(in, null);
+    }
+
+    private static State readFull(ByteBuffer in) {
+        State state = new State();
+        int players = getU16(in);
+        int currentPlayerIndex = getU16(in);
+        int flags = in.get();
+        for (int i = 0; i < players; i++) {
+            int seat = getU16(in);
+            // Fill the pile before seating it, so the state indexes it once
+            Player player = new Player(new ArrayList<>());
+            for (int n = getU16(in); n > 0; n--) {
+                player.getPile().addCode(in.get());
+            }
+            state.addPlayer(player, seat);
+        }
+        List<ChessPiece> discard = state.getDiscard();
+        for (int n = getU16(in); n > 0; n--) {
+            discard.add(ChessPiece.of(in.get()));
+        }
+        Deck unowned = state.getUnowned();
+        for (int n = getU16(in); n > 0; n--) {
+            unowned.add(ChessPiece.of(in.get()));
+        }
+        state.setCurrentPlayerIndex(currentPlayerIndex);
+        state.setTurnOrderReversed((flags & REVERSED) != 0);
+        return state;
+    }
+
+    /**
+     * Writes current as base with some pieces removed and others appended at the back, which is
+     * how draws, monopoly draws and returns to the deck change it. Any other change still
+     * round-trips, it just encodes more pieces.
+     */
+    private static void writeUnownedEdit(Deck base, Deck current, ByteBuffer out) {
+        int countAt = out.position();
+        putU16(out, 0);
+        int removed = 0;
+        int index = 0;
+        int matched = 0;
+        Iterator<ChessPiece> rest = current.iterator();
+        ChessPiece next = rest.hasNext() ? rest.next() : null;
+        for (ChessPiece piece : base) {
+            if (next != null && next.getCode() == piece.getCode()) {
+                matched++;
+                next = rest.hasNext() ? rest.next() : null;
+            } else {
+                putU16(out, index);
+                removed++;
+            }
+            index++;
+        }
+        putU16(out, countAt, removed);
+        putU16(out, current.size() - matched);
+        if (next != null) {
+            out.put((byte) next.getCode());
+            while (rest.hasNext()) {
+                out.put((byte) rest.next().getCode());
+            }
+        }
+    }
+
+    private static void fallBack(State current, ByteBuffer out, int start) {
+        out.position(start);
+        write(current, out);
+    }
+
+    private static Player playerAt(State state, int seat) {
+        for (Player player : state.getPlayers()) {
+            if (state.getSeat(player) == seat) {
+                return player;
+            }
+        }
+        throw new IllegalArgumentException("No player in seat " + seat);
+    }
+
+    /**
+     * Rejects a state whose counts or seats would not survive putU16(), before anything is written.
+     */
+    private static void checkRange(State state) {
+        checkU16("player count", state.getPlayers().size());
+        for (Player player : state.getPlayers()) {
+            checkU16("seat", state.getSeat(player));
+            checkU16("pile size", player.getPile().size());
+        }
+        checkU16("discard size", state.getDiscard().size());
+        checkU16("Unowned size", state.getUnowned().size());
+    }
+
+    private static void checkU16(String what, int value) {
+        if ((value & ~0xFFFF) != 0) {
+            throw new IllegalArgumentException("Cannot encode " + what + " " + value + ": the limit is 65535");
+        }
+    }
+
+    private static void putU16(ByteBuffer out, int value) {
+        checkU16("count", value);
+        out.putShort((short) value);
+    }
+
+    private static void putU16(ByteBuffer out, int index, int value) {
+        checkU16("count", value);
+        out.putShort(index, (short) value);
+    }
+
+    private static int getU16(ByteBuffer in) {
+        return in.getShort() & 0xFFFF;
+    }
+}
@@ -0,0 +1,19 @@
+package events;
+
+/**
+ * What a subscriber that has fallen behind the ChangeBus gets. The game thread never waits for
+ * a subscriber either way.
+ */
+public enum Backpressure {
+    /**
+     * Every change in order, except those the ring overwrote before the subscriber read them,
+     * which are skipped and counted (Subscription.getDropped()).
+     */
+    DROP,
+    /**
+     * Only the newest change available at each read; the ones before it are skipped and counted
+     * (Subscription.getCoalesced()). Each event carries a summary of the whole state, so the
+     * newest one is enough for anything that just mirrors the game, like a UI.
+     */
+    COALESCE
+}
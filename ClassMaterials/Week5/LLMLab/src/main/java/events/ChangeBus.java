@@ -0,0 +1,159 @@
+package events;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import AIGeneratedCode.ActionListener;
+import AIGeneratedCode.BusinessLogic;
+import AIGeneratedCode.ChessPiece;
+import AIGeneratedCode.Player;
+import AIGeneratedCode.State;
+
+/**
+ * Publishes every change to one game to any number of subscribers, Disruptor-style.
+ *
+ * The bus listens to the game (see ActionListener) and, on the game's thread, writes each change
+ * into the next slot of a preallocated ring and then advances the published cursor. There is
+ * exactly one producer, so claiming a slot is a plain increment, and the producer never looks at
+ * the subscribers: it simply overwrites the oldest slot. Every slot carries its sequence number
+ * as a seqlock, so a subscriber that reads a slot while it is being overwritten notices and
+ * treats that change as lost. Each subscriber keeps its own position and reads everything that
+ * has been published since in one batch (see Subscription.poll()); what it does when it has
+ * fallen more than a ring behind is its Backpressure policy.
+ *
+ * Publishing a change costs a dozen field writes and two ordered stores, and allocates nothing.
+ */
+public class ChangeBus implements ActionListener, AutoCloseable {
+    private static final VarHandle CURSOR;
+
+    static {
+        try {
+            CURSOR = MethodHandles.lookup().findVarHandle(ChangeBus.class, "cursor", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final BusinessLogic game;
+    private final ChangeEvent[] ring;
+    private final int mask;
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile long cursor = -1; // last published sequence
+    private long next = 0; // only touched by the game thread
+    private volatile boolean closed = false;
+
+    /**
+     * Starts publishing game's changes into a ring of the given capacity (rounded up to a power of
+     * two). Must be called on the game's thread, before the moves to publish.
+     */
+    public ChangeBus(BusinessLogic game, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        int size = Integer.highestOneBit(capacity * 2 - 1);
+        this.game = game;
+        this.ring = new ChangeEvent[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            ring[i] = new ChangeEvent();
+        }
+        game.addActionListener(this);
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+     * Sequence of the last published change, or -1 before the first.
+     */
+    public long getCursor() {
+        return (long) CURSOR.getAcquire(this);
+    }
+
+    /**
+     * Opens a subscription starting after the last published change, to be drained by the
+     * caller with Subscription.poll().
+     */
+    public Subscription open(Backpressure backpressure) {
+        Subscription subscription = new Subscription(this, backpressure, getCursor() + 1);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Opens a subscription and drains it with handler on a new daemon thread, which waits for
+     * changes by spinning briefly, then yielding, then parking. close() on the subscription or
+     * the bus stops it once it has caught up.
+     */
+    public Subscription subscribe(ChangeHandler handler, Backpressure backpressure) {
+        Subscription subscription = open(backpressure);
+        subscription.start(handler);
+        return subscription;
+    }
+
+    void remove(Subscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void onAction(Player player, int seat, int action, int pieceCode) {
+        long sequence = next++;
+        ChangeEvent slot = ring[(int) sequence & mask];
+        ChangeEvent.SEQUENCE.setOpaque(slot, -1L);
+        VarHandle.storeStoreFence();
+
+        State state = game.getState();
+        Player current = state.getCurrentPlayer();
+        ChessPiece top = state.getDiscard().top();
+        slot.action = action;
+        slot.seat = seat;
+        slot.pieceCode = pieceCode;
+        slot.currentSeat = current == null ? -1 : state.getSeat(current);
+        slot.players = state.getPlayers().size();
+        slot.reversed = state.isTurnOrderReversed();
+        slot.gameOver = game.isGameOver();
+        slot.unowned = state.getUnowned().size();
+        slot.discardTotal = state.getDiscard().getTotal();
+        slot.discardTop = top == null ? -1 : top.getCode();
+        slot.hash = state.hash();
+
+        ChangeEvent.SEQUENCE.setRelease(slot, sequence);
+        CURSOR.setRelease(this, sequence);
+    }
+
+    /**
+     * Copies change sequence into event. Returns false if it has already been overwritten, or
+     * was overwritten during the copy.
+     */
+    boolean read(long sequence, ChangeEvent event) {
+        ChangeEvent slot = ring[(int) sequence & mask];
+        if ((long) ChangeEvent.SEQUENCE.getAcquire(slot) != sequence) {
+            return false;
+        }
+        event.copyFrom(slot);
+        VarHandle.loadLoadFence();
+        if ((long) ChangeEvent.SEQUENCE.getOpaque(slot) != sequence) {
+            return false;
+        }
+        event.sequence = sequence;
+        return true;
+    }
+
+    /**
+     * Stops publishing. Subscriber threads deliver what was already published, then exit.
+     */
+    @Override
+    public void close() {
+        game.removeActionListener(this);
+        closed = true;
+        for (Subscription subscription : subscriptions) {
+            subscription.wake();
+        }
+    }
+}
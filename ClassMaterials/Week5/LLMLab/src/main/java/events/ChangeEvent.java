@@ -0,0 +1,135 @@
+package events;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import AIGeneratedCode.Action;
+import AIGeneratedCode.ChessPiece;
+
+/**
+ * One change to a game: the move that caused it and a summary of the state right after it.
+ *
+ * Instances are ring slots, preallocated by ChangeBus and overwritten in place, and the copies
+ * handed to a ChangeHandler are reused too, so nothing is allocated per change.
+ */
+public final class ChangeEvent {
+    static final VarHandle SEQUENCE;
+
+    static {
+        try {
+            SEQUENCE = MethodHandles.lookup().findVarHandle(ChangeEvent.class, "sequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** The change's position in the bus, or -1 while its slot is being written. */
+    long sequence = -1;
+    int action;
+    int seat;
+    int pieceCode;
+    int currentSeat;
+    int players;
+    boolean reversed;
+    boolean gameOver;
+    int unowned;
+    int discardTotal;
+    int discardTop;
+    long hash;
+
+    ChangeEvent() {
+    }
+
+    void copyFrom(ChangeEvent other) {
+        action = other.action;
+        seat = other.seat;
+        pieceCode = other.pieceCode;
+        currentSeat = other.currentSeat;
+        players = other.players;
+        reversed = other.reversed;
+        gameOver = other.gameOver;
+        unowned = other.unowned;
+        discardTotal = other.discardTotal;
+        discardTop = other.discardTop;
+        hash = other.hash;
+    }
+
+    /**
+     * Position in the bus: 0 for the first change, then one more per change.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * The int-encoded move (see Action).
+     */
+    public int getAction() {
+        return action;
+    }
+
+    /**
+     * Seat of the player who moved.
+     */
+    public int getSeat() {
+        return seat;
+    }
+
+    /**
+     * Code of the piece discarded or drawn, or -1 for a forfeit.
+     */
+    public int getPieceCode() {
+        return pieceCode;
+    }
+
+    /**
+     * Seat of the player to move next, or -1 if nobody is left.
+     */
+    public int getCurrentSeat() {
+        return currentSeat;
+    }
+
+    public int getPlayerCount() {
+        return players;
+    }
+
+    public boolean isTurnOrderReversed() {
+        return reversed;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public int getUnownedSize() {
+        return unowned;
+    }
+
+    /**
+     * Pieces in the discard pile, including any a bounded pile no longer shows.
+     */
+    public int getDiscardTotal() {
+        return discardTotal;
+    }
+
+    /**
+     * Code of the top discard, or -1 if the pile is empty.
+     */
+    public int getDiscardTop() {
+        return discardTop;
+    }
+
+    /**
+     * State.hash() after the change, for replicas to check they are in step.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " seat " + seat + " " + Action.toString(action)
+            + (pieceCode >= 0 && Action.kind(action) != Action.KIND_DISCARD ? " " + ChessPiece.of(pieceCode) : "")
+            + " -> seat " + currentSeat + " to move";
+    }
+}
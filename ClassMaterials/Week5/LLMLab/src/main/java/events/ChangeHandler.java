@@ -0,0 +1,13 @@
+package events;
+
+/**
+ * Receives changes from a Subscription, on the thread that polls it.
+ */
+@FunctionalInterface
+public interface ChangeHandler {
+    /**
+     * @param event the change; the object is reused for the next one, so copy what you keep
+     * @param endOfBatch true for the last event of this poll, e.g. to flush output once per batch
+     */
+    void onChange(ChangeEvent event, boolean endOfBatch);
+}
@@ -0,0 +1,143 @@
+package events;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One subscriber's position in a ChangeBus. Only one thread may poll a subscription at a time
+ * (the thread started by ChangeBus.subscribe(), or the caller for ChangeBus.open()).
+ */
+public final class Subscription implements AutoCloseable {
+    private static final int SPINS = 100;
+    private static final int YIELDS = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    private final ChangeBus bus;
+    private final Backpressure backpressure;
+    private final ChangeEvent event = new ChangeEvent();
+    private long next; // next sequence to deliver
+    private volatile long dropped = 0;
+    private volatile long coalesced = 0;
+    private volatile boolean closed = false;
+    private Thread thread;
+
+    Subscription(ChangeBus bus, Backpressure backpressure, long next) {
+        this.bus = bus;
+        this.backpressure = backpressure;
+        this.next = next;
+    }
+
+    public Backpressure getBackpressure() {
+        return backpressure;
+    }
+
+    /**
+     * Changes skipped because the ring overwrote them first (DROP).
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Changes skipped in favour of a newer one (COALESCE).
+     */
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * Sequence of the next change this subscription will deliver.
+     */
+    public long getPosition() {
+        return next;
+    }
+
+    /**
+     * Delivers up to maxBatch published changes to handler and returns how many it delivered;
+     * with COALESCE that is at most one per call. Never waits.
+     */
+    public int poll(ChangeHandler handler, int maxBatch) {
+        int delivered = 0;
+        while (delivered < maxBatch) {
+            long available = bus.getCursor();
+            if (next > available) {
+                break;
+            }
+            long oldest = available - bus.getCapacity() + 1;
+            if (next < oldest) {
+                dropped += oldest - next;
+                next = oldest;
+            }
+            if (backpressure == Backpressure.COALESCE && next < available) {
+                coalesced += available - next;
+                next = available;
+            }
+            if (!bus.read(next, event)) {
+                continue; // overwritten while copying; the next pass skips past it
+            }
+            next++;
+            delivered++;
+            boolean coalescing = backpressure == Backpressure.COALESCE;
+            handler.onChange(event, coalescing || delivered == maxBatch || next > available);
+            if (coalescing) {
+                break;
+            }
+        }
+        return delivered;
+    }
+
+    void start(ChangeHandler handler) {
+        thread = new Thread(() -> run(handler), "change-bus-subscriber");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run(ChangeHandler handler) {
+        int idle = 0;
+        long stopAt = Long.MAX_VALUE;
+        while (true) {
+            // Read the flags before the cursor, so everything published before close() is delivered
+            if (stopAt == Long.MAX_VALUE && (closed || bus.isClosed())) {
+                stopAt = bus.getCursor();
+            }
+            if (next > stopAt) {
+                return;
+            }
+            if (poll(handler, bus.getCapacity()) > 0) {
+                idle = 0;
+            } else if (idle < SPINS) {
+                idle++;
+                Thread.onSpinWait();
+            } else if (idle < SPINS + YIELDS) {
+                idle++;
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+        }
+    }
+
+    void wake() {
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Waits until the subscriber thread has delivered everything published before it stopped.
+     */
+    public void join() throws InterruptedException {
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Unsubscribes. A subscriber thread delivers what was already published, then exits.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        bus.remove(this);
+        wake();
+    }
+}
@@ -0,0 +1,239 @@
+package host;
+
+import AIGeneratedCode.BusinessLogic;
+import AIGeneratedCode.ChessPiece;
+import AIGeneratedCode.Player;
+import AIGeneratedCode.StateSnapshot;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * One hosted game, run as an actor.
+ *
+ * Callers on any thread submit commands to the game's mailbox; at most one pool task drains the
+ * mailbox at a time (the scheduled flag), so the BusinessLogic inside is single-writer and needs
+ * no locking. After each drained batch the actor publishes one immutable StateSnapshot, which
+ * the api.BusinessLogic getters read and which is pushed to every subscriber on the actor's
+ * thread. A batch is capped so one busy game cannot starve the others sharing the pool.
+ */
+public class GameHandle implements api.BusinessLogic {
+    /** Command that replaces a finished (or running) game with a fresh deal. */
+    static final int RESTART = -1;
+    /** Commands that add or remove a subscriber; they do not touch the game. */
+    private static final int SUBSCRIBE = -2;
+    private static final int UNSUBSCRIBE = -3;
+    private static final int MAX_BATCH = 64;
+
+    private final GameHost host;
+    private final long id;
+    private final ConcurrentLinkedQueue<Command> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final CopyOnWriteArrayList<Consumer<StateSnapshot>> subscribers = new CopyOnWriteArrayList<>();
+    private final Runnable drain = this::drain;
+    private volatile boolean closed = false;
+    private volatile StateSnapshot snapshot;
+    private final Command[] batch = new Command[MAX_BATCH];
+    private BusinessLogic game; // only touched by the draining task
+    private long version = 0;
+
+    GameHandle(GameHost host, long id, BusinessLogic game) {
+        this.host = host;
+        this.id = id;
+        this.game = game;
+        this.snapshot = StateSnapshot.of(game, version);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Queues an action (see AIGeneratedCode.Action) for the current player. The future completes
+     * with BusinessLogic.apply()'s result once the actor has run it.
+     */
+    public CompletableFuture<Boolean> submit(int action) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        enqueue(new Command(action, 0, result));
+        return result;
+    }
+
+    /**
+     * Queues a restart: the game is replaced by a fresh deal shuffled from seed.
+     */
+    public CompletableFuture<Boolean> restart(long seed) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        enqueue(new Command(RESTART, seed, result));
+        return result;
+    }
+
+    /**
+     * Queues a subscription: once the actor reaches it, subscriber gets the latest snapshot, and
+     * then every snapshot published after a batch of commands, in order. Subscribers run on the
+     * actor's thread and must not block. One that throws is unsubscribed and its exception passed
+     * to that thread's uncaught exception handler; the game and the other subscribers carry on.
+     */
+    public CompletableFuture<Boolean> subscribe(Consumer<StateSnapshot> subscriber) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        enqueue(new Command(SUBSCRIBE, subscriber, result));
+        return result;
+    }
+
+    /**
+     * Queues removing a subscriber; the future completes with whether it was subscribed.
+     */
+    public CompletableFuture<Boolean> unsubscribe(Consumer<StateSnapshot> subscriber) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        enqueue(new Command(UNSUBSCRIBE, subscriber, result));
+        return result;
+    }
+
+    /**
+     * The most recently published snapshot.
+     */
+    public StateSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public List<Player> getPlayers() {
+        return snapshot.getPlayers();
+    }
+
+    @Override
+    public List<ChessPiece> getDiscard() {
+        return snapshot.getDiscard();
+    }
+
+    @Override
+    public List<ChessPiece> getUnowned() {
+        return snapshot.getUnowned();
+    }
+
+    void markClosed() {
+        closed = true;
+    }
+
+    private void enqueue(Command command) {
+        if (closed) {
+            command.result.completeExceptionally(new IllegalStateException("Game " + id + " is closed"));
+            return;
+        }
+        mailbox.add(command);
+        if (scheduled.compareAndSet(false, true)) {
+            host.schedule(drain);
+        }
+    }
+
+    private void drain() {
+        int processed = 0;
+        boolean played = false;
+        Command command;
+        while (processed < MAX_BATCH && (command = mailbox.poll()) != null) {
+            if (played && command.subscriber != null) {
+                // A new subscriber starts from the state it was queued behind
+                publish();
+                played = false;
+            }
+            try {
+                command.applied = run(command);
+            } catch (RuntimeException e) {
+                command.failure = e;
+            }
+            played |= command.subscriber == null;
+            batch[processed++] = command;
+        }
+        if (processed > 0) {
+            // Publish before completing, so a caller woken by its future sees its own command
+            try {
+                if (played) {
+                    publish();
+                }
+            } finally {
+                for (int i = 0; i < processed; i++) {
+                    complete(batch[i]);
+                    batch[i] = null;
+                }
+            }
+        }
+        // Release the actor, then re-check so a command enqueued after the last poll is not stranded
+        scheduled.set(false);
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+            host.schedule(drain);
+        }
+    }
+
+    private void complete(Command command) {
+        if (command.subscriber == null) {
+            host.completed(System.nanoTime() - command.submittedNanos, command.applied);
+        }
+        if (command.failure != null) {
+            command.result.completeExceptionally(command.failure);
+        } else {
+            command.result.complete(command.applied);
+        }
+    }
+
+    private boolean run(Command command) {
+        if (command.action == SUBSCRIBE) {
+            subscribers.add(command.subscriber);
+            deliver(command.subscriber, snapshot);
+            return true;
+        }
+        if (command.action == UNSUBSCRIBE) {
+            return subscribers.remove(command.subscriber);
+        }
+        if (command.action == RESTART) {
+            game = GameHost.newGame(command.seed);
+            game.setGameId(id);
+            return true;
+        }
+        return game.apply(command.action);
+    }
+
+    private void publish() {
+        StateSnapshot next = StateSnapshot.of(game, ++version);
+        snapshot = next;
+        for (Consumer<StateSnapshot> subscriber : subscribers) {
+            deliver(subscriber, next);
+        }
+    }
+
+    private void deliver(Consumer<StateSnapshot> subscriber, StateSnapshot next) {
+        try {
+            subscriber.accept(next);
+        } catch (RuntimeException e) {
+            subscribers.remove(subscriber);
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    private static final class Command {
+        final int action;
+        final long seed;
+        final Consumer<StateSnapshot> subscriber;
+        final CompletableFuture<Boolean> result;
+        final long submittedNanos = System.nanoTime();
+        boolean applied;
+        RuntimeException failure;
+
+        Command(int action, long seed, CompletableFuture<Boolean> result) {
+            this.action = action;
+            this.seed = seed;
+            this.subscriber = null;
+            this.result = result;
+        }
+
+        Command(int action, Consumer<StateSnapshot> subscriber, CompletableFuture<Boolean> result) {
+            this.action = action;
+            this.seed = 0;
+            this.subscriber = subscriber;
+            this.result = result;
+        }
+    }
+}
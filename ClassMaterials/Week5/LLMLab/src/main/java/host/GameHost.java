@@ -0,0 +1,130 @@
+package host;
+
+import AIGeneratedCode.BusinessLogic;
+import metrics.LatencyHistogram;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hosts many independent games in one JVM.
+ *
+ * Every game is a single-writer actor (see GameHandle): its BusinessLogic is only ever touched by
+ * the one task currently draining that game's mailbox, so games need no locks and never contend
+ * with each other. Actor tasks run on a shared work-stealing pool in FIFO (async) mode, so
+ * thousands of mostly idle games cost a queue and a few objects each rather than a thread each.
+ */
+public class GameHost implements AutoCloseable {
+    private final Executor executor;
+    private final ForkJoinPool ownedPool;
+    private final ConcurrentHashMap<Long, GameHandle> games = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder actionsApplied = new LongAdder();
+
+    /**
+     * Creates a host with its own pool, one worker per available processor.
+     */
+    public GameHost() {
+        this(new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+            ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true), true);
+    }
+
+    /**
+     * Creates a host whose actors run on the given executor; close() does not shut it down.
+     */
+    public GameHost(Executor executor) {
+        this(executor, false);
+    }
+
+    private GameHost(Executor executor, boolean owned) {
+        this.executor = executor;
+        this.ownedPool = owned ? (ForkJoinPool) executor : null;
+    }
+
+    /**
+     * Starts a new game with the standard deal and an Unowned pile shuffled from seed.
+     */
+    public GameHandle open(long seed) {
+        long id = nextId.getAndIncrement();
+        BusinessLogic game = newGame(seed);
+        // Use the host's id in JFR events too
+        game.setGameId(id);
+        GameHandle handle = new GameHandle(this, id, game);
+        games.put(id, handle);
+        return handle;
+    }
+
+    /**
+     * Returns the game with the given id, or null if it was never opened or has been closed.
+     */
+    public GameHandle get(long id) {
+        return games.get(id);
+    }
+
+    public Collection<GameHandle> getGames() {
+        return Collections.unmodifiableCollection(games.values());
+    }
+
+    public int size() {
+        return games.size();
+    }
+
+    /**
+     * Stops hosting a game. Commands already queued still run; later submits fail.
+     */
+    public void close(GameHandle handle) {
+        games.remove(handle.getId());
+        handle.markClosed();
+    }
+
+    /**
+     * Submit-to-completion latency of every command, in nanoseconds.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getActionsApplied() {
+        return actionsApplied.sum();
+    }
+
+    @Override
+    public void close() {
+        for (GameHandle handle : games.values()) {
+            close(handle);
+        }
+        if (ownedPool != null) {
+            ownedPool.shutdown();
+            try {
+                ownedPool.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    static BusinessLogic newGame(long seed) {
+        BusinessLogic game = new BusinessLogic();
+        game.getUnowned().shuffle(new SplittableRandom(seed));
+        return game;
+    }
+
+    void schedule(Runnable actor) {
+        executor.execute(actor);
+    }
+
+    void completed(long latencyNanos, boolean applied) {
+        latency.record(latencyNanos);
+        if (applied) {
+            actionsApplied.increment();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package host;
+
+import AIGeneratedCode.StateSnapshot;
+
+import java.util.SplittableRandom;
+
+/**
+ * Closed-loop load test for GameHost: every game has one client that waits for the next snapshot,
+ * picks a random legal action from it and submits it, restarting the game when it ends. Reports
+ * command throughput and submit-to-completion latency percentiles.
+ *
+ * Usage: HostLoadTest [games=10000] [seconds=10] [seed=1]
+ */
+public class HostLoadTest {
+    public static void main(String[] args) throws InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        try (GameHost host = new GameHost()) {
+            SplittableRandom seeds = new SplittableRandom(seed);
+            for (int i = 0; i < games; i++) {
+                GameHandle handle = host.open(seeds.nextLong());
+                handle.subscribe(new RandomClient(handle, seeds.split()));
+            }
+            // Warm up, then measure a clean window
+            Thread.sleep(Math.min(2000, seconds * 200L));
+            host.getLatency().reset();
+            long startActions = host.getActionsApplied();
+            long start = System.nanoTime();
+            Thread.sleep(seconds * 1000L);
+            long elapsed = System.nanoTime() - start;
+            long actions = host.getActionsApplied() - startActions;
+
+            System.out.printf("games=%d threads=%d%n", host.size(), Runtime.getRuntime().availableProcessors());
+            System.out.printf("actions/s=%.0f%n", actions / (elapsed / 1e9));
+            System.out.printf("latency p50=%.1fus p99=%.1fus max=%.1fus%n",
+                host.getLatency().getPercentile(50) / 1e3,
+                host.getLatency().getPercentile(99) / 1e3,
+                host.getLatency().getMax() / 1e3);
+        }
+    }
+
+    /**
+     * A client that always has exactly one command in flight for its game.
+     */
+    private static final class RandomClient implements java.util.function.Consumer<StateSnapshot> {
+        private final GameHandle handle;
+        private final SplittableRandom random;
+
+        RandomClient(GameHandle handle, SplittableRandom random) {
+            this.handle = handle;
+            this.random = random;
+        }
+
+        @Override
+        public void accept(StateSnapshot snapshot) {
+            if (snapshot.isGameOver() || snapshot.getLegalActionCount() == 0) {
+                handle.restart(random.nextLong());
+                return;
+            }
+            // Forfeit is always listed last; avoid it so games run their course
+            int choices = Math.max(1, snapshot.getLegalActionCount() - 1);
+            handle.submit(snapshot.getLegalAction(random.nextInt(choices)));
+        }
+    }
+}
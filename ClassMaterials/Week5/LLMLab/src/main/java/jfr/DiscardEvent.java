@@ -0,0 +1,18 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("llmlab.Discard")
+@Label("Discard")
+@Category({"LLMLab", "Game"})
+@StackTrace(false)
+public class DiscardEvent extends GameEvent {
+    @Label("Piece")
+    public String piece;
+
+    @Label("Accepted")
+    public boolean accepted;
+}
@@ -0,0 +1,30 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A draw from the Unowned pile, either the forced draw or a monopoly pawn draw.
+ */
+@Name("llmlab.Draw")
+@Label("Draw")
+@Category({"LLMLab", "Game"})
+@StackTrace(false)
+public class DrawEvent extends GameEvent {
+    @Label("Piece")
+    @Description("The piece drawn, or null if the draw was rejected")
+    public String piece;
+
+    @Label("Monopoly Pawn")
+    public boolean monopoly;
+
+    @Label("Reshuffled")
+    @Description("Whether the discards were reshuffled into the Unowned pile first")
+    public boolean reshuffled;
+
+    @Label("Unowned Left")
+    public int unownedLeft;
+}
@@ -0,0 +1,15 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("llmlab.Forfeit")
+@Label("Forfeit")
+@Category({"LLMLab", "Game"})
+@StackTrace(false)
+public class ForfeitEvent extends GameEvent {
+    @Label("Players Left")
+    public int playersLeft;
+}
@@ -0,0 +1,20 @@
+package jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Fields shared by every game event. Events are emitted by BusinessLogic with the usual
+ * isEnabled()/shouldCommit() checks, so a game running without a recording (or with these
+ * events disabled) only pays for an allocation the JIT removes and a constant-folded check.
+ */
+public abstract class GameEvent extends Event {
+    @Label("Game Id")
+    @Description("BusinessLogic.getGameId() of the game the event happened in")
+    public long gameId;
+
+    @Label("Player")
+    @Description("Seat (index in the original deal) of the player who acted, or -1")
+    public int player;
+}
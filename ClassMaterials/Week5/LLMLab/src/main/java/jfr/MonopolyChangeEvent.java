@@ -0,0 +1,29 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Stage 4: a color's monopoly was gained, lost or passed to another player by an action.
+ * player is the seat of the player whose action caused it. The event is committed once the
+ * action is over and is not timed, so it has no duration; the action's own event carries that.
+ */
+@Name("llmlab.MonopolyChange")
+@Label("Monopoly Change")
+@Category({"LLMLab", "Game"})
+@StackTrace(false)
+public class MonopolyChangeEvent extends GameEvent {
+    @Label("Color")
+    public String color;
+
+    @Label("Previous Holder")
+    @Description("Seat of the previous holder, or -1 if nobody held the monopoly")
+    public int previousHolder;
+
+    @Label("New Holder")
+    @Description("Seat of the new holder, or -1 if nobody holds the monopoly now")
+    public int newHolder;
+}
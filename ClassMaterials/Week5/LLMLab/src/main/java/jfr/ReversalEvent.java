@@ -0,0 +1,20 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Stage 3: a rainbow discard reversed the turn order. Instant; the discard event has the timing.
+ */
+@Name("llmlab.Reversal")
+@Label("Turn Order Reversal")
+@Category({"LLMLab", "Game"})
+@StackTrace(false)
+public class ReversalEvent extends GameEvent {
+    @Label("Reversed")
+    @Description("The turn order after the discard")
+    public boolean reversed;
+}
@@ -0,0 +1,24 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call to BusinessLogic.apply(), i.e. one turn taken through the int action encoding.
+ */
+@Name("llmlab.Turn")
+@Label("Turn")
+@Category({"LLMLab", "Game"})
+@Description("A turn applied through BusinessLogic.apply()")
+@StackTrace(false)
+public class TurnEvent extends GameEvent {
+    @Label("Action")
+    public String action;
+
+    @Label("Accepted")
+    @Description("Whether the action was legal and applied")
+    public boolean accepted;
+}
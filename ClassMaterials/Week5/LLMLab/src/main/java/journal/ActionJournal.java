@@ -0,0 +1,235 @@
+package journal;
+
+import AIGeneratedCode.Action;
+import AIGeneratedCode.ActionListener;
+import AIGeneratedCode.BusinessLogic;
+import AIGeneratedCode.ChessPiece;
+import AIGeneratedCode.DiscardPile;
+import AIGeneratedCode.DiscardRules;
+import AIGeneratedCode.Player;
+import AIGeneratedCode.State;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An append-only, memory-mapped journal of one game: the deal, then every move.
+ *
+ * Each record is a single 8-byte word (see JournalRecord), written with one putLong into a mapped
+ * segment of the file, so an append is a few nanoseconds and never blocks on I/O. A background
+ * flusher thread forces the mapped pages to disk every flush interval (group commit); sync()
+ * waits until everything appended so far is durable. The file is zero-filled past the last
+ * record, so after a crash replay() simply stops at the first empty word.
+ *
+ * Appends come from the game's own thread (the journal is an ActionListener), so there is a
+ * single writer; only the flusher runs concurrently. close() detaches the journal from the game,
+ * so moves made after it are no longer recorded.
+ */
+public class ActionJournal implements ActionListener, AutoCloseable {
+    /** First word of every journal file: "LLMJRNL" and a format version. */
+    static final long MAGIC = 0x4C4C4D4A524E4C01L;
+    private static final int SEGMENT_BYTES = 1 << 20;
+    private static final long DEFAULT_FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private final FileChannel channel;
+    private final long flushIntervalNanos;
+    private final Thread flusher;
+    private final ConcurrentLinkedQueue<MappedByteBuffer> retired = new ConcurrentLinkedQueue<>();
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong forced = new AtomicLong();
+    private volatile MappedByteBuffer segment;
+    private volatile boolean closed = false;
+    private long segmentIndex = -1;
+    private int position;
+    private int sequence = 0;
+    private BusinessLogic game;
+
+    private ActionJournal(Path file, long flushIntervalNanos) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.flushIntervalNanos = flushIntervalNanos;
+        mapNextSegment();
+        append(MAGIC);
+        this.flusher = new Thread(this::flushLoop, "journal-flusher-" + file.getFileName());
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Creates a new journal file (it must not exist yet) flushed every two milliseconds.
+     */
+    public static ActionJournal create(Path file) throws IOException {
+        return new ActionJournal(file, DEFAULT_FLUSH_INTERVAL_NANOS);
+    }
+
+    public static ActionJournal create(Path file, long flushIntervalNanos) throws IOException {
+        return new ActionJournal(file, flushIntervalNanos);
+    }
+
+    /**
+     * Writes the game's current position as the deal and starts journaling its moves.
+     * The whole deal is written, including the Unowned pile's order, so replay draws the same pieces.
+     * Only games on DiscardRules.STANDARD can be journaled: the rules are code, not data, so
+     * replay() plays by the standard ones.
+     */
+    public void begin(BusinessLogic game) {
+        if (this.game != null) {
+            throw new IllegalStateException("A journal holds a single game");
+        }
+        if (game.getDiscardRules() != DiscardRules.STANDARD) {
+            throw new IllegalArgumentException("Only games on the standard discard rules can be journaled");
+        }
+        this.game = game;
+        State state = game.getState();
+        List<Player> players = state.getPlayers();
+        append(JournalRecord.begin(players.size(), state.getCurrentPlayerIndex(), state.isTurnOrderReversed()));
+        DiscardPile discard = state.getDiscard();
+        append(JournalRecord.rules(discard.getMode(), discard.getCapacity(), state.isReshuffleDiscards()));
+        for (Player player : players) {
+            int seat = state.getSeat(player);
+            append(JournalRecord.player(seat));
+            for (int code = 0; code < ChessPiece.CODES; code++) {
+                for (int left = player.getPile().count(code); left > 0; left -= JournalRecord.MAX_COUNT) {
+                    append(JournalRecord.pile(seat, code, Math.min(left, JournalRecord.MAX_COUNT)));
+                }
+            }
+        }
+        for (int code = 0; code < ChessPiece.CODES; code++) {
+            for (int left = discard.hiddenCount(code); left > 0; left -= JournalRecord.MAX_COUNT) {
+                append(JournalRecord.hidden(code, Math.min(left, JournalRecord.MAX_COUNT)));
+            }
+        }
+        for (ChessPiece piece : discard) {
+            append(JournalRecord.discard(piece.getCode()));
+        }
+        for (ChessPiece piece : state.getUnowned()) {
+            append(JournalRecord.unowned(piece.getCode()));
+        }
+        append(JournalRecord.start());
+        game.addActionListener(this);
+    }
+
+    @Override
+    public void onAction(Player player, int seat, int action, int pieceCode) {
+        if (closed) {
+            return;
+        }
+        append(JournalRecord.action(seat, Action.kind(action), pieceCode, sequence++));
+    }
+
+    /**
+     * Number of records written so far, including the header and deal.
+     */
+    public long getRecordCount() {
+        return appended.get();
+    }
+
+    /**
+     * Blocks until every record appended before this call has been forced to disk.
+     */
+    public void sync() {
+        long target = appended.get();
+        while (forced.get() < target) {
+            if (closed && !flusher.isAlive()) {
+                return;
+            }
+            LockSupport.unpark(flusher);
+            Thread.onSpinWait();
+            Thread.yield();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (game != null) {
+            game.removeActionListener(this);
+        }
+        closed = true;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        channel.close();
+    }
+
+    /**
+     * Rebuilds the game recorded in a journal file: the deal, then every move in order. Stops at
+     * the end of the written records, so a file cut short by a crash replays up to its last
+     * complete move.
+     */
+    public static BusinessLogic replay(Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < Long.BYTES || buffer.getLong() != MAGIC) {
+                throw new IOException("Not a journal file: " + file);
+            }
+            return JournalRecord.replay(buffer);
+        }
+    }
+
+    private void append(long record) {
+        if (position == SEGMENT_BYTES) {
+            retired.add(segment);
+            mapNextSegment();
+        }
+        segment.putLong(position, record);
+        position += Long.BYTES;
+        appended.lazySet(appended.get() + 1);
+    }
+
+    private void mapNextSegment() {
+        segmentIndex++;
+        try {
+            MappedByteBuffer next = channel.map(FileChannel.MapMode.READ_WRITE, segmentIndex * SEGMENT_BYTES, SEGMENT_BYTES);
+            next.order(ByteOrder.LITTLE_ENDIAN);
+            segment = next;
+        } catch (IOException e) {
+            throw new JournalException("Could not grow the journal", e);
+        }
+        position = 0;
+    }
+
+    private void flushLoop() {
+        while (!closed) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            flush();
+        }
+    }
+
+    /**
+     * Group commit: one force covers every record appended since the last one.
+     *
+     * Every record counted in target is in the segment current when target was read, or in one
+     * retired before it. The writer queues a full segment before publishing the next one, so
+     * reading segment after target and only then draining the queue sees all of them, even if
+     * the writer rolls over in between.
+     */
+    private synchronized void flush() {
+        long target = appended.get();
+        if (target == forced.get()) {
+            return;
+        }
+        MappedByteBuffer current = segment;
+        MappedByteBuffer full;
+        while ((full = retired.poll()) != null) {
+            full.force();
+        }
+        current.force();
+        forced.set(target);
+    }
+}
@@ -0,0 +1,17 @@
+package journal;
+
+/**
+ * Thrown when a journal cannot be written, or when replaying it does not reproduce the moves
+ * it recorded.
+ */
+public class JournalException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public JournalException(String message) {
+        super(message);
+    }
+
+    public JournalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,198 @@
+package journal;
+
+import AIGeneratedCode.Action;
+import AIGeneratedCode.BusinessLogic;
+import AIGeneratedCode.ChessPiece;
+import AIGeneratedCode.DiscardMode;
+import AIGeneratedCode.Player;
+import AIGeneratedCode.State;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * The fixed-width journal record: one long, laid out as
+ * type (8 bits) | a (16) | b (8) | c (8) | payload (24), from the high byte down.
+ *
+ * BEGIN     a = player count, c = 1 if turn order is reversed, payload = current player index
+ * RULES     a = DiscardMode ordinal, b = 1 if discards are reshuffled, payload = discard capacity
+ * PLAYER    a = seat (players are listed in rotation order)
+ * PILE      a = seat, b = piece code, c = count (larger counts take several records)
+ * DISCARD   b = piece code (bottom of the discard pile first)
+ * HIDDEN    b = piece code, c = count of pieces a bounded discard pile holds but no longer shows
+ * UNOWNED   b = piece code (front of the deck first)
+ * START     end of the deal
+ * ACTION    a = seat, b = piece code moved (0xFF for a forfeit), c = action kind,
+ *           payload = move number (mod 2^24, to catch lost or reordered records)
+ *
+ * A zero word is never a valid record, so it marks the end of the journal.
+ */
+final class JournalRecord {
+    static final int BEGIN = 1;
+    static final int PLAYER = 2;
+    static final int PILE = 3;
+    static final int DISCARD = 4;
+    static final int UNOWNED = 5;
+    static final int START = 6;
+    static final int ACTION = 7;
+    static final int RULES = 8;
+    static final int HIDDEN = 9;
+
+    static final int MAX_COUNT = 0xFF;
+    private static final int NO_PIECE = 0xFF;
+    private static final int PAYLOAD_MASK = 0xFFFFFF;
+
+    private JournalRecord() {
+    }
+
+    static long begin(int players, int currentPlayerIndex, boolean reversed) {
+        return pack(BEGIN, players, 0, reversed ? 1 : 0, currentPlayerIndex);
+    }
+
+    static long rules(DiscardMode mode, int capacity, boolean reshuffle) {
+        return pack(RULES, mode.ordinal(), reshuffle ? 1 : 0, 0, mode == DiscardMode.BOUNDED ? capacity : 0);
+    }
+
+    static long hidden(int code, int count) {
+        return pack(HIDDEN, 0, code, count, 0);
+    }
+
+    static long player(int seat) {
+        return pack(PLAYER, seat, 0, 0, 0);
+    }
+
+    static long pile(int seat, int code, int count) {
+        return pack(PILE, seat, code, count, 0);
+    }
+
+    static long discard(int code) {
+        return pack(DISCARD, 0, code, 0, 0);
+    }
+
+    static long unowned(int code) {
+        return pack(UNOWNED, 0, code, 0, 0);
+    }
+
+    static long start() {
+        return pack(START, 0, 0, 0, 0);
+    }
+
+    static long action(int seat, int kind, int pieceCode, int sequence) {
+        return pack(ACTION, seat, pieceCode < 0 ? NO_PIECE : pieceCode, kind, sequence);
+    }
+
+    static int type(long record) {
+        return (int) (record >>> 56);
+    }
+
+    static int a(long record) {
+        return (int) (record >>> 40) & 0xFFFF;
+    }
+
+    static int b(long record) {
+        return (int) (record >>> 32) & 0xFF;
+    }
+
+    static int c(long record) {
+        return (int) (record >>> 24) & 0xFF;
+    }
+
+    static int payload(long record) {
+        return (int) record & PAYLOAD_MASK;
+    }
+
+    /**
+     * Rebuilds the game from the records after the header, checking every move against what
+     * was recorded.
+     */
+    static BusinessLogic replay(ByteBuffer buffer) {
+        long record = next(buffer);
+        if (type(record) != BEGIN) {
+            throw new JournalException("Journal does not start with a deal");
+        }
+        int currentPlayerIndex = payload(record);
+        boolean reversed = c(record) == 1;
+        record = next(buffer);
+        State state;
+        if (type(record) == RULES) {
+            state = new State(DiscardMode.values()[a(record)], payload(record));
+            state.setReshuffleDiscards(b(record) == 1);
+            record = next(buffer);
+        } else {
+            state = new State();
+        }
+        Player player = null;
+        int seat = -1;
+        for (; type(record) != START; record = next(buffer)) {
+            switch (type(record)) {
+                case PLAYER:
+                    addPlayer(state, player, seat);
+                    player = new Player(new ArrayList<>());
+                    seat = a(record);
+                    break;
+                case PILE:
+                    for (int i = 0; i < c(record); i++) {
+                        player.getPile().addCode(b(record));
+                    }
+                    break;
+                case DISCARD:
+                    state.getDiscard().add(ChessPiece.of(b(record)));
+                    break;
+                case HIDDEN:
+                    state.getDiscard().addHidden(b(record), c(record));
+                    break;
+                case UNOWNED:
+                    state.getUnowned().add(ChessPiece.of(b(record)));
+                    break;
+                default:
+                    throw new JournalException("Journal ends inside the deal");
+            }
+        }
+        addPlayer(state, player, seat);
+        state.setCurrentPlayerIndex(currentPlayerIndex);
+        state.setTurnOrderReversed(reversed);
+
+        BusinessLogic game = new BusinessLogic(state);
+        int sequence = 0;
+        while ((record = next(buffer)) != 0) {
+            if (type(record) != ACTION || payload(record) != (sequence & PAYLOAD_MASK)) {
+                throw new JournalException("Unexpected record at move " + sequence);
+            }
+            apply(game, record, sequence++);
+        }
+        return game;
+    }
+
+    private static void apply(BusinessLogic game, long record, int sequence) {
+        int kind = c(record);
+        int code = b(record);
+        Player current = game.getCurrentPlayer();
+        if (current == null || game.getSeat(current) != a(record)) {
+            throw new JournalException("Move " + sequence + " was made from another seat");
+        }
+        int action = kind == Action.KIND_DISCARD ? Action.discard(code) : kind << 8;
+        int before = code == NO_PIECE ? 0 : current.getPile().count(code);
+        if (!game.apply(action)) {
+            throw new JournalException("Move " + sequence + " (" + Action.toString(action) + ") is not legal on replay");
+        }
+        if (kind == Action.KIND_DRAW || kind == Action.KIND_MONOPOLY_DRAW) {
+            if (current.getPile().count(code) != before + 1) {
+                throw new JournalException("Move " + sequence + " drew a different piece on replay");
+            }
+        }
+    }
+
+    private static void addPlayer(State state, Player player, int seat) {
+        if (player != null) {
+            state.addPlayer(player, seat);
+        }
+    }
+
+    private static long next(ByteBuffer buffer) {
+        return buffer.remaining() >= Long.BYTES ? buffer.getLong() : 0;
+    }
+
+    private static long pack(int type, int a, int b, int c, int payload) {
+        return ((long) type << 56) | ((long) a << 40) | ((long) b << 32) | ((long) c << 24) | (payload & PAYLOAD_MASK);
+    }
+}
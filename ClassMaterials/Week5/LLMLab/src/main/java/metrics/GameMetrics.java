@@ -0,0 +1,281 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import AIGeneratedCode.Action;
+
+/**
+ * Counters, latency histograms and gauges for the moves made through one or more games
+ * (see BusinessLogic.setMetrics()), readable in process or over JMX once register() is called.
+ *
+ * Every call to discard, draw, drawMonopolyPawn and forfeit bumps a striped LongAdder for its
+ * kind and outcome, so any number of game threads can share one instance without contending.
+ * Reading the clock costs more than the rest of the bookkeeping, so only one call in
+ * getSampleInterval() per game is timed into the LatencyHistogram for its kind and refreshes
+ * the gauges. A game without metrics pays one null check per call (plus the JFR enabled
+ * checks, see the jfr package).
+ */
+public class GameMetrics implements GameMetricsMBean {
+    /** Default sampling: time one call in 64. */
+    public static final int DEFAULT_SAMPLE_INTERVAL = 64;
+
+    private static final int KINDS = 4;
+    private static final String[] KIND_NAMES = {"discard", "draw", "monopoly draw", "forfeit"};
+
+    private final int sampleMask;
+    private final LongAdder[] accepted = new LongAdder[KINDS];
+    private final LongAdder[] rejected = new LongAdder[KINDS];
+    private final LatencyHistogram[] latency = new LatencyHistogram[KINDS];
+    private final LongAdder monopolyChanges = new LongAdder();
+    private volatile int unownedSize;
+    private volatile int discardSize;
+    private volatile int currentPileSize;
+    private volatile int playerCount;
+    private ObjectName registeredAs;
+
+    public GameMetrics() {
+        this(DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * @param sampleInterval time one call in this many (rounded up to a power of two); 1 times
+     *                       every call
+     */
+    public GameMetrics(int sampleInterval) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("Sample interval must be at least 1");
+        }
+        this.sampleMask = Integer.highestOneBit(sampleInterval * 2 - 1) - 1;
+        for (int kind = 0; kind < KINDS; kind++) {
+            accepted[kind] = new LongAdder();
+            rejected[kind] = new LongAdder();
+            latency[kind] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Whether the call with the given per-game sequence number should be timed.
+     */
+    public boolean isSampled(int tick) {
+        return (tick & sampleMask) == 0;
+    }
+
+    /**
+     * Counts one call of the given kind (see Action.KIND_DISCARD etc.).
+     */
+    public void record(int kind, boolean succeeded) {
+        (succeeded ? accepted : rejected)[kind].increment();
+    }
+
+    /**
+     * Counts one sampled call and records its latency and the game's sizes after it.
+     */
+    public void recordSampled(int kind, boolean succeeded, long nanos,
+                              int unowned, int discard, int currentPile, int players) {
+        record(kind, succeeded);
+        latency[kind].record(nanos);
+        unownedSize = unowned;
+        discardSize = discard;
+        currentPileSize = currentPile;
+        playerCount = players;
+    }
+
+    public void monopolyChanged(int changes) {
+        monopolyChanges.add(changes);
+    }
+
+    public long getAccepted(int kind) {
+        return accepted[kind].sum();
+    }
+
+    public long getRejected(int kind) {
+        return rejected[kind].sum();
+    }
+
+    /**
+     * Sampled latency of the given kind of call, in nanoseconds.
+     */
+    public LatencyHistogram getLatency(int kind) {
+        return latency[kind];
+    }
+
+    /**
+     * Publishes this instance on the platform MBean server as LLMLab:type=GameMetrics,name=name.
+     *
+     * @throws IllegalStateException if the name is taken or invalid
+     */
+    public synchronized ObjectName register(String name) {
+        try {
+            ObjectName objectName = new ObjectName("LLMLab:type=GameMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            registeredAs = objectName;
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics as " + name, e);
+        }
+    }
+
+    /**
+     * Removes this instance from the platform MBean server, if register() published it.
+     */
+    public synchronized void unregister() {
+        if (registeredAs == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(registeredAs)) {
+                server.unregisterMBean(registeredAs);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister " + registeredAs, e);
+        }
+        registeredAs = null;
+    }
+
+    @Override
+    public long getDiscardCount() {
+        return getAccepted(Action.KIND_DISCARD);
+    }
+
+    @Override
+    public long getDiscardRejectedCount() {
+        return getRejected(Action.KIND_DISCARD);
+    }
+
+    @Override
+    public long getDrawCount() {
+        return getAccepted(Action.KIND_DRAW);
+    }
+
+    @Override
+    public long getDrawRejectedCount() {
+        return getRejected(Action.KIND_DRAW);
+    }
+
+    @Override
+    public long getMonopolyDrawCount() {
+        return getAccepted(Action.KIND_MONOPOLY_DRAW);
+    }
+
+    @Override
+    public long getMonopolyDrawRejectedCount() {
+        return getRejected(Action.KIND_MONOPOLY_DRAW);
+    }
+
+    @Override
+    public long getForfeitCount() {
+        return getAccepted(Action.KIND_FORFEIT);
+    }
+
+    @Override
+    public long getForfeitRejectedCount() {
+        return getRejected(Action.KIND_FORFEIT);
+    }
+
+    @Override
+    public long getDiscardLatencyP50() {
+        return latency[Action.KIND_DISCARD].getPercentile(50);
+    }
+
+    @Override
+    public long getDiscardLatencyP99() {
+        return latency[Action.KIND_DISCARD].getPercentile(99);
+    }
+
+    @Override
+    public long getDrawLatencyP50() {
+        return latency[Action.KIND_DRAW].getPercentile(50);
+    }
+
+    @Override
+    public long getDrawLatencyP99() {
+        return latency[Action.KIND_DRAW].getPercentile(99);
+    }
+
+    @Override
+    public long getMonopolyDrawLatencyP50() {
+        return latency[Action.KIND_MONOPOLY_DRAW].getPercentile(50);
+    }
+
+    @Override
+    public long getMonopolyDrawLatencyP99() {
+        return latency[Action.KIND_MONOPOLY_DRAW].getPercentile(99);
+    }
+
+    @Override
+    public long getForfeitLatencyP50() {
+        return latency[Action.KIND_FORFEIT].getPercentile(50);
+    }
+
+    @Override
+    public long getForfeitLatencyP99() {
+        return latency[Action.KIND_FORFEIT].getPercentile(99);
+    }
+
+    @Override
+    public long getMaxLatency() {
+        long max = 0;
+        for (LatencyHistogram histogram : latency) {
+            max = Math.max(max, histogram.getMax());
+        }
+        return max;
+    }
+
+    @Override
+    public long getMonopolyChanges() {
+        return monopolyChanges.sum();
+    }
+
+    @Override
+    public int getUnownedSize() {
+        return unownedSize;
+    }
+
+    @Override
+    public int getDiscardSize() {
+        return discardSize;
+    }
+
+    @Override
+    public int getCurrentPileSize() {
+        return currentPileSize;
+    }
+
+    @Override
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    @Override
+    public int getSampleInterval() {
+        return sampleMask + 1;
+    }
+
+    @Override
+    public void reset() {
+        for (int kind = 0; kind < KINDS; kind++) {
+            accepted[kind].reset();
+            rejected[kind].reset();
+            latency[kind].reset();
+        }
+        monopolyChanges.reset();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int kind = 0; kind < KINDS; kind++) {
+            sb.append(KIND_NAMES[kind])
+                .append(": ok=").append(getAccepted(kind))
+                .append(" rejected=").append(getRejected(kind))
+                .append(" latency[").append(latency[kind]).append("]\n");
+        }
+        return sb.append("monopoly changes: ").append(getMonopolyChanges()).toString();
+    }
+}
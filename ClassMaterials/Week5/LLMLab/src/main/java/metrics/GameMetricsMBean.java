@@ -0,0 +1,57 @@
+package metrics;
+
+/**
+ * JMX view of a GameMetrics. Counts are totals since the last reset(); latencies are in
+ * nanoseconds over the sampled calls; gauges are as of the last sampled call.
+ */
+public interface GameMetricsMBean {
+    long getDiscardCount();
+
+    long getDiscardRejectedCount();
+
+    long getDrawCount();
+
+    long getDrawRejectedCount();
+
+    long getMonopolyDrawCount();
+
+    long getMonopolyDrawRejectedCount();
+
+    long getForfeitCount();
+
+    long getForfeitRejectedCount();
+
+    long getDiscardLatencyP50();
+
+    long getDiscardLatencyP99();
+
+    long getDrawLatencyP50();
+
+    long getDrawLatencyP99();
+
+    long getMonopolyDrawLatencyP50();
+
+    long getMonopolyDrawLatencyP99();
+
+    long getForfeitLatencyP50();
+
+    long getForfeitLatencyP99();
+
+    long getMaxLatency();
+
+    /** How many monopolies changed hands (or were gained or lost). */
+    long getMonopolyChanges();
+
+    int getUnownedSize();
+
+    int getDiscardSize();
+
+    int getCurrentPileSize();
+
+    int getPlayerCount();
+
+    /** One in this many calls is timed and updates the gauges. */
+    int getSampleInterval();
+
+    void reset();
+}
@@ -0,0 +1,134 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * A concurrent HDR-style latency histogram with log-linear buckets.
+ *
+ * Values are bucketed by their highest set bit and then split into SUB_BUCKETS linear
+ * sub-buckets, so every recorded value is kept to within 1/SUB_BUCKETS (about 6%) relative error
+ * from 1 ns up to Long.MAX_VALUE, in a fixed 1 KB-sized table. Recording is one array increment
+ * and never allocates.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(indexOf(value));
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns an upper bound of the value at the given percentile (0..100).
+     */
+    public long getPercentile(double percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueAt(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    public double getMean() {
+        long total = 0;
+        double sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long n = counts.get(i);
+            total += n;
+            sum += n * ((double) lowestValueAt(i) + highestValueAt(i)) / 2;
+        }
+        return total == 0 ? 0 : sum / total;
+    }
+
+    /**
+     * Adds every count from other into this histogram.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long n = other.counts.get(i);
+            if (n != 0) {
+                counts.addAndGet(i, n);
+            }
+        }
+        max.accumulate(other.getMax());
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        max.reset();
+    }
+
+    /**
+     * The bucket a value is counted in. Values below SUB_BUCKETS get a bucket each; above that,
+     * the exponent picks the octave and the four bits after the highest set bit pick the
+     * sub-bucket, the same five-bit mantissa lowestValueAt() rebuilds.
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+        int sub = (int) (value >>> (exponent - 1)) & (SUB_BUCKETS - 1);
+        return exponent * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * The smallest value counted in a bucket.
+     */
+    static long lowestValueAt(int index) {
+        int exponent = index / SUB_BUCKETS;
+        int sub = index % SUB_BUCKETS;
+        if (exponent == 0) {
+            return sub;
+        }
+        return (long) (SUB_BUCKETS | sub) << (exponent - 1);
+    }
+
+    /**
+     * The largest value counted in a bucket.
+     */
+    static long highestValueAt(int index) {
+        int exponent = index / SUB_BUCKETS;
+        if (exponent == 0) {
+            return index;
+        }
+        return lowestValueAt(index) + (1L << (exponent - 1)) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.0f p50=%d p90=%d p99=%d p99.9=%d max=%d",
+            getCount(), getMean(), getPercentile(50), getPercentile(90), getPercentile(99), getPercentile(99.9), getMax());
+    }
+}
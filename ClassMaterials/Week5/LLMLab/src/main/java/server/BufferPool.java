@@ -0,0 +1,51 @@
+package server;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Direct buffers of one size, recycled by a single event loop (so no locking).
+ *
+ * A connection only holds a buffer while it has a partial frame to finish reading or a reply the
+ * socket has not taken yet; the common case reads into and writes from the loop's own scratch
+ * buffers. So 10k mostly idle connections share a handful of pooled buffers instead of each
+ * pinning two of their own. At most `retained` free buffers are kept; extra ones are left to the
+ * garbage collector.
+ */
+final class BufferPool {
+    private final int bufferSize;
+    private final int retained;
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+    private long allocated = 0;
+
+    BufferPool(int bufferSize, int retained) {
+        this.bufferSize = bufferSize;
+        this.retained = retained;
+    }
+
+    /**
+     * A cleared buffer, from the free list when there is one.
+     */
+    ByteBuffer acquire() {
+        ByteBuffer buffer = free.pollFirst();
+        if (buffer == null) {
+            allocated++;
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        return buffer;
+    }
+
+    void release(ByteBuffer buffer) {
+        if (free.size() < retained) {
+            buffer.clear();
+            free.addFirst(buffer);
+        }
+    }
+
+    /**
+     * How many buffers this pool has allocated over its life.
+     */
+    long getAllocated() {
+        return allocated;
+    }
+}
@@ -0,0 +1,98 @@
+package server;
+
+import AIGeneratedCode.ActionBuffer;
+import AIGeneratedCode.ActionListener;
+import AIGeneratedCode.BusinessLogic;
+import AIGeneratedCode.GameConfig;
+import AIGeneratedCode.Player;
+import AIGeneratedCode.State;
+import codec.StateCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * One client socket and the game it plays. Only the owning EventLoop touches it, so the game is
+ * single-writer like a GameHandle's, with no mailbox in between.
+ *
+ * in and out are pooled buffers held only while there is a partial frame to finish or a reply
+ * the socket has not taken yet; both are left in write mode (position at the end of the data).
+ */
+final class Connection implements ActionListener {
+    static final int MALFORMED = -1;
+
+    final SocketChannel channel;
+    SelectionKey key;
+    ByteBuffer in;
+    ByteBuffer out;
+
+    private final GameConfig config;
+    private final ActionBuffer legal = new ActionBuffer();
+    private BusinessLogic game;
+    private int movedSeat;
+    private int movedCode;
+
+    Connection(SocketChannel channel, GameConfig config) {
+        this.channel = channel;
+        this.config = config;
+    }
+
+    /**
+     * Handles the complete frame at in's position, writing the reply to out, and leaves in just
+     * past the frame. Returns how many actions were applied (0 or 1), or MALFORMED.
+     */
+    int handle(ByteBuffer in, ByteBuffer out, int frameSize) {
+        int end = in.position() + frameSize;
+        in.position(in.position() + 2);
+        byte type = in.get();
+        int body = end - in.position();
+        if (type == Protocol.OPEN && body == Long.BYTES) {
+            open(in.getLong(), out);
+            return 0;
+        }
+        if (type == Protocol.ACTION && body == 2) {
+            return act(Protocol.getU16(in), out) ? 1 : 0;
+        }
+        return MALFORMED;
+    }
+
+    private void open(long seed, ByteBuffer out) {
+        game = new BusinessLogic(config.withSeed(seed));
+        game.addActionListener(this);
+        game.generateLegalActions(legal);
+        int start = Protocol.beginFrame(out, Protocol.SNAPSHOT);
+        Protocol.putLegal(out, legal);
+        StateCodec.write(game.getState(), out);
+        Protocol.endFrame(out, start);
+    }
+
+    private boolean act(int action, ByteBuffer out) {
+        // apply() alone would accept a draw while a discard is possible; only legal actions play
+        if (game == null || !legal.contains(action) || !game.apply(action)) {
+            int start = Protocol.beginFrame(out, Protocol.REJECTED);
+            Protocol.putU16(out, action);
+            Protocol.endFrame(out, start);
+            return false;
+        }
+        game.generateLegalActions(legal);
+        State state = game.getState();
+        Player winner = game.getWinner();
+        int start = Protocol.beginFrame(out, Protocol.DELTA);
+        Protocol.putU16(out, action);
+        Protocol.putU16(out, movedSeat);
+        out.put((byte) (movedCode < 0 ? Protocol.NO_PIECE : movedCode));
+        Protocol.putU16(out, state.getCurrentPlayerIndex());
+        out.put((byte) (state.isTurnOrderReversed() ? Protocol.REVERSED : 0));
+        Protocol.putU16(out, winner == null ? Protocol.NO_WINNER : state.getSeat(winner));
+        Protocol.putLegal(out, legal);
+        Protocol.endFrame(out, start);
+        return true;
+    }
+
+    @Override
+    public void onAction(Player player, int seat, int action, int pieceCode) {
+        movedSeat = seat;
+        movedCode = pieceCode;
+    }
+}
@@ -0,0 +1,268 @@
+package server;
+
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * One selector and the thread that runs it. Every connection, and with it its game, stays on the
+ * loop that adopted it for its whole life, so nothing a loop touches is shared with another loop
+ * except the accept hand-off queue and the server's counters.
+ *
+ * Reads land in the loop's scratch buffer and every complete frame is answered into the scratch
+ * output buffer, which is then written in one call. Only leftovers (a partial frame, or a reply
+ * the socket would not take) move into a pooled buffer owned by the connection. While a reply is
+ * pending the connection is not read, so a client that stops reading cannot make the server
+ * buffer without bound.
+ */
+final class EventLoop implements Runnable {
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final GameServer server;
+    private final Selector selector;
+    private final BufferPool pool;
+    private final ByteBuffer readScratch;
+    private final ByteBuffer writeScratch;
+    private final ConcurrentLinkedQueue<SocketChannel> adopted = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    EventLoop(GameServer server, int index) throws IOException {
+        this.server = server;
+        this.selector = Selector.open();
+        this.pool = new BufferPool(GameServer.BUFFER_SIZE, GameServer.RETAINED_BUFFERS);
+        this.readScratch = ByteBuffer.allocateDirect(GameServer.BUFFER_SIZE);
+        this.writeScratch = ByteBuffer.allocateDirect(GameServer.BUFFER_SIZE);
+        this.thread = new Thread(this, "game-server-loop-" + index);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Also accept connections for the server on this loop's selector.
+     */
+    void listen(ServerSocketChannel acceptor) throws IOException {
+        acceptor.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Hands a freshly accepted channel to this loop; safe from any thread.
+     */
+    void adopt(SocketChannel channel) {
+        adopted.add(channel);
+        if (Thread.currentThread() != thread) {
+            selector.wakeup();
+        }
+    }
+
+    void shutdown() throws InterruptedException {
+        running = false;
+        selector.wakeup();
+        thread.join();
+    }
+
+    long getBuffersAllocated() {
+        return pool.getAllocated();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                // Before selecting, so channels this loop accepted for itself are registered too
+                registerAdopted();
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept((ServerSocketChannel) key.channel());
+                    } else if (key.isWritable()) {
+                        onWritable((Connection) key.attachment());
+                    } else if (key.isReadable()) {
+                        onReadable((Connection) key.attachment());
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                throw new IllegalStateException("Event loop " + thread.getName() + " failed", e);
+            }
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void accept(ServerSocketChannel acceptor) throws IOException {
+        SocketChannel channel;
+        while ((channel = acceptor.accept()) != null) {
+            server.nextLoop().adopt(channel);
+        }
+    }
+
+    private void registerAdopted() {
+        SocketChannel channel;
+        while ((channel = adopted.poll()) != null) {
+            Connection connection = new Connection(channel, server.getConfig());
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                server.connected();
+            } catch (IOException e) {
+                closeQuietly(channel);
+            }
+        }
+    }
+
+    private void onReadable(Connection connection) {
+        ByteBuffer in = connection.in != null ? connection.in : readScratch.clear();
+        try {
+            if (connection.channel.read(in) < 0) {
+                close(connection);
+                return;
+            }
+        } catch (IOException e) {
+            close(connection);
+            return;
+        }
+        serve(connection, in.flip());
+    }
+
+    private void onWritable(Connection connection) {
+        if (!flush(connection, connection.out) || connection.out != null) {
+            return;
+        }
+        // The reply went out: answer whatever was held back while it was pending
+        serve(connection, connection.in != null ? connection.in.flip() : EMPTY);
+    }
+
+    /**
+     * Answers every complete frame in `in` (in read mode), writes the replies, and stashes any
+     * leftover input in the connection.
+     */
+    private void serve(Connection connection, ByteBuffer in) {
+        while (true) {
+            ByteBuffer out = connection.out != null ? connection.out : writeScratch.clear();
+            int size;
+            int applied = 0;
+            while ((size = Protocol.frameSize(in)) >= 0 && in.remaining() >= size
+                    && out.remaining() >= server.getMaxReply()) {
+                int moved = size < Protocol.HEADER ? Connection.MALFORMED : connection.handle(in, out, size);
+                if (moved == Connection.MALFORMED) {
+                    server.applied(applied);
+                    close(connection);
+                    return;
+                }
+                applied += moved;
+            }
+            // Counted before the replies go out, so a client never sees its move uncounted
+            server.applied(applied);
+            if (!flush(connection, out)) {
+                return;
+            }
+            if (connection.out != null || size < 0 || in.remaining() < size) {
+                break;
+            }
+            // out filled up with input still waiting; it was written, so keep going
+        }
+        stash(connection, in);
+        int interest = connection.out != null ? SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (connection.key.interestOps() != interest) {
+            connection.key.interestOps(interest);
+        }
+    }
+
+    /**
+     * Writes out (in write mode); whatever the socket does not take stays in connection.out.
+     * Returns false if the connection was closed.
+     */
+    private boolean flush(Connection connection, ByteBuffer out) {
+        if (out.position() == 0) {
+            return true;
+        }
+        out.flip();
+        try {
+            connection.channel.write(out);
+        } catch (IOException e) {
+            close(connection);
+            return false;
+        }
+        if (!out.hasRemaining()) {
+            if (connection.out != null) {
+                pool.release(connection.out);
+                connection.out = null;
+            }
+        } else if (out == connection.out) {
+            out.compact();
+        } else {
+            connection.out = pool.acquire().put(out);
+        }
+        return true;
+    }
+
+    private void stash(Connection connection, ByteBuffer in) {
+        if (!in.hasRemaining()) {
+            if (connection.in != null) {
+                pool.release(connection.in);
+                connection.in = null;
+            }
+        } else if (in == connection.in) {
+            in.compact();
+        } else {
+            connection.in = pool.acquire().put(in);
+        }
+    }
+
+    private void close(Connection connection) {
+        connection.key.cancel();
+        closeQuietly(connection.channel);
+        if (connection.in != null) {
+            pool.release(connection.in);
+            connection.in = null;
+        }
+        if (connection.out != null) {
+            pool.release(connection.out);
+            connection.out = null;
+        }
+        server.disconnected();
+    }
+
+    private void closeAll() {
+        try {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    close((Connection) key.attachment());
+                }
+            }
+            selector.close();
+        } catch (IOException | ClosedSelectorException e) {
+            // shutting down anyway
+        }
+        SocketChannel channel;
+        while ((channel = adopted.poll()) != null) {
+            closeQuietly(channel);
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nothing left to do with it
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package server;
+
+import AIGeneratedCode.BusinessLogic;
+import AIGeneratedCode.GameConfig;
+import codec.StateCodec;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves games over TCP with non-blocking NIO, speaking Protocol.
+ *
+ * There is one EventLoop (a selector and its thread) per core. Accepted connections are dealt to
+ * the loops round-robin and stay on theirs for good; each connection plays one game at a time,
+ * so a game is only ever touched by its loop's thread and needs no locking, the same
+ * single-writer rule GameHost's actors follow. The first loop also accepts.
+ *
+ * Usage: GameServer [port=7070] [loops=availableProcessors]
+ */
+public final class GameServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7070;
+
+    /** Pooled and scratch buffers hold any one frame, with room to batch small replies. */
+    static final int BUFFER_SIZE = 1 << 17;
+    static final int RETAINED_BUFFERS = 64;
+    private static final int BACKLOG = 4096;
+
+    private final GameConfig config;
+    private final int maxReply;
+    private final ServerSocketChannel acceptor;
+    private final EventLoop[] loops;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final LongAdder actionsApplied = new LongAdder();
+
+    /**
+     * Serves standard games on localhost:port (0 picks a free port), one loop per core.
+     */
+    public GameServer(int port) throws IOException {
+        this(GameConfig.builder().build(), new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+            Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Serves games dealt from config (each OPEN picks the seed) on address with the given number
+     * of event loops.
+     */
+    public GameServer(GameConfig config, InetSocketAddress address, int loops) throws IOException {
+        if (loops < 1) {
+            throw new IllegalArgumentException("Need at least one event loop: " + loops);
+        }
+        this.config = config;
+        // Pieces only move between piles, so the deal is the largest snapshot a game ever needs
+        int snapshot = StateCodec.encodedSize(new BusinessLogic(config).getState());
+        this.maxReply = Protocol.HEADER + Protocol.maxLegalSize() + snapshot;
+        if (maxReply > Protocol.MAX_FRAME) {
+            throw new IllegalArgumentException("Snapshots of " + config + " do not fit in one frame");
+        }
+        this.loops = new EventLoop[loops];
+        for (int i = 0; i < loops; i++) {
+            this.loops[i] = new EventLoop(this, i);
+        }
+        this.acceptor = ServerSocketChannel.open();
+        try {
+            acceptor.bind(address, BACKLOG);
+            acceptor.configureBlocking(false);
+            this.loops[0].listen(acceptor);
+        } catch (IOException e) {
+            acceptor.close();
+            throw e;
+        }
+        for (EventLoop loop : this.loops) {
+            loop.start();
+        }
+    }
+
+    /**
+     * The bound address, with the actual port when 0 was asked for.
+     */
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) acceptor.getLocalAddress();
+    }
+
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    public int getLoops() {
+        return loops.length;
+    }
+
+    public int getConnections() {
+        return connections.get();
+    }
+
+    public long getActionsApplied() {
+        return actionsApplied.sum();
+    }
+
+    /**
+     * Direct buffers allocated by every loop's pool so far; stays small if pooling works.
+     */
+    public long getBuffersAllocated() {
+        long total = 0;
+        for (EventLoop loop : loops) {
+            total += loop.getBuffersAllocated();
+        }
+        return total;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            for (EventLoop loop : loops) {
+                loop.shutdown();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            acceptor.close();
+        }
+    }
+
+    int getMaxReply() {
+        return maxReply;
+    }
+
+    EventLoop nextLoop() {
+        return loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+    }
+
+    void connected() {
+        connections.incrementAndGet();
+    }
+
+    void disconnected() {
+        connections.decrementAndGet();
+    }
+
+    void applied(int actions) {
+        if (actions > 0) {
+            actionsApplied.add(actions);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int loops = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        try (GameServer server = new GameServer(GameConfig.builder().build(),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port), loops)) {
+            System.out.printf("serving on %s with %d loops%n", server.getAddress(), loops);
+            while (true) {
+                long before = server.getActionsApplied();
+                Thread.sleep(1000);
+                System.out.printf("connections=%d actions/s=%d%n",
+                    server.getConnections(), server.getActionsApplied() - before);
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package server;
+
+import AIGeneratedCode.ActionBuffer;
+import metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load generator for GameServer, the socket counterpart of host.HostLoadTest: every
+ * connection plays its own game with exactly one request in flight, picking a random legal
+ * action (never forfeit) from the last reply and opening a new game when one ends. All
+ * connections share one selector on the calling thread. Reports actions per second and the
+ * request-to-reply latency percentiles.
+ *
+ * Usage: LoadClient [connections=10000] [seconds=10] [host:port]
+ * Without host:port a GameServer is started in this JVM on a free port. Each connection costs a
+ * file descriptor on both ends, so 10k connections in one JVM need ulimit -n above 20k; running
+ * the server in its own JVM halves that.
+ */
+public final class LoadClient {
+    /** Connects still waiting for the handshake, so the accept backlog is never overrun. */
+    private static final int MAX_CONNECTING = 512;
+    private static final int INITIAL_BUFFER = 512;
+
+    private final Selector selector;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final ByteBuffer request = ByteBuffer.allocateDirect(16);
+    private long actions;
+    private long rejected;
+    private int connected;
+
+    private LoadClient() throws IOException {
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Opens connections to server, warms up, then measures for the given number of seconds.
+     */
+    public static Report run(InetSocketAddress server, int connections, int seconds, long seed) throws IOException {
+        LoadClient client = new LoadClient();
+        try {
+            return client.measure(server, connections, seconds, seed);
+        } finally {
+            for (SelectionKey key : client.selector.keys()) {
+                key.channel().close();
+            }
+            client.selector.close();
+        }
+    }
+
+    private Report measure(InetSocketAddress server, int connections, int seconds, long seed) throws IOException {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        int opened = 0;
+        while (connected < connections) {
+            while (opened < connections && opened - connected < MAX_CONNECTING) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Player player = new Player(channel, seeds.split());
+                if (channel.connect(server)) {
+                    channel.register(selector, SelectionKey.OP_READ, player);
+                    connected(player);
+                } else {
+                    channel.register(selector, SelectionKey.OP_CONNECT, player);
+                }
+                opened++;
+            }
+            poll(1000);
+        }
+
+        // Warm up, then measure a clean window
+        runFor(TimeUnit.MILLISECONDS.toNanos(Math.min(2000, seconds * 200L)));
+        latency.reset();
+        actions = 0;
+        rejected = 0;
+        long start = System.nanoTime();
+        runFor(TimeUnit.SECONDS.toNanos(seconds));
+        return new Report(connected, actions, rejected, System.nanoTime() - start, latency);
+    }
+
+    private void runFor(long nanos) throws IOException {
+        long deadline = System.nanoTime() + nanos;
+        long left;
+        while ((left = deadline - System.nanoTime()) > 0) {
+            poll(Math.max(1, TimeUnit.NANOSECONDS.toMillis(left)));
+        }
+    }
+
+    private void poll(long timeoutMillis) throws IOException {
+        selector.select(timeoutMillis);
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            Player player = (Player) key.attachment();
+            if (key.isConnectable()) {
+                player.channel.finishConnect();
+                key.interestOps(SelectionKey.OP_READ);
+                connected(player);
+            } else if (key.isReadable()) {
+                read(player);
+            }
+        }
+    }
+
+    private void connected(Player player) throws IOException {
+        connected++;
+        send(player, true, 0);
+    }
+
+    private void read(Player player) throws IOException {
+        ByteBuffer in = player.in;
+        if (player.channel.read(in) < 0) {
+            throw new IOException("Server closed a connection");
+        }
+        in.flip();
+        int size;
+        while ((size = Protocol.frameSize(in)) >= 0 && in.remaining() >= size) {
+            int end = in.position() + size;
+            latency.record(System.nanoTime() - player.sentNanos);
+            in.position(in.position() + 2);
+            byte type = in.get();
+            boolean over = false;
+            if (type == Protocol.DELTA) {
+                actions++;
+                // Skip action, seat, piece, current player and flags to the winner
+                in.position(in.position() + 8);
+                over = Protocol.getU16(in) != Protocol.NO_WINNER;
+                readLegal(player, in);
+            } else if (type == Protocol.SNAPSHOT) {
+                readLegal(player, in);
+            } else {
+                rejected++;
+                over = true;
+            }
+            in.position(end);
+            // Forfeit is always listed last; avoid it so games run their course
+            int choices = player.legalCount - 1;
+            if (over || choices < 1) {
+                send(player, true, 0);
+            } else {
+                send(player, false, player.legal[player.random.nextInt(choices)]);
+            }
+        }
+        in.compact();
+        if (size > in.capacity()) {
+            // A frame larger than the buffer: grow it to fit
+            ByteBuffer larger = ByteBuffer.allocate(size);
+            player.in = larger.put(in.flip());
+        }
+    }
+
+    private static void readLegal(Player player, ByteBuffer in) {
+        player.legalCount = in.get() & 0xFF;
+        for (int i = 0; i < player.legalCount; i++) {
+            player.legal[i] = Protocol.getU16(in);
+        }
+    }
+
+    /**
+     * Sends an OPEN (with a fresh seed) or an ACTION. With one small request in flight the
+     * socket's send buffer is empty, so a non-blocking write always takes the whole frame.
+     */
+    private void send(Player player, boolean open, int action) throws IOException {
+        request.clear();
+        if (open) {
+            Protocol.putOpen(request, player.random.nextLong());
+        } else {
+            Protocol.putAction(request, action);
+        }
+        request.flip();
+        player.sentNanos = System.nanoTime();
+        player.channel.write(request);
+        if (request.hasRemaining()) {
+            throw new IOException("Short write of a " + request.limit() + "-byte request");
+        }
+    }
+
+    private static final class Player {
+        final SocketChannel channel;
+        final SplittableRandom random;
+        final int[] legal = new int[ActionBuffer.DEFAULT_CAPACITY];
+        ByteBuffer in = ByteBuffer.allocate(INITIAL_BUFFER);
+        int legalCount;
+        long sentNanos;
+
+        Player(SocketChannel channel, SplittableRandom random) {
+            this.channel = channel;
+            this.random = random;
+        }
+    }
+
+    /**
+     * What one run measured.
+     */
+    public static final class Report {
+        private final int connections;
+        private final long actions;
+        private final long rejected;
+        private final long elapsedNanos;
+        private final LatencyHistogram latency;
+
+        Report(int connections, long actions, long rejected, long elapsedNanos, LatencyHistogram latency) {
+            this.connections = connections;
+            this.actions = actions;
+            this.rejected = rejected;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+        }
+
+        public int getConnections() {
+            return connections;
+        }
+
+        /** Actions the server applied (DELTA replies) during the measured window. */
+        public long getActions() {
+            return actions;
+        }
+
+        /** REJECTED replies; a correct client never gets any. */
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getActionsPerSecond() {
+            return actions / (elapsedNanos / 1e9);
+        }
+
+        /** Request-to-reply latency in nanoseconds, OPENs included. */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("connections=%d%nactions/s=%.0f%nlatency p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                connections, getActionsPerSecond(),
+                latency.getPercentile(50) / 1e3, latency.getPercentile(99) / 1e3,
+                latency.getPercentile(99.9) / 1e3, latency.getMax() / 1e3);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        if (args.length > 2) {
+            String[] hostPort = args[2].split(":");
+            InetSocketAddress address = new InetSocketAddress(hostPort[0], Integer.parseInt(hostPort[1]));
+            System.out.println(run(address, connections, seconds, 1));
+            return;
+        }
+        try (GameServer server = new GameServer(0)) {
+            Report report = run(server.getAddress(), connections, seconds, 1);
+            System.out.printf("loops=%d pooled buffers=%d%n", server.getLoops(), server.getBuffersAllocated());
+            System.out.println(report);
+        }
+    }
+}
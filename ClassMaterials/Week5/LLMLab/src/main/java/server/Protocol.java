@@ -0,0 +1,105 @@
+package server;
+
+import AIGeneratedCode.ActionBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The length-prefixed binary protocol GameServer speaks over TCP.
+ *
+ * Every frame is a u16 length (of the bytes that follow), a type byte and a body:
+ *
+ * Client to server:
+ *   OPEN      seed (long): deal a new game from seed, replacing the connection's game if any
+ *   ACTION    action (u16, see AIGeneratedCode.Action) for the current player
+ *
+ * Server to client:
+ *   SNAPSHOT  legal actions, then StateCodec.write() of the new game
+ *   DELTA     action (u16), seat (u16), piece code moved (byte, 0xFF for a forfeit),
+ *             current player index (u16), flags (bit 0: turn order reversed),
+ *             winner seat (u16, 0xFFFF while the game runs), legal actions
+ *   REJECTED  action (u16): not applied (not legal now, or no game open); the last legal
+ *             actions still stand
+ *
+ * Legal actions are a count byte and that many u16 actions, in generateLegalActions order; the
+ * list is empty once the game is over. A client that holds the snapshot can replay each DELTA on
+ * its own copy, so after the deal a move costs about 15 bytes instead of a whole State.
+ */
+public final class Protocol {
+    public static final byte OPEN = 1;
+    public static final byte ACTION = 2;
+    public static final byte SNAPSHOT = 3;
+    public static final byte DELTA = 4;
+    public static final byte REJECTED = 5;
+
+    public static final int REVERSED = 1;
+    public static final int NO_PIECE = 0xFF;
+    public static final int NO_WINNER = 0xFFFF;
+
+    /** Bytes before the body: the length and the type. */
+    public static final int HEADER = 3;
+    /** The u16 length prefix caps every frame. */
+    public static final int MAX_FRAME = 2 + 0xFFFF;
+
+    private Protocol() {
+    }
+
+    /**
+     * Total size (prefix included) of the frame at the buffer's position, or -1 if not even the
+     * length prefix has arrived. The frame is complete once remaining() reaches this size.
+     */
+    public static int frameSize(ByteBuffer in) {
+        if (in.remaining() < 2) {
+            return -1;
+        }
+        return 2 + (in.getShort(in.position()) & 0xFFFF);
+    }
+
+    public static void putOpen(ByteBuffer out, long seed) {
+        out.putShort((short) (1 + Long.BYTES));
+        out.put(OPEN);
+        out.putLong(seed);
+    }
+
+    public static void putAction(ByteBuffer out, int action) {
+        out.putShort((short) 3);
+        out.put(ACTION);
+        putU16(out, action);
+    }
+
+    /**
+     * Starts a frame of the given type and returns the position of its length, for endFrame().
+     */
+    static int beginFrame(ByteBuffer out, byte type) {
+        int start = out.position();
+        out.putShort((short) 0);
+        out.put(type);
+        return start;
+    }
+
+    static void endFrame(ByteBuffer out, int start) {
+        out.putShort(start, (short) (out.position() - start - 2));
+    }
+
+    static void putLegal(ByteBuffer out, ActionBuffer legal) {
+        out.put((byte) legal.size());
+        for (int i = 0; i < legal.size(); i++) {
+            putU16(out, legal.get(i));
+        }
+    }
+
+    /**
+     * Largest legal-action list putLegal() writes.
+     */
+    static int maxLegalSize() {
+        return 1 + 2 * ActionBuffer.DEFAULT_CAPACITY;
+    }
+
+    static void putU16(ByteBuffer out, int value) {
+        out.putShort((short) value);
+    }
+
+    public static int getU16(ByteBuffer in) {
+        return in.getShort() & 0xFFFF;
+    }
+}
@@ -0,0 +1,32 @@
+package simulation;
+
+import AIGeneratedCode.ActionBuffer;
+
+/**
+ * Chooses one action for a game in a GamePool.
+ *
+ * The pool hands over the legal actions in BusinessLogic.generateLegalActions order and a fresh
+ * random word for this decision, and plays the action at the returned index. The same policy can
+ * drive a BusinessLogic through generateLegalActions and apply, which is how the two engines are
+ * checked against each other. Policies are shared by every worker thread, so they must be
+ * stateless.
+ */
+@FunctionalInterface
+public interface BatchPolicy {
+    /**
+     * Always the first legal action: the lowest discardable code, else the monopoly pawn, else
+     * the forced draw, else forfeit.
+     */
+    BatchPolicy FIRST_LEGAL = (legal, random) -> 0;
+
+    /**
+     * Uniform over the legal actions other than forfeit, forfeiting only when nothing else is left.
+     */
+    BatchPolicy UNIFORM = (legal, random) ->
+        legal.size() == 1 ? 0 : (int) Long.remainderUnsigned(random, legal.size() - 1);
+
+    /**
+     * Returns an index into legal, which holds at least one action (forfeit is always legal).
+     */
+    int choose(ActionBuffer legal, long random);
+}
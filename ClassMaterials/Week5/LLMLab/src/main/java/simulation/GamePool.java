@@ -0,0 +1,520 @@
+package simulation;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import AIGeneratedCode.Action;
+import AIGeneratedCode.ActionBuffer;
+import AIGeneratedCode.ChessPiece;
+import AIGeneratedCode.Color;
+import AIGeneratedCode.GameConfig;
+import AIGeneratedCode.MonopolyTable;
+import AIGeneratedCode.PieceType;
+
+/**
+ * Many games played side by side without any per-game objects: every game is one fixed-width
+ * record in a single direct (off-heap) ByteBuffer, and a turn is a handful of absolute reads and
+ * writes on it. A million games cost a few hundred megabytes outside the heap and nothing for the
+ * garbage collector to trace, where a million BusinessLogic objects would each carry a State,
+ * piles, decks and listeners.
+ *
+ * Game g is dealt from config.withSeed(Simulator.seedFor(seed, g)), exactly as
+ * new BusinessLogic(config) deals it, and its policy sees the random words
+ * new SplittableRandom(Simulator.seedFor(seed, g)).nextLong() would return, one per turn. Every
+ * turn follows the object engine's rules and legal-action order, so a game here and a
+ * BusinessLogic driven by the same BatchPolicy stay identical move for move.
+ *
+ * Record layout (native byte order, offsets in bytes):
+ *   0   long   policy random state (a SplittableRandom seed)
+ *   8   int    live seats, one bit per seat
+ *   12  int    turns played
+ *   16  u16    deck front: the first deck slot not yet drawn
+ *   18  u16    forfeits
+ *   20  byte   current seat
+ *   21  byte   top discard code
+ *   22  byte   flags (bit 0: turn order reversed, bit 1: a monopoly has been held)
+ *   23  byte   winner seat, or -1 while the game runs
+ *   24  u16    per color: deck slot to resume the search for that color's pawn from
+ *   ..  u16    per piece code: pieces left in the Unowned pile
+ *   then per seat, 8-byte aligned: present-code mask (long), pile size (u16), per color piece
+ *   totals (u16), per piece code counts (u8)
+ *   then the Unowned pile, one code per slot from the front, 0xFF once drawn
+ *
+ * Only the top discard is stored, so configs that reshuffle discards into the Unowned pile are
+ * not supported. Discard history does not otherwise affect play, so any DiscardMode works.
+ */
+public final class GamePool {
+    /** Seats are bits of an int. */
+    public static final int MAX_PLAYERS = Integer.SIZE;
+
+    private static final Color[] COLOR_VALUES = Color.values();
+    private static final int COLORS = COLOR_VALUES.length;
+    private static final int RAINBOW = Color.RAINBOW.ordinal();
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final int TAKEN = 0xFF;
+    private static final int MAX_COUNT = 0xFF;
+
+    private static final int RANDOM = 0;
+    private static final int LIVE = 8;
+    private static final int TURNS = 12;
+    private static final int FRONT = 16;
+    private static final int FORFEITS = 18;
+    private static final int CURRENT = 20;
+    private static final int TOP = 21;
+    private static final int FLAGS = 22;
+    private static final int WINNER = 23;
+    private static final int PAWN_CURSOR = 24;
+    private static final int UNOWNED = PAWN_CURSOR + 2 * COLORS;
+    private static final int SEATS = align(UNOWNED + 2 * ChessPiece.CODES);
+
+    private static final int PRESENT = 0;
+    private static final int SIZE = 8;
+    private static final int COLOR_TOTALS = 10;
+    private static final int COUNTS = COLOR_TOTALS + 2 * COLORS;
+    private static final int SEAT_BYTES = align(COUNTS + ChessPiece.CODES);
+
+    private static final int REVERSED = 1;
+    private static final int SAW_MONOPOLY = 2;
+
+    private final ByteBuffer records;
+    private final int games;
+    private final int players;
+    private final int deckAt;
+    private final int deckLength;
+    private final int recordBytes;
+    private final long[] playable = new long[ChessPiece.CODES];
+    private final int maxTurns;
+
+    /**
+     * Deals games games from config (its seed is ignored; see the class comment for how each
+     * game is seeded).
+     *
+     * @throws IllegalArgumentException if config reshuffles discards, has more than MAX_PLAYERS
+     *         players or more than 255 copies of one piece, or the records do not fit in one buffer
+     */
+    public GamePool(GameConfig config, int games, long seed, int maxTurns) {
+        if (config.isReshuffleDiscards()) {
+            throw new IllegalArgumentException("GamePool keeps only the top discard and cannot reshuffle discards");
+        }
+        if (config.getPlayers() > MAX_PLAYERS) {
+            throw new IllegalArgumentException("GamePool supports at most " + MAX_PLAYERS + " players");
+        }
+        int mostSets = 0;
+        for (Color color : COLOR_VALUES) {
+            mostSets = Math.max(mostSets, config.getSetsPerColor(color));
+        }
+        if (mostSets * 8 > MAX_COUNT) {
+            throw new IllegalArgumentException(config + " has more than " + MAX_COUNT + " pawns of one color");
+        }
+        this.games = games;
+        this.players = config.getPlayers();
+        this.maxTurns = maxTurns;
+        this.deckAt = SEATS + players * SEAT_BYTES;
+        this.deckLength = config.getTotalPieces() - 1 - players * config.getPileSize();
+        this.recordBytes = align(deckAt + deckLength);
+        if (deckLength > 0xFFFF || (long) recordBytes * games > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(games + " games of " + config + " do not fit in one buffer");
+        }
+        for (int top = 0; top < ChessPiece.CODES; top++) {
+            playable[top] = config.getDiscardRules().playableMask(top);
+        }
+        this.records = ByteBuffer.allocateDirect(recordBytes * games).order(ByteOrder.nativeOrder());
+        for (int g = 0; g < games; g++) {
+            deal(g * recordBytes, config, Simulator.seedFor(seed, g));
+        }
+    }
+
+    private void deal(int base, GameConfig config, long gameSeed) {
+        int[] codes = config.withSeed(gameSeed).dealOrder();
+        records.putLong(base + RANDOM, gameSeed);
+        records.putInt(base + LIVE, (int) ((1L << players) - 1));
+        records.put(base + TOP, (byte) codes[0]);
+        records.put(base + WINNER, (byte) -1);
+        int next = 1;
+        for (int seat = 0; seat < players; seat++) {
+            int at = seatAt(base, seat);
+            for (int i = 0; i < config.getPileSize(); i++) {
+                addPiece(at, codes[next++]);
+            }
+        }
+        for (int slot = 0; slot < deckLength; slot++) {
+            int code = codes[next++];
+            records.put(base + deckAt + slot, (byte) code);
+            addShort(base + UNOWNED + 2 * code, 1);
+        }
+    }
+
+    public int size() {
+        return games;
+    }
+
+    /**
+     * Bytes per game record.
+     */
+    public int getRecordBytes() {
+        return recordBytes;
+    }
+
+    /**
+     * Plays one turn of every game that is still running, in order. Returns how many games moved.
+     */
+    public int step(BatchPolicy policy) {
+        ActionBuffer legal = new ActionBuffer();
+        int moved = 0;
+        for (int g = 0; g < games; g++) {
+            if (turn(g * recordBytes, policy, legal)) {
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Plays every game to its end (or maxTurns) on pool and returns the aggregate report. Each
+     * worker owns a range of records, and the buffer is only touched with absolute reads and
+     * writes, so workers never share state.
+     */
+    public SimulationReport run(BatchPolicy policy, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        int leafSize = Math.max(1, games / (pool.getParallelism() * 8));
+        pool.invoke(new Batch(policy, 0, games, leafSize));
+        SimulationReport report = report();
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Records every game, finished or not, into a new report.
+     */
+    public SimulationReport report() {
+        SimulationReport report = new SimulationReport(players, maxTurns);
+        for (int g = 0; g < games; g++) {
+            int base = g * recordBytes;
+            int winner = records.get(base + WINNER);
+            int forfeits = records.getShort(base + FORFEITS) & 0xFFFF;
+            boolean endedByForfeit = winner >= 0 && forfeits > 0 && Integer.bitCount(records.getInt(base + LIVE)) == 1;
+            report.recordGame(winner, records.getInt(base + TURNS), forfeits, endedByForfeit,
+                (records.get(base + FLAGS) & SAW_MONOPOLY) != 0);
+        }
+        return report;
+    }
+
+    public boolean isRunning(int game) {
+        int base = game * recordBytes;
+        return records.get(base + WINNER) < 0 && records.getInt(base + TURNS) < maxTurns;
+    }
+
+    /**
+     * The winner's seat, or -1 while the game runs or if it hit maxTurns.
+     */
+    public int getWinnerSeat(int game) {
+        return records.get(game * recordBytes + WINNER);
+    }
+
+    public int getTurns(int game) {
+        return records.getInt(game * recordBytes + TURNS);
+    }
+
+    public int getForfeits(int game) {
+        return records.getShort(game * recordBytes + FORFEITS) & 0xFFFF;
+    }
+
+    public int getCurrentSeat(int game) {
+        return records.get(game * recordBytes + CURRENT);
+    }
+
+    public boolean isTurnOrderReversed(int game) {
+        return (records.get(game * recordBytes + FLAGS) & REVERSED) != 0;
+    }
+
+    public int getTopDiscard(int game) {
+        return records.get(game * recordBytes + TOP);
+    }
+
+    /**
+     * Whether seat is still in the game (has not forfeited).
+     */
+    public boolean isInGame(int game, int seat) {
+        return (records.getInt(game * recordBytes + LIVE) & (1 << seat)) != 0;
+    }
+
+    public int getPileCount(int game, int seat, int code) {
+        return records.get(seatAt(game * recordBytes, seat) + COUNTS + code) & 0xFF;
+    }
+
+    public int getUnownedCount(int game, int code) {
+        return records.getShort(game * recordBytes + UNOWNED + 2 * code) & 0xFFFF;
+    }
+
+    /**
+     * Plays one turn of the game at base; returns false if it had already ended.
+     */
+    private boolean turn(int base, BatchPolicy policy, ActionBuffer legal) {
+        int turns = records.getInt(base + TURNS);
+        if (records.get(base + WINNER) >= 0 || turns >= maxTurns) {
+            return false;
+        }
+        int seat = records.get(base + CURRENT);
+        int at = seatAt(base, seat);
+        int front = records.getShort(base + FRONT) & 0xFFFF;
+        long discardable = records.getLong(at + PRESENT) & playable[records.get(base + TOP)];
+        int monopoly = monopolyColor(base, seat);
+
+        // Same actions in the same order as BusinessLogic.generateLegalActions
+        legal.clear();
+        for (long rest = discardable; rest != 0; rest &= rest - 1) {
+            legal.add(Action.discard(Long.numberOfTrailingZeros(rest)));
+        }
+        if (monopoly >= 0 && records.getShort(base + UNOWNED + 2 * pawn(monopoly)) != 0) {
+            legal.add(Action.MONOPOLY_DRAW);
+        }
+        if (discardable == 0 && front < deckLength) {
+            legal.add(Action.DRAW);
+        }
+        legal.add(Action.FORFEIT);
+
+        long random = records.getLong(base + RANDOM) + GOLDEN_GAMMA;
+        records.putLong(base + RANDOM, random);
+        int action = legal.get(policy.choose(legal, mix64(random)));
+        switch (Action.kind(action)) {
+            case Action.KIND_DISCARD:
+                discard(base, seat, at, Action.code(action));
+                break;
+            case Action.KIND_DRAW:
+                addPiece(at, takeFromDeck(base, front));
+                advance(base, seat);
+                break;
+            case Action.KIND_MONOPOLY_DRAW:
+                addPiece(at, takeFromDeck(base, findPawn(base, monopoly, front)));
+                advance(base, seat);
+                break;
+            default:
+                forfeit(base, seat);
+                break;
+        }
+        records.putInt(base + TURNS, turns + 1);
+        int flags = records.get(base + FLAGS);
+        if ((flags & SAW_MONOPOLY) == 0 && anyMonopoly(base)) {
+            records.put(base + FLAGS, (byte) (flags | SAW_MONOPOLY));
+        }
+        return true;
+    }
+
+    private void discard(int base, int seat, int at, int code) {
+        removePiece(at, code);
+        records.put(base + TOP, (byte) code);
+        if (ChessPiece.colorSlotOf(code) == RAINBOW) {
+            records.put(base + FLAGS, (byte) (records.get(base + FLAGS) ^ REVERSED));
+        }
+        if (records.getShort(at + SIZE) == 0) {
+            records.put(base + WINNER, (byte) seat);
+        }
+        advance(base, seat);
+    }
+
+    /**
+     * The forfeiting seat leaves, and the turn passes to the next seat in list order whatever
+     * the direction, as TurnRing does.
+     */
+    private void forfeit(int base, int seat) {
+        int live = records.getInt(base + LIVE) & ~(1 << seat);
+        records.putInt(base + LIVE, live);
+        addShort(base + FORFEITS, 1);
+        if (Integer.bitCount(live) == 1) {
+            records.put(base + WINNER, (byte) Integer.numberOfTrailingZeros(live));
+        }
+        if (live != 0) {
+            records.put(base + CURRENT, (byte) nextSeat(live, seat));
+        }
+    }
+
+    private void advance(int base, int seat) {
+        int live = records.getInt(base + LIVE);
+        boolean reversed = (records.get(base + FLAGS) & REVERSED) != 0;
+        records.put(base + CURRENT, (byte) (reversed ? previousSeat(live, seat) : nextSeat(live, seat)));
+    }
+
+    /**
+     * The first live seat after seat, wrapping around.
+     */
+    private static int nextSeat(int live, int seat) {
+        long seats = live & 0xFFFFFFFFL;
+        long after = seats & (-1L << (seat + 1));
+        return Long.numberOfTrailingZeros(after != 0 ? after : seats);
+    }
+
+    private static int previousSeat(int live, int seat) {
+        long seats = live & 0xFFFFFFFFL;
+        long before = seats & ((1L << seat) - 1);
+        return 63 - Long.numberOfLeadingZeros(before != 0 ? before : seats);
+    }
+
+    /**
+     * The color seat holds a monopoly over, or -1: the color it holds most of (the first on a
+     * tie), with at least MonopolyTable.MIN_PIECES and strictly more than every other live seat.
+     */
+    private int monopolyColor(int base, int seat) {
+        int at = seatAt(base, seat);
+        int best = -1;
+        int bestCount = 0;
+        for (int c = 0; c < COLORS; c++) {
+            int count = records.getShort(at + COLOR_TOTALS + 2 * c);
+            if (count > bestCount) {
+                bestCount = count;
+                best = c;
+            }
+        }
+        if (bestCount < MonopolyTable.MIN_PIECES) {
+            return -1;
+        }
+        for (int others = records.getInt(base + LIVE) & ~(1 << seat); others != 0; others &= others - 1) {
+            int other = seatAt(base, Integer.numberOfTrailingZeros(others));
+            if (records.getShort(other + COLOR_TOTALS + 2 * best) >= bestCount) {
+                return -1;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Whether any live seat holds a monopoly (see monopolyColor()); a seat that leads a color it
+     * does not hold the most of does not count.
+     */
+    private boolean anyMonopoly(int base) {
+        for (int rest = records.getInt(base + LIVE); rest != 0; rest &= rest - 1) {
+            if (monopolyColor(base, Integer.numberOfTrailingZeros(rest)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The deck slot of the first undrawn pawn of color, as Deck.take() would pick. Pawns of a
+     * color leave the deck in deck order, so the search resumes where the last one ended.
+     */
+    private int findPawn(int base, int color, int front) {
+        int code = pawn(color);
+        int slot = Math.max(front, records.getShort(base + PAWN_CURSOR + 2 * color) & 0xFFFF);
+        while ((records.get(base + deckAt + slot) & 0xFF) != code) {
+            slot++;
+        }
+        records.putShort(base + PAWN_CURSOR + 2 * color, (short) (slot + 1));
+        return slot;
+    }
+
+    /**
+     * Draws the piece in a deck slot and moves the front past any drawn slots. Returns its code.
+     */
+    private int takeFromDeck(int base, int slot) {
+        int code = records.get(base + deckAt + slot) & 0xFF;
+        records.put(base + deckAt + slot, (byte) TAKEN);
+        addShort(base + UNOWNED + 2 * code, -1);
+        int front = records.getShort(base + FRONT) & 0xFFFF;
+        while (front < deckLength && (records.get(base + deckAt + front) & 0xFF) == TAKEN) {
+            front++;
+        }
+        records.putShort(base + FRONT, (short) front);
+        return code;
+    }
+
+    private void addPiece(int at, int code) {
+        records.put(at + COUNTS + code, (byte) (records.get(at + COUNTS + code) + 1));
+        records.putLong(at + PRESENT, records.getLong(at + PRESENT) | 1L << code);
+        addShort(at + SIZE, 1);
+        int color = ChessPiece.colorSlotOf(code);
+        if (color < COLORS) {
+            addShort(at + COLOR_TOTALS + 2 * color, 1);
+        }
+    }
+
+    private void removePiece(int at, int code) {
+        int count = (records.get(at + COUNTS + code) & 0xFF) - 1;
+        records.put(at + COUNTS + code, (byte) count);
+        if (count == 0) {
+            records.putLong(at + PRESENT, records.getLong(at + PRESENT) & ~(1L << code));
+        }
+        addShort(at + SIZE, -1);
+        int color = ChessPiece.colorSlotOf(code);
+        if (color < COLORS) {
+            addShort(at + COLOR_TOTALS + 2 * color, -1);
+        }
+    }
+
+    private void addShort(int offset, int delta) {
+        records.putShort(offset, (short) (records.getShort(offset) + delta));
+    }
+
+    private static int seatAt(int base, int seat) {
+        return base + SEATS + seat * SEAT_BYTES;
+    }
+
+    private static int pawn(int color) {
+        return ChessPiece.codeOf(COLOR_VALUES[color], PieceType.PAWN);
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+
+    /**
+     * SplittableRandom's output function, so the policy sees the same words a SplittableRandom
+     * with the game's seed would produce.
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient BatchPolicy policy;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        Batch(BatchPolicy policy, int from, int to, int leafSize) {
+            this.policy = policy;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                ActionBuffer legal = new ActionBuffer();
+                for (int g = from; g < to; g++) {
+                    int base = g * recordBytes;
+                    while (turn(base, policy, legal)) {
+                        // play the game out
+                    }
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Batch(policy, from, mid, leafSize), new Batch(policy, mid, to, leafSize));
+        }
+    }
+
+    /**
+     * Usage: GamePool [games] [seed] [threads]
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        GameConfig config = GameConfig.builder().build();
+        new GamePool(config, Math.min(games, 10_000), seed, Simulator.DEFAULT_MAX_TURNS).run(BatchPolicy.UNIFORM, pool); // warm-up
+        GamePool batch = new GamePool(config, games, seed, Simulator.DEFAULT_MAX_TURNS);
+        System.out.println(batch.getRecordBytes() + " bytes per game, " + (long) batch.getRecordBytes() * games / (1 << 20) + " MB off-heap");
+        System.out.println(batch.run(BatchPolicy.UNIFORM, pool));
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,44 @@
+package simulation;
+
+import java.util.SplittableRandom;
+
+import AIGeneratedCode.BusinessLogic;
+import AIGeneratedCode.ChessPiece;
+import AIGeneratedCode.Color;
+import AIGeneratedCode.Pile;
+
+/**
+ * Always discards when it can, keeping rainbow pieces for last because they can be played on
+ * anything. Otherwise takes a monopoly pawn if it holds a monopoly, then draws, then forfeits.
+ */
+public class GreedyPolicy implements PlayerPolicy {
+
+    @Override
+    public void takeTurn(BusinessLogic game, SplittableRandom random) {
+        if (game.hasLegalDiscard()) {
+            Pile pile = game.getCurrentPlayer().getPile();
+            ChessPiece rainbow = null;
+            for (int code = 0; code < ChessPiece.CODES; code++) {
+                if (pile.count(code) == 0) {
+                    continue;
+                }
+                ChessPiece piece = ChessPiece.of(code);
+                if (piece.getColor() == Color.RAINBOW) {
+                    rainbow = piece;
+                } else if (game.canDiscard(piece)) {
+                    game.discard(piece);
+                    return;
+                }
+            }
+            game.discard(rainbow);
+            return;
+        }
+
+        if (game.drawMonopolyPawn()) {
+            return;
+        }
+        if (!game.draw()) {
+            game.forfeit();
+        }
+    }
+}
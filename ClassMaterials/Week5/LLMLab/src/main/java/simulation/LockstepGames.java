@@ -0,0 +1,410 @@
+package simulation;
+
+import java.util.Arrays;
+
+import AIGeneratedCode.ChessPiece;
+import AIGeneratedCode.Color;
+import AIGeneratedCode.GameConfig;
+import AIGeneratedCode.MonopolyTable;
+import AIGeneratedCode.PieceType;
+
+/**
+ * Many games stepped in lockstep, one turn of every game per step(), with the state laid out
+ * column by column (struct of arrays) so consecutive games sit in consecutive array elements.
+ * That lets VectorLockstep play a turn for 8 or 16 games at once with jdk.incubator.vector; when
+ * the incubator module is not in the boot layer, or for the games left over after the last full
+ * vector, the same turn is played one game at a time.
+ *
+ * Every game follows BatchPolicy.FIRST_LEGAL: discard the lowest discardable code, else draw the
+ * monopoly pawn, else the forced draw, else forfeit. Game g is dealt from
+ * config.withSeed(Simulator.seedFor(seed, g)), so it plays exactly like
+ * new BusinessLogic(config.withSeed(...)) driven by FIRST_LEGAL, or like game g of a GamePool.
+ *
+ * Column (game) g of each table:
+ *   per game: top discard, current seat, live seats (one bit each), winner (-1 while running),
+ *   deck front, turns, forfeits, flags (REVERSED, SAW_MONOPOLY)
+ *   per seat: present-code mask, pile size; per seat and color: piece totals;
+ *   per seat and code: counts; per code: pieces left in the Unowned pile;
+ *   per color: deck slot to resume the pawn search from; per deck slot: its code, TAKEN once drawn
+ * Row r of a per-seat (per-code, ...) table starts at r * games.
+ *
+ * Like GamePool, only the top discard is kept, so configs that reshuffle discards are rejected.
+ */
+public final class LockstepGames {
+    /** Seats are bits of an int lane, and must stay exact through an int-to-float conversion. */
+    public static final int MAX_PLAYERS = 16;
+
+    private static final Color[] COLOR_VALUES = Color.values();
+    static final int COLORS = COLOR_VALUES.length;
+    static final int RAINBOW = Color.RAINBOW.ordinal();
+    static final int TAKEN = -1;
+    static final int REVERSED = 1;
+    static final int SAW_MONOPOLY = 2;
+
+    private static final boolean VECTOR_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    final int games;
+    final int players;
+    final int deckLength;
+    final int maxTurns;
+    final int[] playable = new int[ChessPiece.CODES];
+
+    final int[] top;
+    final int[] current;
+    final int[] live;
+    final int[] winner;
+    final int[] front;
+    final int[] turns;
+    final int[] forfeits;
+    final int[] flags;
+    final int[] present;
+    final int[] size;
+    final int[] colorTotals;
+    final int[] counts;
+    final int[] unowned;
+    final int[] pawnCursor;
+    final int[] deck;
+
+    private final VectorLockstep vector;
+
+    /**
+     * Deals games games from config (its seed is ignored; see the class comment).
+     *
+     * @throws IllegalArgumentException if config reshuffles discards or has more than MAX_PLAYERS
+     *         players
+     */
+    public LockstepGames(GameConfig config, int games, long seed, int maxTurns) {
+        if (config.isReshuffleDiscards()) {
+            throw new IllegalArgumentException("LockstepGames keeps only the top discard and cannot reshuffle discards");
+        }
+        if (config.getPlayers() > MAX_PLAYERS) {
+            throw new IllegalArgumentException("LockstepGames supports at most " + MAX_PLAYERS + " players");
+        }
+        this.games = games;
+        this.players = config.getPlayers();
+        this.maxTurns = maxTurns;
+        this.deckLength = config.getTotalPieces() - 1 - players * config.getPileSize();
+        for (int code = 0; code < ChessPiece.CODES; code++) {
+            playable[code] = (int) config.getDiscardRules().playableMask(code);
+        }
+        top = new int[games];
+        current = new int[games];
+        live = new int[games];
+        winner = new int[games];
+        front = new int[games];
+        turns = new int[games];
+        forfeits = new int[games];
+        flags = new int[games];
+        present = new int[players * games];
+        size = new int[players * games];
+        colorTotals = new int[players * COLORS * games];
+        counts = new int[players * ChessPiece.CODES * games];
+        unowned = new int[ChessPiece.CODES * games];
+        pawnCursor = new int[COLORS * games];
+        deck = new int[deckLength * games];
+
+        Arrays.fill(live, (1 << players) - 1);
+        Arrays.fill(winner, -1);
+        for (int g = 0; g < games; g++) {
+            int[] codes = config.withSeed(Simulator.seedFor(seed, g)).dealOrder();
+            top[g] = codes[0];
+            int next = 1;
+            for (int seat = 0; seat < players; seat++) {
+                for (int i = 0; i < config.getPileSize(); i++) {
+                    addPiece(g, seat, codes[next++]);
+                }
+            }
+            for (int slot = 0; slot < deckLength; slot++) {
+                deck[slot * games + g] = codes[next];
+                unowned[codes[next++] * games + g]++;
+            }
+        }
+        this.vector = VECTOR_AVAILABLE ? new VectorLockstep(this) : null;
+    }
+
+    /**
+     * Whether step() can use the Vector API (the JVM was started with
+     * --add-modules jdk.incubator.vector).
+     */
+    public static boolean isVectorAvailable() {
+        return VECTOR_AVAILABLE;
+    }
+
+    /**
+     * Games per vector instruction on this machine, or 1 without the Vector API.
+     */
+    public static int lanes() {
+        return VECTOR_AVAILABLE ? VectorLockstep.lanes() : 1;
+    }
+
+    public int size() {
+        return games;
+    }
+
+    /**
+     * Plays one turn of every running game, vectorized where possible. Returns how many games moved.
+     */
+    public int step() {
+        if (vector == null) {
+            return stepScalar();
+        }
+        int vectorized = vector.upperBound();
+        int moved = vector.step(vectorized);
+        for (int g = vectorized; g < games; g++) {
+            if (turn(g)) {
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * step() without the Vector API, one game at a time.
+     */
+    public int stepScalar() {
+        int moved = 0;
+        for (int g = 0; g < games; g++) {
+            if (turn(g)) {
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Steps until every game has ended or reached maxTurns, and returns the aggregate report.
+     */
+    public SimulationReport run() {
+        long start = System.nanoTime();
+        while (step() > 0) {
+            // every game plays one more turn
+        }
+        SimulationReport report = report();
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Records every game, finished or not, into a new report.
+     */
+    public SimulationReport report() {
+        SimulationReport report = new SimulationReport(players, maxTurns);
+        for (int g = 0; g < games; g++) {
+            // Monopolies are checked before each turn, so the position after the last one is checked here
+            boolean sawMonopoly = (flags[g] & SAW_MONOPOLY) != 0 || (turns[g] > 0 && anyMonopoly(g));
+            boolean endedByForfeit = winner[g] >= 0 && forfeits[g] > 0 && Integer.bitCount(live[g]) == 1;
+            report.recordGame(winner[g], turns[g], forfeits[g], endedByForfeit, sawMonopoly);
+        }
+        return report;
+    }
+
+    public boolean isRunning(int game) {
+        return winner[game] < 0 && turns[game] < maxTurns;
+    }
+
+    public int getWinnerSeat(int game) {
+        return winner[game];
+    }
+
+    public int getTurns(int game) {
+        return turns[game];
+    }
+
+    public int getForfeits(int game) {
+        return forfeits[game];
+    }
+
+    public int getCurrentSeat(int game) {
+        return current[game];
+    }
+
+    public boolean isTurnOrderReversed(int game) {
+        return (flags[game] & REVERSED) != 0;
+    }
+
+    public int getTopDiscard(int game) {
+        return top[game];
+    }
+
+    public boolean isInGame(int game, int seat) {
+        return (live[game] & (1 << seat)) != 0;
+    }
+
+    public int getPileCount(int game, int seat, int code) {
+        return counts[(seat * ChessPiece.CODES + code) * games + game];
+    }
+
+    public int getUnownedCount(int game, int code) {
+        return unowned[code * games + game];
+    }
+
+    /**
+     * Plays one FIRST_LEGAL turn of game g; returns false if it had already ended.
+     */
+    boolean turn(int g) {
+        if (winner[g] >= 0 || turns[g] >= maxTurns) {
+            return false;
+        }
+        if (turns[g] > 0 && (flags[g] & SAW_MONOPOLY) == 0 && anyMonopoly(g)) {
+            flags[g] |= SAW_MONOPOLY;
+        }
+        int seat = current[g];
+        int discardable = present[seat * games + g] & playable[top[g]];
+        if (discardable != 0) {
+            discard(g, seat, Integer.numberOfTrailingZeros(discardable));
+        } else {
+            int monopoly = monopolyColor(g, seat);
+            if (monopoly >= 0 && unowned[pawn(monopoly) * games + g] > 0) {
+                addPiece(g, seat, takeFromDeck(g, findPawn(g, monopoly)));
+                advance(g, seat);
+            } else if (front[g] < deckLength) {
+                addPiece(g, seat, takeFromDeck(g, front[g]));
+                advance(g, seat);
+            } else {
+                forfeit(g, seat);
+            }
+        }
+        turns[g]++;
+        return true;
+    }
+
+    private void discard(int g, int seat, int code) {
+        removePiece(g, seat, code);
+        top[g] = code;
+        if (ChessPiece.colorSlotOf(code) == RAINBOW) {
+            flags[g] ^= REVERSED;
+        }
+        if (size[seat * games + g] == 0) {
+            winner[g] = seat;
+        }
+        advance(g, seat);
+    }
+
+    private void forfeit(int g, int seat) {
+        live[g] &= ~(1 << seat);
+        forfeits[g]++;
+        if (Integer.bitCount(live[g]) == 1) {
+            winner[g] = Integer.numberOfTrailingZeros(live[g]);
+        }
+        if (live[g] != 0) {
+            current[g] = nextSeat(live[g], seat);
+        }
+    }
+
+    private void advance(int g, int seat) {
+        current[g] = (flags[g] & REVERSED) != 0 ? previousSeat(live[g], seat) : nextSeat(live[g], seat);
+    }
+
+    static int nextSeat(int live, int seat) {
+        int after = live & (-1 << (seat + 1));
+        return Integer.numberOfTrailingZeros(after != 0 ? after : live);
+    }
+
+    static int previousSeat(int live, int seat) {
+        int before = live & ((1 << seat) - 1);
+        return 31 - Integer.numberOfLeadingZeros(before != 0 ? before : live);
+    }
+
+    /**
+     * The color seat holds a monopoly over, or -1 (see GamePool.monopolyColor).
+     */
+    int monopolyColor(int g, int seat) {
+        int best = -1;
+        int bestCount = 0;
+        for (int c = 0; c < COLORS; c++) {
+            int count = colorTotals[(seat * COLORS + c) * games + g];
+            if (count > bestCount) {
+                bestCount = count;
+                best = c;
+            }
+        }
+        if (bestCount < MonopolyTable.MIN_PIECES) {
+            return -1;
+        }
+        for (int others = live[g] & ~(1 << seat); others != 0; others &= others - 1) {
+            if (colorTotals[(Integer.numberOfTrailingZeros(others) * COLORS + best) * games + g] >= bestCount) {
+                return -1;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Whether any live seat of game g holds a monopoly (see GamePool.anyMonopoly).
+     */
+    boolean anyMonopoly(int g) {
+        for (int rest = live[g]; rest != 0; rest &= rest - 1) {
+            if (monopolyColor(g, Integer.numberOfTrailingZeros(rest)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int findPawn(int g, int color) {
+        int code = pawn(color);
+        int slot = Math.max(front[g], pawnCursor[color * games + g]);
+        while (deck[slot * games + g] != code) {
+            slot++;
+        }
+        pawnCursor[color * games + g] = slot + 1;
+        return slot;
+    }
+
+    private int takeFromDeck(int g, int slot) {
+        int code = deck[slot * games + g];
+        deck[slot * games + g] = TAKEN;
+        unowned[code * games + g]--;
+        skipTaken(g);
+        return code;
+    }
+
+    /**
+     * Moves the deck front of game g past slots that were already drawn.
+     */
+    void skipTaken(int g) {
+        int slot = front[g];
+        while (slot < deckLength && deck[slot * games + g] == TAKEN) {
+            slot++;
+        }
+        front[g] = slot;
+    }
+
+    private void addPiece(int g, int seat, int code) {
+        counts[(seat * ChessPiece.CODES + code) * games + g]++;
+        present[seat * games + g] |= 1 << code;
+        size[seat * games + g]++;
+        int color = ChessPiece.colorSlotOf(code);
+        if (color < COLORS) {
+            colorTotals[(seat * COLORS + color) * games + g]++;
+        }
+    }
+
+    private void removePiece(int g, int seat, int code) {
+        if (--counts[(seat * ChessPiece.CODES + code) * games + g] == 0) {
+            present[seat * games + g] &= ~(1 << code);
+        }
+        size[seat * games + g]--;
+        int color = ChessPiece.colorSlotOf(code);
+        if (color < COLORS) {
+            colorTotals[(seat * COLORS + color) * games + g]--;
+        }
+    }
+
+    static int pawn(int color) {
+        return ChessPiece.codeOf(COLOR_VALUES[color], PieceType.PAWN);
+    }
+
+    /**
+     * Usage: LockstepGames [games] [seed]
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+        GameConfig config = GameConfig.builder().build();
+        System.out.println((isVectorAvailable() ? lanes() + " games per vector" : "Vector API not available, scalar only"));
+        for (int round = 0; round < 5; round++) {
+            System.out.println(new LockstepGames(config, games, seed, Simulator.DEFAULT_MAX_TURNS).run());
+        }
+    }
+}
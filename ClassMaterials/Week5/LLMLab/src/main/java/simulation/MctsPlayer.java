@@ -0,0 +1,353 @@
+package simulation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import AIGeneratedCode.Action;
+import AIGeneratedCode.ActionBuffer;
+import AIGeneratedCode.BusinessLogic;
+import AIGeneratedCode.ChessPiece;
+import AIGeneratedCode.Deck;
+import AIGeneratedCode.Pile;
+import AIGeneratedCode.Player;
+
+/**
+ * A Monte Carlo Tree Search bot.
+ *
+ * The player to move cannot see the other piles or the Unowned order, so every iteration starts
+ * from a determinization: a copy of the game in which the pieces the player cannot see (the
+ * opponents' piles plus the Unowned pile) are reshuffled and dealt back with the same pile sizes.
+ * The tree is shared across determinizations (information-set MCTS): a node is reached by the
+ * same sequence of actions, and selection only considers children that are legal in the current
+ * sample. Each node keeps the win count of the seat that chose it, so every seat maximises its
+ * own chance of winning.
+ *
+ * Search is root-parallel: each worker grows its own tree from its own random stream, and the
+ * root visit counts are summed to pick the move. The budget is either a total iteration count
+ * or a wall-clock time.
+ *
+ * With an OutcomeCache (see withCache), every playout result is recorded under the leaf's
+ * State.hash(), and a leaf whose hash already has enough samples is scored from the cache
+ * instead of being played out. The cache can be shared by any number of players and threads.
+ */
+public class MctsPlayer implements PlayerPolicy {
+    private static final double EXPLORATION = 0.7;
+    private static final int MAX_PLAYOUT_TURNS = 2_000;
+    private static final int TIME_CHECK_INTERVAL = 64;
+    private static final int CACHE_MIN_SAMPLES = 16;
+
+    private final long iterations;
+    private final long timeBudgetNanos;
+    private final int workers;
+    private final ForkJoinPool pool;
+    private final OutcomeCache cache;
+    private volatile SearchResult lastResult;
+
+    private MctsPlayer(long iterations, long timeBudgetNanos, int workers, ForkJoinPool pool, OutcomeCache cache) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is required");
+        }
+        this.iterations = iterations;
+        this.timeBudgetNanos = timeBudgetNanos;
+        this.workers = workers;
+        this.pool = pool;
+        this.cache = cache;
+    }
+
+    /**
+     * A player that runs a fixed number of iterations per move, split across workers.
+     */
+    public static MctsPlayer withIterations(long iterations, int workers) {
+        return new MctsPlayer(iterations, 0, workers, ForkJoinPool.commonPool(), null);
+    }
+
+    /**
+     * A player that searches each move for the given wall-clock time.
+     */
+    public static MctsPlayer withTimeBudget(Duration budget, int workers) {
+        return new MctsPlayer(0, budget.toNanos(), workers, ForkJoinPool.commonPool(), null);
+    }
+
+    /**
+     * Returns a copy of this player that runs its workers on the given pool.
+     */
+    public MctsPlayer onPool(ForkJoinPool pool) {
+        return new MctsPlayer(iterations, timeBudgetNanos, workers, pool, cache);
+    }
+
+    /**
+     * Returns a copy of this player that reuses playout outcomes through the given cache.
+     */
+    public MctsPlayer withCache(OutcomeCache cache) {
+        return new MctsPlayer(iterations, timeBudgetNanos, workers, pool, cache);
+    }
+
+    @Override
+    public void takeTurn(BusinessLogic game, SplittableRandom random) {
+        game.apply(search(game, random.nextLong()).getAction());
+    }
+
+    /**
+     * The result of the most recent search, e.g. to report playouts per second.
+     */
+    public SearchResult getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Searches from the current position of game, which is not modified, and returns the best
+     * action for the current player.
+     */
+    public SearchResult search(BusinessLogic game, long seed) {
+        long start = System.nanoTime();
+        ActionBuffer legal = new ActionBuffer();
+        game.generateLegalActions(legal);
+        if (legal.size() <= 1) {
+            SearchResult result = new SearchResult(legal.isEmpty() ? Action.FORFEIT : legal.get(0), 0, System.nanoTime() - start, 0);
+            lastResult = result;
+            return result;
+        }
+
+        if (cache != null) {
+            cache.newGeneration();
+        }
+        long deadline = timeBudgetNanos > 0 ? start + timeBudgetNanos : Long.MAX_VALUE;
+        int seat = game.getSeat(game.getCurrentPlayer());
+        List<ForkJoinTask<Node>> tasks = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            long budget = iterations > 0 ? iterations / workers + (w < iterations % workers ? 1 : 0) : Long.MAX_VALUE;
+            Worker worker = new Worker(game.copy(), seat, new SplittableRandom(Simulator.seedFor(seed, w)), budget, deadline, cache);
+            tasks.add(pool.submit(worker::search));
+        }
+
+        // Sum the root statistics of every worker's tree
+        long[] visits = new long[legal.size()];
+        long playouts = 0;
+        for (ForkJoinTask<Node> task : tasks) {
+            Node root = task.join();
+            playouts += root.visits;
+            for (Node child : root.children) {
+                for (int i = 0; i < legal.size(); i++) {
+                    if (legal.get(i) == child.action) {
+                        visits[i] += child.visits;
+                    }
+                }
+            }
+        }
+        int best = 0;
+        for (int i = 1; i < visits.length; i++) {
+            if (visits[i] > visits[best]) {
+                best = i;
+            }
+        }
+        SearchResult result = new SearchResult(legal.get(best), playouts, System.nanoTime() - start, visits[best]);
+        lastResult = result;
+        return result;
+    }
+
+    /**
+     * Reshuffles everything the player in seat cannot see: the other players' piles and the
+     * Unowned pile. Pile sizes are kept, so the sample is consistent with what is visible.
+     */
+    static void determinize(BusinessLogic game, int seat, SplittableRandom random, int[] scratch) {
+        int n = 0;
+        for (Player player : game.getPlayers()) {
+            if (game.getSeat(player) == seat) {
+                continue;
+            }
+            Pile pile = player.getPile();
+            for (int code = 0; code < ChessPiece.CODES; code++) {
+                for (int k = pile.count(code); k > 0; k--) {
+                    scratch[n++] = code;
+                }
+            }
+        }
+        Deck deck = game.getUnowned();
+        for (ChessPiece piece : deck) {
+            scratch[n++] = piece.getCode();
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = scratch[i];
+            scratch[i] = scratch[j];
+            scratch[j] = swap;
+        }
+
+        int next = 0;
+        for (Player player : game.getPlayers()) {
+            if (game.getSeat(player) == seat) {
+                continue;
+            }
+            Pile pile = player.getPile();
+            int size = pile.size();
+            pile.clear();
+            for (int k = 0; k < size; k++) {
+                pile.addCode(scratch[next++]);
+            }
+        }
+        deck.clear();
+        while (next < n) {
+            deck.add(ChessPiece.of(scratch[next++]));
+        }
+    }
+
+    private static final class Node {
+        final Node parent;
+        final int action;
+        final int actorSeat;
+        final List<Node> children = new ArrayList<>(4);
+        long visits;
+        long availability = 1;
+        double wins;
+
+        Node(Node parent, int action, int actorSeat) {
+            this.parent = parent;
+            this.action = action;
+            this.actorSeat = actorSeat;
+        }
+
+        Node child(int action) {
+            for (int i = 0; i < children.size(); i++) {
+                if (children.get(i).action == action) {
+                    return children.get(i);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One worker's search over its own tree; all state here is confined to the worker thread.
+     */
+    private static final class Worker {
+        private final BusinessLogic rootGame;
+        private final int seat;
+        private final SplittableRandom random;
+        private final long budget;
+        private final long deadline;
+        private final OutcomeCache cache;
+        private final ActionBuffer buffer = new ActionBuffer();
+        private int[] scratch = new int[128];
+
+        Worker(BusinessLogic rootGame, int seat, SplittableRandom random, long budget, long deadline, OutcomeCache cache) {
+            this.rootGame = rootGame;
+            this.seat = seat;
+            this.random = random;
+            this.budget = budget;
+            this.deadline = deadline;
+            this.cache = cache;
+        }
+
+        Node search() {
+            Node root = new Node(null, -1, -1);
+            for (long i = 0; i < budget; i++) {
+                if (i % TIME_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline) {
+                    break;
+                }
+                iterate(root);
+            }
+            return root;
+        }
+
+        private void iterate(Node root) {
+            BusinessLogic game = rootGame.copy();
+            int hidden = game.getUnowned().size();
+            for (Player player : game.getPlayers()) {
+                hidden += player.getPile().size();
+            }
+            if (hidden > scratch.length) {
+                scratch = new int[hidden * 2];
+            }
+            determinize(game, seat, random, scratch);
+
+            // Selection and expansion
+            Node node = root;
+            while (!game.isGameOver()) {
+                int actor = game.getSeat(game.getCurrentPlayer());
+                int count = game.generateLegalActions(buffer);
+
+                int untried = -1;
+                int seen = 0;
+                for (int i = 0; i < count; i++) {
+                    if (node.child(buffer.get(i)) == null && random.nextInt(++seen) == 0) {
+                        untried = buffer.get(i);
+                    }
+                }
+                if (untried >= 0) {
+                    Node child = new Node(node, untried, actor);
+                    node.children.add(child);
+                    game.apply(untried);
+                    node = child;
+                    break;
+                }
+
+                Node best = null;
+                double bestScore = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < count; i++) {
+                    Node child = node.child(buffer.get(i));
+                    child.availability++;
+                    double score = child.wins / child.visits
+                        + EXPLORATION * Math.sqrt(Math.log(child.availability) / child.visits);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        best = child;
+                    }
+                }
+                game.apply(best.action);
+                node = best;
+            }
+
+            // Simulation, or a cached estimate of it
+            if (cache != null && !game.isGameOver()) {
+                long key = game.getState().hash();
+                int mover = game.getSeat(game.getCurrentPlayer());
+                long cached = cache.lookup(key);
+                if (OutcomeCache.samples(cached) >= CACHE_MIN_SAMPLES) {
+                    // Mover wins with the cached probability; the rest is split among the others
+                    double moverWins = OutcomeCache.mean(cached);
+                    double otherWins = (1 - moverWins) / Math.max(1, game.getPlayers().size() - 1);
+                    for (Node n = node; n != null; n = n.parent) {
+                        n.visits++;
+                        n.wins += n.actorSeat == mover ? moverWins : otherWins;
+                    }
+                    return;
+                }
+                int winnerSeat = playout(game);
+                cache.record(key, winnerSeat == mover ? 1 : 0);
+                backpropagate(node, winnerSeat);
+                return;
+            }
+            backpropagate(node, playout(game));
+        }
+
+        /**
+         * Each node scores a win for the seat that chose it.
+         */
+        private void backpropagate(Node node, int winnerSeat) {
+            for (Node n = node; n != null; n = n.parent) {
+                n.visits++;
+                if (n.actorSeat == winnerSeat) {
+                    n.wins += 1;
+                }
+            }
+        }
+
+        /**
+         * Plays random legal moves (never a voluntary forfeit) and returns the winner's seat,
+         * or -1 if the game runs past the turn limit.
+         */
+        private int playout(BusinessLogic game) {
+            for (int turn = 0; turn < MAX_PLAYOUT_TURNS && !game.isGameOver(); turn++) {
+                int count = game.generateLegalActions(buffer);
+                // Forfeit is always the last legal action; only take it when it is the only one
+                game.apply(count == 1 ? buffer.get(0) : buffer.get(random.nextInt(count - 1)));
+            }
+            Player winner = game.getWinner();
+            return winner == null ? -1 : game.getSeat(winner);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package simulation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, lock-free table of playout outcomes keyed by State.hash(), shared by every thread
+ * that evaluates positions.
+ *
+ * Each entry is two longs: the data word and the key XOR the data word ("lockless hashing").
+ * Readers and writers never lock; a reader that catches an entry halfway through an update sees
+ * a key that does not match and treats it as a miss, which is harmless for a cache.
+ *
+ * The data word packs a generation (8 bits), a sample count (24 bits) and the summed reward in
+ * fixed point (32 bits, 8 fractional). Entries live in buckets of four. A key that is not cached
+ * replaces, in order of preference: an empty entry, the entry from the oldest generation, the
+ * entry with the fewest samples. Call newGeneration() between searches so stale entries age out.
+ */
+public class OutcomeCache {
+    private static final int WAYS = 4;
+    private static final int MAX_SAMPLES = (1 << 24) - 1;
+    private static final double REWARD_SCALE = 256.0;
+
+    private final AtomicLongArray table;
+    private final int bucketMask;
+    private volatile int generation = 1;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a cache holding at least the given number of entries (rounded up to a power of two).
+     */
+    public OutcomeCache(int entries) {
+        int buckets = Integer.highestOneBit(Math.max(1, (entries + WAYS - 1) / WAYS) * 2 - 1);
+        this.table = new AtomicLongArray(buckets * WAYS * 2);
+        this.bucketMask = buckets - 1;
+    }
+
+    /**
+     * Returns the packed data word for key, or 0 on a miss. Decode it with samples() and mean().
+     */
+    public long lookup(long key) {
+        int base = bucket(key);
+        for (int way = 0; way < WAYS; way++) {
+            int i = base + way * 2;
+            long data = table.get(i);
+            if (data != 0 && (table.get(i + 1) ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+        }
+        misses.increment();
+        return 0;
+    }
+
+    /**
+     * Adds one sample with the given reward (0..1) to key's entry, inserting it if needed.
+     */
+    public void record(long key, double reward) {
+        int base = bucket(key);
+        int victim = -1;
+        long victimScore = Long.MAX_VALUE;
+        int currentGeneration = generation & 0xFF;
+        for (int way = 0; way < WAYS; way++) {
+            int i = base + way * 2;
+            long data = table.get(i);
+            if (data != 0 && (table.get(i + 1) ^ data) == key) {
+                if (samples(data) == MAX_SAMPLES) {
+                    return;
+                }
+                long updated = pack(currentGeneration, samples(data) + 1, rewardBits(data) + toFixed(reward));
+                if (table.compareAndSet(i, data, updated)) {
+                    table.set(i + 1, key ^ updated);
+                }
+                return;
+            }
+            // Empty entries first, then older generations, then fewer samples
+            long score = data == 0 ? -1 : ((long) (generationOf(data) == currentGeneration ? 1 : 0) << 32) | samples(data);
+            if (score < victimScore) {
+                victimScore = score;
+                victim = i;
+            }
+        }
+        long fresh = pack(currentGeneration, 1, toFixed(reward));
+        long old = table.get(victim);
+        if (table.compareAndSet(victim, old, fresh)) {
+            table.set(victim + 1, key ^ fresh);
+        }
+    }
+
+    /**
+     * Starts a new generation; entries from earlier generations are replaced first.
+     */
+    public void newGeneration() {
+        int next = (generation + 1) & 0xFF;
+        generation = next == 0 ? 1 : next;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public static int samples(long data) {
+        return (int) (data >>> 32) & MAX_SAMPLES;
+    }
+
+    /**
+     * The mean reward stored in a data word.
+     */
+    public static double mean(long data) {
+        int samples = samples(data);
+        return samples == 0 ? 0 : (rewardBits(data) / REWARD_SCALE) / samples;
+    }
+
+    private int bucket(long key) {
+        return (int) ((key ^ (key >>> 32)) & bucketMask) * WAYS * 2;
+    }
+
+    private static long pack(int generation, int samples, long rewardBits) {
+        return ((long) generation << 56) | ((long) samples << 32) | (rewardBits & 0xFFFFFFFFL);
+    }
+
+    private static int generationOf(long data) {
+        return (int) (data >>> 56);
+    }
+
+    private static long rewardBits(long data) {
+        return data & 0xFFFFFFFFL;
+    }
+
+    private static long toFixed(double reward) {
+        return Math.round(reward * REWARD_SCALE);
+    }
+}
@@ -0,0 +1,20 @@
+package simulation;
+
+import java.util.SplittableRandom;
+
+import AIGeneratedCode.BusinessLogic;
+
+/**
+ * Decides and plays one turn for the current player of a game.
+ *
+ * One policy instance is shared by every game a Simulator runs in parallel, so implementations
+ * must be thread-safe; any randomness should come from the random passed in, which is seeded
+ * per game so results are reproducible.
+ */
+public interface PlayerPolicy {
+    /**
+     * Performs exactly one action (discard, draw, monopoly draw or forfeit) for
+     * game.getCurrentPlayer().
+     */
+    void takeTurn(BusinessLogic game, SplittableRandom random);
+}
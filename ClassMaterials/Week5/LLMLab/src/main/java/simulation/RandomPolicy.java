@@ -0,0 +1,50 @@
+package simulation;
+
+import java.util.SplittableRandom;
+
+import AIGeneratedCode.BusinessLogic;
+import AIGeneratedCode.ChessPiece;
+import AIGeneratedCode.Pile;
+
+/**
+ * Picks uniformly among the legal options: every discardable piece in the pile and, while the
+ * player holds a monopoly, the monopoly pawn draw. Draws when nothing else is allowed and
+ * forfeits when the Unowned pile is empty.
+ */
+public class RandomPolicy implements PlayerPolicy {
+
+    @Override
+    public void takeTurn(BusinessLogic game, SplittableRandom random) {
+        Pile pile = game.getCurrentPlayer().getPile();
+        boolean monopolyDraw = game.canDrawMonopolyPawn();
+
+        // Count the options, weighting each code by how many copies the pile holds
+        int options = monopolyDraw ? 1 : 0;
+        if (game.hasLegalDiscard()) {
+            for (int code = 0; code < ChessPiece.CODES; code++) {
+                if (pile.count(code) > 0 && game.canDiscard(ChessPiece.of(code))) {
+                    options += pile.count(code);
+                }
+            }
+        }
+
+        if (options > 0) {
+            int pick = random.nextInt(options);
+            for (int code = 0; code < ChessPiece.CODES; code++) {
+                if (pile.count(code) > 0 && game.canDiscard(ChessPiece.of(code))) {
+                    pick -= pile.count(code);
+                    if (pick < 0) {
+                        game.discard(ChessPiece.of(code));
+                        return;
+                    }
+                }
+            }
+            game.drawMonopolyPawn();
+            return;
+        }
+
+        if (!game.draw()) {
+            game.forfeit();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package simulation;
+
+import AIGeneratedCode.Action;
+
+/**
+ * Outcome of one MctsPlayer search: the chosen action and how much work went into it.
+ */
+public class SearchResult {
+    private final int action;
+    private final long playouts;
+    private final long elapsedNanos;
+    private final long actionVisits;
+
+    public SearchResult(int action, long playouts, long elapsedNanos, long actionVisits) {
+        this.action = action;
+        this.playouts = playouts;
+        this.elapsedNanos = elapsedNanos;
+        this.actionVisits = actionVisits;
+    }
+
+    /**
+     * The chosen action, encoded as in AIGeneratedCode.Action.
+     */
+    public int getAction() {
+        return action;
+    }
+
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Visits the chosen action received, summed over all workers' trees.
+     */
+    public long getActionVisits() {
+        return actionVisits;
+    }
+
+    public double getPlayoutsPerSecond() {
+        return elapsedNanos == 0 ? 0 : playouts * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s after %d playouts (%.0f playouts/s)", Action.toString(action), playouts, getPlayoutsPerSecond());
+    }
+}
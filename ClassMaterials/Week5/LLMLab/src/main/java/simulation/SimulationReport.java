@@ -0,0 +1,166 @@
+package simulation;
+
+import java.util.Arrays;
+
+/**
+ * Aggregate results of a batch of simulated games. Partial reports from parallel workers are
+ * combined with merge(), so the totals do not depend on how the batch was split.
+ */
+public class SimulationReport {
+    private long games;
+    private long[] winsBySeat;
+    private long unfinished;
+    private long forfeits;
+    private long gamesEndedByForfeit;
+    private long gamesWithMonopoly;
+    private long turns;
+    private final long[] lengthHistogram;
+    private long elapsedNanos;
+
+    public SimulationReport(int seats, int maxTurns) {
+        this.winsBySeat = new long[seats];
+        this.lengthHistogram = new long[maxTurns + 1];
+    }
+
+    void recordGame(int winnerSeat, int gameTurns, int gameForfeits, boolean endedByForfeit, boolean sawMonopoly) {
+        games++;
+        if (winnerSeat < 0) {
+            unfinished++;
+        } else {
+            if (winnerSeat >= winsBySeat.length) {
+                winsBySeat = Arrays.copyOf(winsBySeat, winnerSeat + 1);
+            }
+            winsBySeat[winnerSeat]++;
+        }
+        forfeits += gameForfeits;
+        if (endedByForfeit) {
+            gamesEndedByForfeit++;
+        }
+        if (sawMonopoly) {
+            gamesWithMonopoly++;
+        }
+        turns += gameTurns;
+        lengthHistogram[Math.min(gameTurns, lengthHistogram.length - 1)]++;
+    }
+
+    /**
+     * Adds another partial report into this one and returns this.
+     */
+    SimulationReport merge(SimulationReport other) {
+        games += other.games;
+        if (other.winsBySeat.length > winsBySeat.length) {
+            winsBySeat = Arrays.copyOf(winsBySeat, other.winsBySeat.length);
+        }
+        for (int seat = 0; seat < other.winsBySeat.length; seat++) {
+            winsBySeat[seat] += other.winsBySeat[seat];
+        }
+        unfinished += other.unfinished;
+        forfeits += other.forfeits;
+        gamesEndedByForfeit += other.gamesEndedByForfeit;
+        gamesWithMonopoly += other.gamesWithMonopoly;
+        turns += other.turns;
+        for (int i = 0; i < lengthHistogram.length; i++) {
+            lengthHistogram[i] += other.lengthHistogram[i];
+        }
+        return this;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public int getSeats() {
+        return winsBySeat.length;
+    }
+
+    public long getWins(int seat) {
+        return winsBySeat[seat];
+    }
+
+    public double getWinRate(int seat) {
+        return games == 0 ? 0 : (double) winsBySeat[seat] / games;
+    }
+
+    /**
+     * Games stopped at the turn limit without a winner.
+     */
+    public long getUnfinished() {
+        return unfinished;
+    }
+
+    public long getForfeits() {
+        return forfeits;
+    }
+
+    /**
+     * Fraction of games won by the last player left after everyone else forfeited.
+     */
+    public double getForfeitRate() {
+        return games == 0 ? 0 : (double) gamesEndedByForfeit / games;
+    }
+
+    /**
+     * Fraction of games in which some player held a monopoly at the end of at least one turn.
+     */
+    public double getMonopolyFrequency() {
+        return games == 0 ? 0 : (double) gamesWithMonopoly / games;
+    }
+
+    public long getTotalTurns() {
+        return turns;
+    }
+
+    public double getMeanLength() {
+        return games == 0 ? 0 : (double) turns / games;
+    }
+
+    /**
+     * Returns the smallest game length (in turns) that at least the given fraction of games
+     * did not exceed, e.g. 0.5 for the median.
+     */
+    public int getLengthPercentile(double fraction) {
+        long target = (long) Math.ceil(fraction * games);
+        long seen = 0;
+        for (int length = 0; length < lengthHistogram.length; length++) {
+            seen += lengthHistogram[length];
+            if (seen >= target && seen > 0) {
+                return length;
+            }
+        }
+        return lengthHistogram.length - 1;
+    }
+
+    /**
+     * Number of games that lasted exactly the given number of turns.
+     */
+    public long getGamesOfLength(int length) {
+        return length < lengthHistogram.length ? lengthHistogram[length] : 0;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("games=%d  %.0f games/s  %.0f turns/s%n",
+            games, getGamesPerSecond(), elapsedNanos == 0 ? 0 : turns * 1e9 / elapsedNanos));
+        for (int seat = 0; seat < winsBySeat.length; seat++) {
+            out.append(String.format("seat %d win rate %.4f%n", seat, getWinRate(seat)));
+        }
+        out.append(String.format("length mean=%.1f p50=%d p90=%d p99=%d unfinished=%d%n",
+            getMeanLength(), getLengthPercentile(0.5), getLengthPercentile(0.9), getLengthPercentile(0.99), unfinished));
+        out.append(String.format("forfeit rate=%.4f (forfeits=%d)  monopoly frequency=%.4f",
+            getForfeitRate(), forfeits, getMonopolyFrequency()));
+        return out.toString();
+    }
+}
@@ -0,0 +1,147 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import AIGeneratedCode.BusinessLogic;
+import AIGeneratedCode.Color;
+import AIGeneratedCode.Player;
+
+/**
+ * Headless Monte Carlo self-play: plays many complete games of AIGeneratedCode.BusinessLogic
+ * and aggregates the results.
+ *
+ * Games are independent, so the batch is split into ranges of game indices and spread over a
+ * ForkJoinPool; every worker fills its own SimulationReport and the partial reports are merged
+ * on the way back up. Game i is always seeded with seedFor(seed, i), which shuffles its Unowned
+ * pile and drives its policies, so a batch gives the same results for any pool size.
+ */
+public class Simulator {
+    public static final int DEFAULT_MAX_TURNS = 10_000;
+
+    private static final Color[] COLORS = Color.values();
+
+    private final List<PlayerPolicy> seatPolicies;
+    private final int maxTurns;
+    private final ForkJoinPool pool;
+    private final int seats;
+
+    /**
+     * Seat i is played by seatPolicies.get(i % seatPolicies.size()).
+     */
+    public Simulator(List<PlayerPolicy> seatPolicies) {
+        this(seatPolicies, DEFAULT_MAX_TURNS, ForkJoinPool.commonPool());
+    }
+
+    public Simulator(List<PlayerPolicy> seatPolicies, int maxTurns, ForkJoinPool pool) {
+        if (seatPolicies.isEmpty()) {
+            throw new IllegalArgumentException("At least one policy is required");
+        }
+        this.seatPolicies = new ArrayList<>(seatPolicies);
+        this.maxTurns = maxTurns;
+        this.pool = pool;
+        this.seats = new BusinessLogic().getPlayers().size();
+    }
+
+    /**
+     * Plays games 0 .. games-1 of the batch identified by seed and returns the aggregate report.
+     */
+    public SimulationReport run(int games, long seed) {
+        long start = System.nanoTime();
+        int leafSize = Math.max(1, games / (pool.getParallelism() * 8));
+        SimulationReport report = pool.invoke(new Batch(seed, 0, games, leafSize));
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * The seed of game index in the batch identified by seed.
+     */
+    public static long seedFor(long seed, long index) {
+        return seed + index * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Plays one complete game and records it into report.
+     */
+    void playGame(long gameSeed, SimulationReport report) {
+        SplittableRandom random = new SplittableRandom(gameSeed);
+        BusinessLogic game = new BusinessLogic();
+        game.getUnowned().shuffle(random);
+
+        int turns = 0;
+        int forfeits = 0;
+        boolean sawMonopoly = false;
+        while (!game.isGameOver() && turns < maxTurns) {
+            Player current = game.getCurrentPlayer();
+            int playersBefore = game.getPlayers().size();
+            seatPolicies.get(game.getSeat(current) % seatPolicies.size()).takeTurn(game, random);
+            turns++;
+            if (game.getPlayers().size() < playersBefore) {
+                forfeits++;
+            }
+            if (!sawMonopoly) {
+                for (Color color : COLORS) {
+                    if (game.getMonopolyHolder(color) != null) {
+                        sawMonopoly = true;
+                        break;
+                    }
+                }
+            }
+        }
+
+        Player winner = game.getWinner();
+        boolean endedByForfeit = winner != null && forfeits > 0 && game.getPlayers().size() == 1;
+        report.recordGame(winner == null ? -1 : game.getSeat(winner), turns, forfeits, endedByForfeit, sawMonopoly);
+    }
+
+    private class Batch extends RecursiveTask<SimulationReport> {
+        private static final long serialVersionUID = 1L;
+
+        private final long seed;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        Batch(long seed, int from, int to, int leafSize) {
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected SimulationReport compute() {
+            if (to - from <= leafSize) {
+                SimulationReport report = new SimulationReport(seats, maxTurns);
+                for (int i = from; i < to; i++) {
+                    playGame(seedFor(seed, i), report);
+                }
+                return report;
+            }
+            int mid = (from + to) >>> 1;
+            Batch left = new Batch(seed, from, mid, leafSize);
+            left.fork();
+            SimulationReport right = new Batch(seed, mid, to, leafSize).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Usage: Simulator [games] [seed] [threads]
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        Simulator simulator = new Simulator(List.of(new GreedyPolicy(), new RandomPolicy()), DEFAULT_MAX_TURNS, pool);
+        simulator.run(Math.min(games, 1_000), seed); // warm-up
+        System.out.println(simulator.run(games, seed));
+        pool.shutdown();
+    }
+}
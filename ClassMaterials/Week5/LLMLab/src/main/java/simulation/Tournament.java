@@ -0,0 +1,317 @@
+package simulation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import AIGeneratedCode.BusinessLogic;
+import AIGeneratedCode.GameConfig;
+import AIGeneratedCode.Player;
+
+/**
+ * Round-robin tournament between named policies on a configured game (the standard one by
+ * default).
+ *
+ * A seating assigns an entrant to every seat; the tournament uses every seating in which at
+ * least two different entrants play (so with k entrants and s seats, k^s - k seatings). Each
+ * round deals one game from the config with its own seed and plays it once under every seating,
+ * so all seatings face the same deals. Game g is round g / seatings under seating g % seatings, and its policies are
+ * driven by a random derived from both, so results do not depend on the pool size.
+ *
+ * Games are spread over a ForkJoinPool in ranges like Simulator's batches. Every leaf keeps
+ * only counts (see TournamentStandings) and, when a CSV writer is given, a buffer of rows that
+ * it flushes to the writer in chunks, so memory does not grow with the number of games.
+ */
+public class Tournament {
+    /** CSV header; one row per game follows, in no particular order. */
+    public static final String CSV_HEADER = "game,round,seating,winner_seat,winner,turns";
+
+    private static final int FLUSH_CHARS = 64 * 1024;
+    private static final int MAX_LEAF = 4096;
+
+    private final List<String> names;
+    private final List<PlayerPolicy> policies;
+    private final GameConfig config;
+    private final long rounds;
+    private final long seed;
+    private final int maxTurns;
+    private final ForkJoinPool pool;
+    private final int seats;
+    private final int[][] seatings;
+
+    private Tournament(Builder builder) {
+        this.names = List.copyOf(builder.names);
+        this.policies = List.copyOf(builder.policies);
+        this.config = builder.config;
+        this.rounds = builder.rounds;
+        this.seed = builder.seed;
+        this.maxTurns = builder.maxTurns;
+        this.pool = builder.pool;
+        this.seats = config.getPlayers();
+        this.seatings = seatings(names.size(), seats);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Every assignment of entrants to seats that has at least two different entrants, in
+     * lexicographic order.
+     */
+    static int[][] seatings(int entrants, int seats) {
+        List<int[]> result = new ArrayList<>();
+        int[] seating = new int[seats];
+        long total = (long) Math.pow(entrants, seats);
+        for (long i = 0; i < total; i++) {
+            long rest = i;
+            for (int seat = seats - 1; seat >= 0; seat--) {
+                seating[seat] = (int) (rest % entrants);
+                rest /= entrants;
+            }
+            for (int seat = 1; seat < seats; seat++) {
+                if (seating[seat] != seating[0]) {
+                    result.add(seating.clone());
+                    break;
+                }
+            }
+        }
+        return result.toArray(new int[0][]);
+    }
+
+    public int getSeatingCount() {
+        return seatings.length;
+    }
+
+    /**
+     * The entrant (index into the builder's entrants) in each seat of the given seating.
+     */
+    public int[] getSeating(int seating) {
+        return seatings[seating].clone();
+    }
+
+    public long getGameCount() {
+        return rounds * seatings.length;
+    }
+
+    public TournamentStandings run() {
+        try {
+            return run(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // unreachable without a writer
+        }
+    }
+
+    /**
+     * Plays every game and returns the standings, writing CSV_HEADER and one row per game to csv
+     * if it is not null. The writer is flushed but not closed.
+     */
+    public TournamentStandings run(Writer csv) throws IOException {
+        long start = System.nanoTime();
+        if (csv != null) {
+            csv.write(CSV_HEADER);
+            csv.write('\n');
+        }
+        long games = getGameCount();
+        long leafSize = Math.max(1, Math.min(MAX_LEAF, games / (pool.getParallelism() * 8L)));
+        TournamentStandings standings;
+        try {
+            standings = pool.invoke(new Batch(0, games, leafSize, csv));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (csv != null) {
+            csv.flush();
+        }
+        standings.setElapsedNanos(System.nanoTime() - start);
+        return standings;
+    }
+
+    /**
+     * Plays game index and records it; appends its CSV row to rows if rows is not null.
+     */
+    void playGame(long index, TournamentStandings standings, StringBuilder rows) {
+        long round = index / seatings.length;
+        int seatingIndex = (int) (index % seatings.length);
+        int[] seating = seatings[seatingIndex];
+        long dealSeed = Simulator.seedFor(seed, round);
+        BusinessLogic game = new BusinessLogic(config.withSeed(dealSeed));
+        SplittableRandom random = new SplittableRandom(Simulator.seedFor(dealSeed, seatingIndex + 1));
+
+        int turns = 0;
+        while (!game.isGameOver() && turns < maxTurns) {
+            Player current = game.getCurrentPlayer();
+            policies.get(seating[game.getSeat(current)]).takeTurn(game, random);
+            turns++;
+        }
+
+        Player winner = game.getWinner();
+        int winnerSeat = winner == null ? -1 : game.getSeat(winner);
+        standings.recordGame(seating, winnerSeat, turns);
+        if (rows != null) {
+            rows.append(index).append(',').append(round).append(',');
+            for (int seat = 0; seat < seating.length; seat++) {
+                rows.append(seat == 0 ? "" : "|").append(names.get(seating[seat]));
+            }
+            rows.append(',').append(winnerSeat).append(',')
+                .append(winnerSeat < 0 ? "" : names.get(seating[winnerSeat]))
+                .append(',').append(turns).append('\n');
+        }
+    }
+
+    private static void flush(Writer csv, StringBuilder rows) {
+        synchronized (csv) {
+            try {
+                csv.append(rows);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        rows.setLength(0);
+    }
+
+    private class Batch extends RecursiveTask<TournamentStandings> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+        private final long leafSize;
+        private final transient Writer csv;
+
+        Batch(long from, long to, long leafSize, Writer csv) {
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.csv = csv;
+        }
+
+        @Override
+        protected TournamentStandings compute() {
+            if (to - from <= leafSize) {
+                TournamentStandings standings = new TournamentStandings(names);
+                StringBuilder rows = csv == null ? null : new StringBuilder();
+                for (long i = from; i < to; i++) {
+                    playGame(i, standings, rows);
+                    if (rows != null && rows.length() >= FLUSH_CHARS) {
+                        flush(csv, rows);
+                    }
+                }
+                if (rows != null && rows.length() > 0) {
+                    flush(csv, rows);
+                }
+                return standings;
+            }
+            long mid = (from + to) >>> 1;
+            Batch left = new Batch(from, mid, leafSize, csv);
+            left.fork();
+            TournamentStandings right = new Batch(mid, to, leafSize, csv).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    public static final class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final List<PlayerPolicy> policies = new ArrayList<>();
+        private GameConfig config = GameConfig.builder().build();
+        private long rounds = 100;
+        private long seed = 1;
+        private int maxTurns = Simulator.DEFAULT_MAX_TURNS;
+        private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds an entrant. The policy is shared by every game that runs in parallel, so it must
+         * be thread-safe (see PlayerPolicy).
+         */
+        public Builder entrant(String name, PlayerPolicy policy) {
+            if (names.contains(name)) {
+                throw new IllegalArgumentException("Duplicate entrant " + name);
+            }
+            if (name.contains(",") || name.contains("|") || name.contains("\n")) {
+                throw new IllegalArgumentException("Entrant names cannot contain ',', '|' or line breaks");
+            }
+            names.add(name);
+            policies.add(policy);
+            return this;
+        }
+
+        /**
+         * The game every round deals; its seat count sets the seatings and its seed is replaced
+         * by one derived from the tournament seed for each round.
+         */
+        public Builder config(GameConfig config) {
+            this.config = config;
+            return this;
+        }
+
+        /**
+         * Number of deals; each is played once under every seating.
+         */
+        public Builder rounds(long rounds) {
+            this.rounds = rounds;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder maxTurns(int maxTurns) {
+            this.maxTurns = maxTurns;
+            return this;
+        }
+
+        public Builder pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        public Tournament build() {
+            if (names.size() < 2) {
+                throw new IllegalArgumentException("A tournament needs at least two entrants");
+            }
+            if (rounds < 1) {
+                throw new IllegalArgumentException("A tournament needs at least one round");
+            }
+            if (maxTurns < 1) {
+                throw new IllegalArgumentException("maxTurns must be at least 1");
+            }
+            return new Tournament(this);
+        }
+    }
+
+    /**
+     * Usage: Tournament [rounds] [seed] [threads] [csv file]
+     */
+    public static void main(String[] args) throws IOException {
+        long rounds = args.length > 0 ? Long.parseLong(args[0]) : 10_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        Tournament tournament = Tournament.builder()
+            .entrant("greedy", new GreedyPolicy())
+            .entrant("random", new RandomPolicy())
+            .rounds(rounds).seed(seed).pool(pool).build();
+        TournamentStandings standings;
+        if (args.length > 3) {
+            try (Writer csv = Files.newBufferedWriter(Path.of(args[3]))) {
+                standings = tournament.run(csv);
+            }
+        } else {
+            standings = tournament.run();
+        }
+        System.out.println(standings);
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,288 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Results of a Tournament: per-entrant game and win counts, the pairwise record, and ratings.
+ *
+ * Each finished game counts as a win for the winner's entrant over every other entrant seated in
+ * it. Ratings fit a Bradley-Terry model to those pairwise results (minorization-maximization,
+ * with one virtual draw between every pair so an entrant that never wins still gets a finite
+ * rating) and are reported on the Elo scale, centred on 1500: 400 points is 10:1 odds.
+ * The error is the half-width of a 95% confidence interval from the fit's Fisher information.
+ * Pairs from the same game are not independent, so treat it as a guide rather than exact.
+ */
+public class TournamentStandings {
+    /** Rating of an average entrant. */
+    public static final double BASE_RATING = 1500;
+
+    private static final double ELO_SCALE = 400 / Math.log(10);
+    private static final double Z_95 = 1.959964;
+    private static final double PRIOR_DRAWS = 1;
+    private static final int MAX_ITERATIONS = 10_000;
+    private static final double TOLERANCE = 1e-12;
+
+    private final List<String> names;
+    private final long[] games;
+    private final long[] wins;
+    private final long[][] beat; // beat[i][j]: games entrant i won with j seated
+    private long totalGames;
+    private long unfinished;
+    private long turns;
+    private long elapsedNanos;
+    private double[] ratings;
+    private double[] errors;
+
+    TournamentStandings(List<String> names) {
+        int n = names.size();
+        this.names = names;
+        this.games = new long[n];
+        this.wins = new long[n];
+        this.beat = new long[n][n];
+    }
+
+    void recordGame(int[] seating, int winnerSeat, int gameTurns) {
+        totalGames++;
+        turns += gameTurns;
+        ratings = null;
+        int winner = winnerSeat < 0 ? -1 : seating[winnerSeat];
+        if (winner < 0) {
+            unfinished++;
+        } else {
+            wins[winner]++;
+        }
+        // Count each entrant once per game, however many seats it has
+        for (int seat = 0; seat < seating.length; seat++) {
+            int entrant = seating[seat];
+            if (!seatedEarlier(seating, seat)) {
+                games[entrant]++;
+                if (winner >= 0 && entrant != winner) {
+                    beat[winner][entrant]++;
+                }
+            }
+        }
+    }
+
+    private static boolean seatedEarlier(int[] seating, int seat) {
+        for (int earlier = 0; earlier < seat; earlier++) {
+            if (seating[earlier] == seating[seat]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    TournamentStandings merge(TournamentStandings other) {
+        for (int i = 0; i < games.length; i++) {
+            games[i] += other.games[i];
+            wins[i] += other.wins[i];
+            for (int j = 0; j < games.length; j++) {
+                beat[i][j] += other.beat[i][j];
+            }
+        }
+        totalGames += other.totalGames;
+        unfinished += other.unfinished;
+        turns += other.turns;
+        ratings = null;
+        return this;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getEntrantCount() {
+        return names.size();
+    }
+
+    public String getName(int entrant) {
+        return names.get(entrant);
+    }
+
+    public long getGames() {
+        return totalGames;
+    }
+
+    /**
+     * Games stopped at the turn limit without a winner.
+     */
+    public long getUnfinished() {
+        return unfinished;
+    }
+
+    public long getGames(int entrant) {
+        return games[entrant];
+    }
+
+    public long getWins(int entrant) {
+        return wins[entrant];
+    }
+
+    public double getWinRate(int entrant) {
+        return games[entrant] == 0 ? 0 : (double) wins[entrant] / games[entrant];
+    }
+
+    /**
+     * Games entrant won while opponent was seated in them.
+     */
+    public long getWinsOver(int entrant, int opponent) {
+        return beat[entrant][opponent];
+    }
+
+    public double getMeanLength() {
+        return totalGames == 0 ? 0 : (double) turns / totalGames;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : totalGames * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Bradley-Terry rating on the Elo scale; the entrants' ratings average BASE_RATING.
+     */
+    public double getRating(int entrant) {
+        fit();
+        return ratings[entrant];
+    }
+
+    /**
+     * Half-width of the 95% confidence interval around getRating(entrant).
+     */
+    public double getRatingError(int entrant) {
+        fit();
+        return errors[entrant];
+    }
+
+    private void fit() {
+        if (ratings != null) {
+            return;
+        }
+        int n = names.size();
+        double[][] played = new double[n][n];
+        double[] won = new double[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j) {
+                    played[i][j] = beat[i][j] + beat[j][i] + PRIOR_DRAWS;
+                    won[i] += beat[i][j] + PRIOR_DRAWS / 2;
+                }
+            }
+        }
+
+        // Minorization-maximization: p_i = W_i / sum_j N_ij / (p_i + p_j), normalized each pass
+        double[] strength = new double[n];
+        Arrays.fill(strength, 1);
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double[] next = new double[n];
+            double logSum = 0;
+            for (int i = 0; i < n; i++) {
+                double denominator = 0;
+                for (int j = 0; j < n; j++) {
+                    if (i != j) {
+                        denominator += played[i][j] / (strength[i] + strength[j]);
+                    }
+                }
+                next[i] = won[i] / denominator;
+                logSum += Math.log(next[i]);
+            }
+            double scale = Math.exp(-logSum / n);
+            double change = 0;
+            for (int i = 0; i < n; i++) {
+                next[i] *= scale;
+                change = Math.max(change, Math.abs(Math.log(next[i] / strength[i])));
+            }
+            strength = next;
+            if (change < TOLERANCE) {
+                break;
+            }
+        }
+
+        // Fisher information of the log-strengths; its pseudo-inverse is their covariance
+        double[][] information = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j) {
+                    double pi = strength[i];
+                    double pj = strength[j];
+                    double h = played[i][j] * pi * pj / ((pi + pj) * (pi + pj));
+                    information[i][j] -= h;
+                    information[i][i] += h;
+                }
+            }
+        }
+        double[][] covariance = pseudoInverse(information);
+
+        ratings = new double[n];
+        errors = new double[n];
+        for (int i = 0; i < n; i++) {
+            ratings[i] = BASE_RATING + ELO_SCALE * Math.log(strength[i]);
+            errors[i] = Z_95 * ELO_SCALE * Math.sqrt(Math.max(0, covariance[i][i]));
+        }
+    }
+
+    /**
+     * Pseudo-inverse of a Laplacian-like matrix whose null space is the all-ones vector:
+     * (H + J/n)^-1 - J/n, where J/n projects onto that vector.
+     */
+    static double[][] pseudoInverse(double[][] matrix) {
+        int n = matrix.length;
+        double[][] a = new double[n][2 * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                a[i][j] = matrix[i][j] + 1.0 / n;
+            }
+            a[i][n + i] = 1;
+        }
+        // Gauss-Jordan with partial pivoting
+        for (int column = 0; column < n; column++) {
+            int pivot = column;
+            for (int row = column + 1; row < n; row++) {
+                if (Math.abs(a[row][column]) > Math.abs(a[pivot][column])) {
+                    pivot = row;
+                }
+            }
+            double[] swap = a[column];
+            a[column] = a[pivot];
+            a[pivot] = swap;
+            double divisor = a[column][column];
+            for (int j = 0; j < 2 * n; j++) {
+                a[column][j] /= divisor;
+            }
+            for (int row = 0; row < n; row++) {
+                if (row != column && a[row][column] != 0) {
+                    double factor = a[row][column];
+                    for (int j = 0; j < 2 * n; j++) {
+                        a[row][j] -= factor * a[column][j];
+                    }
+                }
+            }
+        }
+        double[][] inverse = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                inverse[i][j] = a[i][n + j] - 1.0 / n;
+            }
+        }
+        return inverse;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("games=%d  %.0f games/s  mean length %.1f  unfinished=%d%n",
+            totalGames, getGamesPerSecond(), getMeanLength(), unfinished));
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingDouble(this::getRating).reversed());
+        for (int i : order) {
+            out.append(String.format("%-16s rating %6.1f +/- %5.1f  win rate %.4f (%d/%d)%n",
+                names.get(i), getRating(i), getRatingError(i), getWinRate(i), wins[i], games[i]));
+        }
+        return out.toString().trim();
+    }
+}
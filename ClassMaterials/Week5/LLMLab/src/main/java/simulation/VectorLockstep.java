@@ -0,0 +1,332 @@
+package simulation;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import AIGeneratedCode.ChessPiece;
+import AIGeneratedCode.MonopolyTable;
+
+/**
+ * The Vector API half of LockstepGames: plays one turn for a whole vector of games (8 lanes with
+ * AVX2, 16 with AVX-512) per block of instructions.
+ *
+ * Discard legality is the current seat's present mask ANDed with the rule row gathered by top
+ * discard; the lowest discardable code, and the next or previous live seat, come from the exponent
+ * of the lowest (or highest) set bit converted to float, since JDK 17 has no lanewise bit-count
+ * operators. Discards, rainbow reversals, forced draws and the turn advance are all applied under
+ * lane masks, with per-code counts gathered and scattered through a scratch index array. Monopoly
+ * pawn draws and forfeits are rare enough that those lanes are handed to LockstepGames.turn().
+ *
+ * Only LockstepGames touches this class, and only when jdk.incubator.vector is in the boot layer.
+ */
+final class VectorLockstep {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final IntVector IOTA = IntVector.zero(SPECIES).addIndex(1);
+    private static final IntVector ZERO = IntVector.zero(SPECIES);
+    private static final IntVector ONE = IntVector.broadcast(SPECIES, 1);
+    private static final IntVector ALL_SEATS = IntVector.broadcast(SPECIES, -1);
+    private static final int FLOAT_EXPONENT_SHIFT = 23;
+    private static final int FLOAT_EXPONENT_BIAS = 127;
+    private static final int RAINBOW_FIRST = LockstepGames.RAINBOW * ChessPiece.TYPES;
+
+    private final LockstepGames games;
+    /** Scratch rows: per color, the largest live total and how many seats share it. */
+    private static final int MAX = 0;
+    private static final int AT_MAX = MAX + LockstepGames.COLORS;
+    private static final int MINE = AT_MAX + LockstepGames.COLORS;
+    private static final int BEST_COUNT = MINE + 1;
+    private static final int CURRENT_HOLDS = BEST_COUNT + 1;
+    private static final int ANY_HOLDER = CURRENT_HOLDS + 1;
+    private static final int PAWNS_LEFT = ANY_HOLDER + 1;
+    private static final int BY_SEAT = PAWNS_LEFT + 1;
+
+    private final int[] index = new int[SPECIES.length()];
+    private final int[][] scratch = new int[BY_SEAT + 1][SPECIES.length()];
+
+    VectorLockstep(LockstepGames games) {
+        this.games = games;
+    }
+
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    /**
+     * Games 0 .. upperBound()-1 fill whole vectors; the rest are played one at a time.
+     */
+    int upperBound() {
+        return SPECIES.loopBound(games.games);
+    }
+
+    int step(int bound) {
+        int moved = 0;
+        for (int base = 0; base < bound; base += SPECIES.length()) {
+            moved += stepLanes(base);
+        }
+        return moved;
+    }
+
+    private int stepLanes(int base) {
+        LockstepGames s = games;
+        IntVector winner = IntVector.fromArray(SPECIES, s.winner, base);
+        IntVector turns = IntVector.fromArray(SPECIES, s.turns, base);
+        VectorMask<Integer> running = winner.compare(VectorOperators.LT, 0)
+            .and(turns.compare(VectorOperators.LT, s.maxTurns));
+        if (!running.anyTrue()) {
+            return 0;
+        }
+        IntVector cur = IntVector.fromArray(SPECIES, s.current, base);
+        IntVector live = IntVector.fromArray(SPECIES, s.live, base);
+        IntVector column = IOTA.add(base);
+
+        IntVector present = bySeat(s.present, cur, base);
+        IntVector discardable = present.and(IntVector.fromArray(SPECIES, s.playable, 0, s.top, base));
+        VectorMask<Integer> discards = running.and(discardable.compare(VectorOperators.NE, 0));
+        VectorMask<Integer> rest = running.andNot(discards);
+        VectorMask<Integer> draws = rest;
+        VectorMask<Integer> unseen = running.and(turns.compare(VectorOperators.GT, 0))
+            .and(IntVector.fromArray(SPECIES, s.flags, base).and(LockstepGames.SAW_MONOPOLY)
+                .compare(VectorOperators.EQ, 0));
+        if (rest.anyTrue() || unseen.anyTrue()) {
+            draws = ordinaryDraws(base, cur, live, rest, unseen);
+        }
+        VectorMask<Integer> scalar = rest.andNot(draws);
+        IntVector flags = IntVector.fromArray(SPECIES, s.flags, base);
+
+        VectorMask<Integer> moves = discards.or(draws);
+        IntVector code = ZERO;
+        IntVector sizeChange = ZERO;
+        if (discards.anyTrue()) {
+            code = lowestBit(discardable);
+            sizeChange = sizeChange.blend(-1, discards);
+            VectorMask<Integer> rainbow = discards.and(code.compare(VectorOperators.GE, RAINBOW_FIRST))
+                .and(code.compare(VectorOperators.LT, RAINBOW_FIRST + ChessPiece.TYPES));
+            flags = flags.lanewise(VectorOperators.XOR, LockstepGames.REVERSED, rainbow);
+            flags.intoArray(s.flags, base);
+            IntVector.fromArray(SPECIES, s.top, base).blend(code, discards).intoArray(s.top, base);
+        }
+        if (draws.anyTrue()) {
+            code = code.blend(draw(base, column, draws), draws);
+            sizeChange = sizeChange.blend(1, draws);
+        }
+        if (moves.anyTrue()) {
+            IntVector size = move(base, cur, column, code, sizeChange, present, moves, discards, draws);
+            winner.blend(cur, discards.and(size.compare(VectorOperators.EQ, 0))).intoArray(s.winner, base);
+            VectorMask<Integer> reversed = flags.and(LockstepGames.REVERSED).compare(VectorOperators.NE, 0);
+            cur.blend(advance(cur, live, reversed), moves).intoArray(s.current, base);
+            turns.add(1, moves).intoArray(s.turns, base);
+        }
+
+        if (scalar.anyTrue()) {
+            for (int lane = scalar.firstTrue(); lane < SPECIES.length(); lane++) {
+                if (scalar.laneIsSet(lane)) {
+                    s.turn(base + lane);
+                }
+            }
+        }
+        return running.trueCount();
+    }
+
+    /**
+     * Of the lanes in rest (nothing to discard), those that must take an ordinary draw: no
+     * monopoly pawn to claim, and deck left to draw from. Also records SAW_MONOPOLY for the lanes
+     * in unseen that now have a monopoly holder.
+     */
+    private VectorMask<Integer> ordinaryDraws(int base, IntVector cur, IntVector live,
+                                              VectorMask<Integer> rest, VectorMask<Integer> unseen) {
+        LockstepGames s = games;
+        int columns = s.games;
+        // Per color: the largest live total, how many seats share it, and the current seat's total.
+        // Values carried around a loop are kept in scratch rows, since C2 boxes vector loop phis.
+        int[] mine = scratch[MINE];
+        int[] bestCount = scratch[BEST_COUNT];
+        int[] curHolds = scratch[CURRENT_HOLDS];
+        int[] pawnsLeft = scratch[PAWNS_LEFT];
+        ZERO.intoArray(bestCount, 0);
+        ZERO.intoArray(curHolds, 0);
+        ZERO.intoArray(pawnsLeft, 0);
+        for (int c = 0; c < LockstepGames.COLORS; c++) {
+            int[] max = scratch[MAX + c];
+            int[] atMax = scratch[AT_MAX + c];
+            ZERO.intoArray(max, 0);
+            ZERO.intoArray(atMax, 0);
+            ZERO.intoArray(mine, 0);
+            for (int seat = 0; seat < s.players; seat++) {
+                IntVector row = IntVector.fromArray(SPECIES, s.colorTotals, (seat * LockstepGames.COLORS + c) * columns + base);
+                IntVector count = ZERO.blend(row, live.and(1 << seat).compare(VectorOperators.NE, 0));
+                IntVector top = IntVector.fromArray(SPECIES, max, 0);
+                IntVector shared = IntVector.fromArray(SPECIES, atMax, 0);
+                shared.blend(shared.add(ONE), count.compare(VectorOperators.EQ, top))
+                    .blend(ONE, count.compare(VectorOperators.GT, top))
+                    .intoArray(atMax, 0);
+                top.max(count).intoArray(max, 0);
+                IntVector.fromArray(SPECIES, mine, 0).blend(row, cur.compare(VectorOperators.EQ, seat)).intoArray(mine, 0);
+            }
+            IntVector top = IntVector.fromArray(SPECIES, max, 0);
+            IntVector own = IntVector.fromArray(SPECIES, mine, 0);
+            IntVector best = IntVector.fromArray(SPECIES, bestCount, 0);
+            VectorMask<Integer> unique = top.compare(VectorOperators.GE, MonopolyTable.MIN_PIECES)
+                .and(IntVector.fromArray(SPECIES, atMax, 0).compare(VectorOperators.EQ, 1));
+            // The current seat's monopoly color is the first color it holds the most of
+            VectorMask<Integer> better = own.compare(VectorOperators.GT, best);
+            IntVector holds = ZERO.blend(ALL_SEATS, unique.and(own.compare(VectorOperators.EQ, top)));
+            IntVector.fromArray(SPECIES, curHolds, 0).blend(holds, better).intoArray(curHolds, 0);
+            best.blend(own, better).intoArray(bestCount, 0);
+            IntVector.fromArray(SPECIES, pawnsLeft, 0)
+                .blend(IntVector.fromArray(SPECIES, s.unowned, LockstepGames.pawn(c) * columns + base), better)
+                .intoArray(pawnsLeft, 0);
+        }
+        if (unseen.anyTrue()) {
+            IntVector.fromArray(SPECIES, s.flags, base)
+                .lanewise(VectorOperators.OR, LockstepGames.SAW_MONOPOLY, unseen.and(anyHolder(base, live)))
+                .intoArray(s.flags, base);
+        }
+        VectorMask<Integer> monopolyDraws = rest
+            .and(IntVector.fromArray(SPECIES, curHolds, 0).compare(VectorOperators.NE, 0))
+            .and(IntVector.fromArray(SPECIES, pawnsLeft, 0).compare(VectorOperators.GT, 0));
+        return rest.andNot(monopolyDraws)
+            .and(IntVector.fromArray(SPECIES, s.front, base).compare(VectorOperators.LT, s.deckLength));
+    }
+
+    /**
+     * Lanes where some live seat holds a monopoly: it uniquely leads (scratch MAX and AT_MAX rows,
+     * filled by ordinaryDraws) the color it holds the most of, with at least MIN_PIECES.
+     */
+    private VectorMask<Integer> anyHolder(int base, IntVector live) {
+        LockstepGames s = games;
+        int columns = s.games;
+        int[] anyHolder = scratch[ANY_HOLDER];
+        ZERO.intoArray(anyHolder, 0);
+        for (int seat = 0; seat < s.players; seat++) {
+            IntVector best = ZERO;
+            VectorMask<Integer> leads = SPECIES.maskAll(false);
+            for (int c = 0; c < LockstepGames.COLORS; c++) {
+                IntVector row = IntVector.fromArray(SPECIES, s.colorTotals, (seat * LockstepGames.COLORS + c) * columns + base);
+                VectorMask<Integer> better = row.compare(VectorOperators.GT, best);
+                VectorMask<Integer> unique = row.compare(VectorOperators.EQ, IntVector.fromArray(SPECIES, scratch[MAX + c], 0))
+                    .and(IntVector.fromArray(SPECIES, scratch[AT_MAX + c], 0).compare(VectorOperators.EQ, 1));
+                leads = leads.andNot(better).or(better.and(unique));
+                best = best.blend(row, better);
+            }
+            VectorMask<Integer> holds = leads.and(best.compare(VectorOperators.GE, MonopolyTable.MIN_PIECES))
+                .and(live.and(1 << seat).compare(VectorOperators.NE, 0));
+            IntVector.fromArray(SPECIES, anyHolder, 0).blend(ALL_SEATS, holds).intoArray(anyHolder, 0);
+        }
+        return IntVector.fromArray(SPECIES, anyHolder, 0).compare(VectorOperators.NE, 0);
+    }
+
+    /**
+     * Takes the card at the front of the deck in each lane of draws and returns its code.
+     */
+    private IntVector draw(int base, IntVector column, VectorMask<Integer> draws) {
+        LockstepGames s = games;
+        IntVector front = IntVector.fromArray(SPECIES, s.front, base);
+        IntVector code = gather(s.deck, front, column, draws);
+        gather(s.unowned, code, column, draws).sub(1, draws).intoArray(s.unowned, 0, index, 0);
+        front = front.add(1, draws);
+        front.intoArray(s.front, base);
+        // Slots before the front are never read again; the front only has to skip monopoly draws
+        VectorMask<Integer> more = draws.and(front.compare(VectorOperators.LT, s.deckLength));
+        VectorMask<Integer> taken = gather(s.deck, front, column, more)
+            .compare(VectorOperators.EQ, LockstepGames.TAKEN).and(more);
+        if (taken.anyTrue()) {
+            for (int lane = taken.firstTrue(); lane < SPECIES.length(); lane++) {
+                if (taken.laneIsSet(lane)) {
+                    s.skipTaken(base + lane);
+                }
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Moves one piece of code into (sizeChange 1) or out of (sizeChange -1) the current seat's
+     * pile in each lane of moves, and returns the new pile sizes.
+     */
+    private IntVector move(int base, IntVector cur, IntVector column, IntVector code, IntVector sizeChange,
+                           IntVector present, VectorMask<Integer> moves, VectorMask<Integer> discards,
+                           VectorMask<Integer> draws) {
+        LockstepGames s = games;
+        int columns = s.games;
+        // Pile counts: one gather and scatter for the piece that moved
+        IntVector count = gather(s.counts, cur.mul(ChessPiece.CODES).add(code), column, moves).add(sizeChange);
+        count.intoArray(s.counts, 0, index, 0);
+        IntVector bit = ONE.lanewise(VectorOperators.LSHL, code);
+        present = present.blend(present.or(bit), draws)
+            .blend(present.and(bit.not()), discards.and(count.compare(VectorOperators.EQ, 0)));
+        IntVector size = bySeat(s.size, cur, base).add(sizeChange);
+        IntVector colorSlot = ZERO;
+        for (int c = 1; c < ChessPiece.COLOR_SLOTS; c++) {
+            colorSlot = colorSlot.add(1, code.compare(VectorOperators.GE, c * ChessPiece.TYPES));
+        }
+        for (int seat = 0; seat < s.players; seat++) {
+            VectorMask<Integer> mine = moves.and(cur.compare(VectorOperators.EQ, seat));
+            if (!mine.anyTrue()) {
+                continue;
+            }
+            int at = seat * columns + base;
+            IntVector.fromArray(SPECIES, s.present, at).blend(present, mine).intoArray(s.present, at);
+            IntVector.fromArray(SPECIES, s.size, at).blend(size, mine).intoArray(s.size, at);
+            for (int c = 0; c < LockstepGames.COLORS; c++) {
+                at = (seat * LockstepGames.COLORS + c) * columns + base;
+                VectorMask<Integer> ofColor = mine.and(colorSlot.compare(VectorOperators.EQ, c));
+                IntVector.fromArray(SPECIES, s.colorTotals, at).add(sizeChange, ofColor).intoArray(s.colorTotals, at);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * The next live seat after cur, or the previous one in the lanes where the order is reversed.
+     */
+    private static IntVector advance(IntVector cur, IntVector live, VectorMask<Integer> reversed) {
+        IntVector after = live.and(ALL_SEATS.lanewise(VectorOperators.LSHL, cur.add(1)));
+        IntVector next = lowestBit(after.blend(live, after.compare(VectorOperators.EQ, 0)));
+        IntVector before = live.and(ONE.lanewise(VectorOperators.LSHL, cur).sub(1));
+        IntVector previous = highestBit(before.blend(live, before.compare(VectorOperators.EQ, 0)));
+        return next.blend(previous, reversed);
+    }
+
+    /**
+     * Gathers table[row * games + column] for each lane, reading row 0 in lanes outside lanes, and
+     * leaves the indices in index so the caller can scatter updated values straight back. Every
+     * lane is a different game, so the indices never collide, and writing back row 0 unchanged in
+     * the other lanes is harmless. (Masked gathers and scatters are not intrinsified in JDK 17.)
+     */
+    private IntVector gather(int[] table, IntVector row, IntVector column, VectorMask<Integer> lanes) {
+        ZERO.blend(row, lanes).mul(games.games).add(column).intoArray(index, 0);
+        return IntVector.fromArray(SPECIES, table, 0, index, 0);
+    }
+
+    /**
+     * For each lane, the entry of a per-seat table for that lane's seat.
+     */
+    private IntVector bySeat(int[] table, IntVector seat, int base) {
+        int[] out = scratch[BY_SEAT];
+        ZERO.intoArray(out, 0);
+        for (int p = 0; p < games.players; p++) {
+            IntVector.fromArray(SPECIES, out, 0)
+                .blend(IntVector.fromArray(SPECIES, table, p * games.games + base), seat.compare(VectorOperators.EQ, p))
+                .intoArray(out, 0);
+        }
+        return IntVector.fromArray(SPECIES, out, 0);
+    }
+
+    /**
+     * Index of the lowest set bit of each (non-zero) lane.
+     */
+    private static IntVector lowestBit(IntVector bits) {
+        return highestBit(bits.and(bits.neg()));
+    }
+
+    /**
+     * Index of the highest set bit of each (non-zero) lane below 2^24, read from the exponent of
+     * the lane converted to float, which is exact in that range.
+     */
+    private static IntVector highestBit(IntVector bits) {
+        return bits.convert(VectorOperators.I2F, 0).reinterpretAsInts()
+            .lanewise(VectorOperators.LSHR, FLOAT_EXPONENT_SHIFT).sub(FLOAT_EXPONENT_BIAS);
+    }
+}
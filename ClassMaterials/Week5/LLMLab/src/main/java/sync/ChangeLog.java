@@ -0,0 +1,248 @@
+package sync;
+
+import AIGeneratedCode.Action;
+import AIGeneratedCode.ActionListener;
+import AIGeneratedCode.BusinessLogic;
+import AIGeneratedCode.DiscardMode;
+import AIGeneratedCode.Player;
+import AIGeneratedCode.State;
+import codec.StateCodec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The recent changes to one game, by version, so spectators catch up with "everything since
+ * version v" instead of copying and re-encoding the whole table on every refresh.
+ *
+ * The log listens to the game (see ActionListener). Every move is one version and is kept as at
+ * most three ops in a preallocated ring:
+ *   discard            PILE_REMOVE seat code, DISCARD_PUSH code, TURN
+ *   draw               UNOWNED_FRONT, PILE_ADD seat code, TURN
+ *   drawMonopolyPawn   UNOWNED_TAKE code, PILE_ADD seat code, TURN
+ *   forfeit            FORFEIT seat, TURN
+ * So writeChangesSince() costs what happened since v, not the size of the table. It falls back to
+ * a full snapshot when v is older than the ring, older than the log, or older than a change ops
+ * cannot express: a draw that reshuffled the discards into the Unowned pile, or an edit made
+ * straight on the State (report those with invalidate(), which takes a version of its own). The
+ * log's versions start at BusinessLogic.getVersion() and stay equal to it until then. Replica
+ * applies either form.
+ *
+ * Encoding:
+ *   SNAPSHOT  format, version (long), StateCodec.write() of the state
+ *   CHANGES   format, from version (long), to version (long), op count (u16), ops
+ * An op is its kind byte and arguments: seats are u16, codes one byte, and TURN carries the
+ * current player index (u16) and flags (bit 0: turn order reversed).
+ *
+ * Like the game, the log belongs to the game's thread (a GameHandle actor, or the holder of
+ * ConcurrentBusinessLogic's write lock). Only FULL discard piles are supported, since snapshots
+ * do not carry the discard rules (see StateCodec). close() stops following the game; a log that
+ * outlives it would otherwise keep it listening for good.
+ */
+public final class ChangeLog implements ActionListener, AutoCloseable {
+    public static final byte FORMAT_SNAPSHOT = 1;
+    public static final byte FORMAT_CHANGES = 2;
+
+    public static final byte PILE_ADD = 1;
+    public static final byte PILE_REMOVE = 2;
+    public static final byte DISCARD_PUSH = 3;
+    public static final byte UNOWNED_FRONT = 4;
+    public static final byte UNOWNED_TAKE = 5;
+    public static final byte TURN = 6;
+    public static final byte FORFEIT = 7;
+
+    static final int REVERSED = 1;
+    private static final int OPS_PER_VERSION = 3;
+    private static final int CHANGES_HEADER = 1 + 8 + 8 + 2;
+    /** Keeps a CHANGES op count within its u16. */
+    private static final int MAX_VERSIONS = 1 << 14;
+
+    private final BusinessLogic game;
+    private final State state;
+    private final long[] ops;
+    private final byte[] opCounts;
+    private final int mask;
+    private long version;
+    /** Oldest version a CHANGES can start from. */
+    private long base;
+    private int unownedSize;
+
+    /**
+     * Starts logging game's moves, keeping the last `capacity` versions (rounded up to a power of
+     * two, at most 16384). Must be called on the game's thread.
+     */
+    public ChangeLog(BusinessLogic game, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        if (game.getDiscard().getMode() != DiscardMode.FULL) {
+            throw new IllegalArgumentException("Only FULL discard piles can be synced: " + game.getDiscard().getMode());
+        }
+        int size = Math.min(Integer.highestOneBit(capacity * 2 - 1), MAX_VERSIONS);
+        this.game = game;
+        this.state = game.getState();
+        this.ops = new long[size * OPS_PER_VERSION];
+        this.opCounts = new byte[size];
+        this.mask = size - 1;
+        this.version = game.getVersion();
+        this.base = version;
+        this.unownedSize = state.getUnowned().size();
+        game.addActionListener(this);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getCapacity() {
+        return opCounts.length;
+    }
+
+    /**
+     * Whether writeChangesSince(since) can send ops rather than a snapshot.
+     */
+    public boolean canDiff(long since) {
+        return since >= base && since <= version && version - since <= opCounts.length;
+    }
+
+    /**
+     * Starts a new version that every client before it must take as a snapshot. Call after
+     * changing the State other than through the game's moves.
+     */
+    public void invalidate() {
+        version++;
+        opCounts[(int) (version & mask)] = 0;
+        base = version;
+        unownedSize = state.getUnowned().size();
+    }
+
+    /**
+     * Exact number of bytes writeChangesSince(since) produces.
+     */
+    public int encodedSize(long since) {
+        if (!canDiff(since)) {
+            return 1 + 8 + StateCodec.encodedSize(state);
+        }
+        int size = CHANGES_HEADER;
+        for (long v = since + 1; v <= version; v++) {
+            int slot = (int) (v & mask);
+            for (int i = 0; i < opCounts[slot]; i++) {
+                size += opSize(ops[slot * OPS_PER_VERSION + i]);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Writes what a client at version `since` needs to reach the current version: the ops in
+     * between, or a snapshot if those are not all known. Pass -1 for a client with nothing yet.
+     */
+    public void writeChangesSince(long since, ByteBuffer out) {
+        if (!canDiff(since)) {
+            out.put(FORMAT_SNAPSHOT);
+            out.putLong(version);
+            StateCodec.write(state, out);
+            return;
+        }
+        out.put(FORMAT_CHANGES);
+        out.putLong(since);
+        out.putLong(version);
+        int countAt = out.position();
+        out.putShort((short) 0);
+        int count = 0;
+        for (long v = since + 1; v <= version; v++) {
+            int slot = (int) (v & mask);
+            for (int i = 0; i < opCounts[slot]; i++) {
+                writeOp(ops[slot * OPS_PER_VERSION + i], out);
+                count++;
+            }
+        }
+        out.putShort(countAt, (short) count);
+    }
+
+    @Override
+    public void onAction(Player player, int seat, int action, int pieceCode) {
+        version++;
+        int at = (int) (version & mask) * OPS_PER_VERSION;
+        int n = 0;
+        int unownedBefore = unownedSize;
+        unownedSize = state.getUnowned().size();
+        switch (Action.kind(action)) {
+            case Action.KIND_DISCARD:
+                ops[at + n++] = pack(PILE_REMOVE, seat, pieceCode);
+                ops[at + n++] = pack(DISCARD_PUSH, 0, pieceCode);
+                break;
+            case Action.KIND_DRAW:
+                if (unownedSize != unownedBefore - 1) {
+                    // The discards were reshuffled in first, in an order ops do not carry
+                    base = version;
+                }
+                ops[at + n++] = pack(UNOWNED_FRONT, 0, 0);
+                ops[at + n++] = pack(PILE_ADD, seat, pieceCode);
+                break;
+            case Action.KIND_MONOPOLY_DRAW:
+                ops[at + n++] = pack(UNOWNED_TAKE, 0, pieceCode);
+                ops[at + n++] = pack(PILE_ADD, seat, pieceCode);
+                break;
+            default:
+                ops[at + n++] = pack(FORFEIT, seat, 0);
+                break;
+        }
+        ops[at + n++] = pack(TURN, state.getCurrentPlayerIndex(), state.isTurnOrderReversed() ? REVERSED : 0);
+        opCounts[(int) (version & mask)] = (byte) n;
+    }
+
+    /**
+     * Stops listening to the game, on the game's thread. The log's version stays where it was, so
+     * it must not be used to sync clients once the game moves on.
+     */
+    @Override
+    public void close() {
+        game.removeActionListener(this);
+    }
+
+    /**
+     * An op as kind (8 bits) | seat or player index (16) | code or flags (8).
+     */
+    private static long pack(byte kind, int seat, int code) {
+        return (long) kind << 24 | (long) seat << 8 | code;
+    }
+
+    private static int opSize(long op) {
+        switch ((byte) (op >>> 24)) {
+            case PILE_ADD:
+            case PILE_REMOVE:
+            case TURN:
+                return 4;
+            case FORFEIT:
+                return 3;
+            case UNOWNED_FRONT:
+                return 1;
+            default:
+                return 2;
+        }
+    }
+
+    private static void writeOp(long op, ByteBuffer out) {
+        byte kind = (byte) (op >>> 24);
+        int seat = (int) (op >>> 8) & 0xFFFF;
+        int code = (int) op & 0xFF;
+        out.put(kind);
+        switch (kind) {
+            case PILE_ADD:
+            case PILE_REMOVE:
+            case TURN:
+                out.putShort((short) seat);
+                out.put((byte) code);
+                break;
+            case FORFEIT:
+                out.putShort((short) seat);
+                break;
+            case DISCARD_PUSH:
+            case UNOWNED_TAKE:
+                out.put((byte) code);
+                break;
+            default:
+                break;
+        }
+    }
+}
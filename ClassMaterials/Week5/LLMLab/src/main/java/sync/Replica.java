@@ -0,0 +1,99 @@
+package sync;
+
+import AIGeneratedCode.ChessPiece;
+import AIGeneratedCode.Player;
+import AIGeneratedCode.State;
+import codec.StateCodec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A spectator's copy of a game, kept up to date from ChangeLog output: a snapshot replaces the
+ * copy, and a CHANGES replays its ops on it. The ops are plain pile, discard, Unowned and turn
+ * edits, so the replica needs none of the rules in BusinessLogic.
+ */
+public final class Replica {
+    private State state;
+    private long version = -1;
+
+    /**
+     * The version to ask ChangeLog.writeChangesSince() for: -1 until the first snapshot.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * The replicated state, or null before the first snapshot.
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Applies one ChangeLog.writeChangesSince() result read from the buffer's position, and
+     * returns the new version.
+     */
+    public long apply(ByteBuffer in) {
+        byte format = in.get();
+        if (format == ChangeLog.FORMAT_SNAPSHOT) {
+            long snapshotVersion = in.getLong();
+            state = StateCodec.read(in);
+            version = snapshotVersion;
+            return version;
+        }
+        if (format != ChangeLog.FORMAT_CHANGES) {
+            throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        long from = in.getLong();
+        long to = in.getLong();
+        if (state == null || from != version) {
+            throw new IllegalStateException("Changes from version " + from + " do not follow version " + version);
+        }
+        int count = in.getShort() & 0xFFFF;
+        for (int i = 0; i < count; i++) {
+            applyOp(in);
+        }
+        version = to;
+        return version;
+    }
+
+    private void applyOp(ByteBuffer in) {
+        byte kind = in.get();
+        switch (kind) {
+            case ChangeLog.PILE_ADD:
+                playerAt(in.getShort() & 0xFFFF).getPile().addCode(in.get() & 0xFF);
+                break;
+            case ChangeLog.PILE_REMOVE:
+                playerAt(in.getShort() & 0xFFFF).getPile().removeCode(in.get() & 0xFF);
+                break;
+            case ChangeLog.DISCARD_PUSH:
+                state.getDiscard().add(ChessPiece.of(in.get() & 0xFF));
+                break;
+            case ChangeLog.UNOWNED_FRONT:
+                state.getUnowned().drawFirst();
+                break;
+            case ChangeLog.UNOWNED_TAKE:
+                state.getUnowned().take(in.get() & 0xFF);
+                break;
+            case ChangeLog.TURN:
+                state.setCurrentPlayerIndex(in.getShort() & 0xFFFF);
+                state.setTurnOrderReversed((in.get() & ChangeLog.REVERSED) != 0);
+                break;
+            case ChangeLog.FORFEIT:
+                state.getPlayers().remove(playerAt(in.getShort() & 0xFFFF));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown op: " + kind);
+        }
+    }
+
+    private Player playerAt(int seat) {
+        for (Player player : state.getPlayers()) {
+            if (state.getSeat(player) == seat) {
+                return player;
+            }
+        }
+        throw new IllegalStateException("No player in seat " + seat);
+    }
+}
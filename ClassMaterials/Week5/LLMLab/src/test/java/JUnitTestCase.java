@@ -1,17 +1,82 @@
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
 
+import AIGeneratedCode.Action;
+import AIGeneratedCode.ActionBuffer;
 import AIGeneratedCode.BusinessLogic;
 import AIGeneratedCode.ChessPiece;
 import AIGeneratedCode.Color;
+import AIGeneratedCode.ConcurrentBusinessLogic;
+import AIGeneratedCode.Deck;
+import AIGeneratedCode.DiscardMode;
+import AIGeneratedCode.DiscardPile;
+import AIGeneratedCode.DiscardRules;
+import AIGeneratedCode.GameConfig;
 import AIGeneratedCode.PieceType;
+import AIGeneratedCode.Pile;
 import AIGeneratedCode.Player;
 import AIGeneratedCode.State;
+import AIGeneratedCode.StateSnapshot;
+import codec.StateCodec;
+import events.Backpressure;
+import events.ChangeBus;
+import events.Subscription;
+import host.GameHandle;
+import host.GameHost;
+import journal.ActionJournal;
+import metrics.GameMetrics;
+import metrics.LatencyHistogram;
+import server.GameServer;
+import server.LoadClient;
+import server.Protocol;
+import simulation.BatchPolicy;
+import simulation.GamePool;
+import simulation.GreedyPolicy;
+import simulation.LockstepGames;
+import simulation.MctsPlayer;
+import simulation.OutcomeCache;
+import simulation.PlayerPolicy;
+import simulation.RandomPolicy;
+import simulation.SearchResult;
+import simulation.SimulationReport;
+import simulation.Tournament;
+import simulation.TournamentStandings;
+import simulation.Simulator;
+import sync.ChangeLog;
+import sync.Replica;
 
 public class JUnitTestCase {
 
@@ -704,5 +769,2095 @@ public class JUnitTestCase {
 		assertTrue(bl.canDrawMonopolyPawn(), "Player with monopoly and no discards should be able to monopoly draw");
 		assertTrue(bl.drawMonopolyPawn(), "Monopoly draw should succeed");
 	}
+
+	// ==================== Pile Tests ====================
+
+	@Test
+	void testPileCountsByColorAndType() {
+		// Arrange: a pile with a mix of colors and types
+		Player player = new Player();
+		player.getPile().add(new ChessPiece(Color.WHITE, PieceType.PAWN));
+		player.getPile().add(new ChessPiece(Color.WHITE, PieceType.PAWN));
+		player.getPile().add(new ChessPiece(Color.RAINBOW, PieceType.KING));
+		player.getPile().add(new ChessPiece(null, PieceType.PAWN));
+
+		// Assert: per-code, per-color and per-type totals are kept in sync
+		assertEquals(4, player.getPile().size(), "Pile should hold four pieces");
+		assertEquals(2, player.getPile().count(Color.WHITE, PieceType.PAWN), "Two white pawns");
+		assertEquals(2, player.getPile().countOfColor(Color.WHITE), "Two white pieces");
+		assertEquals(1, player.getPile().countOfColor(null), "One neutral piece");
+		assertEquals(3, player.getPile().countOfType(PieceType.PAWN), "Three pawns of any color");
+
+		// Act: remove by value, using a different but equal instance
+		assertTrue(player.getPile().remove(new ChessPiece(Color.WHITE, PieceType.PAWN)), "Equal piece should be removable");
+		assertFalse(player.getPile().remove(new ChessPiece(Color.RAINBOW, PieceType.PAWN)), "Absent piece should not be removable");
+
+		// Assert: the list view reflects the counts
+		assertEquals(3, player.getPile().size(), "Pile should shrink by one");
+		assertEquals(1, player.getPile().countOfColor(Color.WHITE), "One white piece left");
+		assertEquals(3, player.getPile().stream().count(), "Stream should see every remaining piece");
+	}
+
+	@Test
+	void testPileIteratorRemove() {
+		// Arrange
+		Player player = new Player();
+		for (int i = 0; i < 3; i++) {
+			player.getPile().add(new ChessPiece(Color.WHITE, PieceType.ROOK));
+		}
+		player.getPile().add(new ChessPiece(Color.RAINBOW, PieceType.ROOK));
+
+		// Act: remove all white pieces through the iterator
+		player.getPile().removeIf(piece -> piece.getColor() == Color.WHITE);
+
+		// Assert
+		assertEquals(1, player.getPile().size(), "Only the rainbow rook should remain");
+		assertEquals(new ChessPiece(Color.RAINBOW, PieceType.ROOK), player.getPile().get(0), "Remaining piece should be the rainbow rook");
+	}
+
+	@Test
+	void testHasLegalDiscard() {
+		// Arrange: top discard is a white king
+		BusinessLogic bl = new BusinessLogic();
+		State state = bl.getState();
+		state.getDiscard().clear();
+		state.getDiscard().add(new ChessPiece(Color.WHITE, PieceType.KING));
+		Player current = bl.getCurrentPlayer();
+
+		// Neutral rooks match neither color nor type
+		current.getPile().clear();
+		current.getPile().add(new ChessPiece(null, PieceType.ROOK));
+		assertFalse(bl.hasLegalDiscard(), "Neutral rook cannot be played on a white king");
+
+		// A neutral king matches by type
+		current.getPile().add(new ChessPiece(null, PieceType.KING));
+		assertTrue(bl.hasLegalDiscard(), "A king can be played on a king");
+
+		// A rainbow piece can always be played
+		current.getPile().clear();
+		current.getPile().add(new ChessPiece(Color.RAINBOW, PieceType.PAWN));
+		assertTrue(bl.hasLegalDiscard(), "Rainbow pieces can always be discarded");
+	}
+
+	// ==================== Monopoly Table Tests ====================
+
+	@Test
+	void testMonopolyHolderFollowsOvertake() {
+		// Arrange: P0 holds 5 WHITE, P1 holds 4 WHITE
+		BusinessLogic bl = new BusinessLogic();
+		State state = bl.getState();
+		Player p0 = state.getPlayers().get(0);
+		Player p1 = state.getPlayers().get(1);
+		for (Player p : state.getPlayers()) {
+			p.getPile().clear();
+		}
+		for (int i = 0; i < 5; i++) {
+			p0.getPile().add(new ChessPiece(Color.WHITE, PieceType.PAWN));
+		}
+		for (int i = 0; i < 4; i++) {
+			p1.getPile().add(new ChessPiece(Color.WHITE, PieceType.ROOK));
+		}
+		assertEquals(p0, bl.getMonopolyHolder(Color.WHITE), "P0 should hold the WHITE monopoly");
+
+		// Act: P1 ties, then overtakes
+		p1.getPile().add(new ChessPiece(Color.WHITE, PieceType.ROOK));
+		assertNull(bl.getMonopolyHolder(Color.WHITE), "A tie means nobody holds the monopoly");
+		p1.getPile().add(new ChessPiece(Color.WHITE, PieceType.ROOK));
+
+		// Assert
+		assertEquals(p1, bl.getMonopolyHolder(Color.WHITE), "P1 should take the WHITE monopoly");
+		assertFalse(bl.hasMonopoly(p0), "P0 should lose the monopoly");
+
+		// Act: P1 forfeits, so their pieces stop counting
+		while (bl.getCurrentPlayer() != p1) {
+			bl.draw();
+		}
+		bl.forfeit();
+
+		// Assert
+		assertEquals(p0, bl.getMonopolyHolder(Color.WHITE), "P0 should regain the monopoly after P1 forfeits");
+	}
+
+	@Test
+	void testLeaderOfTwoColorsHoldsOnlyItsMostHeldColor() {
+		// Arrange: P0 leads WHITE with 6 and RAINBOW with 5
+		BusinessLogic bl = new BusinessLogic();
+		State state = bl.getState();
+		Player p0 = state.getPlayers().get(0);
+		for (Player p : state.getPlayers()) {
+			p.getPile().clear();
+		}
+		for (int i = 0; i < 6; i++) {
+			p0.getPile().add(new ChessPiece(Color.WHITE, PieceType.PAWN));
+		}
+		for (int i = 0; i < 5; i++) {
+			p0.getPile().add(new ChessPiece(Color.RAINBOW, PieceType.PAWN));
+		}
+
+		// Assert: one monopoly, over the color P0 holds the most of
+		assertEquals(p0, bl.getMonopolyHolder(Color.WHITE));
+		assertNull(bl.getMonopolyHolder(Color.RAINBOW), "A player holds only one monopoly");
+		assertEquals(Color.WHITE, bl.getMonopolyColor(p0));
+
+		// Act: RAINBOW becomes P0's most held color, while P0 still leads WHITE
+		p0.getPile().add(new ChessPiece(Color.RAINBOW, PieceType.ROOK));
+		p0.getPile().add(new ChessPiece(Color.RAINBOW, PieceType.ROOK));
+
+		// Assert
+		assertNull(bl.getMonopolyHolder(Color.WHITE));
+		assertEquals(p0, bl.getMonopolyHolder(Color.RAINBOW));
+		assertEquals(Color.RAINBOW, bl.getMonopolyColor(p0));
+	}
+
+	@Test
+	void testMonopolyTableMatchesRecount() {
+		// Arrange: random edits to every pile
+		BusinessLogic bl = new BusinessLogic();
+		State state = bl.getState();
+		Random random = new Random(42);
+		Color[] colors = { Color.WHITE, Color.RAINBOW, null };
+
+		for (int step = 0; step < 2000; step++) {
+			Player p = state.getPlayers().get(random.nextInt(state.getPlayers().size()));
+			if (random.nextInt(3) == 0 && !p.getPile().isEmpty()) {
+				p.getPile().remove(random.nextInt(p.getPile().size()));
+			} else {
+				p.getPile().add(new ChessPiece(colors[random.nextInt(colors.length)], PieceType.PAWN));
+			}
+
+			// Assert: the table agrees with a full recount of every pile
+			for (Player candidate : state.getPlayers()) {
+				assertEquals(recountMonopolyColor(state, candidate), bl.getMonopolyColor(candidate), "Step " + step);
+			}
+		}
+	}
+
+	private static Color recountMonopolyColor(State state, Player player) {
+		Color best = null;
+		long bestCount = 0;
+		for (Color color : Color.values()) {
+			long count = player.getPile().stream().filter(piece -> piece.getColor() == color).count();
+			if (count > bestCount) {
+				bestCount = count;
+				best = color;
+			}
+		}
+		if (bestCount < 5) {
+			return null;
+		}
+		for (Player other : state.getPlayers()) {
+			Color color = best;
+			if (other != player && other.getPile().stream().filter(piece -> piece.getColor() == color).count() >= bestCount) {
+				return null;
+			}
+		}
+		return best;
+	}
+
+	// ==================== Deck Tests ====================
+
+	@Test
+	void testDeckDrawAndTakeByCode() {
+		// Arrange: W pawn, R rook, W pawn, R pawn
+		Deck deck = new Deck();
+		deck.add(new ChessPiece(Color.WHITE, PieceType.PAWN));
+		deck.add(new ChessPiece(Color.RAINBOW, PieceType.ROOK));
+		deck.add(new ChessPiece(Color.WHITE, PieceType.PAWN));
+		deck.add(new ChessPiece(Color.RAINBOW, PieceType.PAWN));
+
+		// Act: take the rainbow pawn out of the middle, then draw from the front
+		assertEquals(new ChessPiece(Color.RAINBOW, PieceType.PAWN), deck.take(Color.RAINBOW, PieceType.PAWN), "Should take the rainbow pawn");
+		assertNull(deck.take(Color.RAINBOW, PieceType.PAWN), "No rainbow pawns should be left");
+
+		// Assert: draw order is unchanged for the remaining pieces
+		assertEquals(2, deck.count(Color.WHITE, PieceType.PAWN), "Two white pawns left");
+		assertEquals(new ChessPiece(Color.WHITE, PieceType.PAWN), deck.drawFirst(), "First draw is a white pawn");
+		assertEquals(new ChessPiece(Color.RAINBOW, PieceType.ROOK), deck.drawFirst(), "Second draw is the rainbow rook");
+		assertEquals(new ChessPiece(Color.WHITE, PieceType.PAWN), deck.drawFirst(), "Third draw is a white pawn");
+		assertNull(deck.drawFirst(), "Deck should be empty");
+		assertTrue(deck.isEmpty(), "Deck should report empty");
+	}
+
+	@Test
+	void testDeckMatchesArrayList() {
+		// Arrange: drive a Deck and an ArrayList through the same random operations
+		Deck deck = new Deck();
+		List<ChessPiece> expected = new ArrayList<>();
+		Random random = new Random(7);
+		Color[] colors = { Color.WHITE, Color.RAINBOW };
+
+		for (int step = 0; step < 5000; step++) {
+			int op = random.nextInt(10);
+			ChessPiece piece = new ChessPiece(colors[random.nextInt(2)], PieceType.values()[random.nextInt(PieceType.values().length)]);
+			if (op < 5) {
+				deck.add(piece);
+				expected.add(piece);
+			} else if (op < 7) {
+				assertEquals(expected.isEmpty() ? null : expected.remove(0), deck.drawFirst(), "Draw at step " + step);
+			} else if (op < 9) {
+				assertEquals(expected.remove(piece), deck.remove(piece), "Remove at step " + step);
+			} else if (!expected.isEmpty()) {
+				int index = random.nextInt(expected.size());
+				assertEquals(expected.remove(index), deck.remove(index), "Remove index at step " + step);
+			}
+
+			// Assert: same contents in the same order
+			assertEquals(expected.size(), deck.size(), "Size at step " + step);
+			if (step % 100 == 0) {
+				assertEquals(expected, new ArrayList<>(deck), "Contents at step " + step);
+			}
+		}
+	}
+
+	// ==================== Simulator Tests ====================
+
+	@Test
+	void testSimulatorIsReproducibleAcrossPoolSizes() {
+		// Arrange: the same batch on a single thread and on four threads
+		List<PlayerPolicy> policies = List.of(new GreedyPolicy(), new RandomPolicy());
+		ForkJoinPool single = new ForkJoinPool(1);
+		ForkJoinPool wide = new ForkJoinPool(4);
+
+		// Act
+		SimulationReport a = new Simulator(policies, Simulator.DEFAULT_MAX_TURNS, single).run(500, 99L);
+		SimulationReport b = new Simulator(policies, Simulator.DEFAULT_MAX_TURNS, wide).run(500, 99L);
+		single.shutdown();
+		wide.shutdown();
+
+		// Assert: every game is accounted for and the results do not depend on the split
+		assertEquals(500, a.getGames(), "All games should be played");
+		long wins = 0;
+		for (int seat = 0; seat < a.getSeats(); seat++) {
+			assertEquals(a.getWins(seat), b.getWins(seat), "Seat " + seat + " wins should match");
+			wins += a.getWins(seat);
+		}
+		assertEquals(500 - a.getUnfinished(), wins, "Every finished game should have a winner");
+		assertEquals(a.getTotalTurns(), b.getTotalTurns(), "Total turns should match");
+		assertEquals(a.getForfeits(), b.getForfeits(), "Forfeits should match");
+	}
+
+	// ==================== Legal Action Tests ====================
+
+	@Test
+	void testGenerateLegalActionsWithDiscards() {
+		// Arrange: top discard is a white king, current player holds a white pawn and a neutral rook
+		BusinessLogic bl = new BusinessLogic();
+		State state = bl.getState();
+		state.getDiscard().clear();
+		state.getDiscard().add(new ChessPiece(Color.WHITE, PieceType.KING));
+		Player current = bl.getCurrentPlayer();
+		current.getPile().clear();
+		current.getPile().add(new ChessPiece(Color.WHITE, PieceType.PAWN));
+		current.getPile().add(new ChessPiece(null, PieceType.ROOK));
+		ActionBuffer buffer = new ActionBuffer();
+
+		// Act
+		int count = bl.generateLegalActions(buffer);
+
+		// Assert: the white pawn can be discarded, so no draw is offered
+		assertEquals(2, count, "Expected the discard and forfeit");
+		assertEquals(Action.discard(new ChessPiece(Color.WHITE, PieceType.PAWN)), buffer.get(0), "First action should discard the white pawn");
+		assertEquals(Action.FORFEIT, buffer.get(1), "Forfeit is always allowed");
+		assertFalse(buffer.contains(Action.DRAW), "Draw is not allowed while a discard is possible");
+
+		// Act: apply the discard
+		assertTrue(bl.apply(buffer.get(0)), "Applying a legal discard should succeed");
+		assertEquals(new ChessPiece(Color.WHITE, PieceType.PAWN), state.getDiscard().get(state.getDiscard().size() - 1), "White pawn should be on top");
+	}
+
+	@Test
+	void testGenerateLegalActionsForcedDrawAndForfeit() {
+		// Arrange: current player holds nothing playable on a white king
+		BusinessLogic bl = new BusinessLogic();
+		State state = bl.getState();
+		state.getDiscard().clear();
+		state.getDiscard().add(new ChessPiece(Color.WHITE, PieceType.KING));
+		Player current = bl.getCurrentPlayer();
+		current.getPile().clear();
+		current.getPile().add(new ChessPiece(null, PieceType.ROOK));
+		ActionBuffer buffer = new ActionBuffer();
+
+		// Act & Assert: draw is forced
+		bl.generateLegalActions(buffer);
+		assertTrue(buffer.contains(Action.DRAW), "Draw should be offered when nothing can be discarded");
+
+		// With an empty Unowned pile only forfeit remains
+		state.getUnowned().clear();
+		assertEquals(1, bl.generateLegalActions(buffer), "Only forfeit should remain");
+		assertEquals(Action.FORFEIT, buffer.get(0), "The only action should be forfeit");
+		int playersBefore = state.getPlayers().size();
+		assertTrue(bl.apply(Action.FORFEIT), "Forfeit should succeed");
+		assertEquals(playersBefore - 1, state.getPlayers().size(), "Forfeit should remove the player");
+	}
+
+	@Test
+	void testApplyRejectsUnknownPieceCodes() {
+		BusinessLogic bl = new BusinessLogic();
+		long hash = bl.getState().hash();
+		assertThrows(IllegalArgumentException.class, () -> bl.apply(Action.discard(200)));
+		assertThrows(IllegalArgumentException.class, () -> bl.apply(Action.discard(ChessPiece.CODES)));
+		assertThrows(IllegalArgumentException.class, () -> bl.apply(0xFFFF));
+		assertEquals(hash, bl.getState().hash(), "A rejected action changes nothing");
+		assertEquals("UNKNOWN 200", Action.toString(Action.discard(200)));
+	}
+
+	// ==================== MCTS Tests ====================
+
+	@Test
+	void testCopyIsIndependent() {
+		// Arrange
+		BusinessLogic bl = new BusinessLogic();
+		BusinessLogic copy = bl.copy();
+		int unownedBefore = bl.getUnowned().size();
+
+		// Act: play on the copy only
+		copy.draw();
+		copy.forfeit();
+
+		// Assert: the original is untouched and seats survive the copy
+		assertEquals(unownedBefore, bl.getUnowned().size(), "Original Unowned pile should not change");
+		assertEquals(4, bl.getPlayers().size(), "Original should still have four players");
+		assertEquals(3, copy.getPlayers().size(), "Copy should have lost a player");
+		assertEquals(bl.getSeat(bl.getPlayers().get(3)), copy.getSeat(copy.getPlayers().get(2)), "Seats should keep their numbers in the copy");
+	}
+
+	@Test
+	void testMctsPlayerChoosesLegalAction() {
+		// Arrange
+		BusinessLogic bl = new BusinessLogic();
+		MctsPlayer bot = MctsPlayer.withIterations(200, 2);
+		ActionBuffer legal = new ActionBuffer();
+		bl.generateLegalActions(legal);
+		int unownedBefore = bl.getUnowned().size();
+
+		// Act
+		SearchResult result = bot.search(bl, 5L);
+
+		// Assert: a legal move, the full budget used, and the real game untouched
+		assertTrue(legal.contains(result.getAction()), "Search should return a legal action");
+		assertEquals(200, result.getPlayouts(), "Search should run the full iteration budget");
+		assertTrue(result.getPlayoutsPerSecond() > 0, "Search should report playouts per second");
+		assertEquals(unownedBefore, bl.getUnowned().size(), "Search should not modify the game");
+	}
+
+	// ==================== Zobrist Hash Tests ====================
+
+	@Test
+	void testHashIsIncrementalAndOrderIndependent() {
+		// Arrange
+		BusinessLogic bl = new BusinessLogic();
+		State state = bl.getState();
+		long initial = state.hash();
+		Player p0 = state.getPlayers().get(0);
+
+		// Act & Assert: adding and removing the same piece restores the hash
+		p0.getPile().add(new ChessPiece(Color.RAINBOW, PieceType.QUEEN));
+		assertNotEquals(initial, state.hash(), "Changing a pile should change the hash");
+		p0.getPile().remove(new ChessPiece(Color.RAINBOW, PieceType.QUEEN));
+		assertEquals(initial, state.hash(), "Undoing the change should restore the hash");
+
+		// The same pieces added in a different order give the same hash
+		BusinessLogic other = new BusinessLogic();
+		p0.getPile().add(new ChessPiece(Color.WHITE, PieceType.KING));
+		p0.getPile().add(new ChessPiece(Color.RAINBOW, PieceType.ROOK));
+		other.getPlayers().get(0).getPile().add(new ChessPiece(Color.RAINBOW, PieceType.ROOK));
+		other.getPlayers().get(0).getPile().add(new ChessPiece(Color.WHITE, PieceType.KING));
+		assertEquals(state.hash(), other.getState().hash(), "Hash should not depend on the order of changes");
+
+		// A copy hashes the same as the original
+		assertEquals(state.hash(), state.copy().hash(), "A copy should have the same hash");
+	}
+
+	@Test
+	void testHashCoversTurnDirectionAndPlayers() {
+		// Arrange
+		BusinessLogic bl = new BusinessLogic();
+		State state = bl.getState();
+		long initial = state.hash();
+
+		// Act & Assert: direction and current player are part of the hash
+		state.setTurnOrderReversed(true);
+		assertNotEquals(initial, state.hash(), "Reversing the turn order should change the hash");
+		state.setTurnOrderReversed(false);
+		state.setCurrentPlayerIndex(1);
+		assertNotEquals(initial, state.hash(), "Changing the current player should change the hash");
+		state.setCurrentPlayerIndex(0);
+		assertEquals(initial, state.hash(), "Restoring the turn should restore the hash");
+
+		// A forfeit removes the player from the hash
+		bl.forfeit();
+		assertNotEquals(initial, state.hash(), "A forfeit should change the hash");
+	}
+
+	@Test
+	void testOutcomeCacheAccumulatesSamples() throws InterruptedException {
+		// Arrange: four threads record outcomes for the same position
+		OutcomeCache cache = new OutcomeCache(1024);
+		long key = new BusinessLogic().getState().hash();
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 1000; i++) {
+					cache.record(key, i % 2);
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		// Assert: lost updates are allowed, but the entry is consistent
+		long data = cache.lookup(key);
+		assertTrue(OutcomeCache.samples(data) > 0, "The position should be cached");
+		assertTrue(OutcomeCache.samples(data) <= 4000, "No more samples than were recorded");
+		assertEquals(0.5, OutcomeCache.mean(data), 0.1, "Mean reward should be close to one half");
+		assertEquals(0, cache.lookup(key + 1), "Other keys should miss");
+	}
+
+	// ==================== Game Host Tests ====================
+
+	@Test
+	public void testGameHostAppliesSubmittedActionsInOrder() throws Exception {
+		try (GameHost host = new GameHost()) {
+			GameHandle handle = host.open(7);
+			StateSnapshot before = handle.getSnapshot();
+			int first = before.getLegalAction(0);
+			assertTrue(handle.submit(first).get(5, TimeUnit.SECONDS));
+			assertTrue(handle.submit(Action.FORFEIT).get(5, TimeUnit.SECONDS));
+
+			BusinessLogic expected = new BusinessLogic();
+			expected.getUnowned().shuffle(new SplittableRandom(7));
+			expected.apply(first);
+			expected.apply(Action.FORFEIT);
+			StateSnapshot after = handle.getSnapshot();
+			assertEquals(expected.getPlayers().size(), after.getPlayers().size());
+			assertEquals(expected.getDiscard(), after.getDiscard());
+			assertEquals(expected.getUnowned(), after.getUnowned());
+			assertEquals(2, host.getActionsApplied());
+			assertEquals(2, host.getLatency().getCount());
+		}
+	}
+
+	@Test
+	public void testGameHostSubscribersReceiveSnapshots() throws Exception {
+		try (GameHost host = new GameHost()) {
+			GameHandle handle = host.open(3);
+			List<StateSnapshot> seen = new java.util.concurrent.CopyOnWriteArrayList<>();
+			List<Thread> threads = new java.util.concurrent.CopyOnWriteArrayList<>();
+			Consumer<StateSnapshot> subscriber = snapshot -> {
+				seen.add(snapshot);
+				threads.add(Thread.currentThread());
+			};
+			assertTrue(handle.subscribe(subscriber).get(5, TimeUnit.SECONDS));
+			handle.submit(Action.DRAW).get(5, TimeUnit.SECONDS);
+			assertEquals(2, seen.size());
+			assertTrue(seen.get(1).getVersion() > seen.get(0).getVersion());
+			assertEquals(seen.get(0).getUnowned().size() - 1, seen.get(1).getUnowned().size());
+			// Even the first snapshot is delivered by the actor, not the subscribing thread
+			assertFalse(threads.contains(Thread.currentThread()));
+
+			assertTrue(handle.unsubscribe(subscriber).get(5, TimeUnit.SECONDS));
+			assertFalse(handle.unsubscribe(subscriber).get(5, TimeUnit.SECONDS));
+			handle.submit(Action.DRAW).get(5, TimeUnit.SECONDS);
+			assertEquals(2, seen.size());
+		}
+	}
+
+	@Test
+	public void testGameHostSubscriberStartsFromStateItQueuedBehind() throws Exception {
+		try (GameHost host = new GameHost()) {
+			GameHandle handle = host.open(3);
+			CompletableFuture<Boolean> drawn = handle.submit(Action.DRAW);
+			List<StateSnapshot> seen = new java.util.concurrent.CopyOnWriteArrayList<>();
+			handle.subscribe(seen::add).get(5, TimeUnit.SECONDS);
+			drawn.get(5, TimeUnit.SECONDS);
+			assertEquals(handle.getSnapshot().getVersion(), seen.get(0).getVersion());
+		}
+	}
+
+	@Test
+	public void testGameHostSurvivesThrowingSubscriber() throws Exception {
+		AtomicReference<Throwable> reported = new AtomicReference<>();
+		java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newSingleThreadExecutor(task -> {
+			Thread thread = new Thread(task);
+			thread.setUncaughtExceptionHandler((t, e) -> reported.set(e));
+			return thread;
+		});
+		try (GameHost host = new GameHost(executor)) {
+			GameHandle handle = host.open(3);
+			List<StateSnapshot> seen = new java.util.concurrent.CopyOnWriteArrayList<>();
+			List<StateSnapshot> failing = new ArrayList<>();
+			handle.subscribe(snapshot -> {
+				failing.add(snapshot);
+				if (failing.size() > 1) {
+					throw new IllegalStateException("subscriber failed");
+				}
+			});
+			handle.subscribe(seen::add);
+			assertTrue(handle.submit(Action.DRAW).get(5, TimeUnit.SECONDS));
+			assertEquals("subscriber failed", reported.get().getMessage());
+
+			// The actor is still running, and only the failing subscriber was dropped
+			assertTrue(handle.submit(Action.FORFEIT).get(5, TimeUnit.SECONDS));
+			assertEquals(3, seen.size());
+			assertEquals(2, failing.size());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testGameHostRejectsCommandsAfterClose() {
+		GameHost host = new GameHost();
+		GameHandle handle = host.open(1);
+		host.close();
+		assertThrows(java.util.concurrent.ExecutionException.class, () -> handle.submit(Action.DRAW).get());
+	}
+
+	@Test
+	public void testStateSnapshotIsReadOnly() {
+		BusinessLogic game = new BusinessLogic();
+		StateSnapshot snapshot = StateSnapshot.of(game, 0);
+		assertThrows(UnsupportedOperationException.class, () -> snapshot.getDiscard().add(new ChessPiece(Color.WHITE, PieceType.PAWN)));
+		assertThrows(UnsupportedOperationException.class, () -> snapshot.getPlayers().get(0).getPile().add(new ChessPiece(Color.WHITE, PieceType.PAWN)));
+		game.draw();
+		assertEquals(game.getUnowned().size() + 1, snapshot.getUnowned().size());
+	}
+
+	@Test
+	public void testLatencyHistogramPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000L);
+		}
+		assertEquals(1000, histogram.getCount());
+		assertEquals(1_000_000, histogram.getMax());
+		long p99 = histogram.getPercentile(99);
+		assertTrue(p99 >= 990_000 && p99 <= 990_000 * 1.07, "p99 was " + p99);
+		long p50 = histogram.getPercentile(50);
+		assertTrue(p50 >= 500_000 && p50 <= 500_000 * 1.07, "p50 was " + p50);
+	}
+
+	@Test
+	public void testLatencyHistogramBucketsHoldTheirValues() {
+		long[] values = {0, 15, 16, 17, 31, 32, 64, 100, 20_000, 1L << 40, Long.MAX_VALUE};
+		for (long value : values) {
+			// With a larger value beside it, p50 is the top of value's bucket rather than the max
+			LatencyHistogram pair = new LatencyHistogram();
+			pair.record(value);
+			pair.record(Long.MAX_VALUE);
+			long highest = pair.getPercentile(50);
+			assertTrue(value <= highest && highest - value <= value / 16.0, value + " read back as up to " + highest);
+			// Alone, the mean is the middle of the bucket, which gives its bottom
+			LatencyHistogram single = new LatencyHistogram();
+			single.record(value);
+			double lowest = 2 * single.getMean() - highest;
+			assertTrue(lowest <= value && value - lowest <= value / 16.0, value + " read back as from " + lowest);
+		}
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(100);
+		histogram.record(20_000);
+		long p50 = histogram.getPercentile(50);
+		assertTrue(p50 >= 100 && p50 <= 100 * 1.07, "p50 was " + p50);
+	}
+
+	// ==================== Action Journal Tests ====================
+
+	@Test
+	public void testActionListenerSeesEveryMove() {
+		BusinessLogic game = new BusinessLogic();
+		List<Integer> actions = new ArrayList<>();
+		List<Integer> seats = new ArrayList<>();
+		game.addActionListener((player, seat, action, pieceCode) -> {
+			actions.add(action);
+			seats.add(seat);
+		});
+		game.draw();
+		game.forfeit();
+		assertEquals(List.of(Action.DRAW, Action.FORFEIT), actions);
+		assertEquals(List.of(0, 1), seats);
+	}
+
+	@Test
+	public void testJournalReplayRebuildsExactState() throws Exception {
+		Path file = Files.createTempDirectory("journal").resolve("game.jnl");
+		BusinessLogic game = new BusinessLogic();
+		game.getUnowned().shuffle(new SplittableRandom(11));
+		try (ActionJournal journal = ActionJournal.create(file)) {
+			journal.begin(game);
+			playRandomMoves(game, new SplittableRandom(5), 200);
+		}
+
+		BusinessLogic replayed = ActionJournal.replay(file);
+		assertEquals(game.getState().hash(), replayed.getState().hash());
+		assertEquals(game.getDiscard(), replayed.getDiscard());
+		assertEquals(game.getUnowned(), replayed.getUnowned());
+		assertEquals(game.getPlayers().size(), replayed.getPlayers().size());
+		assertEquals(game.getSeat(game.getCurrentPlayer()), replayed.getSeat(replayed.getCurrentPlayer()));
+		assertEquals(game.isGameOver(), replayed.isGameOver());
+	}
+
+	@Test
+	public void testJournalReplaysUnclosedFileUpToLastSyncedMove() throws Exception {
+		Path file = Files.createTempDirectory("journal").resolve("crash.jnl");
+		BusinessLogic game = new BusinessLogic();
+		ActionJournal journal = ActionJournal.create(file);
+		journal.begin(game);
+		game.draw();
+		game.draw();
+		journal.sync();
+		// No close(): the replay must stop at the zero-filled tail
+		BusinessLogic replayed = ActionJournal.replay(file);
+		assertEquals(game.getState().hash(), replayed.getState().hash());
+		assertEquals(2, replayed.getSeat(replayed.getCurrentPlayer()));
+		journal.close();
+	}
+
+	@Test
+	public void testJournalStopsRecordingOnceClosed() throws Exception {
+		Path file = Files.createTempDirectory("journal").resolve("closed.jnl");
+		BusinessLogic game = new BusinessLogic();
+		ActionJournal journal = ActionJournal.create(file);
+		journal.begin(game);
+		game.draw();
+		journal.close();
+		long records = journal.getRecordCount();
+		long hash = game.getState().hash();
+		game.draw();
+		assertEquals(records, journal.getRecordCount());
+		assertEquals(hash, ActionJournal.replay(file).getState().hash());
+	}
+
+	@Test
+	public void testJournalRejectsForeignFile() throws Exception {
+		Path file = Files.createTempFile("not-a-journal", ".jnl");
+		Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+		assertThrows(java.io.IOException.class, () -> ActionJournal.replay(file));
+	}
+
+	@Test
+	public void testJournalRejectsCustomDiscardRules() throws Exception {
+		Path file = Files.createTempDirectory("journal").resolve("game.jnl");
+		DiscardRules typeOnly = DiscardRules.compile((top, candidate) -> candidate.getType() == top.getType());
+		BusinessLogic game = new BusinessLogic(GameConfig.builder().discardRules(typeOnly).build());
+		try (ActionJournal journal = ActionJournal.create(file)) {
+			assertThrows(IllegalArgumentException.class, () -> journal.begin(game));
+			journal.begin(new BusinessLogic(GameConfig.builder().build()));
+		}
+	}
+
+	private static void playRandomMoves(BusinessLogic game, SplittableRandom random, int moves) {
+		ActionBuffer buffer = new ActionBuffer();
+		for (int i = 0; i < moves && !game.isGameOver(); i++) {
+			int n = game.generateLegalActions(buffer);
+			// Forfeit is always last; only take it when nothing else is possible
+			game.apply(buffer.get(n == 1 ? 0 : random.nextInt(n - 1)));
+		}
+	}
+
+	// ==================== State Codec Tests ====================
+
+	@Test
+	public void testStateCodecRejectsCountsOver16Bits() {
+		State huge = new BusinessLogic(GameConfig.builder().setsPerColor(Color.WHITE, 5000).build()).getState();
+		assertTrue(huge.getUnowned().size() > 0xFFFF);
+		assertThrows(IllegalArgumentException.class, () -> StateCodec.encodedSize(huge));
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+		assertThrows(IllegalArgumentException.class, () -> StateCodec.write(huge, buffer));
+		assertEquals(0, buffer.position());
+	}
+
+	@Test
+	public void testStateCodecRoundTripsFullSnapshot() {
+		BusinessLogic game = new BusinessLogic();
+		game.getUnowned().shuffle(new SplittableRandom(2));
+		playRandomMoves(game, new SplittableRandom(3), 25);
+		State state = game.getState();
+
+		ByteBuffer buffer = ByteBuffer.allocate(StateCodec.encodedSize(state));
+		StateCodec.write(state, buffer);
+		assertFalse(buffer.hasRemaining());
+		assertTrue(buffer.position() < 200, "snapshot was " + buffer.position() + " bytes");
+		buffer.flip();
+
+		State decoded = StateCodec.read(buffer);
+		assertEquals(state.hash(), decoded.hash());
+		assertEquals(state.getDiscard(), decoded.getDiscard());
+		assertEquals(state.getUnowned(), decoded.getUnowned());
+		assertEquals(state.getCurrentPlayerIndex(), decoded.getCurrentPlayerIndex());
+		for (int i = 0; i < state.getPlayers().size(); i++) {
+			assertEquals(state.getSeat(state.getPlayers().get(i)), decoded.getSeat(decoded.getPlayers().get(i)));
+			assertEquals(state.getPlayers().get(i).getPile(), decoded.getPlayers().get(i).getPile());
+		}
+	}
+
+	@Test
+	public void testStateCodecDeltasTrackEveryMove() {
+		BusinessLogic game = new BusinessLogic();
+		game.getUnowned().shuffle(new SplittableRandom(4));
+		State replica = game.getState().copy();
+		State previous = game.getState().copy();
+		SplittableRandom random = new SplittableRandom(9);
+		ActionBuffer actions = new ActionBuffer();
+		while (!game.isGameOver()) {
+			int n = game.generateLegalActions(actions);
+			game.apply(actions.get(random.nextInt(20) == 0 || n == 1 ? n - 1 : random.nextInt(n - 1)));
+
+			ByteBuffer delta = ByteBuffer.allocate(StateCodec.maxDeltaSize(previous, game.getState()));
+			StateCodec.writeDelta(previous, game.getState(), delta);
+			assertEquals(StateCodec.FORMAT_DELTA, delta.get(0));
+			assertTrue(delta.position() < 64, "delta was " + delta.position() + " bytes");
+			delta.flip();
+			assertSame(replica, StateCodec.read(delta, replica));
+			assertEquals(game.getState().hash(), replica.hash());
+			assertEquals(game.getUnowned(), replica.getUnowned());
+			previous = game.getState().copy();
+		}
+	}
+
+	@Test
+	public void testStateCodecRejectsDeltaForAnotherBase() {
+		BusinessLogic game = new BusinessLogic();
+		State base = game.getState().copy();
+		game.draw();
+		ByteBuffer delta = ByteBuffer.allocate(StateCodec.maxDeltaSize(base, game.getState()));
+		StateCodec.writeDelta(base, game.getState(), delta);
+		delta.flip();
+		assertThrows(IllegalArgumentException.class, () -> StateCodec.read(delta, game.getState().copy()));
+	}
+
+	@Test
+	public void testStateCodecDeltaFallsBackToSnapshotAfterShuffle() {
+		BusinessLogic game = new BusinessLogic();
+		State base = game.getState().copy();
+		game.getUnowned().shuffle(new SplittableRandom(8));
+		ByteBuffer delta = ByteBuffer.allocate(StateCodec.maxDeltaSize(base, game.getState()));
+		StateCodec.writeDelta(base, game.getState(), delta);
+		assertEquals(StateCodec.FORMAT_FULL, delta.get(0));
+		delta.flip();
+		assertEquals(game.getUnowned(), StateCodec.read(delta, base).getUnowned());
+	}
+
+	// ==================== Game Config Tests ====================
+
+	@Test
+	public void testGameConfigDealsEveryPieceOnce() {
+		GameConfig config = GameConfig.builder()
+			.players(6)
+			.setsPerColor(Color.WHITE, 3)
+			.setsPerColor(Color.RAINBOW, 2)
+			.pileSize(7)
+			.seed(42)
+			.build();
+		BusinessLogic game = new BusinessLogic(config);
+
+		assertEquals(6, game.getPlayers().size());
+		int[] counts = new int[ChessPiece.CODES];
+		for (Player player : game.getPlayers()) {
+			assertEquals(7, player.getPile().size());
+			player.getPile().forEach(piece -> counts[piece.getCode()]++);
+		}
+		game.getDiscard().forEach(piece -> counts[piece.getCode()]++);
+		game.getUnowned().forEach(piece -> counts[piece.getCode()]++);
+		assertEquals(1, game.getDiscard().size());
+		assertEquals(5 * GameConfig.SET_SIZE - 6 * 7 - 1, game.getUnowned().size());
+		assertEquals(3 * 8, counts[ChessPiece.codeOf(Color.WHITE, PieceType.PAWN)]);
+		assertEquals(2 * 2, counts[ChessPiece.codeOf(Color.RAINBOW, PieceType.ROOK)]);
+		assertEquals(2, counts[ChessPiece.codeOf(Color.RAINBOW, PieceType.KING)]);
+	}
+
+	@Test
+	public void testGameConfigSeedMakesDealReproducible() {
+		GameConfig config = GameConfig.builder().players(5).setsPerColor(Color.WHITE, 6).seed(7).build();
+		BusinessLogic first = new BusinessLogic(config);
+		BusinessLogic second = new BusinessLogic(config);
+		assertEquals(first.getState().hash(), second.getState().hash());
+		assertEquals(first.getUnowned(), second.getUnowned());
+		BusinessLogic other = new BusinessLogic(GameConfig.builder().players(5).setsPerColor(Color.WHITE, 6).seed(8).build());
+		assertNotEquals(first.getUnowned(), other.getUnowned());
+	}
+
+	@Test
+	public void testGameConfigRejectsImpossibleDeal() {
+		assertThrows(IllegalArgumentException.class, () -> GameConfig.builder().players(1).build());
+		assertThrows(IllegalArgumentException.class, () -> GameConfig.builder().players(100).build());
+		assertThrows(IllegalArgumentException.class, () -> GameConfig.builder().pileSize(0).build());
+	}
+
+	@Test
+	public void testGameConfigLargeLobbyPlaysToTheEnd() {
+		GameConfig config = GameConfig.builder()
+			.players(512)
+			.setsPerColor(Color.WHITE, 320)
+			.setsPerColor(Color.RAINBOW, 80)
+			.seed(3)
+			.build();
+		BusinessLogic game = new BusinessLogic(config);
+		assertEquals(512, game.getPlayers().size());
+		assertEquals(511, game.getSeat(game.getPlayers().get(511)));
+		playRandomMoves(game, new SplittableRandom(1), 100_000);
+		assertTrue(game.isGameOver());
+	}
+
+	// ==================== Turn Ring Tests ====================
+
+	@Test
+	public void testTurnRingAdvancesBothWays() {
+		BusinessLogic game = new BusinessLogic(GameConfig.builder().players(5).build());
+		State state = game.getState();
+		List<Player> players = game.getPlayers();
+		state.advanceTurn();
+		state.advanceTurn();
+		assertSame(players.get(2), game.getCurrentPlayer());
+		assertEquals(2, state.getCurrentPlayerIndex());
+		state.setTurnOrderReversed(true);
+		state.advanceTurn();
+		state.advanceTurn();
+		state.advanceTurn();
+		assertSame(players.get(4), game.getCurrentPlayer());
+		assertEquals(4, state.getCurrentPlayerIndex());
+	}
+
+	@Test
+	public void testTurnRingForfeitPassesTurnAndKeepsOrder() {
+		BusinessLogic game = new BusinessLogic(GameConfig.builder().players(5).build());
+		State state = game.getState();
+		List<Player> before = new ArrayList<>(game.getPlayers());
+		state.setCurrentPlayerIndex(4);
+		game.forfeit();
+		assertSame(before.get(0), game.getCurrentPlayer(), "Forfeit of the last player wraps to the first");
+		state.setCurrentPlayerIndex(1);
+		game.forfeit();
+		assertSame(before.get(2), game.getCurrentPlayer());
+		assertEquals(List.of(before.get(0), before.get(2), before.get(3)), game.getPlayers());
+		assertEquals(1, state.getCurrentPlayerIndex());
+		assertEquals(2, game.getSeat(game.getPlayers().get(1)));
+	}
+
+	@Test
+	public void testPlayerListSwapsAndSortsInPlace() {
+		BusinessLogic game = new BusinessLogic(GameConfig.builder().players(5).build());
+		List<Player> players = game.getPlayers();
+		// Leave an empty slot in the ring
+		players.remove(1);
+		List<Player> expected = new ArrayList<>(players);
+		long hash = game.getState().hash();
+
+		assertSame(expected.get(2), players.set(2, players.get(2)));
+		java.util.Collections.swap(players, 0, 3);
+		java.util.Collections.swap(expected, 0, 3);
+		assertEquals(expected, players);
+		players.sort((a, b) -> game.getSeat(b) - game.getSeat(a));
+		expected.sort((a, b) -> game.getSeat(b) - game.getSeat(a));
+		assertEquals(expected, players);
+		for (Player player : players) {
+			assertTrue(game.getSeat(player) >= 0, "Every player keeps a seat");
+		}
+		assertEquals(List.of(4, 3, 2, 0), List.of(game.getSeat(players.get(0)), game.getSeat(players.get(1)),
+			game.getSeat(players.get(2)), game.getSeat(players.get(3))));
+		assertEquals(game.getState().copy().hash(), game.getState().hash());
+
+		// A newcomer replaces the player at the index, who leaves the game
+		Player leaving = players.get(1);
+		Player joining = new Player(new ArrayList<>());
+		assertSame(leaving, players.set(1, joining));
+		assertEquals(-1, game.getSeat(leaving));
+		assertTrue(game.getSeat(joining) >= 0);
+		assertEquals(game.getState().copy().hash(), game.getState().hash());
+		assertTrue(hash != game.getState().hash());
+	}
+
+	@Test
+	public void testTurnRingRemovingOtherPlayerKeepsCurrent() {
+		BusinessLogic game = new BusinessLogic(GameConfig.builder().players(4).build());
+		game.getState().setCurrentPlayerIndex(2);
+		Player current = game.getCurrentPlayer();
+		game.getPlayers().remove(0);
+		assertSame(current, game.getCurrentPlayer());
+		assertEquals(1, game.getState().getCurrentPlayerIndex());
+	}
+
+	@Test
+	public void testTurnRingSurvivesManyForfeitsAndInserts() {
+		BusinessLogic game = new BusinessLogic(GameConfig.builder()
+			.players(300).setsPerColor(Color.WHITE, 100).build());
+		List<Player> expected = new ArrayList<>(game.getPlayers());
+		SplittableRandom random = new SplittableRandom(6);
+		for (int i = 0; i < 250; i++) {
+			game.getState().setCurrentPlayerIndex(random.nextInt(expected.size()));
+			Player forfeiting = game.getCurrentPlayer();
+			int index = expected.indexOf(forfeiting);
+			game.forfeit();
+			expected.remove(index);
+			assertSame(expected.get(index % expected.size()), game.getCurrentPlayer());
+		}
+		assertEquals(expected, game.getPlayers());
+		Player newcomer = new Player(new ArrayList<>(List.of(new ChessPiece(Color.WHITE, PieceType.KING))));
+		game.getPlayers().add(10, newcomer);
+		expected.add(10, newcomer);
+		assertEquals(expected, game.getPlayers());
+		Iterator<Player> it = game.getPlayers().iterator();
+		while (it.hasNext()) {
+			if (it.next().getPile().size() % 2 == 0) {
+				it.remove();
+			}
+		}
+		expected.removeIf(player -> player.getPile().size() % 2 == 0);
+		assertEquals(expected, game.getPlayers());
+		for (int i = 0; i < expected.size(); i++) {
+			assertSame(expected.get(i), game.getPlayers().get(i));
+		}
+	}
+
+	// ==================== Discard Pile Tests ====================
+
+	@Test
+	public void testBoundedDiscardKeepsLastPiecesAndAllCounts() {
+		DiscardPile discard = new DiscardPile(DiscardMode.BOUNDED, 3);
+		ChessPiece[] pieces = {
+			new ChessPiece(Color.WHITE, PieceType.PAWN), new ChessPiece(Color.WHITE, PieceType.KING),
+			new ChessPiece(Color.RAINBOW, PieceType.PAWN), new ChessPiece(null, PieceType.BISHOP),
+			new ChessPiece(Color.WHITE, PieceType.PAWN)
+		};
+		for (ChessPiece piece : pieces) {
+			discard.add(piece);
+		}
+		assertEquals(List.of(pieces[2], pieces[3], pieces[4]), discard);
+		assertEquals(pieces[4], discard.top());
+		assertEquals(5, discard.getTotal());
+		assertEquals(2, discard.count(pieces[0].getCode()));
+		assertEquals(1, discard.hiddenCount(pieces[0].getCode()));
+		assertEquals(1, discard.hiddenCount(pieces[1].getCode()));
+		assertEquals(0, discard.hiddenCount(pieces[3].getCode()));
+	}
+
+	@Test
+	public void testTopAndCountsDiscardStaysSmallOverLongGame() {
+		BusinessLogic game = new BusinessLogic(GameConfig.builder()
+			.discardMode(DiscardMode.TOP_AND_COUNTS).reshuffleDiscards(true).seed(8).build());
+		DiscardPile discard = game.getDiscard();
+		playRandomMoves(game, new SplittableRandom(8), 5_000);
+		assertTrue(discard.size() <= 1);
+		assertEquals(1, discard.getCapacity());
+		int pieces = discard.getTotal() + game.getUnowned().size();
+		for (Player player : game.getPlayers()) {
+			pieces += player.getPile().size();
+		}
+		assertTrue(pieces <= 80, "Pieces only leave the game with forfeiting players");
+	}
+
+	@Test
+	public void testReshuffleRefillsEmptyUnownedPile() {
+		BusinessLogic game = new BusinessLogic(GameConfig.builder()
+			.boundedDiscard(2).reshuffleDiscards(true).seed(4).build());
+		Deck unowned = game.getUnowned();
+		DiscardPile discard = game.getDiscard();
+		while (unowned.size() > 0) {
+			discard.add(unowned.remove(0));
+		}
+		int pieces = discard.getTotal();
+		ChessPiece top = discard.top();
+		assertTrue(pieces > 1);
+		assertTrue(game.canDraw());
+
+		BusinessLogic copy = game.copy();
+		assertTrue(game.draw());
+		assertTrue(copy.draw());
+		assertEquals(1, discard.getTotal());
+		assertEquals(top, discard.top());
+		assertEquals(pieces - 2, game.getUnowned().size());
+		assertEquals(game.getUnowned(), copy.getUnowned(), "A reshuffle is determined by the position");
+		assertEquals(game.getState().hash(), copy.getState().hash());
+	}
+
+	@Test
+	public void testDrawFailsWithoutReshuffleWhenUnownedIsEmpty() {
+		BusinessLogic game = new BusinessLogic(GameConfig.builder().seed(4).build());
+		game.getUnowned().clear();
+		assertFalse(game.canDraw());
+		assertFalse(game.draw());
+	}
+
+	@Test
+	public void testJournalReplaysBoundedDiscardWithReshuffle() throws Exception {
+		Path file = Files.createTempDirectory("journal").resolve("bounded.jnl");
+		BusinessLogic game = new BusinessLogic(GameConfig.builder()
+			.boundedDiscard(4).reshuffleDiscards(true).seed(12).build());
+		playRandomMoves(game, new SplittableRandom(12), 20);
+		try (ActionJournal journal = ActionJournal.create(file)) {
+			journal.begin(game);
+			playRandomMoves(game, new SplittableRandom(13), 2_000);
+		}
+
+		BusinessLogic replayed = ActionJournal.replay(file);
+		DiscardPile discard = replayed.getDiscard();
+		assertEquals(DiscardMode.BOUNDED, discard.getMode());
+		assertEquals(4, discard.getCapacity());
+		assertTrue(replayed.getState().isReshuffleDiscards());
+		assertEquals(game.getDiscard(), discard);
+		assertEquals(game.getDiscard().getTotal(), discard.getTotal());
+		assertEquals(game.getUnowned(), replayed.getUnowned());
+		assertEquals(game.getState().hash(), replayed.getState().hash());
+	}
+
+	// ==================== Game Metrics Tests ====================
+
+	@Test
+	public void testMetricsCountAcceptedAndRejectedCalls() {
+		BusinessLogic game = new BusinessLogic();
+		GameMetrics metrics = new GameMetrics(1);
+		game.setMetrics(metrics);
+		assertFalse(game.discard(new ChessPiece(Color.WHITE, PieceType.QUEEN)));
+		assertTrue(game.draw());
+		assertFalse(game.drawMonopolyPawn());
+		game.forfeit();
+		assertEquals(0, metrics.getDiscardCount());
+		assertEquals(1, metrics.getDiscardRejectedCount());
+		assertEquals(1, metrics.getDrawCount());
+		assertEquals(1, metrics.getMonopolyDrawRejectedCount());
+		assertEquals(1, metrics.getForfeitCount());
+		assertEquals(4, metrics.getLatency(Action.KIND_DISCARD).getCount()
+			+ metrics.getLatency(Action.KIND_DRAW).getCount()
+			+ metrics.getLatency(Action.KIND_MONOPOLY_DRAW).getCount()
+			+ metrics.getLatency(Action.KIND_FORFEIT).getCount());
+		assertEquals(3, metrics.getPlayerCount());
+		assertEquals(game.getUnowned().size(), metrics.getUnownedSize());
+	}
+
+	@Test
+	public void testMetricsSampleOnlySomeCallsButCountAll() {
+		GameMetrics metrics = new GameMetrics(8);
+		assertEquals(8, metrics.getSampleInterval());
+		BusinessLogic game = new BusinessLogic();
+		game.setMetrics(metrics);
+		for (int i = 0; i < 32; i++) {
+			game.draw();
+		}
+		assertEquals(32, metrics.getDrawCount());
+		assertEquals(4, metrics.getLatency(Action.KIND_DRAW).getCount());
+		assertNull(game.copy().getMetrics(), "Copies made for search are not measured");
+	}
+
+	@Test
+	public void testMetricsCountMonopolyChanges() {
+		BusinessLogic game = new BusinessLogic();
+		GameMetrics metrics = new GameMetrics();
+		game.setMetrics(metrics);
+		Player first = game.getCurrentPlayer();
+		for (int i = 0; i < 3; i++) {
+			first.getPile().add(new ChessPiece(Color.WHITE, PieceType.PAWN));
+		}
+		assertEquals(0, metrics.getMonopolyChanges(), "Only changes made by moves are counted");
+		game.getState().setCurrentPlayerIndex(3);
+		game.forfeit();
+		assertEquals(0, metrics.getMonopolyChanges());
+		game.getState().setCurrentPlayerIndex(0);
+		assertTrue(game.hasMonopoly(first));
+		game.forfeit();
+		assertEquals(1, metrics.getMonopolyChanges());
+	}
+
+	@Test
+	public void testMetricsArePublishedOverJmx() throws Exception {
+		GameMetrics metrics = new GameMetrics(1);
+		BusinessLogic game = new BusinessLogic();
+		game.setMetrics(metrics);
+		game.draw();
+		ObjectName name = metrics.register("test-" + System.nanoTime());
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			assertEquals(1L, server.getAttribute(name, "DrawCount"));
+			assertEquals(game.getUnowned().size(), server.getAttribute(name, "UnownedSize"));
+			server.invoke(name, "reset", null, null);
+			assertEquals(0, metrics.getDrawCount());
+		} finally {
+			metrics.unregister();
+		}
+		assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+	}
+
+	// ==================== Flight Recorder Tests ====================
+
+	@Test
+	public void testGameIdsAreUniqueAndCopiesKeepTheirs() {
+		BusinessLogic game = new BusinessLogic();
+		BusinessLogic copy = game.copy();
+		BusinessLogic configured = new BusinessLogic(GameConfig.builder().build());
+		BusinessLogic wrapped = new BusinessLogic(game.getState().copy());
+		assertEquals(game.getGameId(), copy.getGameId());
+		assertTrue(configured.getGameId() > game.getGameId());
+		assertTrue(wrapped.getGameId() > configured.getGameId());
+	}
+
+	@Test
+	public void testFlightRecorderEventsCarryGameAndPlayer() throws Exception {
+		BusinessLogic game = new BusinessLogic();
+		game.setGameId(4242);
+		List<RecordedEvent> events = recordEvents(() -> {
+			game.apply(Action.DRAW);
+			game.apply(Action.discard(new ChessPiece(Color.WHITE, PieceType.QUEEN)));
+			game.forfeit();
+		});
+		List<String> names = new ArrayList<>();
+		for (RecordedEvent event : events) {
+			if (event.getLong("gameId") == 4242) {
+				names.add(event.getEventType().getName());
+			}
+		}
+		assertEquals(2, names.stream().filter("llmlab.Turn"::equals).count());
+		assertTrue(names.contains("llmlab.Draw"));
+		assertTrue(names.contains("llmlab.Discard"));
+		assertTrue(names.contains("llmlab.Forfeit"));
+		for (RecordedEvent event : events) {
+			if (event.getEventType().getName().equals("llmlab.Draw") && event.getLong("gameId") == 4242) {
+				assertEquals(0, event.getInt("player"));
+				assertFalse(event.getDuration().isNegative());
+			}
+			if (event.getEventType().getName().equals("llmlab.Forfeit") && event.getLong("gameId") == 4242) {
+				assertEquals(1, event.getInt("player"), "The rejected discard did not end seat 1's turn");
+				assertEquals(3, event.getInt("playersLeft"));
+			}
+		}
+	}
+
+	@Test
+	public void testFlightRecorderReportsReversalAndMonopolyLoss() throws Exception {
+		BusinessLogic game = new BusinessLogic();
+		game.setGameId(4343);
+		Player first = game.getCurrentPlayer();
+		for (int i = 0; i < 3; i++) {
+			first.getPile().add(new ChessPiece(Color.WHITE, PieceType.PAWN));
+		}
+		first.getPile().add(new ChessPiece(Color.RAINBOW, PieceType.KING));
+		List<RecordedEvent> events = recordEvents(() -> {
+			game.discard(new ChessPiece(Color.RAINBOW, PieceType.KING));
+			game.getState().setCurrentPlayerIndex(0);
+			game.forfeit();
+		});
+		RecordedEvent reversal = null;
+		RecordedEvent monopoly = null;
+		for (RecordedEvent event : events) {
+			if (event.getLong("gameId") != 4343) {
+				continue;
+			}
+			if (event.getEventType().getName().equals("llmlab.Reversal")) {
+				reversal = event;
+			} else if (event.getEventType().getName().equals("llmlab.MonopolyChange")) {
+				monopoly = event;
+			}
+		}
+		assertNotNull(reversal);
+		assertTrue(reversal.getBoolean("reversed"));
+		assertNotNull(monopoly);
+		assertEquals("WHITE", monopoly.getString("color"));
+		assertEquals(0, monopoly.getInt("previousHolder"));
+		assertEquals(-1, monopoly.getInt("newHolder"));
+	}
+
+	private static List<RecordedEvent> recordEvents(Runnable moves) throws Exception {
+		Path file = Files.createTempFile("game", ".jfr");
+		try (Recording recording = new Recording()) {
+			for (String name : List.of("Turn", "Discard", "Draw", "Forfeit", "Reversal", "MonopolyChange")) {
+				recording.enable("llmlab." + name).withoutThreshold();
+			}
+			recording.start();
+			moves.run();
+			recording.stop();
+			recording.dump(file);
+		}
+		return RecordingFile.readAllEvents(file);
+	}
+
+	// ==================== Change Bus Tests ====================
+
+	@Test
+	public void testChangeBusDeliversChangesInBatches() {
+		BusinessLogic game = new BusinessLogic();
+		ChangeBus bus = new ChangeBus(game, 8);
+		Subscription subscription = bus.open(Backpressure.DROP);
+		game.draw();
+		game.draw();
+		game.forfeit();
+		List<Integer> actions = new ArrayList<>();
+		List<Boolean> ends = new ArrayList<>();
+		assertEquals(3, subscription.poll((event, endOfBatch) -> {
+			actions.add(event.getAction());
+			ends.add(endOfBatch);
+		}, 10));
+		assertEquals(List.of(Action.DRAW, Action.DRAW, Action.FORFEIT), actions);
+		assertEquals(List.of(false, false, true), ends);
+		assertEquals(0, subscription.poll((event, endOfBatch) -> fail("Nothing new was published"), 10));
+		bus.close();
+	}
+
+	@Test
+	public void testChangeBusDropsChangesOverwrittenBeforeTheyAreRead() {
+		BusinessLogic game = new BusinessLogic();
+		ChangeBus bus = new ChangeBus(game, 8);
+		Subscription subscription = bus.open(Backpressure.DROP);
+		for (int i = 0; i < 20; i++) {
+			game.draw();
+		}
+		List<Long> sequences = new ArrayList<>();
+		subscription.poll((event, endOfBatch) -> sequences.add(event.getSequence()), 100);
+		assertEquals(12, subscription.getDropped());
+		assertEquals(8, sequences.size());
+		assertEquals(12L, sequences.get(0).longValue());
+		assertEquals(19L, sequences.get(7).longValue());
+	}
+
+	@Test
+	public void testChangeBusCoalescesToLatestState() {
+		BusinessLogic game = new BusinessLogic();
+		ChangeBus bus = new ChangeBus(game, 16);
+		Subscription subscription = bus.open(Backpressure.COALESCE);
+		playRandomMoves(game, new SplittableRandom(2), 5);
+		long[] seen = new long[3];
+		assertEquals(1, subscription.poll((event, endOfBatch) -> {
+			seen[0] = event.getSequence();
+			seen[1] = event.getHash();
+			seen[2] = event.getUnownedSize();
+		}, 100));
+		assertEquals(4, seen[0]);
+		assertEquals(game.getState().hash(), seen[1]);
+		assertEquals(game.getUnowned().size(), seen[2]);
+		assertEquals(4, subscription.getCoalesced());
+	}
+
+	@Test
+	public void testChangeBusSubscriberThreadSeesEveryChange() throws Exception {
+		BusinessLogic game = new BusinessLogic();
+		game.getUnowned().shuffle(new SplittableRandom(9));
+		ChangeBus bus = new ChangeBus(game, 1 << 12);
+		List<Long> sequences = new ArrayList<>();
+		long[] lastHash = new long[1];
+		Subscription subscription = bus.subscribe((event, endOfBatch) -> {
+			sequences.add(event.getSequence());
+			lastHash[0] = event.getHash();
+		}, Backpressure.DROP);
+		playRandomMoves(game, new SplittableRandom(9), 1_000);
+		long published = bus.getCursor() + 1;
+		bus.close();
+		subscription.join();
+		assertEquals(0, subscription.getDropped());
+		assertEquals(published, sequences.size());
+		for (int i = 0; i < sequences.size(); i++) {
+			assertEquals(i, sequences.get(i).longValue());
+		}
+		assertEquals(game.getState().hash(), lastHash[0]);
+	}
+
+	// ==================== Concurrent Business Logic Tests ====================
+
+	@Test
+	public void testConcurrentGameReadsItsOwnWrites() {
+		ConcurrentBusinessLogic game = new ConcurrentBusinessLogic(new BusinessLogic());
+		StateSnapshot before = game.snapshot();
+		assertSame(before, game.snapshot(), "No write, so the snapshot is reused");
+		assertTrue(game.draw());
+		assertEquals(1, game.getEpoch());
+		assertEquals(before.getUnowned().size() - 1, game.getUnowned().size());
+		assertEquals(6, game.getPlayers().get(0).getPile().size());
+		assertEquals(5, before.getPlayers().get(0).getPile().size(), "Old snapshots do not change");
+		assertFalse(game.discard(null));
+		assertThrows(UnsupportedOperationException.class, () -> game.getPlayers().get(0).getPile().clear());
+	}
+
+	@Test
+	public void testConcurrentGameGivesSpectatorsConsistentSnapshots() throws Exception {
+		BusinessLogic logic = new BusinessLogic();
+		logic.getUnowned().shuffle(new SplittableRandom(17));
+		ConcurrentBusinessLogic game = new ConcurrentBusinessLogic(logic);
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		List<Thread> spectators = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			Thread spectator = new Thread(() -> {
+				long lastVersion = -1;
+				try {
+					while (!done.get()) {
+						StateSnapshot snapshot = game.snapshot();
+						assertTrue(snapshot.getVersion() >= lastVersion);
+						lastVersion = snapshot.getVersion();
+						int pieces = snapshot.getDiscard().size() + snapshot.getUnowned().size();
+						for (Player player : snapshot.getPlayers()) {
+							pieces += player.getPile().size();
+						}
+						assertTrue(pieces <= 80);
+						assertTrue(snapshot.isGameOver() || snapshot.getLegalActionCount() > 0);
+					}
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+				}
+			});
+			spectator.start();
+			spectators.add(spectator);
+		}
+		SplittableRandom random = new SplittableRandom(17);
+		ActionBuffer buffer = new ActionBuffer();
+		for (int i = 0; i < 2_000 && !game.isGameOver(); i++) {
+			game.write(play -> {
+				int n = play.generateLegalActions(buffer);
+				return play.apply(buffer.get(n == 1 ? 0 : random.nextInt(n - 1)));
+			});
+		}
+		done.set(true);
+		for (Thread spectator : spectators) {
+			spectator.join();
+		}
+		assertNull(failure.get());
+		assertEquals(game.getEpoch(), game.snapshot().getVersion());
+	}
+
+	// ==================== Tournament Tests ====================
+
+	@Test
+	public void testTournamentPlaysEveryMixedSeating() {
+		Tournament two = Tournament.builder().entrant("a", new GreedyPolicy()).entrant("b", new RandomPolicy()).build();
+		assertEquals(14, two.getSeatingCount());
+		Tournament three = Tournament.builder().entrant("a", new GreedyPolicy()).entrant("b", new RandomPolicy())
+			.entrant("c", new RandomPolicy()).rounds(3).build();
+		assertEquals(78, three.getSeatingCount());
+		assertEquals(3 * 78, three.getGameCount());
+		assertArrayEquals(new int[] {0, 0, 0, 1}, two.getSeating(0));
+		assertThrows(IllegalArgumentException.class, () -> Tournament.builder().entrant("a", new GreedyPolicy()).build());
+
+		// The seat count comes from the config
+		Tournament threeSeats = Tournament.builder().entrant("a", new GreedyPolicy()).entrant("b", new RandomPolicy())
+			.config(GameConfig.builder().players(3).build()).rounds(2).build();
+		assertEquals(6, threeSeats.getSeatingCount());
+		assertEquals(3, threeSeats.getSeating(0).length);
+		assertEquals(12, threeSeats.run().getGames());
+	}
+
+	@Test
+	public void testTournamentIsReproducibleOnAnyPoolSize() {
+		TournamentStandings[] results = new TournamentStandings[2];
+		int[] threads = {1, 3};
+		for (int i = 0; i < 2; i++) {
+			ForkJoinPool pool = new ForkJoinPool(threads[i]);
+			results[i] = Tournament.builder().entrant("greedy", new GreedyPolicy()).entrant("random", new RandomPolicy())
+				.rounds(40).seed(21).pool(pool).build().run();
+			pool.shutdown();
+		}
+		assertEquals(560, results[0].getGames());
+		for (int entrant = 0; entrant < 2; entrant++) {
+			assertEquals(results[0].getWins(entrant), results[1].getWins(entrant));
+			assertEquals(results[0].getRating(entrant), results[1].getRating(entrant), 1e-9);
+		}
+		assertEquals(results[0].getWins(0) + results[0].getWins(1) + results[0].getUnfinished(), 560);
+	}
+
+	@Test
+	public void testTournamentStreamsOneCsvRowPerGame() throws Exception {
+		StringWriter csv = new StringWriter();
+		TournamentStandings standings = Tournament.builder().entrant("greedy", new GreedyPolicy())
+			.entrant("random", new RandomPolicy()).rounds(5).build().run(csv);
+		String[] lines = csv.toString().split("\n");
+		assertEquals(Tournament.CSV_HEADER, lines[0]);
+		assertEquals(standings.getGames() + 1, lines.length);
+		long greedyWins = 0;
+		for (int i = 1; i < lines.length; i++) {
+			String[] fields = lines[i].split(",", -1);
+			assertEquals(6, fields.length);
+			String[] seats = fields[2].split("\\|");
+			int winnerSeat = Integer.parseInt(fields[3]);
+			assertEquals(seats[winnerSeat], fields[4]);
+			if (fields[4].equals("greedy")) {
+				greedyWins++;
+			}
+		}
+		assertEquals(standings.getWins(0), greedyWins);
+	}
+
+	@Test
+	public void testTournamentRatesAWeakEntrantLowest() {
+		TournamentStandings standings = Tournament.builder()
+			.entrant("greedy", new GreedyPolicy())
+			.entrant("random", new RandomPolicy())
+			.entrant("quitter", (game, random) -> game.forfeit())
+			.rounds(20).build().run();
+		assertEquals(0, standings.getWins(2));
+		assertTrue(standings.getRating(2) < standings.getRating(0) - 200);
+		assertTrue(standings.getRating(2) < standings.getRating(1) - 200);
+		double mean = 0;
+		for (int entrant = 0; entrant < 3; entrant++) {
+			assertTrue(standings.getRatingError(entrant) > 0);
+			mean += standings.getRating(entrant) / 3;
+		}
+		assertEquals(TournamentStandings.BASE_RATING, mean, 1e-6);
+	}
+
+	// ==================== Discard Rules Tests ====================
+
+	@Test
+	public void testStandardDiscardTableMatchesStageRules() {
+		for (int top = 0; top < ChessPiece.CODES; top++) {
+			ChessPiece topPiece = ChessPiece.of(top);
+			long row = 0;
+			for (int candidate = 0; candidate < ChessPiece.CODES; candidate++) {
+				ChessPiece piece = ChessPiece.of(candidate);
+				boolean expected = piece.getColor() == Color.RAINBOW
+					|| (piece.getColor() != null && piece.getColor() == topPiece.getColor())
+					|| piece.getType() == topPiece.getType();
+				assertEquals(expected, DiscardRules.STANDARD.allows(top, candidate), topPiece + " <- " + piece);
+				row |= expected ? 1L << candidate : 0;
+			}
+			assertEquals(row, DiscardRules.STANDARD.playableMask(top));
+		}
+	}
+
+	@Test
+	public void testPilePresentMaskTracksCounts() {
+		Pile pile = new Pile();
+		int king = ChessPiece.codeOf(Color.WHITE, PieceType.KING);
+		int pawn = ChessPiece.codeOf(null, PieceType.PAWN);
+		pile.addCode(king);
+		pile.addCode(king);
+		pile.addCode(pawn);
+		assertEquals((1L << king) | (1L << pawn), pile.getPresentMask());
+		pile.removeCode(king);
+		assertEquals((1L << king) | (1L << pawn), pile.getPresentMask());
+		pile.removeCode(king);
+		assertEquals(1L << pawn, pile.getPresentMask());
+		assertEquals(1L << pawn, new Pile(pile).getPresentMask());
+		pile.clear();
+		assertEquals(0, pile.getPresentMask());
+	}
+
+	@Test
+	public void testLegalDiscardsFromMaskMatchCanDiscard() {
+		BusinessLogic game = new BusinessLogic(GameConfig.builder().players(6).seed(31).build());
+		SplittableRandom random = new SplittableRandom(31);
+		ActionBuffer buffer = new ActionBuffer();
+		for (int move = 0; move < 500 && !game.isGameOver(); move++) {
+			game.generateLegalActions(buffer);
+			List<Integer> expected = new ArrayList<>();
+			Pile pile = game.getCurrentPlayer().getPile();
+			for (int code = 0; code < ChessPiece.CODES; code++) {
+				if (pile.count(code) > 0 && game.canDiscard(ChessPiece.of(code))) {
+					expected.add(Action.discard(code));
+				}
+			}
+			List<Integer> discards = new ArrayList<>();
+			for (int i = 0; i < buffer.size(); i++) {
+				if (Action.kind(buffer.get(i)) == Action.KIND_DISCARD) {
+					discards.add(buffer.get(i));
+				}
+			}
+			assertEquals(expected, discards);
+			assertEquals(!expected.isEmpty(), game.hasLegalDiscard());
+			int n = buffer.size();
+			game.apply(buffer.get(n == 1 ? 0 : random.nextInt(n - 1)));
+		}
+	}
+
+	@Test
+	public void testCustomDiscardRulesPlugInThroughConfig() {
+		DiscardRules typeOnly = DiscardRules.compile((top, candidate) -> candidate.getType() == top.getType());
+		BusinessLogic game = new BusinessLogic(GameConfig.builder().discardRules(typeOnly).seed(2).build());
+		ChessPiece top = game.getDiscard().top();
+		PieceType otherType = top.getType() == PieceType.KING ? PieceType.QUEEN : PieceType.KING;
+		assertFalse(game.canDiscard(new ChessPiece(Color.RAINBOW, otherType)), "No rainbow exception in this variant");
+		assertTrue(game.canDiscard(new ChessPiece(null, top.getType())));
+		assertSame(typeOnly, game.copy().getDiscardRules());
+		assertSame(DiscardRules.STANDARD, new BusinessLogic().getDiscardRules());
+	}
+
+	// ==================== Game Pool Tests ====================
+
+	/**
+	 * Plays the pool and the matching BusinessLogic games in lockstep with the same policy,
+	 * comparing every game after every turn.
+	 */
+	private void assertPoolMatchesObjectEngine(GameConfig config, int games, long seed, int maxTurns, BatchPolicy policy) {
+		GamePool pool = new GamePool(config, games, seed, maxTurns);
+		BusinessLogic[] objects = new BusinessLogic[games];
+		SplittableRandom[] randoms = new SplittableRandom[games];
+		for (int g = 0; g < games; g++) {
+			objects[g] = new BusinessLogic(config.withSeed(Simulator.seedFor(seed, g)));
+			randoms[g] = new SplittableRandom(Simulator.seedFor(seed, g));
+			assertSameGame(pool, g, objects[g]);
+		}
+		ActionBuffer legal = new ActionBuffer();
+		for (int turn = 0; turn < maxTurns; turn++) {
+			int moved = pool.step(policy);
+			int running = 0;
+			for (int g = 0; g < games; g++) {
+				BusinessLogic game = objects[g];
+				if (game.isGameOver()) {
+					continue;
+				}
+				running++;
+				game.generateLegalActions(legal);
+				assertTrue(game.apply(legal.get(policy.choose(legal, randoms[g].nextLong()))));
+				assertSameGame(pool, g, game);
+				assertEquals(turn + 1, pool.getTurns(g));
+			}
+			assertEquals(running, moved);
+			if (moved == 0) {
+				break;
+			}
+		}
+	}
+
+	private static void assertSameGame(GamePool pool, int g, BusinessLogic game) {
+		assertSameGame("game " + g + " after " + pool.getTurns(g) + " turns", game, GamePool.MAX_PLAYERS,
+			pool.getWinnerSeat(g), pool.getTopDiscard(g), pool.isTurnOrderReversed(g), pool.getCurrentSeat(g),
+			seat -> pool.isInGame(g, seat), (seat, code) -> pool.getPileCount(g, seat, code), code -> pool.getUnownedCount(g, code));
+	}
+
+	private static void assertSameGame(LockstepGames lockstep, int g, BusinessLogic game) {
+		assertSameGame("game " + g + " after " + lockstep.getTurns(g) + " turns", game, LockstepGames.MAX_PLAYERS,
+			lockstep.getWinnerSeat(g), lockstep.getTopDiscard(g), lockstep.isTurnOrderReversed(g), lockstep.getCurrentSeat(g),
+			seat -> lockstep.isInGame(g, seat), (seat, code) -> lockstep.getPileCount(g, seat, code),
+			code -> lockstep.getUnownedCount(g, code));
+	}
+
+	/**
+	 * Compares one game of a flat engine (GamePool, LockstepGames), given through its getters, with
+	 * the BusinessLogic game it must match. Seats from 0 to seats - 1 are checked, so a seat the
+	 * object game no longer has must be out of the flat game too.
+	 */
+	private static void assertSameGame(String where, BusinessLogic game, int seats, int winnerSeat, int topDiscard,
+			boolean reversed, int currentSeat, IntPredicate inGame, IntBinaryOperator pileCount, IntUnaryOperator unownedCount) {
+		assertEquals(game.getWinner() == null ? -1 : game.getSeat(game.getWinner()), winnerSeat, where);
+		assertEquals(game.getDiscard().top().getCode(), topDiscard, where);
+		assertEquals(game.getState().isTurnOrderReversed(), reversed, where);
+		if (!game.isGameOver()) {
+			assertEquals(game.getSeat(game.getCurrentPlayer()), currentSeat, where);
+		}
+		Player[] bySeat = new Player[seats];
+		for (Player player : game.getPlayers()) {
+			bySeat[game.getSeat(player)] = player;
+		}
+		for (int seat = 0; seat < seats; seat++) {
+			assertEquals(bySeat[seat] != null, inGame.test(seat), where);
+			for (int code = 0; bySeat[seat] != null && code < ChessPiece.CODES; code++) {
+				assertEquals(bySeat[seat].getPile().count(code), pileCount.applyAsInt(seat, code), where);
+			}
+		}
+		for (int code = 0; code < ChessPiece.CODES; code++) {
+			assertEquals(game.getUnowned().count(code), unownedCount.applyAsInt(code), where);
+		}
+	}
+
+	@Test
+	public void testGamePoolMatchesObjectEngineFirstLegal() {
+		assertPoolMatchesObjectEngine(GameConfig.builder().build(), 200, 21, 2_000, BatchPolicy.FIRST_LEGAL);
+	}
+
+	@Test
+	public void testGamePoolMatchesObjectEngineUniform() {
+		assertPoolMatchesObjectEngine(GameConfig.builder().build(), 200, 22, 2_000, BatchPolicy.UNIFORM);
+		// Forfeits, reversals and monopolies all get exercised with more players and pieces
+		assertPoolMatchesObjectEngine(GameConfig.builder().players(7).pileSize(9)
+			.setsPerColor(Color.RAINBOW, 3).build(), 100, 23, 2_000, BatchPolicy.UNIFORM);
+	}
+
+	@Test
+	public void testGamePoolMatchesObjectEngineWithCustomRules() {
+		DiscardRules typeOnly = DiscardRules.compile((top, candidate) -> candidate.getType() == top.getType());
+		GameConfig config = GameConfig.builder().players(3).discardRules(typeOnly).discardMode(DiscardMode.TOP_AND_COUNTS).build();
+		assertPoolMatchesObjectEngine(config, 100, 24, 500, (legal, random) ->
+			(int) Long.remainderUnsigned(random, legal.size()));
+	}
+
+	@Test
+	public void testGamePoolParallelRunMatchesSteppedRun() {
+		GameConfig config = GameConfig.builder().players(5).build();
+		GamePool stepped = new GamePool(config, 2_000, 25, 1_000);
+		while (stepped.step(BatchPolicy.UNIFORM) > 0) {
+			// play every game out one turn at a time
+		}
+		GamePool parallel = new GamePool(config, 2_000, 25, 1_000);
+		ForkJoinPool workers = new ForkJoinPool(4);
+		SimulationReport report;
+		try {
+			report = parallel.run(BatchPolicy.UNIFORM, workers);
+		} finally {
+			workers.shutdown();
+		}
+		long wins = 0;
+		for (int g = 0; g < 2_000; g++) {
+			assertEquals(stepped.getWinnerSeat(g), parallel.getWinnerSeat(g));
+			assertEquals(stepped.getTurns(g), parallel.getTurns(g));
+			assertFalse(parallel.isRunning(g));
+			wins += parallel.getWinnerSeat(g) >= 0 ? 1 : 0;
+		}
+		assertEquals(2_000, report.getGames());
+		long reportedWins = 0;
+		for (int seat = 0; seat < report.getSeats(); seat++) {
+			reportedWins += report.getWins(seat);
+		}
+		assertEquals(wins, reportedWins);
+		SimulationReport steppedReport = stepped.report();
+		assertEquals(steppedReport.getTotalTurns(), report.getTotalTurns());
+		assertEquals(steppedReport.getForfeits(), report.getForfeits());
+		assertEquals(steppedReport.getMonopolyFrequency(), report.getMonopolyFrequency());
+		assertEquals(steppedReport.getForfeitRate(), report.getForfeitRate());
+	}
+
+	@Test
+	public void testGamePoolRejectsUnsupportedConfigs() {
+		assertThrows(IllegalArgumentException.class,
+			() -> new GamePool(GameConfig.builder().reshuffleDiscards(true).build(), 10, 1, 100));
+		assertThrows(IllegalArgumentException.class,
+			() -> new GamePool(GameConfig.builder().players(33).setsPerColor(Color.WHITE, 20).build(), 10, 1, 100));
+		assertThrows(IllegalArgumentException.class,
+			() -> new GamePool(GameConfig.builder().setsPerColor(Color.WHITE, 32).build(), 10, 1, 100));
+	}
+
+	// ==================== Lockstep Games Tests ====================
+
+	/**
+	 * Steps LockstepGames (vectorized or scalar) next to BusinessLogic games driven by FIRST_LEGAL,
+	 * comparing every game after every step.
+	 */
+	private void assertLockstepMatchesObjectEngine(GameConfig config, int games, long seed, int maxTurns, boolean vectorized) {
+		LockstepGames lockstep = new LockstepGames(config, games, seed, maxTurns);
+		BusinessLogic[] objects = new BusinessLogic[games];
+		for (int g = 0; g < games; g++) {
+			objects[g] = new BusinessLogic(config.withSeed(Simulator.seedFor(seed, g)));
+		}
+		ActionBuffer legal = new ActionBuffer();
+		for (int turn = 0; turn < maxTurns; turn++) {
+			int moved = vectorized ? lockstep.step() : lockstep.stepScalar();
+			int running = 0;
+			for (int g = 0; g < games; g++) {
+				BusinessLogic game = objects[g];
+				if (game.isGameOver()) {
+					assertFalse(lockstep.isRunning(g));
+					continue;
+				}
+				running++;
+				game.generateLegalActions(legal);
+				assertTrue(game.apply(legal.get(BatchPolicy.FIRST_LEGAL.choose(legal, 0))));
+				assertEquals(turn + 1, lockstep.getTurns(g));
+				assertSameGame(lockstep, g, game);
+			}
+			assertEquals(running, moved);
+			if (moved == 0) {
+				break;
+			}
+		}
+	}
+
+	@Test
+	public void testLockstepMatchesObjectEngine() {
+		// An odd game count leaves a tail after the last full vector
+		GameConfig standard = GameConfig.builder().build();
+		assertLockstepMatchesObjectEngine(standard, 203, 31, 2_000, true);
+		assertLockstepMatchesObjectEngine(standard, 203, 31, 2_000, false);
+	}
+
+	@Test
+	public void testLockstepMatchesObjectEngineWithMonopoliesAndForfeits() {
+		GameConfig crowded = GameConfig.builder().players(7).pileSize(9).setsPerColor(Color.RAINBOW, 3).build();
+		assertLockstepMatchesObjectEngine(crowded, 101, 32, 2_000, true);
+		DiscardRules typeOnly = DiscardRules.compile((top, candidate) -> candidate.getType() == top.getType());
+		GameConfig strict = GameConfig.builder().players(3).discardRules(typeOnly).build();
+		assertLockstepMatchesObjectEngine(strict, 99, 33, 300, true);
+		assertLockstepMatchesObjectEngine(strict, 99, 33, 300, false);
+	}
+
+	@Test
+	public void testLockstepReportMatchesGamePool() {
+		GameConfig config = GameConfig.builder().players(5).build();
+		SimulationReport lockstep = new LockstepGames(config, 1_000, 34, 500).run();
+		GamePool pool = new GamePool(config, 1_000, 34, 500);
+		while (pool.step(BatchPolicy.FIRST_LEGAL) > 0) {
+			// play every game out
+		}
+		SimulationReport expected = pool.report();
+		assertEquals(expected.getGames(), lockstep.getGames());
+		for (int seat = 0; seat < 5; seat++) {
+			assertEquals(expected.getWins(seat), lockstep.getWins(seat));
+		}
+		assertEquals(expected.getTotalTurns(), lockstep.getTotalTurns());
+		assertEquals(expected.getUnfinished(), lockstep.getUnfinished());
+		assertEquals(expected.getForfeits(), lockstep.getForfeits());
+		assertEquals(expected.getMonopolyFrequency(), lockstep.getMonopolyFrequency());
+		assertTrue(LockstepGames.lanes() >= 1);
+	}
+
+	// ==================== Game Server Tests ====================
+
+	/**
+	 * Reads one whole frame (length prefix included) from a blocking channel.
+	 */
+	private static ByteBuffer readFrame(SocketChannel channel) throws IOException {
+		ByteBuffer length = ByteBuffer.allocate(2);
+		while (length.hasRemaining()) {
+			assertTrue(channel.read(length) >= 0, "server closed the connection");
+		}
+		ByteBuffer frame = ByteBuffer.allocate(2 + (length.getShort(0) & 0xFFFF));
+		frame.put(length.flip());
+		while (frame.hasRemaining()) {
+			assertTrue(channel.read(frame) >= 0, "server closed the connection");
+		}
+		return frame.flip();
+	}
+
+	private static void send(SocketChannel channel, ByteBuffer frames) throws IOException {
+		frames.flip();
+		while (frames.hasRemaining()) {
+			channel.write(frames);
+		}
+	}
+
+	/**
+	 * Checks the legal actions at the buffer's position against the local game's.
+	 */
+	private static void assertLegalActions(BusinessLogic game, ByteBuffer in) {
+		ActionBuffer expected = new ActionBuffer();
+		game.generateLegalActions(expected);
+		int count = in.get() & 0xFF;
+		assertEquals(expected.size(), count);
+		for (int i = 0; i < count; i++) {
+			assertEquals(expected.get(i), Protocol.getU16(in));
+		}
+	}
+
+	@Test
+	void testGameServerSnapshotAndDeltasReplayOnLocalGame() throws IOException {
+		GameConfig config = GameConfig.builder().build();
+		try (GameServer server = new GameServer(config, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+				SocketChannel channel = SocketChannel.open(server.getAddress())) {
+			SplittableRandom random = new SplittableRandom(23);
+			for (int round = 0; round < 3; round++) {
+				long seed = random.nextLong();
+				ByteBuffer request = ByteBuffer.allocate(64);
+				Protocol.putOpen(request, seed);
+				send(channel, request);
+
+				BusinessLogic local = new BusinessLogic(config.withSeed(seed));
+				int[] moved = new int[2];
+				local.addActionListener((player, seat, action, pieceCode) -> {
+					moved[0] = seat;
+					moved[1] = pieceCode;
+				});
+				ByteBuffer frame = readFrame(channel);
+				frame.getShort();
+				assertEquals(Protocol.SNAPSHOT, frame.get());
+				assertLegalActions(local, frame);
+				assertEquals(local.getState().hash(), StateCodec.read(frame).hash());
+				assertFalse(frame.hasRemaining());
+
+				ActionBuffer legal = new ActionBuffer();
+				while (local.generateLegalActions(legal) > 0) {
+					int action = legal.get(random.nextInt(legal.size()));
+					request.clear();
+					Protocol.putAction(request, action);
+					send(channel, request);
+					assertTrue(local.apply(action));
+
+					frame = readFrame(channel);
+					frame.getShort();
+					assertEquals(Protocol.DELTA, frame.get());
+					assertEquals(action, Protocol.getU16(frame));
+					assertEquals(moved[0], Protocol.getU16(frame));
+					assertEquals(moved[1] < 0 ? Protocol.NO_PIECE : moved[1], frame.get() & 0xFF);
+					assertEquals(local.getState().getCurrentPlayerIndex(), Protocol.getU16(frame));
+					assertEquals(local.getState().isTurnOrderReversed() ? Protocol.REVERSED : 0, frame.get());
+					Player winner = local.getWinner();
+					assertEquals(winner == null ? Protocol.NO_WINNER : local.getSeat(winner), Protocol.getU16(frame));
+					assertLegalActions(local, frame);
+					assertFalse(frame.hasRemaining());
+				}
+			}
+			assertEquals(1, server.getConnections());
+		}
+	}
+
+	@Test
+	void testGameServerRejectsIllegalActionsAndReassemblesSplitFrames() throws IOException {
+		GameConfig config = GameConfig.builder().build();
+		try (GameServer server = new GameServer(config, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1);
+				SocketChannel channel = SocketChannel.open(server.getAddress())) {
+			// No game open yet
+			ByteBuffer request = ByteBuffer.allocate(64);
+			Protocol.putAction(request, Action.DRAW);
+			send(channel, request);
+			ByteBuffer frame = readFrame(channel);
+			assertEquals(Protocol.REJECTED, frame.get(2));
+			assertEquals(Action.DRAW, frame.getShort(3) & 0xFFFF);
+
+			// An OPEN trickling in one byte at a time, then two frames in one write
+			request.clear();
+			Protocol.putOpen(request, 5);
+			request.flip();
+			while (request.hasRemaining()) {
+				ByteBuffer one = ByteBuffer.allocate(1).put(request.get());
+				send(channel, one);
+			}
+			frame = readFrame(channel);
+			assertEquals(Protocol.SNAPSHOT, frame.get(2));
+
+			BusinessLogic local = new BusinessLogic(config.withSeed(5));
+			ActionBuffer legal = new ActionBuffer();
+			local.generateLegalActions(legal);
+			int illegal = Action.DRAW;
+			assertFalse(legal.contains(illegal), "seed 5 deals a discard to the first player");
+			request.clear();
+			Protocol.putAction(request, illegal);
+			Protocol.putAction(request, legal.get(0));
+			send(channel, request);
+			assertEquals(Protocol.REJECTED, readFrame(channel).get(2));
+			assertEquals(Protocol.DELTA, readFrame(channel).get(2));
+			assertEquals(1, server.getActionsApplied());
+
+			// A malformed frame closes the connection
+			request.clear();
+			request.putShort((short) 1).put((byte) 99);
+			send(channel, request);
+			assertEquals(-1, channel.read(ByteBuffer.allocate(16)));
+		}
+	}
+
+	@Test
+	void testLoadClientPlaysAgainstServer() throws IOException {
+		try (GameServer server = new GameServer(0)) {
+			LoadClient.Report report = LoadClient.run(server.getAddress(), 64, 1, 3);
+			assertEquals(64, report.getConnections());
+			assertTrue(report.getActions() > 0);
+			assertEquals(0, report.getRejected());
+			assertTrue(report.getLatency().getCount() >= report.getActions());
+			assertTrue(server.getBuffersAllocated() <= 64, "pooled buffers: " + server.getBuffersAllocated());
+		}
+	}
+
+	// ==================== Change Log Tests ====================
+
+	/**
+	 * Brings replica up to date from log and returns the format it was sent.
+	 */
+	private static byte sync(ChangeLog log, Replica replica) {
+		ByteBuffer out = ByteBuffer.allocate(log.encodedSize(replica.getVersion()));
+		log.writeChangesSince(replica.getVersion(), out);
+		assertFalse(out.hasRemaining(), "encodedSize is exact");
+		out.flip();
+		assertEquals(log.getVersion(), replica.apply(out));
+		assertFalse(out.hasRemaining());
+		return out.get(0);
+	}
+
+	private static void assertSameState(State expected, State actual) {
+		assertEquals(expected.hash(), actual.hash());
+		assertEquals(expected.getCurrentPlayerIndex(), actual.getCurrentPlayerIndex());
+		assertEquals(expected.isTurnOrderReversed(), actual.isTurnOrderReversed());
+		assertEquals(new ArrayList<>(expected.getDiscard()), new ArrayList<>(actual.getDiscard()));
+		assertEquals(new ArrayList<>(expected.getUnowned()), new ArrayList<>(actual.getUnowned()));
+		assertEquals(expected.getPlayers().size(), actual.getPlayers().size());
+		for (int i = 0; i < expected.getPlayers().size(); i++) {
+			assertEquals(expected.getSeat(expected.getPlayers().get(i)), actual.getSeat(actual.getPlayers().get(i)));
+			assertEquals(expected.getPlayers().get(i).getPile(), actual.getPlayers().get(i).getPile());
+		}
+	}
+
+	@Test
+	void testReplicasFollowGameThroughChangeLog() {
+		GameConfig config = GameConfig.builder().players(5).build();
+		SplittableRandom random = new SplittableRandom(24);
+		ActionBuffer legal = new ActionBuffer();
+		for (int round = 0; round < 20; round++) {
+			BusinessLogic game = new BusinessLogic(config.withSeed(random.nextLong()));
+			ChangeLog log = new ChangeLog(game, 16);
+			int[] every = {1, 3, 40};
+			Replica[] replicas = new Replica[every.length];
+			for (int r = 0; r < replicas.length; r++) {
+				replicas[r] = new Replica();
+				assertEquals(ChangeLog.FORMAT_SNAPSHOT, sync(log, replicas[r]));
+			}
+			int moves = 0;
+			while (game.generateLegalActions(legal) > 0) {
+				// Mostly real moves, with the odd forfeit
+				int action = random.nextInt(20) == 0 ? Action.FORFEIT : legal.get(random.nextInt(legal.size()));
+				assertTrue(game.apply(action));
+				assertEquals(++moves, game.getVersion());
+				for (int r = 0; r < replicas.length; r++) {
+					if (moves % every[r] == 0) {
+						byte format = sync(log, replicas[r]);
+						assertEquals(every[r] <= log.getCapacity() ? ChangeLog.FORMAT_CHANGES : ChangeLog.FORMAT_SNAPSHOT, format);
+						assertSameState(game.getState(), replicas[r].getState());
+					}
+				}
+			}
+			for (Replica replica : replicas) {
+				sync(log, replica);
+				assertSameState(game.getState(), replica.getState());
+			}
+		}
+	}
+
+	@Test
+	void testChangesScaleWithMovesNotTableSize() {
+		GameConfig config = GameConfig.builder().players(64).setsPerColor(Color.WHITE, 20).build();
+		BusinessLogic game = new BusinessLogic(config.withSeed(3));
+		ChangeLog log = new ChangeLog(game, 64);
+		long since = game.getVersion();
+		ActionBuffer legal = new ActionBuffer();
+		game.generateLegalActions(legal);
+		game.apply(legal.get(0));
+		assertTrue(log.encodedSize(since) < 32, "one move: " + log.encodedSize(since));
+		assertTrue(log.encodedSize(-1) > 10 * log.encodedSize(since));
+	}
+
+	@Test
+	void testChangeLogStopsFollowingGameOnceClosed() {
+		BusinessLogic game = new BusinessLogic(GameConfig.builder().seed(4).build());
+		long version;
+		try (ChangeLog log = new ChangeLog(game, 8)) {
+			game.apply(Action.DRAW);
+			version = log.getVersion();
+			assertEquals(game.getVersion(), version);
+			log.close();
+			game.apply(Action.DRAW);
+			assertEquals(version, log.getVersion());
+		}
+		assertEquals(version + 1, game.getVersion());
+	}
+
+	@Test
+	void testChangeLogFallsBackToSnapshotAfterReshuffleOrInvalidate() {
+		GameConfig config = GameConfig.builder().players(2).pileSize(35).reshuffleDiscards(true).build();
+		SplittableRandom random = new SplittableRandom(7);
+		ActionBuffer legal = new ActionBuffer();
+		boolean reshuffled = false;
+		for (int round = 0; round < 50 && !reshuffled; round++) {
+			BusinessLogic game = new BusinessLogic(config.withSeed(random.nextLong()));
+			ChangeLog log = new ChangeLog(game, 1024);
+			Replica replica = new Replica();
+			sync(log, replica);
+			while (game.generateLegalActions(legal) > 0 && game.getVersion() < 2000) {
+				boolean refill = game.getUnowned().isEmpty();
+				// Forfeit only when nothing else is left
+				assertTrue(game.apply(legal.get(random.nextInt(Math.max(1, legal.size() - 1)))));
+				byte format = sync(log, replica);
+				if (refill && !game.getUnowned().isEmpty()) {
+					reshuffled = true;
+					assertEquals(ChangeLog.FORMAT_SNAPSHOT, format);
+				} else {
+					assertEquals(ChangeLog.FORMAT_CHANGES, format);
+				}
+				assertSameState(game.getState(), replica.getState());
+			}
+		}
+		assertTrue(reshuffled, "no game reshuffled its discards");
+
+		BusinessLogic game = new BusinessLogic(GameConfig.builder().seed(9).build());
+		ChangeLog log = new ChangeLog(game, 8);
+		Replica replica = new Replica();
+		sync(log, replica);
+		game.getState().setTurnOrderReversed(true);
+		log.invalidate();
+		assertEquals(ChangeLog.FORMAT_SNAPSHOT, sync(log, replica));
+		assertSameState(game.getState(), replica.getState());
+		assertEquals(ChangeLog.FORMAT_CHANGES, sync(log, replica));
+
+		assertThrows(IllegalArgumentException.class,
+			() -> new ChangeLog(new BusinessLogic(GameConfig.builder().boundedDiscard(4).build()), 8));
+	}
+
+	// ==================== Unseen Pieces Tests ====================
+
+	/**
+	 * What player cannot locate, counted the slow way: the Unowned pile plus every other seated
+	 * pile, less the pieces known to be in it.
+	 */
+	private static int countUnseen(BusinessLogic game, int[][] known, Player player, int code) {
+		int unseen = 0;
+		for (ChessPiece piece : game.getUnowned()) {
+			if (piece.getCode() == code) {
+				unseen++;
+			}
+		}
+		for (Player other : game.getPlayers()) {
+			if (other != player) {
+				unseen += other.getPile().count(code) - known[game.getSeat(other)][code];
+			}
+		}
+		return unseen;
+	}
+
+	@Test
+	void testUnseenPiecesFollowRandomGames() {
+		SplittableRandom random = new SplittableRandom(11);
+		ActionBuffer legal = new ActionBuffer();
+		int reveals = 0;
+		for (int round = 0; round < 30; round++) {
+			BusinessLogic game = new BusinessLogic(GameConfig.builder().players(3).seed(random.nextLong()).build());
+			int[][] known = new int[3][ChessPiece.CODES];
+			game.addActionListener((player, seat, action, code) -> {
+				if (action == Action.MONOPOLY_DRAW) {
+					known[seat][code]++;
+				} else if (Action.kind(action) == Action.KIND_DISCARD && known[seat][code] > 0) {
+					known[seat][code]--;
+				}
+			});
+			while (game.generateLegalActions(legal) > 0) {
+				int action = legal.get(random.nextInt(Math.max(1, legal.size() - 1)));
+				if (legal.size() > 1 && legal.get(legal.size() - 2) == Action.MONOPOLY_DRAW && random.nextBoolean()) {
+					action = Action.MONOPOLY_DRAW;
+					reveals++;
+				}
+				assertTrue(game.apply(action));
+
+				State copy = game.getState().copy();
+				for (Player player : game.getPlayers()) {
+					Player copied = copy.getPlayers().get(game.getPlayers().indexOf(player));
+					int total = 0;
+					for (int code = 0; code < ChessPiece.CODES; code++) {
+						int unseen = countUnseen(game, known, player, code);
+						assertEquals(unseen, game.getState().getUnseenPieces().getUnseen(player, code));
+						assertEquals(unseen, copy.getUnseenPieces().getUnseen(copied, code));
+						assertEquals(game.getUnowned().count(code), game.getState().getUnseenPieces().getUnowned(code));
+						total += unseen;
+					}
+					assertEquals(total, game.getState().getUnseenPieces().getUnseenTotal(player));
+				}
+			}
+		}
+		assertTrue(reveals > 0, "no monopoly pawn was drawn");
+	}
+
+	@Test
+	void testDrawOddsComeFromUnseenCounts() {
+		BusinessLogic game = new BusinessLogic(GameConfig.builder().seed(5).build());
+		long mask = game.getDiscardRules().playableMask(game.getDiscard().top().getCode());
+		int playable = 0;
+		for (ChessPiece piece : game.getUnowned()) {
+			if ((mask >>> piece.getCode() & 1) != 0) {
+				playable++;
+			}
+		}
+		int left = game.getUnowned().size();
+		assertEquals((double) playable / left, game.getPlayableDrawChance(null), 1e-12);
+		assertEquals((left + 1.0) / (playable + 1), game.getExpectedDrawsUntilPlayable(null), 1e-12);
+
+		// A player also counts the other piles as places the next piece might come from
+		Player player = game.getCurrentPlayer();
+		int unseen = 0;
+		int unseenPlayable = 0;
+		for (Player other : game.getPlayers()) {
+			if (other != player) {
+				unseen += other.getPile().size();
+				for (int code = 0; code < ChessPiece.CODES; code++) {
+					unseenPlayable += (mask >>> code & 1) != 0 ? other.getPile().count(code) : 0;
+				}
+			}
+		}
+		assertEquals((double) (playable + unseenPlayable) / (left + unseen), game.getPlayableDrawChance(player), 1e-12);
+
+		// Nothing playable: certain failure, never a match
+		assertEquals(0.0, game.getState().getUnseenPieces().getChance(0L));
+		assertEquals(Double.POSITIVE_INFINITY, game.getState().getUnseenPieces().getExpectedDraws(player, 0L));
+		while (game.getUnowned().drawFirst() != null) {
+			// empty the pile
+		}
+		assertEquals(0.0, game.getPlayableDrawChance(null));
+		assertEquals(Double.POSITIVE_INFINITY, game.getExpectedDrawsUntilPlayable(null));
+	}
 }
  
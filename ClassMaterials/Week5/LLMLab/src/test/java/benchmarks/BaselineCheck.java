@@ -0,0 +1,135 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH CSV result file against a stored baseline and fails (exit code 1) when any
+ * benchmark is more than the allowed percentage slower. Run by the "benchmark" Maven profile.
+ *
+ * Usage: BaselineCheck result.csv baseline.csv maxRegressionPercent [update]
+ *
+ * Rows are matched by benchmark name, mode and parameters. For throughput a lower score is
+ * slower; for every time-based mode a higher score is. Secondary results (e.g. the GC
+ * profiler's ":gc.alloc.rate" rows) are reported but never fail the check. With "update", or
+ * when no baseline exists yet, the result is copied over the baseline instead.
+ */
+public class BaselineCheck {
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3) {
+			System.err.println("Usage: BaselineCheck result.csv baseline.csv maxRegressionPercent [update]");
+			System.exit(2);
+		}
+		Path result = Paths.get(args[0]);
+		Path baseline = Paths.get(args[1]);
+		double maxRegression = Double.parseDouble(args[2]);
+		boolean update = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+		if (update || !Files.exists(baseline)) {
+			Files.createDirectories(baseline.toAbsolutePath().getParent());
+			Files.copy(result, baseline, StandardCopyOption.REPLACE_EXISTING);
+			System.out.println("Recorded new benchmark baseline " + baseline);
+			return;
+		}
+
+		List<String> failures = compare(read(baseline), read(result), maxRegression);
+		if (!failures.isEmpty()) {
+			System.err.println("Benchmarks slower than the baseline by more than " + maxRegression + "%:");
+			failures.forEach(failure -> System.err.println("  " + failure));
+			System.exit(1);
+		}
+		System.out.println("All benchmarks within " + maxRegression + "% of the baseline");
+	}
+
+	/**
+	 * Returns one message per primary benchmark that regressed by more than maxRegression percent.
+	 */
+	static List<String> compare(Map<String, Row> baseline, Map<String, Row> current, double maxRegression) {
+		List<String> failures = new ArrayList<>();
+		for (Row row : current.values()) {
+			Row before = baseline.get(row.key);
+			if (before == null || before.score == 0) {
+				continue;
+			}
+			double change = 100.0 * (row.score - before.score) / before.score;
+			double slower = row.mode.equals("thrpt") ? -change : change;
+			boolean secondary = row.key.contains(":");
+			System.out.printf("%-70s %12.3f -> %12.3f %s (%+.1f%%)%n", row.key, before.score, row.score, row.unit, change);
+			if (!secondary && slower > maxRegression) {
+				failures.add(String.format("%s: %.3f -> %.3f %s (%.1f%% slower)", row.key, before.score, row.score, row.unit, slower));
+			}
+		}
+		return failures;
+	}
+
+	static Map<String, Row> read(Path csv) throws IOException {
+		List<String> lines = Files.readAllLines(csv);
+		Map<String, Row> rows = new LinkedHashMap<>();
+		if (lines.isEmpty()) {
+			return rows;
+		}
+		List<String> header = split(lines.get(0));
+		int name = header.indexOf("Benchmark");
+		int mode = header.indexOf("Mode");
+		int score = header.indexOf("Score");
+		int unit = header.indexOf("Unit");
+		for (String line : lines.subList(1, lines.size())) {
+			if (line.isBlank()) {
+				continue;
+			}
+			List<String> cells = split(line);
+			StringBuilder key = new StringBuilder(cells.get(name)).append(' ').append(cells.get(mode));
+			for (int i = 0; i < header.size(); i++) {
+				if (header.get(i).startsWith("Param: ") && i < cells.size() && !cells.get(i).isEmpty()) {
+					key.append(' ').append(header.get(i).substring(7)).append('=').append(cells.get(i));
+				}
+			}
+			Row row = new Row(key.toString(), cells.get(mode), Double.parseDouble(cells.get(score)), cells.get(unit));
+			rows.put(row.key, row);
+		}
+		return rows;
+	}
+
+	/**
+	 * Splits one CSV line, honouring double-quoted cells.
+	 */
+	static List<String> split(String line) {
+		List<String> cells = new ArrayList<>();
+		StringBuilder cell = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c == '"') {
+				quoted = !quoted;
+			} else if (c == ',' && !quoted) {
+				cells.add(cell.toString());
+				cell.setLength(0);
+			} else {
+				cell.append(c);
+			}
+		}
+		cells.add(cell.toString());
+		return cells;
+	}
+
+	static final class Row {
+		final String key;
+		final String mode;
+		final double score;
+		final String unit;
+
+		Row(String key, String mode, double score, String unit) {
+			this.key = key;
+			this.mode = mode;
+			this.score = score;
+			this.unit = unit;
+		}
+	}
+}
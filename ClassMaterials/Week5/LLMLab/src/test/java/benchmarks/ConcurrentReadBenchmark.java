@@ -0,0 +1,85 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import AIGeneratedCode.ActionBuffer;
+import AIGeneratedCode.BusinessLogic;
+import AIGeneratedCode.ConcurrentBusinessLogic;
+import AIGeneratedCode.GameConfig;
+import AIGeneratedCode.StateSnapshot;
+
+/**
+ * One writer playing moves on a ConcurrentBusinessLogic while spectator threads poll snapshots.
+ * Compare the writer's score in "spectated" against "alone" to see what the readers cost it.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentReadBenchmark {
+	private ConcurrentBusinessLogic game;
+	private final ActionBuffer actions = new ActionBuffer();
+	private final SplittableRandom random = new SplittableRandom(1);
+
+	/**
+	 * A fresh game per iteration, in case the last one ended.
+	 */
+	@Setup(Level.Iteration)
+	public void setUp() {
+		game = new ConcurrentBusinessLogic(newGame());
+	}
+
+	private static BusinessLogic newGame() {
+		// Large piles and reshuffling keep the game going for the whole run
+		return new BusinessLogic(GameConfig.builder().setsPerColor(AIGeneratedCode.Color.WHITE, 100)
+			.pileSize(300).reshuffleDiscards(true).build());
+	}
+
+	private boolean move() {
+		return game.write(logic -> {
+			int n = logic.generateLegalActions(actions);
+			if (n == 0) {
+				return false;
+			}
+			return logic.apply(actions.get(n == 1 ? 0 : random.nextInt(n - 1)));
+		});
+	}
+
+	@Benchmark
+	@Group("alone")
+	@GroupThreads(1)
+	public boolean writerAlone() {
+		return move();
+	}
+
+	@Benchmark
+	@Group("spectated")
+	@GroupThreads(1)
+	public boolean writer() {
+		return move();
+	}
+
+	@Benchmark
+	@Group("spectated")
+	@GroupThreads(7)
+	public StateSnapshot spectator() {
+		return game.snapshot();
+	}
+}
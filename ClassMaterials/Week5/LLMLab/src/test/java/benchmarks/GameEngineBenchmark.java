@@ -0,0 +1,116 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import AIGeneratedCode.ActionBuffer;
+import AIGeneratedCode.BusinessLogic;
+import AIGeneratedCode.ChessPiece;
+import AIGeneratedCode.Color;
+import AIGeneratedCode.PieceType;
+import AIGeneratedCode.Pile;
+import AIGeneratedCode.Player;
+
+/**
+ * Cost of the core BusinessLogic operations. pileSize is the current player's pile size, filled
+ * with extra white pieces so monopoly and discard checks run against larger piles.
+ *
+ * discard and draw undo themselves after each call so every invocation sees the same position;
+ * the undo is a handful of O(1) list operations and is included in the score.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameEngineBenchmark {
+	@Param({"5", "20", "80", "320"})
+	public int pileSize;
+
+	private BusinessLogic game;
+	private Player current;
+	private ChessPiece matching;
+	private ChessPiece rainbow;
+	private final ActionBuffer actions = new ActionBuffer();
+	private long playoutSeed = 0;
+
+	@Setup
+	public void setUp() {
+		game = new BusinessLogic();
+		current = game.getCurrentPlayer();
+		Pile pile = current.getPile();
+		for (int i = pile.size(); i < pileSize; i++) {
+			pile.add(ChessPiece.of(ChessPiece.codeOf(Color.WHITE, PieceType.values()[i % PieceType.values().length])));
+		}
+		rainbow = new ChessPiece(Color.RAINBOW, PieceType.PAWN);
+		ChessPiece top = game.getDiscard().get(game.getDiscard().size() - 1);
+		matching = new ChessPiece(top.getColor(), top.getType());
+		pile.add(matching);
+	}
+
+	@Benchmark
+	public BusinessLogic newGame() {
+		return new BusinessLogic();
+	}
+
+	@Benchmark
+	public boolean canDiscard() {
+		return game.canDiscard(matching) & game.canDiscard(rainbow);
+	}
+
+	@Benchmark
+	public boolean discard() {
+		int index = game.getState().getCurrentPlayerIndex();
+		boolean discarded = game.discard(matching);
+		current.getPile().add(game.getDiscard().remove(game.getDiscard().size() - 1));
+		game.getState().setCurrentPlayerIndex(index);
+		return discarded;
+	}
+
+	@Benchmark
+	public boolean draw() {
+		int index = game.getState().getCurrentPlayerIndex();
+		int code = game.getUnowned().get(0).getCode();
+		boolean drawn = game.draw();
+		// Return the drawn piece to the back of the deck, so the deck cycles
+		current.getPile().removeCode(code);
+		game.getUnowned().add(ChessPiece.of(code));
+		game.getState().setCurrentPlayerIndex(index);
+		return drawn;
+	}
+
+	@Benchmark
+	public Color getMonopolyColor() {
+		return game.getMonopolyColor(current);
+	}
+
+	/**
+	 * One random game from a fresh shuffled deal to the end (or 10,000 moves).
+	 */
+	@Benchmark
+	public int randomPlayout() {
+		BusinessLogic playout = new BusinessLogic();
+		SplittableRandom random = new SplittableRandom(playoutSeed++);
+		playout.getUnowned().shuffle(random);
+		int moves = 0;
+		while (!playout.isGameOver() && moves < 10_000) {
+			int n = playout.generateLegalActions(actions);
+			playout.apply(actions.get(n == 1 ? 0 : random.nextInt(n - 1)));
+			moves++;
+		}
+		return moves;
+	}
+}
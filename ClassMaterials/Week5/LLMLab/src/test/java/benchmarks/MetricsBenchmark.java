@@ -0,0 +1,73 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import AIGeneratedCode.BusinessLogic;
+import AIGeneratedCode.ChessPiece;
+import AIGeneratedCode.Player;
+import metrics.GameMetrics;
+
+/**
+ * Overhead of GameMetrics on a discard and a draw (each undone as in GameEngineBenchmark).
+ * Compare "sampled" (the default interval) and "every" (every call timed) against "off".
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+	@Param({"off", "sampled", "every"})
+	public String metrics;
+
+	private BusinessLogic game;
+	private Player current;
+	private ChessPiece matching;
+
+	@Setup
+	public void setUp() {
+		game = new BusinessLogic();
+		if (metrics.equals("sampled")) {
+			game.setMetrics(new GameMetrics());
+		} else if (metrics.equals("every")) {
+			game.setMetrics(new GameMetrics(1));
+		}
+		current = game.getCurrentPlayer();
+		ChessPiece top = game.getDiscard().top();
+		matching = new ChessPiece(top.getColor(), top.getType());
+		current.getPile().add(matching);
+	}
+
+	@Benchmark
+	public boolean discard() {
+		int index = game.getState().getCurrentPlayerIndex();
+		boolean discarded = game.discard(matching);
+		current.getPile().add(game.getDiscard().remove(game.getDiscard().size() - 1));
+		game.getState().setCurrentPlayerIndex(index);
+		return discarded;
+	}
+
+	@Benchmark
+	public boolean draw() {
+		int index = game.getState().getCurrentPlayerIndex();
+		int code = game.getUnowned().get(0).getCode();
+		boolean drawn = game.draw();
+		current.getPile().removeCode(code);
+		game.getUnowned().add(ChessPiece.of(code));
+		game.getState().setCurrentPlayerIndex(index);
+		return drawn;
+	}
+}
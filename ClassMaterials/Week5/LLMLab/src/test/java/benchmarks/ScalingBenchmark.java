@@ -0,0 +1,129 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import AIGeneratedCode.ActionBuffer;
+import AIGeneratedCode.BusinessLogic;
+import AIGeneratedCode.ChessPiece;
+import AIGeneratedCode.Color;
+import AIGeneratedCode.GameConfig;
+import AIGeneratedCode.Player;
+
+/**
+ * Setup and per-turn cost of GameConfig deals from 4 to 512 players. Dealing should grow with
+ * the number of pieces; the per-turn operations should cost the same at every player count.
+ *
+ * Random games with many players are short (rainbow reversals bounce play between neighbours),
+ * so playout deals its game in an invocation-level setup, outside the measured time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalingBenchmark {
+	@Param({"4", "16", "64", "128", "256", "512"})
+	public int players;
+
+	private GameConfig config;
+	private BusinessLogic game;
+	private BusinessLogic playout;
+	private final ActionBuffer actions = new ActionBuffer();
+	private final SplittableRandom random = new SplittableRandom(1);
+	private long seed = 0;
+
+	@Setup
+	public void setUp() {
+		config = configFor(seed++);
+		game = new BusinessLogic(config);
+	}
+
+	@Setup(Level.Invocation)
+	public void newPlayout() {
+		playout = new BusinessLogic(configFor(seed++));
+	}
+
+	@Benchmark
+	public BusinessLogic deal() {
+		return new BusinessLogic(config);
+	}
+
+	@Benchmark
+	public int legalActions() {
+		return game.generateLegalActions(actions);
+	}
+
+	/**
+	 * A draw, with the piece returned to the back of the deck and the turn handed back.
+	 */
+	@Benchmark
+	public boolean draw() {
+		Player current = game.getCurrentPlayer();
+		int index = game.getState().getCurrentPlayerIndex();
+		int code = game.getUnowned().get(0).getCode();
+		boolean drawn = game.draw();
+		current.getPile().removeCode(code);
+		game.getUnowned().add(ChessPiece.of(code));
+		game.getState().setCurrentPlayerIndex(index);
+		return drawn;
+	}
+
+	/**
+	 * A forfeit, with the player rejoining in the same seat at the back of the rotation.
+	 */
+	@Benchmark
+	public Player forfeit() {
+		Player current = game.getCurrentPlayer();
+		int seat = game.getSeat(current);
+		game.forfeit();
+		game.getState().addPlayer(current, seat);
+		return game.getCurrentPlayer();
+	}
+
+	@Benchmark
+	public Color monopolyColor() {
+		return game.getMonopolyColor(game.getCurrentPlayer());
+	}
+
+	/**
+	 * One random game without voluntary forfeits, from the deal to the end.
+	 */
+	@Benchmark
+	public int playout() {
+		int turns = 0;
+		while (!playout.isGameOver()) {
+			int n = playout.generateLegalActions(actions);
+			playout.apply(actions.get(n == 1 ? 0 : random.nextInt(n - 1)));
+			turns++;
+		}
+		return turns;
+	}
+
+	/**
+	 * Enough sets that about half of all pieces start in the Unowned pile.
+	 */
+	private GameConfig configFor(long gameSeed) {
+		int sets = Math.max(1, (players * 5 * 2 + GameConfig.SET_SIZE - 1) / GameConfig.SET_SIZE);
+		return GameConfig.builder()
+			.players(players)
+			.setsPerColor(Color.WHITE, sets)
+			.setsPerColor(Color.RAINBOW, Math.max(1, sets / 4))
+			.seed(gameSeed)
+			.build();
+	}
+}
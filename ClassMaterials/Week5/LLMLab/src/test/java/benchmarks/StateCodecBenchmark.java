@@ -0,0 +1,74 @@
+package benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import AIGeneratedCode.BusinessLogic;
+import codec.StateCodec;
+
+/**
+ * Encode and decode throughput of StateCodec, full snapshots and one-move deltas.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateCodecBenchmark {
+	private AIGeneratedCode.State state;
+	private AIGeneratedCode.State afterMove;
+	private ByteBuffer buffer;
+	private ByteBuffer encoded;
+	private ByteBuffer delta;
+
+	@Setup
+	public void setUp() {
+		BusinessLogic game = new BusinessLogic();
+		game.getUnowned().shuffle(new SplittableRandom(1));
+		state = game.getState().copy();
+		game.draw();
+		afterMove = game.getState();
+		buffer = ByteBuffer.allocateDirect(StateCodec.maxDeltaSize(state, afterMove) + StateCodec.encodedSize(state));
+
+		encoded = ByteBuffer.allocateDirect(StateCodec.encodedSize(state));
+		StateCodec.write(state, encoded);
+		encoded.flip();
+
+		delta = ByteBuffer.allocateDirect(StateCodec.maxDeltaSize(state, afterMove));
+		StateCodec.writeDelta(state, afterMove, delta);
+		delta.flip();
+	}
+
+	@Benchmark
+	public int encodeFull() {
+		buffer.clear();
+		StateCodec.write(state, buffer);
+		return buffer.position();
+	}
+
+	@Benchmark
+	public AIGeneratedCode.State decodeFull() {
+		encoded.rewind();
+		return StateCodec.read(encoded);
+	}
+
+	@Benchmark
+	public int encodeDelta() {
+		buffer.clear();
+		StateCodec.writeDelta(state, afterMove, buffer);
+		return buffer.position();
+	}
+}